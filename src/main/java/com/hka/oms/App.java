@@ -1,5 +1,10 @@
 package com.hka.oms;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -12,6 +17,9 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hka.oms.cache.InvalidationBus;
+import com.hka.oms.messaging.MessagingConfig;
+import com.hka.oms.messaging.RetryTopology;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan(basePackages = "com.hka.oms")
@@ -19,12 +27,28 @@ public class App {
   
     @Bean
     public Queue ordersQueue() {
-        return new Queue("orders.queue", true);
+        return MessagingConfig.sourceQueue(RetryTopology.ORDERS_QUEUE);
     }
 
     @Bean
     public Queue statusQueue() {
-        return new Queue("status.queue", true);
+        return MessagingConfig.sourceQueue(RetryTopology.STATUS_QUEUE);
+    }
+
+    @Bean
+    public FanoutExchange invalidationExchange() {
+        return new FanoutExchange(InvalidationBus.EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue invalidationQueue() {
+        // one exclusive, auto-deleted queue per replica
+        return new AnonymousQueue(new Base64UrlNamingStrategy("oms.invalidation."));
+    }
+
+    @Bean
+    public Binding invalidationBinding(Queue invalidationQueue, FanoutExchange invalidationExchange) {
+        return BindingBuilder.bind(invalidationQueue).to(invalidationExchange);
     }
 
     @Bean
@@ -0,0 +1,37 @@
+package com.hka.oms.admin;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Requires {@code admin.token} on every operator request. Recordings,
+ * slow-order traces and file imports expose internals or server files, so
+ * these endpoints stay closed until a token is configured.
+ */
+@Component
+public class AdminAuthInterceptor implements HandlerInterceptor {
+
+  public static final String TOKEN_HEADER = "X-OMS-Admin-Token";
+
+  private final byte[] token;
+
+  public AdminAuthInterceptor(AdminProperties properties) {
+    this.token = properties.token() == null ? null : properties.token().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    String presented = request.getHeader(TOKEN_HEADER);
+    if (token == null || presented == null
+        || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+      throw new AdminException(HttpStatus.FORBIDDEN, "admin endpoints require a valid " + TOKEN_HEADER);
+    }
+    return true;
+  }
+}
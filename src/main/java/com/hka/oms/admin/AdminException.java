@@ -0,0 +1,16 @@
+package com.hka.oms.admin;
+
+import org.springframework.http.HttpStatus;
+
+public class AdminException extends RuntimeException {
+  private final HttpStatus status;
+
+  public AdminException(HttpStatus status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,16 @@
+package com.hka.oms.admin;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code token} guards the operator endpoints ({@code /admin/**} and
+ * {@code /imports/**}); while it is unset they refuse every request.
+ */
+@ConfigurationProperties(prefix = "admin")
+public record AdminProperties(String token) {
+  public AdminProperties {
+    if (token != null && token.isBlank()) {
+      token = null;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.hka.oms.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.hka.oms.intake.OrderIntake;
+
+/**
+ * Sheds order creation once the adaptive limit is reached. Reads never pass
+ * through the limiter: they are served from memory, and capping write
+ * concurrency is what keeps Tomcat threads free for them. Neither do
+ * {@code Prefer: respond-async} submissions: they return as soon as the
+ * intake queued them, the intake's bounded ring sheds them when full, and
+ * their sub-millisecond latencies would only skew the gradient.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+  private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".admitted";
+
+  private final GradientLimiter limiter;
+  private final OrderIntake intake;
+  private final Counter rejected;
+
+  public AdmissionInterceptor(AdmissionProperties properties, OrderIntake intake, MeterRegistry registry) {
+    this.intake = intake;
+    this.limiter = new GradientLimiter(properties.initialLimit(), properties.minLimit(), properties.maxLimit(),
+        properties.tolerance(), properties.smoothing(), properties.backoffRatio());
+    Gauge.builder("orders.admission.limit", limiter, GradientLimiter::limit)
+        .description("Current adaptive concurrency limit for order creation")
+        .register(registry);
+    Gauge.builder("orders.admission.inflight", limiter, GradientLimiter::inflight)
+        .register(registry);
+    this.rejected = registry.counter("orders.admission.rejected");
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!HttpMethod.POST.matches(request.getMethod()) || intake.isAsync(request.getHeader("Prefer"))) {
+      return true;
+    }
+    int inflight = limiter.tryAcquire();
+    if (inflight < 0) {
+      rejected.increment();
+      throw new OverloadedException(HttpStatus.SERVICE_UNAVAILABLE,
+          "order intake is at its concurrency limit (" + limiter.limit() + "), retry later");
+    }
+    request.setAttribute(ADMITTED, new long[] { System.nanoTime(), inflight });
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                              Exception ex) {
+    if (!(request.getAttribute(ADMITTED) instanceof long[] admitted)) {
+      return;
+    }
+    request.removeAttribute(ADMITTED);
+    boolean dropped = ex != null || response.getStatus() >= 500;
+    limiter.release(System.nanoTime() - admitted[0], (int) admitted[1], dropped);
+  }
+}
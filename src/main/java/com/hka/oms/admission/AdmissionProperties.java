@@ -0,0 +1,28 @@
+package com.hka.oms.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "orders.admission")
+public record AdmissionProperties(int initialLimit, int minLimit, int maxLimit,
+                                  double tolerance, double smoothing, double backoffRatio) {
+  public AdmissionProperties {
+    if (minLimit <= 0) {
+      minLimit = 2;
+    }
+    if (maxLimit < minLimit) {
+      maxLimit = Math.max(minLimit, 200);
+    }
+    if (initialLimit < minLimit || initialLimit > maxLimit) {
+      initialLimit = Math.min(maxLimit, Math.max(minLimit, 20));
+    }
+    if (tolerance < 1) {
+      tolerance = 1.5;
+    }
+    if (smoothing <= 0 || smoothing > 1) {
+      smoothing = 0.2;
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      backoffRatio = 0.9;
+    }
+  }
+}
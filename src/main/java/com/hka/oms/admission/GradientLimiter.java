@@ -0,0 +1,93 @@
+package com.hka.oms.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the ratio between the long-term and the
+ * recent round-trip time: while latency stays near its baseline the limit
+ * grows by roughly sqrt(limit) per sample, once requests start queueing
+ * downstream the gradient drops below one and the limit shrinks. Failed
+ * calls (timeouts, 5xx) back the limit off multiplicatively.
+ */
+public final class GradientLimiter {
+
+  private static final double LONG_RTT_ALPHA = 2.0 / 601;
+  private static final double SHORT_RTT_ALPHA = 0.2;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double smoothing;
+  private final double backoffRatio;
+  private final AtomicInteger inflight = new AtomicInteger();
+
+  private volatile int limit;
+  private double estimate;
+  private double longRtt;
+  private double shortRtt;
+
+  public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                         double backoffRatio) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.smoothing = smoothing;
+    this.backoffRatio = backoffRatio;
+    this.estimate = initialLimit;
+    this.limit = initialLimit;
+  }
+
+  /** Returns the in-flight count at admission, or -1 if the request must be shed. */
+  public int tryAcquire() {
+    while (true) {
+      int current = inflight.get();
+      if (current >= limit) {
+        return -1;
+      }
+      if (inflight.compareAndSet(current, current + 1)) {
+        return current + 1;
+      }
+    }
+  }
+
+  public void release(long rttNanos, int inflightAtStart, boolean dropped) {
+    inflight.decrementAndGet();
+    update(rttNanos, inflightAtStart, dropped);
+  }
+
+  public int limit() {
+    return limit;
+  }
+
+  public int inflight() {
+    return inflight.get();
+  }
+
+  private synchronized void update(long rttNanos, int inflightAtStart, boolean dropped) {
+    if (dropped) {
+      setEstimate(estimate * backoffRatio);
+      return;
+    }
+    if (rttNanos <= 0) {
+      return;
+    }
+    shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) * SHORT_RTT_ALPHA;
+    longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) * LONG_RTT_ALPHA;
+    if (longRtt > 2 * shortRtt) {
+      // latency improved for good, let the baseline catch up instead of growing unbounded
+      longRtt *= 0.95;
+    }
+    if (inflightAtStart < estimate / 2) {
+      // not saturated, the sample says nothing about the limit
+      return;
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+    double next = estimate * gradient + Math.sqrt(estimate);
+    setEstimate(estimate * (1 - smoothing) + next * smoothing);
+  }
+
+  private void setEstimate(double value) {
+    estimate = Math.max(minLimit, Math.min(maxLimit, value));
+    limit = (int) estimate;
+  }
+}
@@ -0,0 +1,16 @@
+package com.hka.oms.admission;
+
+import org.springframework.http.HttpStatus;
+
+public class OverloadedException extends RuntimeException {
+  private final HttpStatus status;
+
+  public OverloadedException(HttpStatus status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,58 @@
+package com.hka.oms.analytics;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hka.oms.domain.OrderStatus;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+  private final OrderAnalytics analytics;
+  private final HotSkuTracker hotSkus;
+
+  public AnalyticsController(OrderAnalytics analytics, HotSkuTracker hotSkus) {
+    this.analytics = analytics;
+    this.hotSkus = hotSkus;
+  }
+
+  @GetMapping
+  public Map<String, Object> summary() {
+    return Map.of(
+        "total", analytics.total(),
+        "byStatus", analytics.byStatus(),
+        "byCountry", analytics.byCountry());
+  }
+
+  @GetMapping("/status")
+  public Map<OrderStatus, Totals> byStatus() {
+    return analytics.byStatus();
+  }
+
+  @GetMapping("/countries")
+  public Map<String, Totals> byCountry() {
+    return analytics.byCountry();
+  }
+
+  @GetMapping("/customers/{customerId}")
+  public Totals byCustomer(@PathVariable String customerId) {
+    return analytics.byCustomer(customerId);
+  }
+
+  @GetMapping("/minutes")
+  public List<MinuteTotals> minutes(@RequestParam(defaultValue = "60") int last) {
+    return analytics.lastMinutes(last);
+  }
+
+  @GetMapping("/hot-skus")
+  public List<HotSku> hotSkus() {
+    return hotSkus.top();
+  }
+}
@@ -0,0 +1,92 @@
+package com.hka.oms.analytics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size frequency sketch. Estimates never undercount; the error is
+ * bounded by total / width with probability 1 - 2^-depth. Each row hashes the
+ * UTF-8 bytes of the key with murmur3 under its own seed, so keys that
+ * collide in one row are unlikely to collide in the others.
+ */
+public final class CountMinSketch {
+
+  private static final int SEED = 0x9747b28c;
+
+  private final int depth;
+  private final int mask;
+  private final AtomicLongArray counts;
+
+  public CountMinSketch(int depth, int width) {
+    if (depth <= 0 || width <= 0 || Integer.bitCount(width) != 1) {
+      throw new IllegalArgumentException("depth must be positive and width a power of two");
+    }
+    this.depth = depth;
+    this.mask = width - 1;
+    this.counts = new AtomicLongArray(depth * width);
+  }
+
+  public void add(String key, long count) {
+    byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+    for (int row = 0; row < depth; row++) {
+      counts.addAndGet(index(row, bytes), count);
+    }
+  }
+
+  public long estimate(String key) {
+    byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+    long min = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      min = Math.min(min, counts.get(index(row, bytes)));
+    }
+    return min;
+  }
+
+  public void clear() {
+    for (int i = 0; i < counts.length(); i++) {
+      counts.set(i, 0);
+    }
+  }
+
+  private int index(int row, byte[] key) {
+    return row * (mask + 1) + (murmur3(key, SEED * (row + 1)) & mask);
+  }
+
+  /** MurmurHash3 x86 32-bit. */
+  static int murmur3(byte[] data, int seed) {
+    int h = seed;
+    int blocks = data.length >>> 2;
+    for (int i = 0; i < blocks; i++) {
+      int offset = i << 2;
+      int k = (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8
+          | (data[offset + 2] & 0xff) << 16 | (data[offset + 3] & 0xff) << 24;
+      h ^= mixK(k);
+      h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+    }
+    int tail = blocks << 2;
+    int k = 0;
+    switch (data.length & 3) {
+      case 3:
+        k ^= (data[tail + 2] & 0xff) << 16;
+      case 2:
+        k ^= (data[tail + 1] & 0xff) << 8;
+      case 1:
+        k ^= data[tail] & 0xff;
+        h ^= mixK(k);
+      default:
+    }
+    h ^= data.length;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  private static int mixK(int k) {
+    k *= 0xcc9e2d51;
+    k = Integer.rotateLeft(k, 15);
+    return k * 0x1b873593;
+  }
+}
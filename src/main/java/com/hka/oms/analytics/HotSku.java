@@ -0,0 +1,4 @@
+package com.hka.oms.analytics;
+
+public record HotSku(String productId, long units) {
+}
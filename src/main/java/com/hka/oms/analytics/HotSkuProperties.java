@@ -0,0 +1,26 @@
+package com.hka.oms.analytics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "orders.hot-skus")
+public record HotSkuProperties(int topK, int depth, int width, Duration window, int slices) {
+  public HotSkuProperties {
+    if (topK <= 0) {
+      topK = 20;
+    }
+    if (depth <= 0) {
+      depth = 4;
+    }
+    if (width <= 0) {
+      width = 2048;
+    }
+    if (window == null || window.isNegative() || window.isZero()) {
+      window = Duration.ofMinutes(5);
+    }
+    if (slices <= 0) {
+      slices = 10;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.hka.oms.analytics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.domain.OrderItem;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Units ordered per product over a sliding window, approximated with one
+ * count-min sketch per window slice. The oldest slice is cleared on every
+ * tick. A product enters the top-K candidates only when its estimate beats
+ * the current minimum; products already listed are re-estimated on the tick,
+ * so recording a known hot product takes no lock.
+ */
+@Component
+public class HotSkuTracker {
+
+  private final HotSkuProperties properties;
+  private final CountMinSketch[] slices;
+  private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+  private final MultiGauge gauge;
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "hot-sku-window");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private volatile int current;
+  private volatile long admissionThreshold;
+
+  public HotSkuTracker(HotSkuProperties properties, MeterRegistry registry) {
+    this.properties = properties;
+    this.slices = new CountMinSketch[properties.slices()];
+    for (int i = 0; i < slices.length; i++) {
+      slices[i] = new CountMinSketch(properties.depth(), Integer.highestOneBit(properties.width()));
+    }
+    this.gauge = MultiGauge.builder("orders.sku.hot")
+        .description("Estimated units ordered in the sliding window for the current top products")
+        .baseUnit("units")
+        .register(registry);
+  }
+
+  @PostConstruct
+  void start() {
+    long tick = Math.max(1, properties.window().toMillis() / properties.slices());
+    ticker.scheduleAtFixedRate(this::rotate, tick, tick, TimeUnit.MILLISECONDS);
+  }
+
+  public void record(List<OrderItem> items) {
+    CountMinSketch slice = slices[current];
+    for (OrderItem item : items) {
+      slice.add(item.getProductId(), item.getQuantity());
+      if (candidates.containsKey(item.getProductId())) {
+        continue;
+      }
+      long estimate = estimate(item.getProductId());
+      if (estimate > admissionThreshold) {
+        admit(item.getProductId(), estimate);
+      }
+    }
+  }
+
+  public long estimate(String productId) {
+    long sum = 0;
+    for (CountMinSketch slice : slices) {
+      sum += slice.estimate(productId);
+    }
+    return sum;
+  }
+
+  public List<HotSku> top() {
+    return candidates.keySet().stream()
+        .map(productId -> new HotSku(productId, estimate(productId)))
+        .filter(sku -> sku.units() > 0)
+        .sorted(Comparator.comparingLong(HotSku::units).reversed())
+        .toList();
+  }
+
+  private void admit(String productId, long estimate) {
+    synchronized (candidates) {
+      if (candidates.putIfAbsent(productId, estimate) != null) {
+        return;
+      }
+      if (candidates.size() > properties.topK()) {
+        // listed products are not re-estimated while recording; catch up before picking the weakest
+        candidates.replaceAll((id, units) -> estimate(id));
+        candidates.entrySet().stream()
+            .min(Map.Entry.comparingByValue())
+            .ifPresent(min -> candidates.remove(min.getKey()));
+      }
+      updateThreshold();
+    }
+  }
+
+  /** Moves the window by one slice and re-estimates the candidates; runs on the window tick. */
+  public void rotate() {
+    int next = (current + 1) % slices.length;
+    slices[next].clear();
+    current = next;
+    synchronized (candidates) {
+      candidates.replaceAll((productId, units) -> estimate(productId));
+      candidates.values().removeIf(units -> units == 0);
+      updateThreshold();
+    }
+    List<MultiGauge.Row<?>> rows = top().stream()
+        .<MultiGauge.Row<?>>map(sku -> MultiGauge.Row.of(Tags.of("productId", sku.productId()), sku.units()))
+        .toList();
+    gauge.register(rows, true);
+  }
+
+  private void updateThreshold() {
+    admissionThreshold = candidates.size() < properties.topK()
+        ? 0
+        : candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    ticker.shutdownNow();
+  }
+}
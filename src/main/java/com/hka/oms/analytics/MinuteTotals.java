@@ -0,0 +1,7 @@
+package com.hka.oms.analytics;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record MinuteTotals(Instant minute, long orders, BigDecimal revenue) {
+}
@@ -0,0 +1,240 @@
+package com.hka.oms.analytics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.service.OrderChangeListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running order counts and revenue for the orders this instance owns,
+ * maintained from store change events. Revenue is kept in cents. The
+ * per-minute rollup buckets orders by the creation time encoded in their
+ * id and covers the last {@link #MINUTES} minutes. Customers are dropped
+ * once they have no orders left, and at most {@link #MAX_CUSTOMERS} are
+ * tracked; the least active ones are evicted first. An evicted customer
+ * reports zero until its next order, and from then on only counts orders
+ * changed after the eviction. Countries are keyed by their ISO 3166 code;
+ * anything else is counted under {@link #OTHER}.
+ */
+@Component
+public class OrderAnalytics implements OrderChangeListener {
+
+  static final int MINUTES = 24 * 60;
+  static final int MAX_CUSTOMERS = 100_000;
+  static final String UNKNOWN = "UNKNOWN";
+  static final String OTHER = "OTHER";
+  private static final Set<String> COUNTRIES = Set.of(Locale.getISOCountries());
+
+  private final Bucket[] byStatus = new Bucket[OrderStatus.values().length];
+  private final Cache<String, Bucket> byCustomer;
+  private final Map<String, Bucket> byCountry = new ConcurrentHashMap<>();
+  private final MinuteSlot[] minutes = new MinuteSlot[MINUTES];
+  private final Bucket total = new Bucket();
+
+  public OrderAnalytics() {
+    this(MAX_CUSTOMERS);
+  }
+
+  public OrderAnalytics(int maxCustomers) {
+    this.byCustomer = Caffeine.newBuilder().maximumSize(maxCustomers).executor(Runnable::run).build();
+    for (int i = 0; i < byStatus.length; i++) {
+      byStatus[i] = new Bucket();
+    }
+    for (int i = 0; i < minutes.length; i++) {
+      minutes[i] = new MinuteSlot();
+    }
+  }
+
+  @Override
+  public void onOrderChanged(Order previous, Order current) {
+    if (previous != null) {
+      apply(previous, -1);
+    }
+    if (current != null) {
+      apply(current, 1);
+    }
+  }
+
+  private void apply(Order order, int sign) {
+    long cents = sign * cents(order.getTotalAmount());
+    total.add(sign, cents);
+    if (order.getStatus() != null) {
+      byStatus[order.getStatus().ordinal()].add(sign, cents);
+    }
+    byCustomer.asMap().compute(customerOf(order), (k, bucket) -> {
+      if (bucket == null) {
+        if (sign < 0) {
+          // evicted while the order was live; a negative bucket would only mislead
+          return null;
+        }
+        bucket = new Bucket();
+      }
+      bucket.add(sign, cents);
+      return bucket.orders.sum() == 0 ? null : bucket;
+    });
+    byCountry.computeIfAbsent(countryOf(order), k -> new Bucket()).add(sign, cents);
+    long minute = createdMinute(order.getOrderId());
+    if (minute >= 0) {
+      minutes[(int) (minute % MINUTES)].add(minute, sign, cents);
+    }
+  }
+
+  public Totals total() {
+    return total.snapshot();
+  }
+
+  public Map<OrderStatus, Totals> byStatus() {
+    Map<OrderStatus, Totals> result = new EnumMap<>(OrderStatus.class);
+    for (OrderStatus status : OrderStatus.values()) {
+      result.put(status, byStatus[status.ordinal()].snapshot());
+    }
+    return result;
+  }
+
+  public Totals byCustomer(String customerId) {
+    Bucket bucket = byCustomer.getIfPresent(customerId);
+    return bucket == null ? Bucket.EMPTY : bucket.snapshot();
+  }
+
+  public long trackedCustomers() {
+    return byCustomer.estimatedSize();
+  }
+
+  public Map<String, Totals> byCountry() {
+    Map<String, Totals> result = new TreeMap<>();
+    byCountry.forEach((country, bucket) -> {
+      Totals totals = bucket.snapshot();
+      if (totals.orders() != 0) {
+        result.put(country, totals);
+      }
+    });
+    return result;
+  }
+
+  /** Oldest first, one entry per minute including empty ones. */
+  public List<MinuteTotals> lastMinutes(int count) {
+    int n = Math.max(1, Math.min(count, MINUTES));
+    long now = TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    List<MinuteTotals> result = new ArrayList<>(n);
+    for (long minute = now - n + 1; minute <= now; minute++) {
+      result.add(minutes[(int) (minute % MINUTES)].snapshot(minute));
+    }
+    return result;
+  }
+
+  private static String customerOf(Order order) {
+    if (order.getCustomer() == null || order.getCustomer().getCustomerId() == null) {
+      return UNKNOWN;
+    }
+    return order.getCustomer().getCustomerId();
+  }
+
+  private static String countryOf(Order order) {
+    if (order.getShippingAddress() == null || order.getShippingAddress().getCountry() == null
+        || order.getShippingAddress().getCountry().isBlank()) {
+      return UNKNOWN;
+    }
+    String country = order.getShippingAddress().getCountry().trim().toUpperCase(Locale.ROOT);
+    return COUNTRIES.contains(country) ? country : OTHER;
+  }
+
+  static long cents(BigDecimal amount) {
+    return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+  }
+
+  /** Epoch minute from ids shaped like ORD-yyyyMMdd-HHmmss-XXXXXXXX, -1 for other ids. */
+  static long createdMinute(String orderId) {
+    if (orderId == null || orderId.length() < 19 || !orderId.startsWith("ORD-") || orderId.charAt(12) != '-') {
+      return -1;
+    }
+    int date = digits(orderId, 4, 12);
+    int time = digits(orderId, 13, 17);
+    if (date < 0 || time < 0) {
+      return -1;
+    }
+    try {
+      LocalDateTime created = LocalDateTime.of(date / 10000, date / 100 % 100, date % 100, time / 100, time % 100);
+      return TimeUnit.SECONDS.toMinutes(created.atZone(ZoneId.systemDefault()).toEpochSecond());
+    } catch (RuntimeException ex) {
+      return -1;
+    }
+  }
+
+  private static int digits(String s, int from, int to) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  private static final class Bucket {
+    static final Totals EMPTY = new Totals(0, BigDecimal.ZERO.setScale(2));
+
+    final LongAdder orders = new LongAdder();
+    final LongAdder cents = new LongAdder();
+
+    void add(int count, long amount) {
+      orders.add(count);
+      cents.add(amount);
+    }
+
+    Totals snapshot() {
+      return new Totals(orders.sum(), BigDecimal.valueOf(cents.sum(), 2));
+    }
+  }
+
+  private static final class MinuteSlot {
+    final Bucket bucket = new Bucket();
+    volatile long minute = -1;
+
+    void add(long forMinute, int count, long amount) {
+      if (minute != forMinute) {
+        synchronized (this) {
+          if (minute > forMinute) {
+            // older than the ring reaches, the slot already belongs to a newer minute
+            return;
+          }
+          if (minute < forMinute) {
+            bucket.orders.reset();
+            bucket.cents.reset();
+            minute = forMinute;
+          }
+        }
+      }
+      bucket.add(count, amount);
+    }
+
+    MinuteTotals snapshot(long forMinute) {
+      Instant start = Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(forMinute));
+      if (minute != forMinute) {
+        return new MinuteTotals(start, 0, Bucket.EMPTY.revenue());
+      }
+      Totals totals = bucket.snapshot();
+      return new MinuteTotals(start, totals.orders(), totals.revenue());
+    }
+  }
+}
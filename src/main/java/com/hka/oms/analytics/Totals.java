@@ -0,0 +1,6 @@
+package com.hka.oms.analytics;
+
+import java.math.BigDecimal;
+
+public record Totals(long orders, BigDecimal revenue) {
+}
@@ -0,0 +1,29 @@
+package com.hka.oms.bulk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Import files are resolved against {@code root}; paths that lead outside it
+ * (also through symlinks) are refused.
+ */
+@ConfigurationProperties(prefix = "orders.import")
+public record BulkImportProperties(String root, String checkpointDir, DataSize chunkSize, int batchSize, int parallelism) {
+  public BulkImportProperties {
+    if (root == null || root.isBlank()) {
+      root = "data/import-files";
+    }
+    if (checkpointDir == null || checkpointDir.isBlank()) {
+      checkpointDir = "data/imports";
+    }
+    if (chunkSize == null || chunkSize.toBytes() <= 0) {
+      chunkSize = DataSize.ofMegabytes(4);
+    }
+    if (batchSize <= 0) {
+      batchSize = 2_000;
+    }
+    if (parallelism <= 0) {
+      parallelism = Runtime.getRuntime().availableProcessors();
+    }
+  }
+}
@@ -0,0 +1,399 @@
+package com.hka.oms.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderService;
+import com.hka.oms.service.OrderValidator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Loads orders from NDJSON or CSV files. The file is memory-mapped in
+ * line-aligned chunks that are parsed and validated in parallel and written
+ * in batches. Historical imports store orders as they are (no reservation,
+ * payment or WMS message) and keep their ids, never replacing an order the
+ * owning member already holds; live imports run every order
+ * through {@link OrderService#create}. Progress is checkpointed per
+ * committed chunk and interrupted imports resume on the next start. Live
+ * imports also journal every line, so a resumed chunk neither creates an
+ * order twice nor retries a line whose outcome is unknown.
+ */
+@Service
+public class BulkImporter {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+
+  private final OrderService orderService;
+  private final OrderValidator validator;
+  private final ClusterMembership membership;
+  private final ClusterClient clusterClient;
+  private final ObjectMapper objectMapper;
+  private final BulkImportProperties properties;
+  private final OrderRecordParser parser;
+  private final Path checkpointDir;
+  private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+  private final ExecutorService coordinator = Executors.newCachedThreadPool(daemon("bulk-import"));
+  private final ExecutorService workers;
+
+  public BulkImporter(OrderService orderService, OrderValidator validator, ClusterMembership membership,
+                      ClusterClient clusterClient, ObjectMapper objectMapper, BulkImportProperties properties) {
+    this.orderService = orderService;
+    this.validator = validator;
+    this.membership = membership;
+    this.clusterClient = clusterClient;
+    this.objectMapper = objectMapper;
+    this.properties = properties;
+    this.parser = new OrderRecordParser(objectMapper);
+    this.checkpointDir = Path.of(properties.checkpointDir());
+    this.workers = Executors.newFixedThreadPool(properties.parallelism(), daemon("bulk-import-worker"));
+  }
+
+  public ImportStatus start(ImportRequest request) {
+    if (request.path() == null || request.path().isBlank()) {
+      throw new ImportException(HttpStatus.BAD_REQUEST, "path is required");
+    }
+    Path path = resolve(request.path());
+    if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+      throw new ImportException(HttpStatus.BAD_REQUEST, "cannot read " + request.path());
+    }
+    try {
+      long size = Files.size(path);
+      long lastModified = Files.getLastModifiedTime(path).toMillis();
+      String id = UUID.nameUUIDFromBytes((path + "|" + size + "|" + lastModified).getBytes(StandardCharsets.UTF_8))
+          .toString();
+      ImportFormat format = request.format() != null ? request.format() : ImportFormat.of(path);
+      ImportCheckpoint checkpoint = readCheckpoint(checkpointDir.resolve(id + ".json"));
+      if (checkpoint == null) {
+        checkpoint = new ImportCheckpoint(id, path.toString(), size, lastModified, format, request.historical(),
+            0, 0, 0, 0, size == 0);
+      }
+      return submit(checkpoint);
+    } catch (IOException e) {
+      throw new ImportException(HttpStatus.BAD_REQUEST, "cannot read " + path + ": " + e.getMessage());
+    }
+  }
+
+  /** Resolves {@code requested} below the import root, following symlinks before the containment check. */
+  private Path resolve(String requested) {
+    try {
+      Path root = Files.createDirectories(Path.of(properties.root())).toRealPath();
+      Path path = root.resolve(requested).toRealPath();
+      if (!path.startsWith(root)) {
+        throw new ImportException(HttpStatus.FORBIDDEN, requested + " is outside the import root");
+      }
+      return path;
+    } catch (IOException | InvalidPathException e) {
+      throw new ImportException(HttpStatus.BAD_REQUEST, "cannot read " + requested);
+    }
+  }
+
+  public ImportStatus status(String id) {
+    ImportJob job = jobs.get(id);
+    if (job == null) {
+      throw new NoSuchElementException("import not found: " + id);
+    }
+    return job.status();
+  }
+
+  public List<ImportStatus> list() {
+    return jobs.values().stream()
+        .map(ImportJob::status)
+        .sorted(Comparator.comparing(ImportStatus::startedAt))
+        .toList();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeInterrupted() {
+    if (!Files.isDirectory(checkpointDir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.list(checkpointDir)) {
+      files.filter(file -> file.getFileName().toString().endsWith(".json"))
+          .map(this::readCheckpoint)
+          .filter(checkpoint -> checkpoint != null && !checkpoint.done())
+          .forEach(checkpoint -> {
+            log.info("Resuming import {} of {} at byte {}", checkpoint.id(), checkpoint.path(), checkpoint.offset());
+            submit(checkpoint);
+          });
+    } catch (IOException e) {
+      log.warn("Cannot scan import checkpoints in {}", checkpointDir, e);
+    }
+  }
+
+  private synchronized ImportStatus submit(ImportCheckpoint checkpoint) {
+    ImportJob existing = jobs.get(checkpoint.id());
+    if (existing != null && !existing.failed()) {
+      return existing.status();
+    }
+    ImportJob job = new ImportJob(checkpoint);
+    jobs.put(checkpoint.id(), job);
+    if (!checkpoint.done()) {
+      coordinator.execute(() -> run(job));
+    }
+    return job.status();
+  }
+
+  private void run(ImportJob job) {
+    ImportCheckpoint start = job.checkpoint();
+    Path path = Path.of(start.path());
+    LiveImportJournal journal = start.historical() ? null
+        : new LiveImportJournal(checkpointDir.resolve(start.id() + ".lines"));
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() != start.size() || Files.getLastModifiedTime(path).toMillis() != start.lastModified()) {
+        job.fail("file changed since the import started");
+        return;
+      }
+      long chunkSize = properties.chunkSize().toBytes();
+      Semaphore inFlight = new Semaphore(properties.parallelism() * 2);
+      List<Future<?>> chunks = new ArrayList<>();
+      long position = start.offset();
+      while (position < start.size()) {
+        long from = position;
+        long to = chunkEnd(channel, from, start.size(), chunkSize);
+        inFlight.acquire();
+        chunks.add(workers.submit(() -> {
+          try {
+            ImportCheckpoint committed = job.chunkDone(from, processChunk(job, journal, channel, from, to));
+            if (committed != null) {
+              if (journal != null) {
+                journal.flush();
+              }
+              writeCheckpoint(job, committed);
+            }
+            return null;
+          } finally {
+            inFlight.release();
+          }
+        }));
+        position = to;
+      }
+      for (Future<?> chunk : chunks) {
+        chunk.get();
+      }
+      job.complete();
+      if (journal != null) {
+        journal.delete();
+      }
+      log.info("Import {} finished: {}", start.id(), job.status());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      job.fail("interrupted");
+    } catch (ExecutionException e) {
+      log.error("Import {} failed", start.id(), e.getCause());
+      job.fail(String.valueOf(e.getCause().getMessage()));
+    } catch (IOException | RuntimeException e) {
+      log.error("Import {} failed", start.id(), e);
+      job.fail(String.valueOf(e.getMessage()));
+    } finally {
+      if (journal != null) {
+        journal.close();
+      }
+    }
+  }
+
+  private static long chunkEnd(FileChannel channel, long start, long size, long chunkSize) throws IOException {
+    long end = Math.min(size, start + chunkSize);
+    ByteBuffer probe = ByteBuffer.allocate(8192);
+    while (end < size) {
+      probe.clear();
+      int read = channel.read(probe, end);
+      for (int i = 0; i < read; i++) {
+        if (probe.get(i) == '\n') {
+          return end + i + 1;
+        }
+      }
+      end += Math.max(read, 0);
+    }
+    return size;
+  }
+
+  private ImportJob.ChunkResult processChunk(ImportJob job, LiveImportJournal journal, FileChannel channel,
+                                             long start, long end) throws IOException {
+    ImportCheckpoint checkpoint = job.checkpoint();
+    MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    long[] counts = new long[3];
+    byte[] line = new byte[1024];
+    List<Order> batch = new ArrayList<>(properties.batchSize());
+    List<Long> offsets = new ArrayList<>(properties.batchSize());
+    int limit = chunk.limit();
+    int lineStart = 0;
+    for (int i = 0; i <= limit; i++) {
+      if (i < limit && chunk.get(i) != '\n') {
+        continue;
+      }
+      int from = lineStart;
+      int length = i - from;
+      lineStart = i + 1;
+      if (length > 0 && chunk.get(from + length - 1) == '\r') {
+        length--;
+      }
+      if (length == 0) {
+        continue;
+      }
+      if (line.length < length) {
+        line = new byte[Math.max(length, line.length * 2)];
+      }
+      chunk.get(from, line, 0, length);
+      if (start + from == 0 && checkpoint.format() == ImportFormat.CSV && OrderRecordParser.isCsvHeader(line, length)) {
+        continue;
+      }
+      try {
+        Order order = parser.parse(checkpoint.format(), line, length);
+        if (checkpoint.historical()) {
+          if (order.getOrderId() == null || order.getOrderId().isBlank()) {
+            throw new IllegalArgumentException("orderId is required for historical imports");
+          }
+          validator.validate(order);
+        }
+        batch.add(order);
+        offsets.add(start + from);
+      } catch (IOException | RuntimeException ex) {
+        counts[2]++;
+        job.rejected(start + from, String.valueOf(ex.getMessage()));
+        continue;
+      }
+      if (batch.size() >= properties.batchSize()) {
+        write(job, journal, batch, offsets, counts);
+        batch.clear();
+        offsets.clear();
+      }
+    }
+    write(job, journal, batch, offsets, counts);
+    return new ImportJob.ChunkResult(end, counts[0], counts[1], counts[2]);
+  }
+
+  private void write(ImportJob job, LiveImportJournal journal, List<Order> batch, List<Long> offsets,
+                     long[] counts) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    if (journal != null) {
+      for (int i = 0; i < batch.size(); i++) {
+        createLive(job, journal, batch.get(i), offsets.get(i), counts);
+      }
+      return;
+    }
+    Map<String, List<Order>> byOwner = new HashMap<>();
+    for (Order order : batch) {
+      String owner = membership.isClustered() ? membership.ownerOf(order.getOrderId()) : membership.self();
+      byOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(order);
+    }
+    for (Map.Entry<String, List<Order>> entry : byOwner.entrySet()) {
+      List<Order> orders = entry.getValue();
+      int inserted = entry.getKey().equals(membership.self())
+          ? orderService.importOrders(orders)
+          : clusterClient.importOrders(entry.getKey(), orders);
+      counts[0] += inserted;
+      counts[1] += orders.size() - inserted;
+      job.imported(inserted);
+      job.duplicates(orders.size() - inserted);
+    }
+  }
+
+  private void createLive(ImportJob job, LiveImportJournal journal, Order order, long offset, long[] counts) {
+    switch (journal.previous(offset)) {
+      case DONE -> {
+        counts[0]++;
+        job.imported(1);
+        return;
+      }
+      case UNKNOWN -> {
+        // the process stopped while this line was being created; retrying could create it twice
+        counts[2]++;
+        job.rejected(offset, "outcome unknown after interrupted import; not retried");
+        return;
+      }
+      case NEW -> journal.started(offset);
+    }
+    try {
+      // waits for the customer's fair share: a 429 here would skip the line for good
+      orderService.createWhenAdmitted(order);
+      journal.done(offset);
+      counts[0]++;
+      job.imported(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("import interrupted", e);
+    } catch (RuntimeException ex) {
+      counts[2]++;
+      job.rejected(offset, (order.getOrderId() == null ? "order" : order.getOrderId()) + ": " + ex.getMessage());
+    }
+  }
+
+  private ImportCheckpoint readCheckpoint(Path file) {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(file.toFile(), ImportCheckpoint.class);
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable import checkpoint {}", file, e);
+      return null;
+    }
+  }
+
+  private void writeCheckpoint(ImportJob job, ImportCheckpoint checkpoint) {
+    synchronized (job) {
+      try {
+        Files.createDirectories(checkpointDir);
+        Path target = checkpointDir.resolve(checkpoint.id() + ".json");
+        Path temp = checkpointDir.resolve(checkpoint.id() + ".json.tmp");
+        objectMapper.writeValue(temp.toFile(), checkpoint);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        throw new UncheckedIOException("cannot write import checkpoint for " + checkpoint.id(), e);
+      }
+    }
+  }
+
+  private static ThreadFactory daemon(String name) {
+    AtomicInteger counter = new AtomicInteger();
+    return r -> {
+      Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    coordinator.shutdownNow();
+    workers.shutdownNow();
+  }
+}
@@ -0,0 +1,15 @@
+package com.hka.oms.bulk;
+
+/**
+ * Persisted progress of an import. Everything before {@code offset} has been
+ * written; the counters cover exactly that prefix of the file.
+ */
+record ImportCheckpoint(String id, String path, long size, long lastModified, ImportFormat format,
+                        boolean historical, long offset, long imported, long duplicates, long rejected,
+                        boolean done) {
+
+  ImportCheckpoint advance(long newOffset, long importedDelta, long duplicatesDelta, long rejectedDelta) {
+    return new ImportCheckpoint(id, path, size, lastModified, format, historical, newOffset,
+        imported + importedDelta, duplicates + duplicatesDelta, rejected + rejectedDelta, newOffset >= size);
+  }
+}
@@ -0,0 +1,41 @@
+package com.hka.oms.bulk;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/imports")
+public class ImportController {
+
+  private final BulkImporter importer;
+
+  public ImportController(BulkImporter importer) {
+    this.importer = importer;
+  }
+
+  @PostMapping
+  public ResponseEntity<ImportStatus> start(@RequestBody ImportRequest request) {
+    ImportStatus status = importer.start(request);
+    return ResponseEntity.accepted()
+        .location(URI.create("/imports/" + status.id()))
+        .body(status);
+  }
+
+  @GetMapping
+  public List<ImportStatus> list() {
+    return importer.list();
+  }
+
+  @GetMapping("/{id}")
+  public ImportStatus get(@PathVariable String id) {
+    return importer.status(id);
+  }
+}
@@ -0,0 +1,16 @@
+package com.hka.oms.bulk;
+
+import org.springframework.http.HttpStatus;
+
+public class ImportException extends RuntimeException {
+  private final HttpStatus status;
+
+  public ImportException(HttpStatus status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,12 @@
+package com.hka.oms.bulk;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum ImportFormat {
+  NDJSON, CSV;
+
+  static ImportFormat of(Path path) {
+    return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+  }
+}
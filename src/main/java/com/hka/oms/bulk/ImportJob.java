@@ -0,0 +1,104 @@
+package com.hka.oms.bulk;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class ImportJob {
+
+  private static final int MAX_ERRORS = 20;
+
+  enum State { RUNNING, COMPLETED, FAILED }
+
+  record ChunkResult(long end, long imported, long duplicates, long rejected) {
+  }
+
+  private final Map<Long, ChunkResult> finishedChunks = new TreeMap<>();
+  private final List<String> errors = new ArrayList<>();
+  private final AtomicLong imported;
+  private final AtomicLong duplicates;
+  private final AtomicLong rejected;
+  private final long resumedRecords;
+  private ImportCheckpoint checkpoint;
+  private volatile State state = State.RUNNING;
+  private volatile Instant startedAt = Instant.now();
+  private volatile Instant finishedAt;
+
+  ImportJob(ImportCheckpoint checkpoint) {
+    this.checkpoint = checkpoint;
+    this.imported = new AtomicLong(checkpoint.imported());
+    this.duplicates = new AtomicLong(checkpoint.duplicates());
+    this.rejected = new AtomicLong(checkpoint.rejected());
+    this.resumedRecords = checkpoint.imported() + checkpoint.duplicates() + checkpoint.rejected();
+    if (checkpoint.done()) {
+      state = State.COMPLETED;
+      finishedAt = startedAt;
+    }
+  }
+
+  synchronized ImportCheckpoint checkpoint() {
+    return checkpoint;
+  }
+
+  boolean failed() {
+    return state == State.FAILED;
+  }
+
+  void imported(long count) {
+    imported.addAndGet(count);
+  }
+
+  void duplicates(long count) {
+    duplicates.addAndGet(count);
+  }
+
+  void rejected(long offset, String reason) {
+    rejected.incrementAndGet();
+    synchronized (errors) {
+      if (errors.size() < MAX_ERRORS) {
+        errors.add("byte " + offset + ": " + reason);
+      }
+    }
+  }
+
+  /** Records a finished chunk; returns the new checkpoint if the committed prefix grew, else null. */
+  synchronized ImportCheckpoint chunkDone(long start, ChunkResult result) {
+    finishedChunks.put(start, result);
+    ImportCheckpoint before = checkpoint;
+    ChunkResult next;
+    while ((next = finishedChunks.remove(checkpoint.offset())) != null) {
+      checkpoint = checkpoint.advance(next.end(), next.imported(), next.duplicates(), next.rejected());
+    }
+    return checkpoint == before ? null : checkpoint;
+  }
+
+  void complete() {
+    state = State.COMPLETED;
+    finishedAt = Instant.now();
+  }
+
+  void fail(String reason) {
+    synchronized (errors) {
+      errors.add(reason);
+    }
+    state = State.FAILED;
+    finishedAt = Instant.now();
+  }
+
+  ImportStatus status() {
+    ImportCheckpoint cp = checkpoint();
+    long records = imported.get() + duplicates.get() + rejected.get() - resumedRecords;
+    Instant end = finishedAt == null ? Instant.now() : finishedAt;
+    double seconds = Math.max(0.001, Duration.between(startedAt, end).toNanos() / 1e9);
+    List<String> errorsCopy;
+    synchronized (errors) {
+      errorsCopy = List.copyOf(errors);
+    }
+    return new ImportStatus(cp.id(), cp.path(), cp.format(), cp.historical(), state.name(), cp.size(), cp.offset(),
+        imported.get(), duplicates.get(), rejected.get(), records / seconds, startedAt, finishedAt, errorsCopy);
+  }
+}
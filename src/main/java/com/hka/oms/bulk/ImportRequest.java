@@ -0,0 +1,4 @@
+package com.hka.oms.bulk;
+
+public record ImportRequest(String path, ImportFormat format, boolean historical) {
+}
@@ -0,0 +1,9 @@
+package com.hka.oms.bulk;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ImportStatus(String id, String path, ImportFormat format, boolean historical, String state,
+                           long totalBytes, long committedBytes, long imported, long duplicates, long rejected,
+                           double ordersPerSecond, Instant startedAt, Instant finishedAt, List<String> errors) {
+}
@@ -0,0 +1,106 @@
+package com.hka.oms.bulk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-line log of a live import: {@code S<offset>} before the line is handed
+ * to order creation, {@code D<offset>} once that returned. Chunks that were
+ * in flight when the process stopped are re-read on resume; the journal tells
+ * which of their lines already created an order and which may have.
+ */
+final class LiveImportJournal implements AutoCloseable {
+
+  enum Outcome { NEW, DONE, UNKNOWN }
+
+  private final Path path;
+  private final Set<Long> started = new HashSet<>();
+  private final Set<Long> done = new HashSet<>();
+  private final FileChannel channel;
+
+  LiveImportJournal(Path path) {
+    this.path = path;
+    try {
+      Files.createDirectories(path.toAbsolutePath().getParent());
+      if (Files.exists(path)) {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (String line : lines) {
+          if (line.length() < 2) {
+            continue;
+          }
+          long offset = Long.parseLong(line.substring(1));
+          if (line.charAt(0) == 'S') {
+            started.add(offset);
+          } else if (line.charAt(0) == 'D') {
+            done.add(offset);
+          }
+        }
+      }
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    } catch (IOException | NumberFormatException e) {
+      throw new IllegalStateException("cannot open live import journal " + path, e);
+    }
+  }
+
+  synchronized Outcome previous(long offset) {
+    if (done.contains(offset)) {
+      return Outcome.DONE;
+    }
+    return started.contains(offset) ? Outcome.UNKNOWN : Outcome.NEW;
+  }
+
+  synchronized void started(long offset) {
+    write('S', offset);
+  }
+
+  synchronized void done(long offset) {
+    write('D', offset);
+  }
+
+  synchronized void flush() {
+    try {
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot flush live import journal " + path, e);
+    }
+  }
+
+  private void write(char op, long offset) {
+    ByteBuffer buffer = ByteBuffer.wrap((op + Long.toString(offset) + "\n").getBytes(StandardCharsets.UTF_8));
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot write live import journal " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot close live import journal " + path, e);
+    }
+  }
+
+  void delete() {
+    close();
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot delete live import journal " + path, e);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.hka.oms.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.domain.ShippingAddress;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One order per line. NDJSON lines use the regular order JSON. CSV rows are
+ * {@code orderId,customerId,prename,name,street,city,zipCode,country,status,totalAmount,items}
+ * with items written as {@code productId:quantity:price} joined by {@code |};
+ * fields may be double-quoted.
+ */
+final class OrderRecordParser {
+
+  private static final int CSV_COLUMNS = 11;
+
+  private final ObjectReader json;
+
+  OrderRecordParser(ObjectMapper mapper) {
+    this.json = mapper.readerFor(Order.class);
+  }
+
+  Order parse(ImportFormat format, byte[] line, int length) throws IOException {
+    if (format == ImportFormat.NDJSON) {
+      return json.readValue(line, 0, length);
+    }
+    return csv(new String(line, 0, length, StandardCharsets.UTF_8));
+  }
+
+  static boolean isCsvHeader(byte[] line, int length) {
+    return length >= 8 && new String(line, 0, 8, StandardCharsets.US_ASCII).equals("orderId,");
+  }
+
+  private static Order csv(String line) {
+    List<String> f = fields(line);
+    if (f.size() != CSV_COLUMNS) {
+      throw new IllegalArgumentException("expected " + CSV_COLUMNS + " columns, got " + f.size());
+    }
+    Order.Builder builder = Order.builder()
+        .orderId(blankToNull(f.get(0)))
+        .customer(Customer.builder().customerId(f.get(1)).prename(f.get(2)).name(f.get(3)).build());
+    if (!(f.get(4).isBlank() && f.get(5).isBlank() && f.get(6).isBlank() && f.get(7).isBlank())) {
+      builder.shippingAddress(ShippingAddress.builder()
+          .street(f.get(4)).city(f.get(5)).zipCode(f.get(6)).country(f.get(7)).build());
+    }
+    if (!f.get(8).isBlank()) {
+      builder.status(OrderStatus.valueOf(f.get(8).trim().toUpperCase(Locale.ROOT)));
+    }
+    if (!f.get(9).isBlank()) {
+      builder.totalAmount(new BigDecimal(f.get(9).trim()));
+    }
+    for (String item : f.get(10).split("\\|")) {
+      String[] parts = item.split(":");
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("item must be productId:quantity:price, got '" + item + "'");
+      }
+      builder.addItem(OrderItem.builder()
+          .productId(parts[0].trim())
+          .quantity(Integer.parseInt(parts[1].trim()))
+          .price(new BigDecimal(parts[2].trim()))
+          .build());
+    }
+    return builder.build();
+  }
+
+  private static List<String> fields(String line) {
+    List<String> fields = new ArrayList<>(CSV_COLUMNS);
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          current.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    fields.add(current.toString());
+    return fields;
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value.trim();
+  }
+}
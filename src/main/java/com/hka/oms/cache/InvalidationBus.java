@@ -0,0 +1,150 @@
+package com.hka.oms.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderChangeListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells the other replicas which orders changed. Changes are coalesced per
+ * order (highest version wins) and flushed in batches to the
+ * {@link #EXCHANGE} fanout exchange; every replica consumes them from its own
+ * queue and evicts stale entries from the {@link RemoteOrderCache}.
+ */
+@Component
+public class InvalidationBus implements OrderChangeListener {
+
+  public static final String EXCHANGE = "oms.invalidation";
+  static final String ORIGIN_HEADER = "x-oms-origin";
+
+  private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+  private final RabbitTemplate rabbitTemplate;
+  private final ClusterMembership membership;
+  private final RemoteOrderCache remoteCache;
+  private final InvalidationProperties properties;
+  private final Map<String, Long> pending = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "cache-invalidation");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Counter published;
+  private final Counter coalesced;
+  private final Counter batches;
+  private final Counter received;
+  private volatile boolean brokerDown;
+
+  public InvalidationBus(RabbitTemplate rabbitTemplate, ClusterMembership membership, RemoteOrderCache remoteCache,
+                         InvalidationProperties properties, MeterRegistry registry) {
+    this.rabbitTemplate = rabbitTemplate;
+    this.membership = membership;
+    this.remoteCache = remoteCache;
+    this.properties = properties;
+    this.published = registry.counter("cache.invalidation.events", "direction", "out");
+    this.received = registry.counter("cache.invalidation.events", "direction", "in");
+    this.coalesced = registry.counter("cache.invalidation.coalesced");
+    this.batches = registry.counter("cache.invalidation.batches");
+  }
+
+  @PostConstruct
+  void start() {
+    long interval = properties.flushInterval().toMillis();
+    flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void onOrderChanged(Order previous, Order current) {
+    Order changed = current != null ? current : previous;
+    pending.merge(changed.getOrderId(), changed.getVersion(), (queued, version) -> {
+      coalesced.increment();
+      return Math.max(queued, version);
+    });
+  }
+
+  @RabbitListener(queues = "#{invalidationQueue.name}")
+  public void receive(Message message) {
+    Object origin = message.getMessageProperties().getHeaders().get(ORIGIN_HEADER);
+    if (membership.self().equals(String.valueOf(origin))) {
+      return;
+    }
+    Map<String, Long> versions = InvalidationCodec.decode(message.getBody());
+    versions.forEach(remoteCache::invalidate);
+    received.increment(versions.size());
+  }
+
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    if (!membership.isClustered()) {
+      // nobody else caches our orders
+      pending.clear();
+      return;
+    }
+    try {
+      while (!pending.isEmpty()) {
+        Map<String, Long> batch = new LinkedHashMap<>();
+        for (String orderId : pending.keySet()) {
+          Long version = pending.remove(orderId);
+          if (version != null) {
+            batch.put(orderId, version);
+          }
+          if (batch.size() >= properties.maxBatch()) {
+            break;
+          }
+        }
+        send(batch);
+      }
+      if (brokerDown) {
+        brokerDown = false;
+        log.info("Publishing cache invalidations again");
+      }
+    } catch (AmqpException ex) {
+      // the batch is dropped; the remote TTL bounds how long peers serve it stale
+      if (!brokerDown) {
+        brokerDown = true;
+        log.warn("Cannot publish cache invalidations: {}", ex.getMessage());
+      }
+    }
+  }
+
+  private void send(Map<String, Long> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Message message = MessageBuilder.withBody(InvalidationCodec.encode(batch))
+        .setContentType("application/octet-stream")
+        .setDeliveryMode(MessageDeliveryMode.NON_PERSISTENT)
+        .setHeader(ORIGIN_HEADER, membership.self())
+        .build();
+    rabbitTemplate.send(EXCHANGE, "", message);
+    published.increment(batch.size());
+    batches.increment();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flusher.shutdownNow();
+  }
+}
@@ -0,0 +1,54 @@
+package com.hka.oms.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wire format of an invalidation batch: a format byte, the entry count, then
+ * per entry the order id (modified UTF-8) and the order version it changed to.
+ */
+final class InvalidationCodec {
+
+  static final byte FORMAT = 1;
+
+  private InvalidationCodec() {
+  }
+
+  static byte[] encode(Map<String, Long> versions) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + versions.size() * 40);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT);
+      out.writeInt(versions.size());
+      for (Map.Entry<String, Long> entry : versions.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeLong(entry.getValue());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static Map<String, Long> decode(byte[] payload) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      byte format = in.readByte();
+      if (format != FORMAT) {
+        throw new IllegalArgumentException("unsupported invalidation format " + format);
+      }
+      int count = in.readInt();
+      Map<String, Long> versions = new LinkedHashMap<>(Math.max(16, count * 2));
+      for (int i = 0; i < count; i++) {
+        versions.put(in.readUTF(), in.readLong());
+      }
+      return versions;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("malformed invalidation batch", e);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.hka.oms.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "cache.invalidation")
+public record InvalidationProperties(Duration flushInterval, int maxBatch, Duration remoteTtl,
+                                     DataSize remoteMaxSize) {
+  public InvalidationProperties {
+    if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+      flushInterval = Duration.ofMillis(20);
+    }
+    if (maxBatch <= 0) {
+      maxBatch = 512;
+    }
+    if (remoteTtl == null || remoteTtl.isNegative() || remoteTtl.isZero()) {
+      remoteTtl = Duration.ofSeconds(30);
+    }
+    if (remoteMaxSize == null || remoteMaxSize.toBytes() <= 0) {
+      remoteMaxSize = DataSize.ofMegabytes(32);
+    }
+  }
+}
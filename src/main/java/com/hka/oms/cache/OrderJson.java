@@ -0,0 +1,38 @@
+package com.hka.oms.cache;
+
+public record OrderJson(String orderId, long version, String etag, byte[] bytes) {
+
+  public static String etagOf(long version) {
+    return "\"v" + version + "\"";
+  }
+
+  /** Tag of the protobuf representation, distinct from the JSON one so caches never swap the bodies. */
+  public static String protobufEtagOf(long version) {
+    return "\"v" + version + "-pb\"";
+  }
+
+  /** Inverse of {@link #etagOf}; -1 if the tag was not produced by it. */
+  public static long versionOf(String etag) {
+    if (etag == null || etag.length() < 4 || !etag.startsWith("\"v") || !etag.endsWith("\"")) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(etag.substring(2, etag.length() - 1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  public boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*") || tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
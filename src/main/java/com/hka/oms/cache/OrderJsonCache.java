@@ -0,0 +1,59 @@
+package com.hka.oms.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderChangeListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+@Component
+public class OrderJsonCache implements OrderChangeListener {
+
+  private final ObjectMapper objectMapper;
+  private final Cache<String, OrderJson> cache;
+
+  public OrderJsonCache(ObjectMapper objectMapper, MeterRegistry registry,
+                        @Value("${orders.json-cache.max-bytes:67108864}") long maxBytes) {
+    this.objectMapper = objectMapper;
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maxBytes)
+        .weigher((String id, OrderJson json) -> json.bytes().length + id.length())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "orders.json");
+  }
+
+  public OrderJson render(String orderId, long version, Supplier<Order> loader) {
+    OrderJson cached = cache.getIfPresent(orderId);
+    if (cached != null && cached.version() == version) {
+      return cached;
+    }
+    Order order = loader.get();
+    OrderJson fresh = new OrderJson(order.getOrderId(), order.getVersion(),
+        OrderJson.etagOf(order.getVersion()), serialize(order));
+    cache.asMap().merge(order.getOrderId(), fresh,
+        (existing, candidate) -> existing.version() >= candidate.version() ? existing : candidate);
+    return fresh;
+  }
+
+  @Override
+  public void onOrderChanged(Order previous, Order current) {
+    String orderId = current != null ? current.getOrderId() : previous.getOrderId();
+    cache.invalidate(orderId);
+  }
+
+  private byte[] serialize(Order order) {
+    try {
+      return objectMapper.writeValueAsBytes(order);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize order " + order.getOrderId(), e);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.hka.oms.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rendered JSON of orders owned by other replicas, so forwarded reads can be
+ * answered locally. Entries are evicted by the {@link InvalidationBus} when
+ * the owner publishes a newer version; the TTL only bounds staleness while
+ * the bus is down. The newest version announced per order is remembered for
+ * one TTL, so a fetch that started before an invalidation cannot store the
+ * version it replaced once the invalidation has passed.
+ */
+@Component
+public class RemoteOrderCache {
+
+  private static final int MAX_TOMBSTONES = 100_000;
+
+  private final Cache<String, OrderJson> cache;
+  private final Cache<String, Long> latestVersions;
+
+  public RemoteOrderCache(InvalidationProperties properties, MeterRegistry registry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(properties.remoteMaxSize().toBytes())
+        .weigher((String id, OrderJson json) -> json.bytes().length + id.length())
+        .expireAfterWrite(properties.remoteTtl())
+        .recordStats()
+        .build();
+    this.latestVersions = Caffeine.newBuilder()
+        .maximumSize(MAX_TOMBSTONES)
+        .expireAfterWrite(properties.remoteTtl())
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "orders.json.remote");
+  }
+
+  public OrderJson get(String orderId) {
+    return cache.getIfPresent(orderId);
+  }
+
+  public void put(OrderJson json) {
+    cache.asMap().compute(json.orderId(), (id, existing) -> {
+      Long latest = latestVersions.getIfPresent(id);
+      if (latest != null && json.version() < latest) {
+        // fetched before an invalidation for a newer version arrived
+        return existing;
+      }
+      return existing != null && existing.version() >= json.version() ? existing : json;
+    });
+  }
+
+  /** Drops the entry unless it already reflects {@code version}, and refuses older ones from now on. */
+  public void invalidate(String orderId, long version) {
+    // the tombstone goes first: a put racing with this either sees it or is removed below
+    latestVersions.asMap().merge(orderId, version, Math::max);
+    cache.asMap().computeIfPresent(orderId, (id, cached) -> cached.version() >= version ? cached : null);
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+    latestVersions.invalidateAll();
+  }
+}
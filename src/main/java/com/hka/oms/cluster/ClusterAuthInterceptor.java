@@ -0,0 +1,42 @@
+package com.hka.oms.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Admits member-to-member calls only with the shared {@code cluster.secret}:
+ * every mutating {@code /cluster} request and every request that claims to
+ * be forwarded, since a forwarded read is answered locally and never routed
+ * on. Reading the member list stays open.
+ */
+@Component
+public class ClusterAuthInterceptor implements HandlerInterceptor {
+
+  private final byte[] secret;
+
+  public ClusterAuthInterceptor(ClusterProperties properties) {
+    this.secret = properties.secret() == null ? null : properties.secret().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    boolean memberCall = request.getHeader(ClusterClient.FORWARDED_HEADER) != null
+        || (request.getRequestURI().startsWith(request.getContextPath() + "/cluster/")
+            && !HttpMethod.GET.matches(request.getMethod()));
+    if (!memberCall) {
+      return true;
+    }
+    String token = request.getHeader(ClusterClient.TOKEN_HEADER);
+    if (secret == null || token == null || !MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8))) {
+      throw new ClusterException(HttpStatus.FORBIDDEN, "cluster call without a valid " + ClusterClient.TOKEN_HEADER);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,111 @@
+package com.hka.oms.cluster;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.search.SearchPage;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@Component
+public class ClusterClient {
+
+  public static final String FORWARDED_HEADER = "X-OMS-Forwarded";
+  public static final String OWNER_HEADER = "X-OMS-Owner";
+  public static final String TOKEN_HEADER = "X-OMS-Cluster-Token";
+
+  private static final ParameterizedTypeReference<List<Order>> ORDER_LIST = new ParameterizedTypeReference<>() {};
+  private static final ParameterizedTypeReference<Map<String, Integer>> COUNTS = new ParameterizedTypeReference<>() {};
+
+  private final RestClient restClient;
+
+  public ClusterClient(RestClient.Builder builder, ClusterProperties properties) {
+    RestClient.Builder configured = builder
+        .defaultHeader(FORWARDED_HEADER, "true")
+        .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+    if (properties.secret() != null) {
+      configured.defaultHeader(TOKEN_HEADER, properties.secret());
+    }
+    this.restClient = configured.build();
+  }
+
+  public ResponseEntity<byte[]> fetchOrderJson(String member, String orderId, String ifNoneMatch) {
+    try {
+      RestClient.RequestHeadersSpec<?> spec = restClient.get().uri(member + "/orders/{orderId}", orderId);
+      if (ifNoneMatch != null) {
+        spec = spec.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+      }
+      return spec.retrieve().toEntity(byte[].class);
+    } catch (RestClientResponseException ex) {
+      if (ex.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+        throw new NoSuchElementException("order not found: " + orderId);
+      }
+      throw unavailable(member, ex);
+    } catch (RestClientException ex) {
+      throw unavailable(member, ex);
+    }
+  }
+
+  public List<Order> listOrders(String member) {
+    try {
+      return restClient.get().uri(member + "/orders").retrieve().body(ORDER_LIST);
+    } catch (RestClientException ex) {
+      throw unavailable(member, ex);
+    }
+  }
+
+  public SearchPage searchOrders(String member, String query, int limit) {
+    try {
+      return restClient.get()
+          .uri(member + "/orders/search?q={q}&page=0&size={size}", query, limit)
+          .retrieve()
+          .body(SearchPage.class);
+    } catch (RestClientException ex) {
+      throw unavailable(member, ex);
+    }
+  }
+
+  public void handoff(String member, Collection<Order> orders) {
+    try {
+      restClient.post().uri(member + "/cluster/handoff").body(orders).retrieve().toBodilessEntity();
+    } catch (RestClientException ex) {
+      throw unavailable(member, ex);
+    }
+  }
+
+  /**
+   * Imports orders on their owner without overwriting ones it already holds.
+   * Returns how many were inserted; the rest were duplicates.
+   */
+  public int importOrders(String member, Collection<Order> orders) {
+    try {
+      Map<String, Integer> result = restClient.post().uri(member + "/cluster/import").body(orders)
+          .retrieve().body(COUNTS);
+      return result == null ? 0 : result.getOrDefault("inserted", 0);
+    } catch (RestClientException ex) {
+      throw unavailable(member, ex);
+    }
+  }
+
+  public void pushMembers(String member, List<String> members) {
+    try {
+      restClient.put().uri(member + "/cluster/members").body(members).retrieve().toBodilessEntity();
+    } catch (RestClientException ex) {
+      throw unavailable(member, ex);
+    }
+  }
+
+  private ClusterException unavailable(String member, RestClientException ex) {
+    return new ClusterException(HttpStatus.BAD_GATEWAY, "cluster member " + member + " unavailable: " + ex.getMessage());
+  }
+}
@@ -0,0 +1,20 @@
+package com.hka.oms.cluster;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ClusterConfig implements WebMvcConfigurer {
+
+  private final ClusterAuthInterceptor interceptor;
+
+  public ClusterConfig(ClusterAuthInterceptor interceptor) {
+    this.interceptor = interceptor;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(interceptor).addPathPatterns("/**");
+  }
+}
@@ -0,0 +1,49 @@
+package com.hka.oms.cluster;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cluster")
+public class ClusterController {
+
+  private final ClusterMembership membership;
+  private final ClusterRebalancer rebalancer;
+  private final OrderService orderService;
+
+  public ClusterController(ClusterMembership membership, ClusterRebalancer rebalancer, OrderService orderService) {
+    this.membership = membership;
+    this.rebalancer = rebalancer;
+    this.orderService = orderService;
+  }
+
+  @GetMapping("/members")
+  public ResponseEntity<Map<String, Object>> members() {
+    return ResponseEntity.ok(Map.of("self", membership.self(), "members", membership.members()));
+  }
+
+  @PutMapping("/members")
+  public ResponseEntity<Map<String, Object>> updateMembers(
+      @RequestBody List<String> members,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded) {
+    int moved = rebalancer.updateMembers(members, forwarded == null);
+    return ResponseEntity.ok(Map.of("members", membership.members(), "handedOff", moved));
+  }
+
+  @PostMapping("/handoff")
+  public ResponseEntity<Void> handoff(@RequestBody List<Order> orders) {
+    orderService.adopt(orders);
+    return ResponseEntity.noContent().build();
+  }
+
+  @PostMapping("/import")
+  public ResponseEntity<Map<String, Integer>> importOrders(@RequestBody List<Order> orders) {
+    int inserted = orderService.importOrders(orders);
+    return ResponseEntity.ok(Map.of("inserted", inserted, "duplicates", orders.size() - inserted));
+  }
+}
@@ -0,0 +1,16 @@
+package com.hka.oms.cluster;
+
+import org.springframework.http.HttpStatus;
+
+public class ClusterException extends RuntimeException {
+  private final HttpStatus status;
+
+  public ClusterException(HttpStatus status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+}
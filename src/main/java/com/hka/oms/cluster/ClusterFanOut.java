@@ -0,0 +1,83 @@
+package com.hka.oms.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Calls every other member in parallel on a pool of its own, so blocking
+ * HTTP never runs on the common ForkJoinPool. All calls share one
+ * {@code cluster.peer-timeout} deadline; a member that fails or misses it
+ * contributes its fallback instead, and the caller gets partial results.
+ */
+@Component
+public class ClusterFanOut {
+
+  private static final Logger log = LoggerFactory.getLogger(ClusterFanOut.class);
+
+  private final ClusterMembership membership;
+  private final long timeoutNanos;
+  private final ExecutorService executor;
+
+  public ClusterFanOut(ClusterMembership membership, ClusterProperties properties) {
+    this.membership = membership;
+    this.timeoutNanos = properties.peerTimeout().toNanos();
+    this.executor = Executors.newFixedThreadPool(Math.max(4, membership.members().size()), r -> {
+      Thread thread = new Thread(r, "cluster-fan-out");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /** Results of {@code call} per other member, in member order. */
+  public <T> List<T> call(Function<String, T> call, Function<String, T> fallback) {
+    Map<String, Future<T>> futures = new LinkedHashMap<>();
+    for (String member : membership.members()) {
+      if (!member.equals(membership.self())) {
+        futures.put(member, executor.submit(() -> call.apply(member)));
+      }
+    }
+    long deadline = System.nanoTime() + timeoutNanos;
+    List<T> results = new ArrayList<>(futures.size());
+    for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+      String member = entry.getKey();
+      Future<T> future = entry.getValue();
+      try {
+        results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+      } catch (TimeoutException ex) {
+        future.cancel(true);
+        log.warn("Cluster member {} did not answer within {} ms, leaving it out", member,
+            TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+        results.add(fallback.apply(member));
+      } catch (ExecutionException ex) {
+        log.warn("Cluster member {} failed, leaving it out: {}", member, ex.getCause().getMessage());
+        results.add(fallback.apply(member));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        futures.values().forEach(pending -> pending.cancel(true));
+        throw new ClusterException(HttpStatus.SERVICE_UNAVAILABLE,
+            "interrupted while waiting for cluster members");
+      }
+    }
+    return results;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,48 @@
+package com.hka.oms.cluster;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ClusterMembership {
+
+  private final String self;
+  private final int virtualNodes;
+  private volatile ConsistentHashRing ring;
+
+  public ClusterMembership(ClusterProperties properties) {
+    this.self = properties.self();
+    this.virtualNodes = properties.virtualNodes();
+    this.ring = ConsistentHashRing.of(
+        properties.members().isEmpty() ? List.of(self) : properties.members(), virtualNodes);
+  }
+
+  public String self() {
+    return self;
+  }
+
+  public List<String> members() {
+    return ring.members();
+  }
+
+  public boolean isClustered() {
+    return ring.members().size() > 1;
+  }
+
+  public String ownerOf(String orderId) {
+    return ring.ownerOf(orderId);
+  }
+
+  public boolean isLocal(String orderId) {
+    return self.equals(ring.ownerOf(orderId));
+  }
+
+  synchronized void update(List<String> members) {
+    if (!members.contains(self)) {
+      throw new ClusterException(HttpStatus.BAD_REQUEST, "member list " + members + " does not contain " + self);
+    }
+    this.ring = ConsistentHashRing.of(members, virtualNodes);
+  }
+}
@@ -0,0 +1,38 @@
+package com.hka.oms.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code secret} is the shared token members send with every
+ * member-to-member call; without it the mutating {@code /cluster} endpoints
+ * and forwarded requests are refused. {@code peerTimeout} bounds how long a
+ * fan-out across members waits for the slowest one.
+ */
+@ConfigurationProperties(prefix = "cluster")
+public record ClusterProperties(String self, List<String> members, int virtualNodes, String secret,
+                                Duration peerTimeout) {
+  public ClusterProperties {
+    if (self == null || self.isBlank()) {
+      self = "http://localhost:8080";
+    }
+    members = members == null ? List.of() : List.copyOf(members);
+    if (!members.isEmpty() && !members.contains(self)) {
+      throw new IllegalArgumentException("cluster.members must contain cluster.self (" + self + ")");
+    }
+    if (virtualNodes <= 0) {
+      virtualNodes = 128;
+    }
+    if (secret != null && secret.isBlank()) {
+      secret = null;
+    }
+    if (peerTimeout == null || peerTimeout.isNegative() || peerTimeout.isZero()) {
+      peerTimeout = Duration.ofSeconds(2);
+    }
+    if (!members.isEmpty() && secret == null) {
+      throw new IllegalArgumentException("cluster.secret is required when cluster.members is set");
+    }
+  }
+}
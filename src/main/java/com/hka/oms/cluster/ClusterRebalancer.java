@@ -0,0 +1,88 @@
+package com.hka.oms.cluster;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class ClusterRebalancer {
+
+  private static final Logger log = LoggerFactory.getLogger(ClusterRebalancer.class);
+  private static final int HANDOFF_BATCH = 500;
+
+  private final ClusterMembership membership;
+  private final ClusterClient clusterClient;
+  private final OrderService orderService;
+
+  public ClusterRebalancer(ClusterMembership membership, ClusterClient clusterClient, OrderService orderService) {
+    this.membership = membership;
+    this.clusterClient = clusterClient;
+    this.orderService = orderService;
+  }
+
+  public synchronized int updateMembers(List<String> members, boolean propagate) {
+    if (members == null || members.isEmpty()) {
+      throw new IllegalArgumentException("cluster needs at least one member");
+    }
+    if (!members.contains(membership.self())) {
+      // this instance would own nothing and hand off every order it holds
+      throw new ClusterException(HttpStatus.BAD_REQUEST,
+          "member list " + members + " does not contain this instance " + membership.self());
+    }
+    Set<String> peers = new LinkedHashSet<>(membership.members());
+    peers.addAll(members);
+    peers.remove(membership.self());
+
+    membership.update(List.copyOf(members));
+    log.info("Cluster membership changed to {}", members);
+
+    if (propagate) {
+      for (String peer : peers) {
+        try {
+          clusterClient.pushMembers(peer, members);
+        } catch (ClusterException ex) {
+          log.warn("Could not propagate membership to {}: {}", peer, ex.getMessage());
+        }
+      }
+    }
+    return rebalance();
+  }
+
+  public synchronized int rebalance() {
+    Map<String, List<Order>> byOwner = orderService.ordersMatching(id -> !membership.isLocal(id)).stream()
+        .collect(Collectors.groupingBy(o -> membership.ownerOf(o.getOrderId())));
+
+    int moved = 0;
+    for (Map.Entry<String, List<Order>> entry : byOwner.entrySet()) {
+      List<Order> orders = entry.getValue();
+      for (int from = 0; from < orders.size(); from += HANDOFF_BATCH) {
+        List<Order> batch = orders.subList(from, Math.min(orders.size(), from + HANDOFF_BATCH));
+        try {
+          clusterClient.handoff(entry.getKey(), batch);
+        } catch (ClusterException ex) {
+          log.warn("Handoff of {} orders to {} failed, keeping them locally: {}",
+              batch.size(), entry.getKey(), ex.getMessage());
+          break;
+        }
+        for (Order order : batch) {
+          if (orderService.evict(order)) {
+            moved++;
+          }
+        }
+      }
+    }
+    if (moved > 0) {
+      log.info("Handed off {} orders after membership change", moved);
+    }
+    return moved;
+  }
+}
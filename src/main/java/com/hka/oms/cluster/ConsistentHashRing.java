@@ -0,0 +1,68 @@
+package com.hka.oms.cluster;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+public final class ConsistentHashRing {
+
+  private final List<String> members;
+  private final long[] points;
+  private final String[] owners;
+
+  private ConsistentHashRing(List<String> members, long[] points, String[] owners) {
+    this.members = members;
+    this.points = points;
+    this.owners = owners;
+  }
+
+  public static ConsistentHashRing of(Collection<String> members, int virtualNodes) {
+    List<String> distinct = members.stream().map(Objects::requireNonNull).distinct().sorted().toList();
+    if (distinct.isEmpty()) {
+      throw new IllegalArgumentException("ring needs at least one member");
+    }
+    int size = distinct.size() * virtualNodes;
+    long[][] entries = new long[size][];
+    int n = 0;
+    for (int m = 0; m < distinct.size(); m++) {
+      for (int v = 0; v < virtualNodes; v++) {
+        entries[n++] = new long[] { hash(distinct.get(m) + "#" + v), m };
+      }
+    }
+    Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+    long[] points = new long[size];
+    String[] owners = new String[size];
+    for (int i = 0; i < size; i++) {
+      points[i] = entries[i][0];
+      owners[i] = distinct.get((int) entries[i][1]);
+    }
+    return new ConsistentHashRing(distinct, points, owners);
+  }
+
+  public String ownerOf(String key) {
+    int idx = Arrays.binarySearch(points, hash(key));
+    if (idx < 0) {
+      idx = -idx - 1;
+    }
+    return owners[idx == points.length ? 0 : idx];
+  }
+
+  public List<String> members() {
+    return members;
+  }
+
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h ^= key.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,97 @@
+package com.hka.oms.cluster;
+
+import com.hka.oms.cache.OrderJson;
+import com.hka.oms.cache.RemoteOrderCache;
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class OrderRouter {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderRouter.class);
+
+  private final ClusterMembership membership;
+  private final ClusterClient clusterClient;
+  private final OrderService orderService;
+  private final RemoteOrderCache remoteCache;
+  private final ClusterFanOut fanOut;
+
+  public OrderRouter(ClusterMembership membership, ClusterClient clusterClient, OrderService orderService,
+                     RemoteOrderCache remoteCache, ClusterFanOut fanOut) {
+    this.membership = membership;
+    this.clusterClient = clusterClient;
+    this.orderService = orderService;
+    this.remoteCache = remoteCache;
+    this.fanOut = fanOut;
+  }
+
+  public String ownerOf(String orderId) {
+    return membership.ownerOf(orderId);
+  }
+
+  public boolean isLocal(String orderId) {
+    return membership.isLocal(orderId);
+  }
+
+  public ResponseEntity<byte[]> forwardGet(String orderId, String ifNoneMatch) {
+    String owner = membership.ownerOf(orderId);
+    OrderJson cached = remoteCache.get(orderId);
+    if (cached == null) {
+      ResponseEntity<byte[]> upstream = clusterClient.fetchOrderJson(owner, orderId, null);
+      long version = OrderJson.versionOf(upstream.getHeaders().getETag());
+      if (!upstream.getStatusCode().is2xxSuccessful() || upstream.getBody() == null || version < 0) {
+        return relay(owner, upstream);
+      }
+      cached = new OrderJson(orderId, version, upstream.getHeaders().getETag(), upstream.getBody());
+      remoteCache.put(cached);
+    }
+    if (cached.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(cached.etag())
+          .header(ClusterClient.OWNER_HEADER, owner)
+          .build();
+    }
+    return ResponseEntity.ok()
+        .eTag(cached.etag())
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(ClusterClient.OWNER_HEADER, owner)
+        .body(cached.bytes());
+  }
+
+  public List<Order> list(boolean forwarded) {
+    if (forwarded || !membership.isClustered()) {
+      return orderService.list();
+    }
+    List<List<Order>> remote = fanOut.call(this::fetchAll, member -> List.of());
+    List<Order> all = new ArrayList<>(orderService.list());
+    remote.forEach(all::addAll);
+    return all;
+  }
+
+  private List<Order> fetchAll(String member) {
+    try {
+      return clusterClient.listOrders(member);
+    } catch (ClusterException ex) {
+      log.warn("Skipping orders of {}: {}", member, ex.getMessage());
+      return List.of();
+    }
+  }
+
+  private static ResponseEntity<byte[]> relay(String owner, ResponseEntity<byte[]> upstream) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(upstream.getHeaders().getContentType());
+    headers.setETag(upstream.getHeaders().getETag());
+    headers.set(ClusterClient.OWNER_HEADER, owner);
+    return new ResponseEntity<>(upstream.getBody(), headers, upstream.getStatusCode());
+  }
+}
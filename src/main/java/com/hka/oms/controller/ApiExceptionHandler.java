@@ -1,16 +1,24 @@
 package com.hka.oms.controller;
 
+import com.hka.oms.admin.AdminException;
+import com.hka.oms.admission.OverloadedException;
+import com.hka.oms.bulk.ImportException;
+import com.hka.oms.cluster.ClusterException;
 import com.hka.oms.payment.PaymentException;
+import com.hka.oms.profiling.ProfilingException;
 import com.hka.oms.service.InventoryUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestControllerAdvice
 public class ApiExceptionHandler {
@@ -30,6 +38,44 @@ public class ApiExceptionHandler {
     return build(status, ex.getMessage());
   }
 
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<Map<String, Object>> handleNotFound(NoSuchElementException ex) {
+    return build(HttpStatus.NOT_FOUND, ex.getMessage());
+  }
+
+  @ExceptionHandler(ClusterException.class)
+  public ResponseEntity<Map<String, Object>> handleClusterException(ClusterException ex) {
+    log.warn("Cluster error ({}): {}", ex.getStatus().value(), ex.getMessage());
+    return build(ex.getStatus(), ex.getMessage());
+  }
+
+  @ExceptionHandler(ImportException.class)
+  public ResponseEntity<Map<String, Object>> handleImportException(ImportException ex) {
+    log.warn("Import error ({}): {}", ex.getStatus().value(), ex.getMessage());
+    return build(ex.getStatus(), ex.getMessage());
+  }
+
+  @ExceptionHandler(ProfilingException.class)
+  public ResponseEntity<Map<String, Object>> handleProfilingException(ProfilingException ex) {
+    log.warn("Profiling error ({}): {}", ex.getStatus().value(), ex.getMessage());
+    return build(ex.getStatus(), ex.getMessage());
+  }
+
+  @ExceptionHandler(AdminException.class)
+  public ResponseEntity<Map<String, Object>> handleAdminException(AdminException ex) {
+    log.warn("Admin error ({}): {}", ex.getStatus().value(), ex.getMessage());
+    return build(ex.getStatus(), ex.getMessage());
+  }
+
+  @ExceptionHandler(OverloadedException.class)
+  public ResponseEntity<Map<String, Object>> handleOverloaded(OverloadedException ex) {
+    log.debug("Request shed: {}", ex.getMessage());
+    ResponseEntity<Map<String, Object>> response = build(ex.getStatus(), ex.getMessage());
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(response.getBody());
+  }
+
   private ResponseEntity<Map<String, Object>> build(HttpStatus status, String message) {
     Map<String, Object> body = Map.of(
         "timestamp", Instant.now().toString(),
@@ -37,6 +83,7 @@ public class ApiExceptionHandler {
         "error", status.getReasonPhrase(),
         "message", message
     );
-    return ResponseEntity.status(status).body(body);
+    // errors are always JSON, also for clients that negotiated protobuf
+    return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
   }
 }
\ No newline at end of file
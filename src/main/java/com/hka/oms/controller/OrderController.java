@@ -3,10 +3,19 @@ package com.hka.oms.controller;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hka.oms.cache.OrderJson;
+import com.hka.oms.cache.OrderJsonCache;
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.OrderRouter;
 import com.hka.oms.domain.Order;
+import com.hka.oms.intake.IntakeTicket;
+import com.hka.oms.intake.OrderIntake;
 import com.hka.oms.service.OrderCreationResult;
 import com.hka.oms.service.OrderService;
+import com.hka.oms.wire.ProtobufOrderConverter;
 
+import java.io.IOException;
 import java.net.URI;
 
 @RestController
@@ -14,13 +23,31 @@ import java.net.URI;
 public class OrderController {
 
   private final OrderService service;
+  private final OrderRouter router;
+  private final OrderJsonCache jsonCache;
+  private final ObjectMapper objectMapper;
+  private final OrderIntake intake;
 
-  public OrderController(OrderService service) {
+  public OrderController(OrderService service, OrderRouter router, OrderJsonCache jsonCache,
+                         ObjectMapper objectMapper, OrderIntake intake) {
     this.service = service;
+    this.router = router;
+    this.jsonCache = jsonCache;
+    this.objectMapper = objectMapper;
+    this.intake = intake;
   }
 
   @PostMapping
-  public ResponseEntity<OrderCreationResult> create(@RequestBody Order order) {
+  public ResponseEntity<?> create(@RequestBody Order order,
+      @RequestHeader(value = "Prefer", required = false) String prefer) {
+    if (intake.isAsync(prefer)) {
+      IntakeTicket ticket = intake.submit(order);
+      return ResponseEntity.accepted()
+          .location(URI.create(ticket.statusUrl()))
+          .header("Preference-Applied", "respond-async")
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(ticket);
+    }
     OrderCreationResult result = service.create(order);
 
     URI location = URI.create("/orders/" + result.order().getOrderId());
@@ -31,13 +58,74 @@ public class OrderController {
   }
 
   @GetMapping("/{orderId}")
-  public ResponseEntity<Order> get(@PathVariable String orderId) {
-    Order order = service.get(orderId);
-    return ResponseEntity.ok(order);
+  public ResponseEntity<byte[]> get(@PathVariable String orderId,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (forwarded == null && !router.isLocal(orderId)) {
+      return router.forwardGet(orderId, ifNoneMatch);
+    }
+    OrderJson json = jsonCache.render(orderId, service.version(orderId), () -> service.get(orderId));
+    if (json.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(json.etag())
+          .varyBy(HttpHeaders.ACCEPT)
+          .header(ClusterClient.OWNER_HEADER, router.ownerOf(orderId))
+          .build();
+    }
+    return ResponseEntity.ok()
+        .eTag(json.etag())
+        .varyBy(HttpHeaders.ACCEPT)
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(ClusterClient.OWNER_HEADER, router.ownerOf(orderId))
+        .body(json.bytes());
+  }
+
+  @GetMapping(value = "/{orderId}", produces = ProtobufOrderConverter.PROTOBUF_VALUE)
+  public ResponseEntity<Order> getProtobuf(@PathVariable String orderId,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+    if (forwarded == null && !router.isLocal(orderId)) {
+      // members talk JSON to each other: fetch the owner's answer unconditionally, it is served from the
+      // remote cache, and compare the client's tags against the protobuf tag of the owner's version
+      ResponseEntity<byte[]> remote = router.forwardGet(orderId, null);
+      long version = OrderJson.versionOf(remote.getHeaders().getETag());
+      String owner = remote.getHeaders().getFirst(ClusterClient.OWNER_HEADER);
+      if (remote.getStatusCode() != HttpStatus.OK || remote.getBody() == null || version < 0) {
+        return ResponseEntity.status(remote.getStatusCode()).header(ClusterClient.OWNER_HEADER, owner).build();
+      }
+      OrderJson tag = new OrderJson(orderId, version, OrderJson.protobufEtagOf(version), null);
+      if (tag.matches(ifNoneMatch)) {
+        return notModified(tag, owner);
+      }
+      return ResponseEntity.ok()
+          .eTag(tag.etag())
+          .varyBy(HttpHeaders.ACCEPT)
+          .header(ClusterClient.OWNER_HEADER, owner)
+          .body(objectMapper.readValue(remote.getBody(), Order.class));
+    }
+    long version = service.version(orderId);
+    OrderJson tag = new OrderJson(orderId, version, OrderJson.protobufEtagOf(version), null);
+    if (tag.matches(ifNoneMatch)) {
+      return notModified(tag, router.ownerOf(orderId));
+    }
+    return ResponseEntity.ok()
+        .eTag(tag.etag())
+        .varyBy(HttpHeaders.ACCEPT)
+        .header(ClusterClient.OWNER_HEADER, router.ownerOf(orderId))
+        .body(service.get(orderId));
+  }
+
+  private static <T> ResponseEntity<T> notModified(OrderJson tag, String owner) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(tag.etag())
+        .varyBy(HttpHeaders.ACCEPT)
+        .header(ClusterClient.OWNER_HEADER, owner)
+        .build();
   }
 
   @GetMapping
-  public ResponseEntity<java.util.List<Order>> list() {
-    return ResponseEntity.ok(service.list());
+  public ResponseEntity<java.util.List<Order>> list(
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded) {
+    return ResponseEntity.ok(router.list(forwarded != null));
   }
 }
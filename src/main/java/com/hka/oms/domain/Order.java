@@ -16,6 +16,7 @@ public final class Order {
   private final BigDecimal totalAmount;
   private final ShippingAddress shippingAddress;
   private final OrderStatus status;
+  private final long version;
 
   private Order(Builder b) {
     this.orderId = b.orderId;
@@ -24,11 +25,15 @@ public final class Order {
     if (items.isEmpty()) throw new IllegalArgumentException("order needs at least one item");
     this.shippingAddress = b.shippingAddress;
     this.status = b.status == null ? OrderStatus.CREATED : b.status;
+    if (b.version < 0) throw new IllegalArgumentException("version must be >= 0");
+    this.version = b.version;
 
-    BigDecimal calculated = items.stream()
-        .map(i -> i.getPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
-        .reduce(BigDecimal.ZERO, BigDecimal::add)
-        .setScale(2, RoundingMode.HALF_UP);
+    BigDecimal sum = BigDecimal.ZERO;
+    for (int i = 0; i < items.size(); i++) {
+      OrderItem item = items.get(i);
+      sum = sum.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+    }
+    BigDecimal calculated = sum.setScale(2, RoundingMode.HALF_UP);
 
     this.totalAmount = (b.totalAmount != null ? b.totalAmount.setScale(2, RoundingMode.HALF_UP) : calculated);
 
@@ -43,9 +48,10 @@ public final class Order {
   public BigDecimal getTotalAmount(){ return totalAmount; }
   public ShippingAddress getShippingAddress(){ return shippingAddress; }
   public OrderStatus getStatus(){ return status; }
+  public long getVersion(){ return version; }
 
   public Order withOrderId(String id){ return builderFrom(this).orderId(id).build(); }
-  public Order withStatus(OrderStatus s){ return builderFrom(this).status(s).build(); }
+  public Order withStatus(OrderStatus s){ return builderFrom(this).status(s).version(version + 1).build(); }
 
   public static Builder builder(){ return new Builder(); }
   public static Builder builderFrom(Order o){
@@ -55,7 +61,8 @@ public final class Order {
         .items(o.items)
         .totalAmount(o.totalAmount)
         .shippingAddress(o.shippingAddress)
-        .status(o.status);
+        .status(o.status)
+        .version(o.version);
   }
 
   @JsonPOJOBuilder(withPrefix = "")
@@ -66,6 +73,7 @@ public final class Order {
     private BigDecimal totalAmount;
     private ShippingAddress shippingAddress;
     private OrderStatus status;
+    private long version;
 
     @JsonProperty("orderId")
     public Builder orderId(String v){ this.orderId = v; return this; }
@@ -83,6 +91,8 @@ public final class Order {
     public Builder shippingAddress(ShippingAddress v){ this.shippingAddress = v; return this; }
     @JsonProperty("status")
     public Builder status(OrderStatus v){ this.status = v; return this; }
+    @JsonProperty("version")
+    public Builder version(long v){ this.version = v; return this; }
     
     public Order build() {
         return new Order(this);
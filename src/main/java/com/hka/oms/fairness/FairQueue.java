@@ -0,0 +1,273 @@
+package com.hka.oms.fairness;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Deficit round-robin over one lane per customer. Each turn a lane may hand
+ * out as many elements as its weight; lanes whose customer is at its
+ * concurrency cap are skipped until {@link FairScheduler#release} frees a
+ * slot. Removing an element claims that slot.
+ */
+final class FairQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+  private final FairScheduler scheduler;
+  private final ReentrantLock lock;
+  private final Condition notEmpty;
+  private final Condition notFull;
+  private final int capacity;
+  private final int laneCapacity;
+  private final Function<E, String> customerOf;
+  private final Map<String, Lane<E>> lanes = new HashMap<>();
+  private final ArrayDeque<Lane<E>> active = new ArrayDeque<>();
+  private int count;
+
+  FairQueue(FairScheduler scheduler, int capacity, int laneCapacity, Function<E, String> customerOf) {
+    this.scheduler = scheduler;
+    this.lock = scheduler.lock();
+    this.notEmpty = lock.newCondition();
+    this.notFull = lock.newCondition();
+    this.capacity = capacity;
+    this.laneCapacity = laneCapacity;
+    this.customerOf = customerOf;
+  }
+
+  @Override
+  public boolean offer(E e) {
+    Objects.requireNonNull(e);
+    lock.lock();
+    try {
+      return enqueue(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    Objects.requireNonNull(e);
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (!enqueue(e)) {
+        if (nanos <= 0) {
+          return false;
+        }
+        nanos = notFull.awaitNanos(nanos);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void put(E e) throws InterruptedException {
+    Objects.requireNonNull(e);
+    lock.lockInterruptibly();
+    try {
+      while (!enqueue(e)) {
+        notFull.await();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public E poll() {
+    lock.lock();
+    try {
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      E e;
+      while ((e = dequeue()) == null) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return e;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      E e;
+      while ((e = dequeue()) == null) {
+        notEmpty.await();
+      }
+      return e;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public E peek() {
+    lock.lock();
+    try {
+      Lane<E> lane = active.peekFirst();
+      return lane == null ? null : lane.items.peekFirst();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    lock.lock();
+    try {
+      return capacity - count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Empties lanes in turn order regardless of customer caps: draining is for
+   * shutdown, where every queued element must be handed back. Each element
+   * still claims its customer's slot, so the caller releases it as after a
+   * take.
+   */
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    lock.lock();
+    try {
+      int n = 0;
+      while (n < maxElements && !active.isEmpty()) {
+        Lane<E> lane = active.peekFirst();
+        while (n < maxElements && !lane.items.isEmpty()) {
+          c.add(lane.items.pollFirst());
+          count--;
+          scheduler.acquired(lane.customerId);
+          n++;
+        }
+        if (lane.items.isEmpty()) {
+          active.pollFirst();
+          lanes.remove(lane.customerId);
+        }
+      }
+      if (n > 0) {
+        notFull.signalAll();
+      }
+      return n;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    lock.lock();
+    try {
+      List<E> snapshot = new ArrayList<>(count);
+      for (Lane<E> lane : active) {
+        snapshot.addAll(lane.items);
+      }
+      return snapshot.iterator();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Called by the scheduler, under its lock, when a customer slot was returned. */
+  void capacityFreed() {
+    notEmpty.signalAll();
+  }
+
+  private boolean enqueue(E e) {
+    if (count >= capacity) {
+      return false;
+    }
+    String customerId = customerOf.apply(e);
+    Lane<E> lane = lanes.get(customerId);
+    if (lane == null) {
+      lane = new Lane<>(customerId);
+      lanes.put(customerId, lane);
+      active.addLast(lane);
+    } else if (lane.items.size() >= laneCapacity) {
+      return false;
+    }
+    lane.items.addLast(e);
+    count++;
+    notEmpty.signal();
+    return true;
+  }
+
+  private E dequeue() {
+    for (int i = 0, n = active.size(); i < n; i++) {
+      Lane<E> lane = active.peekFirst();
+      if (!scheduler.hasCapacity(lane.customerId)) {
+        active.addLast(active.pollFirst());
+        continue;
+      }
+      if (lane.deficit <= 0) {
+        lane.deficit += scheduler.weightOf(lane.customerId);
+      }
+      lane.deficit--;
+      E e = lane.items.pollFirst();
+      count--;
+      scheduler.acquired(lane.customerId);
+      if (lane.items.isEmpty()) {
+        active.pollFirst();
+        lanes.remove(lane.customerId);
+      } else if (lane.deficit <= 0) {
+        active.addLast(active.pollFirst());
+      }
+      notFull.signalAll();
+      return e;
+    }
+    return null;
+  }
+
+  private static final class Lane<E> {
+    final String customerId;
+    final ArrayDeque<E> items = new ArrayDeque<>();
+    int deficit;
+
+    Lane(String customerId) {
+      this.customerId = customerId;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package com.hka.oms.fairness;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.admission.OverloadedException;
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Per-customer share of the downstream work behind order creation. Every
+ * customer may have at most {@code max-concurrency} orders between
+ * reservation and WMS publish; synchronous creates beyond that are refused
+ * with 429, queued ones wait in a {@link FairQueue} while other customers
+ * are served by weight.
+ */
+@Component
+public class FairScheduler {
+
+  static final String ANONYMOUS = "anonymous";
+  private static final String OTHERS = "default";
+
+  private final FairShareProperties properties;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition slotFreed = lock.newCondition();
+  private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+  private final List<FairQueue<?>> queues = new CopyOnWriteArrayList<>();
+  private final Counter throttledOthers;
+  private final Map<String, Counter> throttled = new ConcurrentHashMap<>();
+
+  public FairScheduler(FairShareProperties properties, MeterRegistry registry) {
+    this.properties = properties;
+    for (String customerId : properties.customers().keySet()) {
+      Gauge.builder("orders.fair-share.in-flight", inFlight, m -> m.getOrDefault(customerId, 0))
+          .description("Orders of a customer between reservation and publish")
+          .tag("customer", customerId)
+          .register(registry);
+      Gauge.builder("orders.fair-share.max-concurrency", this, s -> s.capOf(customerId))
+          .tag("customer", customerId)
+          .register(registry);
+      throttled.put(customerId, registry.counter("orders.fair-share.throttled", "customer", customerId));
+    }
+    Gauge.builder("orders.fair-share.in-flight", this, FairScheduler::othersInFlight)
+        .tag("customer", OTHERS)
+        .register(registry);
+    Gauge.builder("orders.fair-share.max-concurrency", properties, FairShareProperties::defaultMaxConcurrency)
+        .tag("customer", OTHERS)
+        .register(registry);
+    Gauge.builder("orders.fair-share.active-customers", inFlight, Map::size)
+        .description("Customers with orders in progress")
+        .register(registry);
+    this.throttledOthers = registry.counter("orders.fair-share.throttled", "customer", OTHERS);
+  }
+
+  public static String customerOf(Order order) {
+    Customer customer = order.getCustomer();
+    return customer == null || customer.getCustomerId() == null ? ANONYMOUS : customer.getCustomerId();
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  public int weightOf(String customerId) {
+    FairShareProperties.Tenant tenant = properties.customers().get(customerId);
+    return tenant != null && tenant.weight() > 0 ? tenant.weight() : properties.defaultWeight();
+  }
+
+  public int capOf(String customerId) {
+    FairShareProperties.Tenant tenant = properties.customers().get(customerId);
+    return tenant != null && tenant.maxConcurrency() > 0 ? tenant.maxConcurrency()
+        : properties.defaultMaxConcurrency();
+  }
+
+  public int inFlight(String customerId) {
+    return inFlight.getOrDefault(customerId, 0);
+  }
+
+  /**
+   * Claims a slot for a synchronous create; close it once the order is
+   * published or failed.
+   */
+  public Slot enter(String customerId) {
+    if (!properties.enabled()) {
+      return Slot.NONE;
+    }
+    lock.lock();
+    try {
+      if (!hasCapacity(customerId)) {
+        throttled.getOrDefault(customerId, throttledOthers).increment();
+        throw new OverloadedException(HttpStatus.TOO_MANY_REQUESTS, "customer " + customerId
+            + " already has " + capOf(customerId) + " orders in progress, retry later");
+      }
+      acquired(customerId);
+    } finally {
+      lock.unlock();
+    }
+    return () -> release(customerId);
+  }
+
+  /**
+   * Like {@link #enter}, but waits for a free slot instead of refusing; for
+   * callers that must not drop work, such as bulk imports.
+   */
+  public Slot await(String customerId) throws InterruptedException {
+    if (!properties.enabled()) {
+      return Slot.NONE;
+    }
+    lock.lockInterruptibly();
+    try {
+      while (!hasCapacity(customerId)) {
+        slotFreed.await();
+      }
+      acquired(customerId);
+    } finally {
+      lock.unlock();
+    }
+    return () -> release(customerId);
+  }
+
+  /** Returns the slot taken by {@link #enter}, {@link #await} or a {@link FairQueue} take. */
+  public void release(String customerId) {
+    if (!properties.enabled()) {
+      return;
+    }
+    lock.lock();
+    try {
+      inFlight.computeIfPresent(customerId, (id, n) -> n > 1 ? n - 1 : null);
+      slotFreed.signalAll();
+      queues.forEach(FairQueue::capacityFreed);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A queue served in weighted round-robin order across customers; taking an
+   * element claims a slot that must be handed back with {@link #release}.
+   * Plain FIFO when fair sharing is disabled.
+   */
+  public <T> BlockingQueue<T> queue(int capacity, Function<T, String> customerOf) {
+    if (!properties.enabled()) {
+      return new ArrayBlockingQueue<>(capacity);
+    }
+    FairQueue<T> queue = new FairQueue<>(this, capacity, properties.maxQueuedPerCustomer(), customerOf);
+    queues.add(queue);
+    return queue;
+  }
+
+  ReentrantLock lock() {
+    return lock;
+  }
+
+  boolean hasCapacity(String customerId) {
+    return inFlight(customerId) < capOf(customerId);
+  }
+
+  void acquired(String customerId) {
+    inFlight.merge(customerId, 1, Integer::sum);
+  }
+
+  private int othersInFlight() {
+    int total = 0;
+    for (Map.Entry<String, Integer> entry : inFlight.entrySet()) {
+      if (!properties.customers().containsKey(entry.getKey())) {
+        total += entry.getValue();
+      }
+    }
+    return total;
+  }
+
+  public interface Slot extends AutoCloseable {
+    Slot NONE = () -> { };
+
+    @Override
+    void close();
+  }
+}
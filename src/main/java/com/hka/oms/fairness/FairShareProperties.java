@@ -0,0 +1,25 @@
+package com.hka.oms.fairness;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "orders.fair-share")
+public record FairShareProperties(boolean enabled, int defaultWeight, int defaultMaxConcurrency,
+                                  int maxQueuedPerCustomer, Map<String, Tenant> customers) {
+  public FairShareProperties {
+    if (defaultWeight <= 0) {
+      defaultWeight = 1;
+    }
+    if (defaultMaxConcurrency <= 0) {
+      defaultMaxConcurrency = 4;
+    }
+    if (maxQueuedPerCustomer <= 0) {
+      maxQueuedPerCustomer = 1024;
+    }
+    customers = customers == null ? Map.of() : Map.copyOf(customers);
+  }
+
+  /** Overrides for one customer; zero keeps the default. */
+  public record Tenant(int weight, int maxConcurrency) {}
+}
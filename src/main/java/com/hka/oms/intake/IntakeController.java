@@ -0,0 +1,29 @@
+package com.hka.oms.intake;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/orders/intake")
+public class IntakeController {
+
+  private final OrderIntake intake;
+
+  public IntakeController(OrderIntake intake) {
+    this.intake = intake;
+  }
+
+  @GetMapping("/{orderId}")
+  public ResponseEntity<IntakeTicket> status(@PathVariable String orderId) {
+    IntakeTicket ticket = intake.status(orderId);
+    if (ticket.state() == IntakeState.COMPLETED) {
+      return ResponseEntity.status(303).location(URI.create(ticket.orderUrl())).body(ticket);
+    }
+    return ResponseEntity.ok(ticket);
+  }
+}
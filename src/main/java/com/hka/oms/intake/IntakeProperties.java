@@ -0,0 +1,34 @@
+package com.hka.oms.intake;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "orders.intake")
+public record IntakeProperties(boolean enabled, boolean asyncByDefault, int capacity, int reserveWorkers,
+                               int authorizeWorkers, int publishWorkers, Duration offerTimeout,
+                               Duration retention, Duration drainTimeout) {
+  public IntakeProperties {
+    if (capacity <= 0) {
+      capacity = 4096;
+    }
+    if (reserveWorkers <= 0) {
+      reserveWorkers = 8;
+    }
+    if (authorizeWorkers <= 0) {
+      authorizeWorkers = 8;
+    }
+    if (publishWorkers <= 0) {
+      publishWorkers = 2;
+    }
+    if (offerTimeout == null || offerTimeout.isNegative()) {
+      offerTimeout = Duration.ZERO;
+    }
+    if (retention == null || retention.isNegative() || retention.isZero()) {
+      retention = Duration.ofMinutes(10);
+    }
+    if (drainTimeout == null || drainTimeout.isNegative()) {
+      drainTimeout = Duration.ofSeconds(10);
+    }
+  }
+}
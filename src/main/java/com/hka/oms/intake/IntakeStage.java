@@ -0,0 +1,96 @@
+package com.hka.oms.intake;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One step of the intake pipeline: a bounded ring of pending jobs drained by
+ * a fixed set of workers. Handing a job to the next stage blocks while that
+ * stage is full, so a slow downstream fills the rings back to the intake.
+ */
+final class IntakeStage<T> {
+
+  private static final Logger log = LoggerFactory.getLogger(IntakeStage.class);
+
+  private final String name;
+  private final BlockingQueue<T> ring;
+  private final Consumer<T> handler;
+  private final List<Thread> workers = new ArrayList<>();
+
+  IntakeStage(String name, BlockingQueue<T> ring, int workers, Consumer<T> handler) {
+    this.name = name;
+    this.ring = ring;
+    this.handler = handler;
+    for (int i = 0; i < workers; i++) {
+      Thread thread = new Thread(this::run, "intake-" + name + "-" + i);
+      thread.setDaemon(true);
+      this.workers.add(thread);
+    }
+  }
+
+  void start() {
+    workers.forEach(Thread::start);
+  }
+
+  boolean offer(T job, long timeoutMillis) throws InterruptedException {
+    return timeoutMillis <= 0 ? ring.offer(job) : ring.offer(job, timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  void put(T job) throws InterruptedException {
+    ring.put(job);
+  }
+
+  int depth() {
+    return ring.size();
+  }
+
+  String name() {
+    return name;
+  }
+
+  /**
+   * Interrupts the workers, waits up to {@code graceMillis} for them to let go
+   * of their current job and returns the jobs nobody picked up.
+   */
+  List<T> stop(long graceMillis) {
+    workers.forEach(Thread::interrupt);
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(graceMillis);
+    for (Thread worker : workers) {
+      long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remaining <= 0) {
+        break;
+      }
+      try {
+        worker.join(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    List<T> left = new ArrayList<>();
+    ring.drainTo(left);
+    return left;
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      T job;
+      try {
+        job = ring.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      try {
+        handler.accept(job);
+      } catch (RuntimeException ex) {
+        log.error("Intake stage {} failed unexpectedly", name, ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,5 @@
+package com.hka.oms.intake;
+
+public enum IntakeState {
+  ACCEPTED, RESERVED, AUTHORIZED, COMPLETED, FAILED
+}
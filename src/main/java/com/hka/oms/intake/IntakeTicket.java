@@ -0,0 +1,17 @@
+package com.hka.oms.intake;
+
+import java.time.Instant;
+
+public record IntakeTicket(String orderId, IntakeState state, String message, String statusUrl,
+                           String orderUrl, Instant acceptedAt, Instant updatedAt) {
+
+  static IntakeTicket accepted(String orderId) {
+    Instant now = Instant.now();
+    return new IntakeTicket(orderId, IntakeState.ACCEPTED, null, "/orders/intake/" + orderId, null, now, now);
+  }
+
+  IntakeTicket advance(IntakeState next, String message) {
+    return new IntakeTicket(orderId, next, message, statusUrl,
+        next == IntakeState.COMPLETED ? "/orders/" + orderId : null, acceptedAt, Instant.now());
+  }
+}
@@ -0,0 +1,251 @@
+package com.hka.oms.intake;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.admission.OverloadedException;
+import com.hka.oms.domain.Order;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.service.OrderService;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous order creation. {@link #submit} validates and assigns the id
+ * on the caller's thread, then hands the order to a pipeline of bounded
+ * stages (reserve, authorize, publish) and returns right away. Progress is
+ * kept as {@link IntakeTicket}s for {@code orders.intake.retention}. When the
+ * intake ring is full the order is refused with 503 instead of queueing
+ * without bound. Orders still in the pipeline at shutdown are settled:
+ * authorized ones are published, reserved ones get their stock released.
+ */
+@Component
+public class OrderIntake {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderIntake.class);
+  private static final long STOP_GRACE_MILLIS = 1_000;
+
+  private final OrderService orderService;
+  private final IntakeProperties properties;
+  private final FairScheduler fairness;
+  private final BlockingQueue<Job> intakeRing;
+  private final IntakeStage<Job> reserve;
+  private final IntakeStage<Job> authorize;
+  private final IntakeStage<Job> publish;
+  private final Cache<String, IntakeTicket> tickets;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Counter rejected;
+  private final Counter completed;
+  private final Counter failed;
+  private final Timer latency;
+  private volatile boolean accepting = true;
+
+  public OrderIntake(OrderService orderService, IntakeProperties properties, FairScheduler fairness,
+                     MeterRegistry registry) {
+    this.orderService = orderService;
+    this.properties = properties;
+    this.fairness = fairness;
+    this.intakeRing = fairness.queue(properties.capacity(), job -> FairScheduler.customerOf(job.order));
+    this.publish = new IntakeStage<>("publish", new ArrayBlockingQueue<>(properties.capacity()),
+        properties.publishWorkers(), job -> process(job, this::publish));
+    this.authorize = new IntakeStage<>("authorize", new ArrayBlockingQueue<>(properties.capacity()),
+        properties.authorizeWorkers(), job -> process(job, this::authorize));
+    this.reserve = new IntakeStage<>("reserve", intakeRing, properties.reserveWorkers(),
+        job -> process(job, this::reserve));
+    this.tickets = Caffeine.newBuilder().expireAfterWrite(properties.retention()).build();
+    for (IntakeStage<Job> stage : List.of(reserve, authorize, publish)) {
+      Gauge.builder("orders.intake.depth", stage, IntakeStage::depth)
+          .description("Orders waiting in an intake stage")
+          .tag("stage", stage.name())
+          .register(registry);
+    }
+    Gauge.builder("orders.intake.in-flight", inFlight, AtomicInteger::get)
+        .description("Accepted orders not yet completed or failed")
+        .register(registry);
+    this.rejected = registry.counter("orders.intake.rejected");
+    this.completed = registry.counter("orders.intake.finished", "outcome", "completed");
+    this.failed = registry.counter("orders.intake.finished", "outcome", "failed");
+    this.latency = Timer.builder("orders.intake.latency")
+        .description("Time from acceptance until the order was published or failed")
+        .register(registry);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (properties.enabled()) {
+      reserve.start();
+      authorize.start();
+      publish.start();
+    }
+  }
+
+  /** Whether a request goes through the intake, given its {@code Prefer} header. */
+  public boolean isAsync(String prefer) {
+    if (!properties.enabled()) {
+      return false;
+    }
+    return properties.asyncByDefault() || prefer != null && prefer.toLowerCase().contains("respond-async");
+  }
+
+  public IntakeTicket submit(Order incoming) {
+    if (!accepting) {
+      throw new OverloadedException(HttpStatus.SERVICE_UNAVAILABLE, "order intake is shutting down");
+    }
+    Order accepted = orderService.accept(incoming);
+    IntakeTicket ticket = IntakeTicket.accepted(accepted.getOrderId());
+    tickets.put(ticket.orderId(), ticket);
+    inFlight.incrementAndGet();
+    boolean queued;
+    try {
+      queued = reserve.offer(new Job(accepted, System.nanoTime()), properties.offerTimeout().toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queued = false;
+    }
+    if (!queued) {
+      inFlight.decrementAndGet();
+      tickets.invalidate(ticket.orderId());
+      rejected.increment();
+      if (intakeRing.remainingCapacity() > 0) {
+        // room left, but not for this customer
+        throw new OverloadedException(HttpStatus.TOO_MANY_REQUESTS,
+            "too many queued orders for customer " + FairScheduler.customerOf(accepted) + ", retry later");
+      }
+      throw new OverloadedException(HttpStatus.SERVICE_UNAVAILABLE, "order intake is full, retry later");
+    }
+    return ticket;
+  }
+
+  public IntakeTicket status(String orderId) {
+    IntakeTicket ticket = tickets.getIfPresent(orderId);
+    if (ticket == null) {
+      throw new NoSuchElementException("no intake status for order " + orderId);
+    }
+    return ticket;
+  }
+
+  private void reserve(Job job) throws InterruptedException {
+    job.reservation = orderService.reserve(job.order);
+    advance(job, IntakeState.RESERVED, job.reservation);
+    authorize.put(job);
+  }
+
+  private void authorize(Job job) throws InterruptedException {
+    job.result = orderService.authorize(job.order, job.reservation);
+    advance(job, IntakeState.AUTHORIZED, null);
+    publish.put(job);
+  }
+
+  private void publish(Job job) {
+    orderService.publish(job.result);
+    finish(job, completed);
+    advance(job, IntakeState.COMPLETED, null);
+  }
+
+  private void process(Job job, StageAction action) {
+    try {
+      action.run(job);
+    } catch (InterruptedException e) {
+      abandon(job);
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException ex) {
+      log.warn("Async creation of order {} failed: {}", job.order.getOrderId(), ex.getMessage());
+      fail(job, ex.getMessage());
+    }
+  }
+
+  /**
+   * Settles a job the intake stopped on. An authorized order is published on
+   * the calling thread; a reserved one has its reservation released before it
+   * is marked failed.
+   */
+  private void abandon(Job job) {
+    if (job.result != null) {
+      try {
+        publish(job);
+      } catch (RuntimeException ex) {
+        fail(job, ex.getMessage());
+      }
+      return;
+    }
+    if (job.reservation != null) {
+      orderService.releaseReservation(job.order);
+    }
+    fail(job, "intake stopped before the order was processed");
+  }
+
+  private void fail(Job job, String message) {
+    finish(job, failed);
+    advance(job, IntakeState.FAILED, message);
+  }
+
+  private void finish(Job job, Counter outcome) {
+    fairness.release(FairScheduler.customerOf(job.order));
+    outcome.increment();
+    latency.record(System.nanoTime() - job.acceptedNanos, TimeUnit.NANOSECONDS);
+    inFlight.decrementAndGet();
+  }
+
+  private void advance(Job job, IntakeState state, String message) {
+    tickets.asMap().compute(job.order.getOrderId(), (id, current) ->
+        (current == null ? IntakeTicket.accepted(id) : current).advance(state, message));
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    accepting = false;
+    long deadline = System.nanoTime() + properties.drainTimeout().toNanos();
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if (inFlight.get() > 0) {
+      log.warn("Stopping order intake with {} orders still in flight", inFlight.get());
+    }
+    // upstream first, so no job is handed to a stage that already stopped
+    for (IntakeStage<Job> stage : List.of(reserve, authorize, publish)) {
+      List<Job> left = stage.stop(STOP_GRACE_MILLIS);
+      left.forEach(this::abandon);
+    }
+  }
+
+  private interface StageAction {
+    void run(Job job) throws InterruptedException;
+  }
+
+  private static final class Job {
+    final Order order;
+    final long acceptedNanos;
+    String reservation;
+    OrderCreationResult result;
+
+    Job(Order order, long acceptedNanos) {
+      this.order = order;
+      this.acceptedNanos = acceptedNanos;
+    }
+  }
+}
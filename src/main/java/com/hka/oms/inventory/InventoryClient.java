@@ -1,5 +1,6 @@
 package com.hka.oms.inventory;
 
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.StatusRuntimeException;
@@ -13,8 +14,13 @@ import org.springframework.stereotype.Component;
 
 import com.hka.oms.domain.Order;
 import com.hka.oms.domain.OrderItem;
+import com.hka.oms.profiling.InventoryRpcEvent;
+import com.hka.oms.tracing.GrpcTracingInterceptor;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -23,26 +29,65 @@ public class InventoryClient {
 
   private final ManagedChannel channel;
   private final InventoryServiceGrpc.InventoryServiceBlockingStub blockingStub;
+  private final Duration deadline;
+  private final ReservationStreams streams;
 
   public InventoryClient(
       @Value("${inventory.grpc.host:localhost}") String host,
-      @Value("${inventory.grpc.port:50051}") int port) {
+      @Value("${inventory.grpc.port:50051}") int port,
+      @Value("${inventory.grpc.deadline:5s}") Duration deadline,
+      GrpcTracingInterceptor tracingInterceptor,
+      InventoryStreamProperties streamProperties) {
     this.channel = ManagedChannelBuilder
         .forAddress(host, port)
         .usePlaintext()
+        .intercept(tracingInterceptor)
         .build();
     this.blockingStub = InventoryServiceGrpc.newBlockingStub(channel);
+    this.deadline = deadline;
+    this.streams = streamProperties.enabled() ? new ReservationStreams(channel, streamProperties) : null;
+  }
+
+  /**
+   * Connects the otherwise lazy channel and opens the reservation streams.
+   * Returns whether the channel became ready within {@code timeout}.
+   */
+  public boolean connect(Duration timeout) throws InterruptedException {
+    CountDownLatch ready = new CountDownLatch(1);
+    awaitReady(channel.getState(true), ready);
+    if (!ready.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      return false;
+    }
+    if (streams != null) {
+      streams.open();
+    }
+    return true;
+  }
+
+  private void awaitReady(ConnectivityState state, CountDownLatch ready) {
+    if (state == ConnectivityState.READY) {
+      ready.countDown();
+    } else if (state != ConnectivityState.SHUTDOWN) {
+      channel.notifyWhenStateChanged(state, () -> awaitReady(channel.getState(true), ready));
+    }
   }
 
   public boolean checkAvailability(List<OrderItem> items) {
     Inventory.CheckAvailabilityRequest request = Inventory.CheckAvailabilityRequest.newBuilder()
         .addAllItems(items.stream().map(this::toProtoItem).collect(Collectors.toList()))
         .build();
+    InventoryRpcEvent event = new InventoryRpcEvent();
+    event.begin();
+    boolean success = false;
     try {
-      return blockingStub.checkAvailability(request).getAvailable();
+      boolean available = stub().checkAvailability(request).getAvailable();
+      success = true;
+      return available;
     } catch (StatusRuntimeException ex) {
       log.error("Inventory availability check failed", ex);
       throw new IllegalStateException("inventory service unavailable", ex);
+    } finally {
+      event.finish("CheckAvailability", null, false, success);
     }
   }
 
@@ -52,14 +97,33 @@ public class InventoryClient {
         .setCustomerId(order.getCustomer().getCustomerId())
         .addAllItems(order.getItems().stream().map(this::toProtoItem).collect(Collectors.toList()))
         .build();
+    InventoryRpcEvent event = new InventoryRpcEvent();
+    event.begin();
+    Inventory.ReservationResult streamed = null;
+    boolean success = false;
     try {
-      return blockingStub.reserveItems(request);
+      streamed = streams == null ? null : streams.reserve(request);
+      Inventory.ReserveItemsResponse response = streamed != null
+          ? Inventory.ReserveItemsResponse.newBuilder()
+              .setSuccess(streamed.getSuccess())
+              .setMessage(streamed.getMessage())
+              .build()
+          : stub().reserveItems(request);
+      success = response.getSuccess();
+      return response;
     } catch (StatusRuntimeException ex) {
       log.error("Inventory reservation failed for order {}", order.getOrderId(), ex);
       throw new IllegalStateException("inventory reservation failed", ex);
+    } finally {
+      event.finish("ReserveItems", order.getOrderId(), streamed != null, success);
     }
   }
 
+  /** Unary calls get a fresh deadline each, so a hung server cannot stall the caller. */
+  private InventoryServiceGrpc.InventoryServiceBlockingStub stub() {
+    return blockingStub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
   private Inventory.Item toProtoItem(OrderItem item) {
     return Inventory.Item.newBuilder()
         .setProductId(item.getProductId())
@@ -69,18 +133,39 @@ public class InventoryClient {
 
   @PreDestroy
   public void shutdown() {
+    if (streams != null) {
+      streams.close();
+    }
     channel.shutdownNow();
   }
 
   public void releaseReservation(String orderId) {
+    Inventory.ReleaseReservationRequest request = Inventory.ReleaseReservationRequest.newBuilder()
+        .setOrderId(orderId)
+        .build();
+    InventoryRpcEvent event = new InventoryRpcEvent();
+    event.begin();
+    Inventory.ReservationResult streamed = null;
+    boolean success = false;
     try {
-      blockingStub.releaseReservation(
-          Inventory.ReleaseReservationRequest.newBuilder()
-              .setOrderId(orderId)
-              .build());
-      log.info("Released inventory reservation for order {}", orderId);
+      streamed = streams == null ? null : streams.release(request);
+      Inventory.ReleaseReservationResponse response = streamed != null
+          ? Inventory.ReleaseReservationResponse.newBuilder()
+              .setSuccess(streamed.getSuccess())
+              .setMessage(streamed.getMessage())
+              .build()
+          : stub().releaseReservation(request);
+      success = response.getSuccess();
+      if (success) {
+        log.debug("Released inventory reservation for order {}", orderId);
+      } else {
+        log.warn("Inventory declined release for order {}: {}", orderId, response.getMessage());
+      }
     } catch (StatusRuntimeException ex) {
       log.error("Failed to release inventory reservation for order {}", orderId, ex);
+      throw new IllegalStateException("inventory release failed", ex);
+    } finally {
+      event.finish("ReleaseReservation", orderId, streamed != null, success);
     }
   }
 }
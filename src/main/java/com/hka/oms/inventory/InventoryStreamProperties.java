@@ -0,0 +1,20 @@
+package com.hka.oms.inventory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "inventory.grpc.streaming")
+public record InventoryStreamProperties(boolean enabled, int streams, int maxInFlight, Duration timeout) {
+  public InventoryStreamProperties {
+    if (streams <= 0) {
+      streams = 4;
+    }
+    if (maxInFlight <= 0) {
+      maxInFlight = 256;
+    }
+    if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+      timeout = Duration.ofSeconds(5);
+    }
+  }
+}
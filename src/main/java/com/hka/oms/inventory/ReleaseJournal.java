@@ -0,0 +1,113 @@
+package com.hka.oms.inventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Append-only log of release work: {@code +orderId} when a release is queued,
+ * {@code -orderId} once the inventory service confirmed it. Replaying the file
+ * yields the releases that were still outstanding when the process stopped.
+ */
+final class ReleaseJournal implements AutoCloseable {
+
+  private final Path path;
+  private final FileChannel channel;
+
+  ReleaseJournal(Path path) {
+    this.path = path;
+    try {
+      Path parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot open release journal " + path, e);
+    }
+  }
+
+  synchronized Set<String> replay() {
+    Set<String> outstanding = new LinkedHashSet<>();
+    try {
+      List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+      for (String line : lines) {
+        if (line.length() < 2) {
+          continue;
+        }
+        String orderId = line.substring(1);
+        if (line.charAt(0) == '+') {
+          outstanding.add(orderId);
+        } else if (line.charAt(0) == '-') {
+          outstanding.remove(orderId);
+        }
+      }
+      channel.truncate(0);
+      for (String orderId : outstanding) {
+        write('+', orderId);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot replay release journal " + path, e);
+    }
+    return outstanding;
+  }
+
+  synchronized void appendQueued(String orderId) {
+    write('+', orderId);
+  }
+
+  synchronized void appendReleased(String orderId) {
+    write('-', orderId);
+  }
+
+  synchronized void truncateIf(BooleanSupplier drained) {
+    if (!drained.getAsBoolean()) {
+      return;
+    }
+    try {
+      channel.truncate(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot truncate release journal " + path, e);
+    }
+  }
+
+  synchronized void flush() {
+    try {
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot flush release journal " + path, e);
+    }
+  }
+
+  private void write(char op, String orderId) {
+    ByteBuffer buffer = ByteBuffer.wrap((op + orderId + "\n").getBytes(StandardCharsets.UTF_8));
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot write release journal " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      channel.force(false);
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot close release journal " + path, e);
+    }
+  }
+}
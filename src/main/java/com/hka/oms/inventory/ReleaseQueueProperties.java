@@ -0,0 +1,20 @@
+package com.hka.oms.inventory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "inventory.release")
+public record ReleaseQueueProperties(String journal, Duration initialBackoff, Duration maxBackoff) {
+  public ReleaseQueueProperties {
+    if (journal == null || journal.isBlank()) {
+      journal = "data/inventory-release.journal";
+    }
+    if (initialBackoff == null || initialBackoff.isNegative() || initialBackoff.isZero()) {
+      initialBackoff = Duration.ofMillis(500);
+    }
+    if (maxBackoff == null || maxBackoff.compareTo(initialBackoff) < 0) {
+      maxBackoff = Duration.ofMinutes(5);
+    }
+  }
+}
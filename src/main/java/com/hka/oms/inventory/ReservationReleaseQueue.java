@@ -0,0 +1,120 @@
+package com.hka.oms.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class ReservationReleaseQueue {
+
+  private static final Logger log = LoggerFactory.getLogger(ReservationReleaseQueue.class);
+
+  private final InventoryClient inventoryClient;
+  private final ReleaseQueueProperties properties;
+  private final ReleaseJournal journal;
+  private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "inventory-release");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Counter released;
+  private final Counter failedAttempts;
+  private final Counter coalesced;
+
+  public ReservationReleaseQueue(InventoryClient inventoryClient, ReleaseQueueProperties properties,
+                                 MeterRegistry registry) {
+    this.inventoryClient = inventoryClient;
+    this.properties = properties;
+    this.journal = new ReleaseJournal(Path.of(properties.journal()));
+    Gauge.builder("inventory.release.outstanding", pending, Map::size)
+        .description("Reservation releases waiting to be confirmed by the inventory service")
+        .register(registry);
+    this.released = registry.counter("inventory.release.attempts", "outcome", "success");
+    this.failedAttempts = registry.counter("inventory.release.attempts", "outcome", "failure");
+    this.coalesced = registry.counter("inventory.release.coalesced");
+  }
+
+  @PostConstruct
+  void recover() {
+    for (String orderId : journal.replay()) {
+      if (pending.putIfAbsent(orderId, 0) == null) {
+        schedule(orderId, 0);
+      }
+    }
+    if (!pending.isEmpty()) {
+      log.warn("Recovered {} outstanding inventory releases from {}", pending.size(), properties.journal());
+    }
+    worker.scheduleWithFixedDelay(this::flushJournal, 1, 1, TimeUnit.SECONDS);
+  }
+
+  public void enqueue(String orderId) {
+    if (pending.putIfAbsent(orderId, 0) != null) {
+      coalesced.increment();
+      return;
+    }
+    journal.appendQueued(orderId);
+    schedule(orderId, 0);
+  }
+
+  public int outstanding() {
+    return pending.size();
+  }
+
+  private void schedule(String orderId, long delayMillis) {
+    worker.schedule(() -> attempt(orderId), delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void attempt(String orderId) {
+    try {
+      inventoryClient.releaseReservation(orderId);
+    } catch (RuntimeException ex) {
+      failedAttempts.increment();
+      int attempts = pending.merge(orderId, 1, Integer::sum);
+      long delay = backoff(attempts);
+      log.warn("Release for order {} failed (attempt {}), retrying in {} ms", orderId, attempts, delay);
+      schedule(orderId, delay);
+      return;
+    }
+    released.increment();
+    // journal first: a release enqueued again right after the remove must land its "+" behind this "-"
+    journal.appendReleased(orderId);
+    pending.remove(orderId);
+    journal.truncateIf(pending::isEmpty);
+  }
+
+  private long backoff(int attempts) {
+    long base = properties.initialBackoff().toMillis();
+    long cap = properties.maxBackoff().toMillis();
+    long ceiling = Math.min(cap, base << Math.min(attempts - 1, 20));
+    long half = Math.max(1, ceiling / 2);
+    return half + ThreadLocalRandom.current().nextLong(half + 1);
+  }
+
+  private void flushJournal() {
+    try {
+      journal.flush();
+    } catch (RuntimeException ex) {
+      log.error("Failed to flush inventory release journal", ex);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    worker.shutdownNow();
+    journal.close();
+  }
+}
@@ -0,0 +1,235 @@
+package com.hka.oms.inventory;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import inventory.Inventory;
+import inventory.InventoryServiceGrpc;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Multiplexes reserve/release commands over a fixed set of long-lived
+ * {@code StreamReservations} calls. Commands for one order always use the
+ * same stream, results are matched back by order id and kind. Each stream
+ * caps its in-flight commands and only writes while the transport reports
+ * it ready; anything else waits in the stream's backlog.
+ */
+final class ReservationStreams implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReservationStreams.class);
+
+  private final InventoryServiceGrpc.InventoryServiceStub stub;
+  private final Lane[] lanes;
+  private final int maxInFlight;
+  private final long timeoutMillis;
+  private volatile boolean unsupported;
+
+  ReservationStreams(Channel channel, InventoryStreamProperties properties) {
+    this.stub = InventoryServiceGrpc.newStub(channel);
+    this.maxInFlight = properties.maxInFlight();
+    this.timeoutMillis = properties.timeout().toMillis();
+    this.lanes = new Lane[properties.streams()];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new Lane(i);
+    }
+  }
+
+  /** Returns {@code null} if the inventory service does not implement the streaming RPC. */
+  Inventory.ReservationResult reserve(Inventory.ReserveItemsRequest request) {
+    return send(request.getOrderId(), Inventory.ReservationKind.RESERVE,
+        Inventory.ReservationCommand.newBuilder().setReserve(request).build());
+  }
+
+  /** Returns {@code null} if the inventory service does not implement the streaming RPC. */
+  Inventory.ReservationResult release(Inventory.ReleaseReservationRequest request) {
+    return send(request.getOrderId(), Inventory.ReservationKind.RELEASE,
+        Inventory.ReservationCommand.newBuilder().setRelease(request).build());
+  }
+
+  private Inventory.ReservationResult send(String orderId, Inventory.ReservationKind kind,
+                                           Inventory.ReservationCommand command) {
+    if (unsupported) {
+      return null;
+    }
+    return lanes[Math.floorMod(orderId.hashCode(), lanes.length)].call(key(orderId, kind), command);
+  }
+
+  /** Opens every lane's stream ahead of the first command. */
+  void open() {
+    if (unsupported) {
+      return;
+    }
+    for (Lane lane : lanes) {
+      lane.openIdle();
+    }
+  }
+
+  private static String key(String orderId, Inventory.ReservationKind kind) {
+    return kind.getNumber() + ":" + orderId;
+  }
+
+  @Override
+  public void close() {
+    for (Lane lane : lanes) {
+      lane.close();
+    }
+  }
+
+  private final class Lane {
+
+    private final int index;
+    private final Semaphore permits = new Semaphore(maxInFlight);
+    private final Map<String, CompletableFuture<Inventory.ReservationResult>> pending = new ConcurrentHashMap<>();
+    private final Queue<Inventory.ReservationCommand> backlog = new ConcurrentLinkedQueue<>();
+    private ClientCallStreamObserver<Inventory.ReservationCommand> requests;
+
+    Lane(int index) {
+      this.index = index;
+    }
+
+    Inventory.ReservationResult call(String key, Inventory.ReservationCommand command) {
+      CompletableFuture<Inventory.ReservationResult> future = new CompletableFuture<>();
+      try {
+        if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+          throw Status.RESOURCE_EXHAUSTED
+              .withDescription("too many in-flight commands on inventory stream " + index)
+              .asRuntimeException();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw Status.CANCELLED.withCause(e).asRuntimeException();
+      }
+      try {
+        if (pending.putIfAbsent(key, future) != null) {
+          throw Status.ALREADY_EXISTS.withDescription("command already in flight: " + key).asRuntimeException();
+        }
+        backlog.add(command);
+        drain();
+        return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        throw Status.DEADLINE_EXCEEDED.withDescription("no result for " + key + " within " + timeoutMillis + " ms")
+            .asRuntimeException();
+      } catch (ExecutionException e) {
+        Status status = Status.fromThrowable(e.getCause());
+        if (status.getCode() == Status.Code.UNIMPLEMENTED) {
+          return null;
+        }
+        throw status.withCause(e.getCause()).augmentDescription("command " + key + " on inventory stream " + index)
+            .asRuntimeException();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw Status.CANCELLED.withCause(e).asRuntimeException();
+      } finally {
+        pending.remove(key, future);
+        permits.release();
+      }
+    }
+
+    private synchronized void drain() {
+      if (requests == null) {
+        if (backlog.isEmpty()) {
+          return;
+        }
+        open();
+      }
+      while (requests.isReady()) {
+        Inventory.ReservationCommand command = backlog.poll();
+        if (command == null) {
+          return;
+        }
+        requests.onNext(command);
+      }
+    }
+
+    synchronized void openIdle() {
+      if (requests == null) {
+        open();
+      }
+    }
+
+    private void open() {
+      // the stream outlives the request that happened to open it, keep it out of that trace
+      try (Scope ignored = Context.root().makeCurrent()) {
+        stub.streamReservations(new ResultObserver());
+      }
+    }
+
+    private void completed(Inventory.ReservationResult result) {
+      CompletableFuture<Inventory.ReservationResult> future = pending.get(key(result.getOrderId(), result.getKind()));
+      if (future != null) {
+        future.complete(result);
+      }
+    }
+
+    private void closed(ClientCallStreamObserver<Inventory.ReservationCommand> stream, Throwable cause) {
+      synchronized (this) {
+        if (requests != stream) {
+          return;
+        }
+        requests = null;
+        backlog.clear();
+      }
+      Status status = Status.fromThrowable(cause);
+      if (status.getCode() == Status.Code.UNIMPLEMENTED) {
+        if (!unsupported) {
+          log.warn("Inventory service does not implement StreamReservations, falling back to unary calls");
+        }
+        unsupported = true;
+      } else {
+        log.warn("Inventory stream {} closed: {}", index, status);
+      }
+      StatusRuntimeException failure = status.asRuntimeException();
+      pending.values().forEach(future -> future.completeExceptionally(failure));
+    }
+
+    synchronized void close() {
+      if (requests != null) {
+        requests.onCompleted();
+        requests = null;
+      }
+    }
+
+    private final class ResultObserver
+        implements ClientResponseObserver<Inventory.ReservationCommand, Inventory.ReservationResult> {
+
+      private ClientCallStreamObserver<Inventory.ReservationCommand> stream;
+
+      @Override
+      public void beforeStart(ClientCallStreamObserver<Inventory.ReservationCommand> stream) {
+        this.stream = stream;
+        requests = stream;
+        stream.setOnReadyHandler(Lane.this::drain);
+      }
+
+      @Override
+      public void onNext(Inventory.ReservationResult result) {
+        completed(result);
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        closed(stream, t);
+      }
+
+      @Override
+      public void onCompleted() {
+        closed(stream, Status.UNAVAILABLE.withDescription("stream completed by server").asRuntimeException());
+      }
+    }
+  }
+}
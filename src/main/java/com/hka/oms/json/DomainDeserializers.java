@@ -0,0 +1,257 @@
+package com.hka.oms.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.impl.NullsConstantProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.domain.ShippingAddress;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Streaming readers that fill the domain builders directly. Scalars use the
+ * fast path for their natural token and fall back to Jackson's own coercion
+ * rules otherwise; validation errors from {@code build()} surface as
+ * instantiation errors, like the builder binding did.
+ */
+final class DomainDeserializers {
+
+  private DomainDeserializers() {
+  }
+
+  abstract static class DomainDeserializer<T, B> extends StdDeserializer<T> {
+
+    DomainDeserializer(Class<T> type) {
+      super(type);
+    }
+
+    @Override
+    public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      JsonToken t = p.currentToken();
+      if (t == JsonToken.START_OBJECT) {
+        t = p.nextToken();
+      } else if (t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT) {
+        @SuppressWarnings("unchecked")
+        T unexpected = (T) ctxt.handleUnexpectedToken(handledType(), p);
+        return unexpected;
+      }
+      B builder = newBuilder();
+      for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+        String name = p.currentName();
+        JsonToken value = p.nextToken();
+        if (!readField(p, ctxt, builder, name, value)) {
+          ctxt.handleUnknownProperty(p, this, handledType(), name);
+        }
+      }
+      try {
+        return build(builder);
+      } catch (IllegalArgumentException | NullPointerException ex) {
+        throw ctxt.instantiationException(handledType(), ex);
+      }
+    }
+
+    abstract B newBuilder();
+
+    abstract boolean readField(JsonParser p, DeserializationContext ctxt, B builder, String name,
+                               JsonToken value) throws IOException;
+
+    abstract T build(B builder);
+
+    final String text(JsonParser p, DeserializationContext ctxt, JsonToken value) throws IOException {
+      if (value == JsonToken.VALUE_STRING) {
+        return p.getText();
+      }
+      if (value == JsonToken.VALUE_NULL) {
+        return null;
+      }
+      return _parseString(p, ctxt, NullsConstantProvider.nuller());
+    }
+
+    static Object nested(JsonParser p, DeserializationContext ctxt, JsonDeserializer<Object> deserializer,
+                         JsonToken value) throws IOException {
+      return value == JsonToken.VALUE_NULL ? deserializer.getNullValue(ctxt) : deserializer.deserialize(p, ctxt);
+    }
+
+    static JsonDeserializer<Object> find(DeserializationContext ctxt, JavaType type) throws JsonMappingException {
+      return ctxt.findContextualValueDeserializer(type, null);
+    }
+  }
+
+  static final class OrderDeserializer extends DomainDeserializer<Order, Order.Builder>
+      implements ResolvableDeserializer {
+
+    private JsonDeserializer<Object> customer;
+    private JsonDeserializer<Object> item;
+    private JsonDeserializer<Object> items;
+    private JsonDeserializer<Object> address;
+    private JsonDeserializer<Object> status;
+    private JsonDeserializer<Object> decimal;
+
+    OrderDeserializer() {
+      super(Order.class);
+    }
+
+    @Override
+    public void resolve(DeserializationContext ctxt) throws JsonMappingException {
+      customer = find(ctxt, ctxt.constructType(Customer.class));
+      item = find(ctxt, ctxt.constructType(OrderItem.class));
+      items = find(ctxt, ctxt.getTypeFactory().constructCollectionType(Collection.class, OrderItem.class));
+      address = find(ctxt, ctxt.constructType(ShippingAddress.class));
+      status = find(ctxt, ctxt.constructType(OrderStatus.class));
+      decimal = find(ctxt, ctxt.constructType(BigDecimal.class));
+    }
+
+    @Override
+    Order.Builder newBuilder() {
+      return Order.builder();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    boolean readField(JsonParser p, DeserializationContext ctxt, Order.Builder b, String name,
+                      JsonToken value) throws IOException {
+      switch (name) {
+        case "orderId" -> b.orderId(text(p, ctxt, value));
+        case "customer" -> b.customer((Customer) nested(p, ctxt, customer, value));
+        case "items" -> {
+          if (value == JsonToken.START_ARRAY) {
+            b.items(null);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+              b.addItem((OrderItem) nested(p, ctxt, item, p.currentToken()));
+            }
+          } else {
+            b.items((Collection<OrderItem>) nested(p, ctxt, items, value));
+          }
+        }
+        case "totalAmount" -> b.totalAmount((BigDecimal) nested(p, ctxt, decimal, value));
+        case "shippingAddress" -> b.shippingAddress((ShippingAddress) nested(p, ctxt, address, value));
+        case "status" -> b.status((OrderStatus) nested(p, ctxt, status, value));
+        case "version" -> b.version(_parseLongPrimitive(p, ctxt));
+        default -> {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    Order build(Order.Builder builder) {
+      return builder.build();
+    }
+  }
+
+  static final class OrderItemDeserializer extends DomainDeserializer<OrderItem, OrderItem.Builder>
+      implements ResolvableDeserializer {
+
+    private JsonDeserializer<Object> decimal;
+
+    OrderItemDeserializer() {
+      super(OrderItem.class);
+    }
+
+    @Override
+    public void resolve(DeserializationContext ctxt) throws JsonMappingException {
+      decimal = find(ctxt, ctxt.constructType(BigDecimal.class));
+    }
+
+    @Override
+    OrderItem.Builder newBuilder() {
+      return OrderItem.builder();
+    }
+
+    @Override
+    boolean readField(JsonParser p, DeserializationContext ctxt, OrderItem.Builder b, String name,
+                      JsonToken value) throws IOException {
+      switch (name) {
+        case "productId" -> b.productId(text(p, ctxt, value));
+        case "quantity" -> b.quantity(_parseIntPrimitive(p, ctxt));
+        case "price" -> b.price((BigDecimal) nested(p, ctxt, decimal, value));
+        default -> {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    OrderItem build(OrderItem.Builder builder) {
+      return builder.build();
+    }
+  }
+
+  static final class CustomerDeserializer extends DomainDeserializer<Customer, Customer.Builder> {
+
+    CustomerDeserializer() {
+      super(Customer.class);
+    }
+
+    @Override
+    Customer.Builder newBuilder() {
+      return Customer.builder();
+    }
+
+    @Override
+    boolean readField(JsonParser p, DeserializationContext ctxt, Customer.Builder b, String name,
+                      JsonToken value) throws IOException {
+      switch (name) {
+        case "customerId" -> b.customerId(text(p, ctxt, value));
+        case "prename" -> b.prename(text(p, ctxt, value));
+        case "name" -> b.name(text(p, ctxt, value));
+        default -> {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    Customer build(Customer.Builder builder) {
+      return builder.build();
+    }
+  }
+
+  static final class ShippingAddressDeserializer
+      extends DomainDeserializer<ShippingAddress, ShippingAddress.Builder> {
+
+    ShippingAddressDeserializer() {
+      super(ShippingAddress.class);
+    }
+
+    @Override
+    ShippingAddress.Builder newBuilder() {
+      return ShippingAddress.builder();
+    }
+
+    @Override
+    boolean readField(JsonParser p, DeserializationContext ctxt, ShippingAddress.Builder b, String name,
+                      JsonToken value) throws IOException {
+      switch (name) {
+        case "street" -> b.street(text(p, ctxt, value));
+        case "city" -> b.city(text(p, ctxt, value));
+        case "zipCode" -> b.zipCode(text(p, ctxt, value));
+        case "country" -> b.country(text(p, ctxt, value));
+        default -> {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    ShippingAddress build(ShippingAddress.Builder builder) {
+      return builder.build();
+    }
+  }
+}
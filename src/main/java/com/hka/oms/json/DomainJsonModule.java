@@ -0,0 +1,34 @@
+package com.hka.oms.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.service.OrderCreationResult;
+
+/**
+ * Hand-written streaming (de)serializers for the order model. They produce
+ * and accept the same JSON as the annotation-driven builder binding, but
+ * skip Jackson's bean introspection and builder reflection on every call.
+ * Spring registers the module as a bean; plain mappers pick it up through
+ * {@code findAndRegisterModules()}.
+ */
+@Component
+public class DomainJsonModule extends SimpleModule {
+
+  public DomainJsonModule() {
+    super("oms-domain");
+    addSerializer(Order.class, new DomainSerializers.OrderSerializer());
+    addSerializer(OrderItem.class, new DomainSerializers.OrderItemSerializer());
+    addSerializer(Customer.class, new DomainSerializers.CustomerSerializer());
+    addSerializer(ShippingAddress.class, new DomainSerializers.ShippingAddressSerializer());
+    addSerializer(OrderCreationResult.class, new DomainSerializers.OrderCreationResultSerializer());
+    addDeserializer(Order.class, new DomainDeserializers.OrderDeserializer());
+    addDeserializer(OrderItem.class, new DomainDeserializers.OrderItemDeserializer());
+    addDeserializer(Customer.class, new DomainDeserializers.CustomerDeserializer());
+    addDeserializer(ShippingAddress.class, new DomainDeserializers.ShippingAddressDeserializer());
+  }
+}
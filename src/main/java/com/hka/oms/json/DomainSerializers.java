@@ -0,0 +1,279 @@
+package com.hka.oms.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.service.OrderCreationResult;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Field order and null handling follow the bean serializers they replace.
+ * Whether nulls are written is resolved once per mapper configuration.
+ */
+final class DomainSerializers {
+
+  private static final SerializableString ORDER_ID = new SerializedString("orderId");
+  private static final SerializableString CUSTOMER = new SerializedString("customer");
+  private static final SerializableString ITEMS = new SerializedString("items");
+  private static final SerializableString TOTAL_AMOUNT = new SerializedString("totalAmount");
+  private static final SerializableString SHIPPING_ADDRESS = new SerializedString("shippingAddress");
+  private static final SerializableString STATUS = new SerializedString("status");
+  private static final SerializableString VERSION = new SerializedString("version");
+  private static final SerializableString PRODUCT_ID = new SerializedString("productId");
+  private static final SerializableString QUANTITY = new SerializedString("quantity");
+  private static final SerializableString PRICE = new SerializedString("price");
+  private static final SerializableString CUSTOMER_ID = new SerializedString("customerId");
+  private static final SerializableString PRENAME = new SerializedString("prename");
+  private static final SerializableString NAME = new SerializedString("name");
+  private static final SerializableString STREET = new SerializedString("street");
+  private static final SerializableString CITY = new SerializedString("city");
+  private static final SerializableString ZIP_CODE = new SerializedString("zipCode");
+  private static final SerializableString COUNTRY = new SerializedString("country");
+  private static final SerializableString ORDER = new SerializedString("order");
+  private static final SerializableString RESERVATION_MESSAGE = new SerializedString("reservationMessage");
+  private static final SerializableString PAYMENT = new SerializedString("payment");
+  private static final SerializableString FULFILLMENT = new SerializedString("fulfillment");
+
+  private DomainSerializers() {
+  }
+
+  abstract static class DomainSerializer<T> extends StdSerializer<T> implements ContextualSerializer {
+
+    final boolean writeNulls;
+
+    DomainSerializer(Class<T> type, boolean writeNulls) {
+      super(type);
+      this.writeNulls = writeNulls;
+    }
+
+    abstract DomainSerializer<T> withNulls(boolean writeNulls);
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+      JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(handledType())
+          .getValueInclusion();
+      boolean nulls = inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+      return nulls == writeNulls ? this : withNulls(nulls);
+    }
+
+    static void string(JsonGenerator gen, SerializableString name, String value, boolean writeNulls)
+        throws IOException {
+      if (value != null) {
+        gen.writeFieldName(name);
+        gen.writeString(value);
+      } else if (writeNulls) {
+        gen.writeFieldName(name);
+        gen.writeNull();
+      }
+    }
+
+    static void decimal(JsonGenerator gen, SerializableString name, BigDecimal value, boolean writeNulls)
+        throws IOException {
+      if (value != null) {
+        gen.writeFieldName(name);
+        gen.writeNumber(value);
+      } else if (writeNulls) {
+        gen.writeFieldName(name);
+        gen.writeNull();
+      }
+    }
+  }
+
+  static final class OrderSerializer extends DomainSerializer<Order> {
+
+    OrderSerializer() {
+      this(true);
+    }
+
+    private OrderSerializer(boolean writeNulls) {
+      super(Order.class, writeNulls);
+    }
+
+    @Override
+    OrderSerializer withNulls(boolean writeNulls) {
+      return new OrderSerializer(writeNulls);
+    }
+
+    @Override
+    public void serialize(Order order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      write(order, gen, provider, writeNulls);
+    }
+
+    static void write(Order order, JsonGenerator gen, SerializerProvider provider, boolean nulls)
+        throws IOException {
+      gen.writeStartObject(order);
+      string(gen, ORDER_ID, order.getOrderId(), nulls);
+      gen.writeFieldName(CUSTOMER);
+      CustomerSerializer.write(order.getCustomer(), gen, nulls);
+      gen.writeFieldName(ITEMS);
+      List<OrderItem> items = order.getItems();
+      gen.writeStartArray(items, items.size());
+      for (int i = 0; i < items.size(); i++) {
+        OrderItemSerializer.write(items.get(i), gen);
+      }
+      gen.writeEndArray();
+      decimal(gen, TOTAL_AMOUNT, order.getTotalAmount(), nulls);
+      if (order.getShippingAddress() != null) {
+        gen.writeFieldName(SHIPPING_ADDRESS);
+        ShippingAddressSerializer.write(order.getShippingAddress(), gen, nulls);
+      } else if (nulls) {
+        gen.writeFieldName(SHIPPING_ADDRESS);
+        gen.writeNull();
+      }
+      gen.writeFieldName(STATUS);
+      gen.writeString(provider.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+          ? order.getStatus().toString() : order.getStatus().name());
+      gen.writeFieldName(VERSION);
+      gen.writeNumber(order.getVersion());
+      gen.writeEndObject();
+    }
+  }
+
+  static final class OrderItemSerializer extends DomainSerializer<OrderItem> {
+
+    OrderItemSerializer() {
+      super(OrderItem.class, true);
+    }
+
+    @Override
+    OrderItemSerializer withNulls(boolean writeNulls) {
+      // every OrderItem property is non-null
+      return this;
+    }
+
+    @Override
+    public void serialize(OrderItem item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      write(item, gen);
+    }
+
+    static void write(OrderItem item, JsonGenerator gen) throws IOException {
+      gen.writeStartObject(item);
+      gen.writeFieldName(PRODUCT_ID);
+      gen.writeString(item.getProductId());
+      gen.writeFieldName(QUANTITY);
+      gen.writeNumber(item.getQuantity());
+      gen.writeFieldName(PRICE);
+      gen.writeNumber(item.getPrice());
+      gen.writeEndObject();
+    }
+  }
+
+  static final class CustomerSerializer extends DomainSerializer<Customer> {
+
+    CustomerSerializer() {
+      this(true);
+    }
+
+    private CustomerSerializer(boolean writeNulls) {
+      super(Customer.class, writeNulls);
+    }
+
+    @Override
+    CustomerSerializer withNulls(boolean writeNulls) {
+      return new CustomerSerializer(writeNulls);
+    }
+
+    @Override
+    public void serialize(Customer customer, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      write(customer, gen, writeNulls);
+    }
+
+    static void write(Customer customer, JsonGenerator gen, boolean nulls) throws IOException {
+      gen.writeStartObject(customer);
+      string(gen, CUSTOMER_ID, customer.getCustomerId(), nulls);
+      string(gen, PRENAME, customer.getPrename(), nulls);
+      string(gen, NAME, customer.getName(), nulls);
+      gen.writeEndObject();
+    }
+  }
+
+  static final class ShippingAddressSerializer extends DomainSerializer<ShippingAddress> {
+
+    ShippingAddressSerializer() {
+      this(true);
+    }
+
+    private ShippingAddressSerializer(boolean writeNulls) {
+      super(ShippingAddress.class, writeNulls);
+    }
+
+    @Override
+    ShippingAddressSerializer withNulls(boolean writeNulls) {
+      return new ShippingAddressSerializer(writeNulls);
+    }
+
+    @Override
+    public void serialize(ShippingAddress address, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      write(address, gen, writeNulls);
+    }
+
+    static void write(ShippingAddress address, JsonGenerator gen, boolean nulls) throws IOException {
+      gen.writeStartObject(address);
+      string(gen, STREET, address.getStreet(), nulls);
+      string(gen, CITY, address.getCity(), nulls);
+      string(gen, ZIP_CODE, address.getZipCode(), nulls);
+      string(gen, COUNTRY, address.getCountry(), nulls);
+      gen.writeEndObject();
+    }
+  }
+
+  static final class OrderCreationResultSerializer extends DomainSerializer<OrderCreationResult> {
+
+    OrderCreationResultSerializer() {
+      this(true);
+    }
+
+    private OrderCreationResultSerializer(boolean writeNulls) {
+      super(OrderCreationResult.class, writeNulls);
+    }
+
+    @Override
+    OrderCreationResultSerializer withNulls(boolean writeNulls) {
+      return new OrderCreationResultSerializer(writeNulls);
+    }
+
+    @Override
+    public void serialize(OrderCreationResult result, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      gen.writeStartObject(result);
+      if (result.order() != null) {
+        gen.writeFieldName(ORDER);
+        OrderSerializer.write(result.order(), gen, provider, writeNulls);
+      } else if (writeNulls) {
+        gen.writeFieldName(ORDER);
+        gen.writeNull();
+      }
+      string(gen, RESERVATION_MESSAGE, result.reservationMessage(), writeNulls);
+      value(gen, provider, PAYMENT, result.payment());
+      value(gen, provider, FULFILLMENT, result.fulfillment());
+      gen.writeEndObject();
+    }
+
+    private void value(JsonGenerator gen, SerializerProvider provider, SerializableString name, Object value)
+        throws IOException {
+      if (value != null) {
+        gen.writeFieldName(name);
+        provider.findTypedValueSerializer(value.getClass(), true, null).serialize(value, gen, provider);
+      } else if (writeNulls) {
+        gen.writeFieldName(name);
+        gen.writeNull();
+      }
+    }
+  }
+}
@@ -1,18 +1,40 @@
 package com.hka.oms.listener;
 
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.hka.oms.messaging.RetryTopology;
+import com.hka.oms.tracing.AmqpTracing;
+
+import java.nio.charset.StandardCharsets;
+
 @Component
 public class WmsListener {
 
     private static final Logger logger = LoggerFactory.getLogger(WmsListener.class);
+    private final AmqpTracing tracing;
+
+    public WmsListener(AmqpTracing tracing) {
+        this.tracing = tracing;
+    }
 
-    @RabbitListener(queues = "status.queue")
-    public void receiveStatus(String statusMessage) {
-        logger.info("Received WMS status update: {}", statusMessage);
+    @RabbitListener(queues = RetryTopology.STATUS_QUEUE)
+    public void receiveStatus(Message message) {
+        String statusMessage = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            tracing.receive(RetryTopology.STATUS_QUEUE, message.getMessageProperties().getHeaders(),
+                    () -> logger.info("Received WMS status update: {}", statusMessage));
+        } catch (RuntimeException ex) {
+            // rejected without requeue: the broker dead-letters it into the retry topology
+            Object retries = message.getMessageProperties().getHeaders().get(RetryTopology.ATTEMPTS_HEADER);
+            logger.warn("Failed to process WMS status update (retried {} times): {}",
+                    retries == null ? 0 : retries, statusMessage, ex);
+            throw new AmqpRejectAndDontRequeueException("status update rejected", ex);
+        }
     }
 }
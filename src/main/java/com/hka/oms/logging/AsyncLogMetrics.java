@@ -0,0 +1,27 @@
+package com.hka.oms.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/** Reports the fill level of the async log queue when the async-logging profile is active. */
+@Component
+public class AsyncLogMetrics {
+
+  public AsyncLogMetrics(MeterRegistry registry) {
+    if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+      return;
+    }
+    if (context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC") instanceof AsyncAppender async) {
+      Gauge.builder("logging.async.queued", async, AsyncAppender::getNumberOfElementsInQueue)
+          .description("Log events waiting to be written; INFO and below are dropped past 80% of capacity")
+          .register(registry);
+      Gauge.builder("logging.async.capacity", async, AsyncAppender::getQueueSize)
+          .register(registry);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.hka.oms.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "orders.logging")
+public record LoggingProperties(Double payloadSampleRate) {
+  public LoggingProperties {
+    if (payloadSampleRate == null || payloadSampleRate.isNaN() || payloadSampleRate < 0) {
+      payloadSampleRate = 0.01;
+    }
+    payloadSampleRate = Math.min(payloadSampleRate, 1.0);
+  }
+}
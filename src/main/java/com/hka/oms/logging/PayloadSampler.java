@@ -0,0 +1,23 @@
+package com.hka.oms.logging;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which successful calls get their full payload logged; failures
+ * are always logged by the caller.
+ */
+@Component
+public class PayloadSampler {
+
+  private final double rate;
+
+  public PayloadSampler(LoggingProperties properties) {
+    this.rate = properties.payloadSampleRate();
+  }
+
+  public boolean sample() {
+    return rate >= 1 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+  }
+}
@@ -0,0 +1,33 @@
+package com.hka.oms.messaging;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/messaging")
+public class DeadLetterController {
+
+  private final DeadLetters deadLetters;
+
+  public DeadLetterController(DeadLetters deadLetters) {
+    this.deadLetters = deadLetters;
+  }
+
+  @GetMapping("/queues")
+  public Map<String, Long> queues() {
+    return deadLetters.depths();
+  }
+
+  @PostMapping("/dlq/{queue}/replay")
+  public Map<String, Object> replay(@PathVariable String queue,
+                                    @RequestParam(defaultValue = "100") int limit) {
+    int replayed = deadLetters.replay(queue, Math.max(0, Math.min(limit, 10_000)));
+    return Map.of("queue", queue, "replayed", replayed);
+  }
+}
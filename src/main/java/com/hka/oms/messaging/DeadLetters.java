@@ -0,0 +1,149 @@
+package com.hka.oms.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays dead-lettered messages and keeps the depth of every queue of the
+ * retry topology as a {@code messaging.queue.depth} gauge. Depths are polled
+ * in the background so a metrics scrape never waits on the broker.
+ */
+@Component
+public class DeadLetters {
+
+  private static final Logger log = LoggerFactory.getLogger(DeadLetters.class);
+  private static final long CONFIRM_TIMEOUT_MILLIS = 5_000;
+
+  private final RabbitTemplate rabbitTemplate;
+  private final AmqpAdmin amqpAdmin;
+  private final RetryProperties properties;
+  private final MeterRegistry registry;
+  private final Map<String, AtomicLong> depths = new LinkedHashMap<>();
+  private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "queue-depth");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public DeadLetters(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin, RetryProperties properties,
+                     MeterRegistry registry) {
+    this.rabbitTemplate = rabbitTemplate;
+    this.amqpAdmin = amqpAdmin;
+    this.properties = properties;
+    this.registry = registry;
+    for (String source : RetryTopology.SOURCE_QUEUES) {
+      track(source);
+      for (Duration tier : properties.backoff()) {
+        track(RetryTopology.delay(source, tier));
+      }
+      track(RetryTopology.dlq(source));
+    }
+  }
+
+  @PostConstruct
+  void start() {
+    long interval = properties.depthPollInterval().toMillis();
+    poller.scheduleWithFixedDelay(this::poll, 0, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Moves up to {@code limit} messages from the dead-letter queue back onto the
+   * source queue. Each message is fetched unacknowledged and only acked once
+   * the broker confirmed its copy on the source queue; a message whose copy
+   * was not confirmed is handed back to the dead-letter queue.
+   */
+  public int replay(String queue, int limit) {
+    if (!RetryTopology.SOURCE_QUEUES.contains(queue)) {
+      throw new NoSuchElementException("no dead-letter queue for " + queue);
+    }
+    int replayed = 0;
+    try {
+      while (replayed < limit && Boolean.TRUE.equals(rabbitTemplate.execute(channel -> replayOne(channel, queue)))) {
+        replayed++;
+      }
+    } finally {
+      if (replayed > 0) {
+        log.info("Replayed {} dead-lettered messages onto {}", replayed, queue);
+        registry.counter("messaging.dlq.replayed", "queue", queue).increment(replayed);
+      }
+    }
+    return replayed;
+  }
+
+  private static boolean replayOne(Channel channel, String queue) throws Exception {
+    GetResponse response = channel.basicGet(RetryTopology.dlq(queue), false);
+    if (response == null) {
+      return false;
+    }
+    long tag = response.getEnvelope().getDeliveryTag();
+    try {
+      AMQP.BasicProperties props = response.getProps();
+      Map<String, Object> headers = props.getHeaders() == null ? new HashMap<>() : new HashMap<>(props.getHeaders());
+      headers.remove(RetryTopology.ATTEMPTS_HEADER);
+      // no-op when the connection factory already runs with publisher confirms
+      channel.confirmSelect();
+      channel.basicPublish("", queue, props.builder().headers(headers).build(), response.getBody());
+      channel.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MILLIS);
+    } catch (Exception ex) {
+      channel.basicNack(tag, false, true);
+      throw ex;
+    }
+    channel.basicAck(tag, false);
+    return true;
+  }
+
+  /** Last polled depth per queue, -1 while the broker has not answered yet. */
+  public Map<String, Long> depths() {
+    Map<String, Long> snapshot = new LinkedHashMap<>();
+    depths.forEach((queue, depth) -> snapshot.put(queue, depth.get()));
+    return snapshot;
+  }
+
+  private void track(String queue) {
+    AtomicLong depth = new AtomicLong(-1);
+    depths.put(queue, depth);
+    Gauge.builder("messaging.queue.depth", depth, d -> d.get() < 0 ? Double.NaN : d.get())
+        .description("Ready messages per queue of the retry topology")
+        .tag("queue", queue)
+        .register(registry);
+  }
+
+  private void poll() {
+    for (Map.Entry<String, AtomicLong> entry : depths.entrySet()) {
+      try {
+        QueueInformation info = amqpAdmin.getQueueInfo(entry.getKey());
+        entry.getValue().set(info == null ? -1 : info.getMessageCount());
+      } catch (AmqpException ex) {
+        entry.getValue().set(-1);
+        log.debug("Cannot read depth of {}: {}", entry.getKey(), ex.getMessage());
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    poller.shutdownNow();
+  }
+}
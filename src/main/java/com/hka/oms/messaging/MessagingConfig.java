@@ -0,0 +1,52 @@
+package com.hka.oms.messaging;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class MessagingConfig {
+
+  @Bean
+  public DirectExchange retryExchange() {
+    return new DirectExchange(RetryTopology.EXCHANGE, true, false);
+  }
+
+  @Bean
+  public Declarables retryQueues(DirectExchange retryExchange, RetryProperties properties) {
+    List<Declarable> declarables = new ArrayList<>();
+    for (String source : RetryTopology.SOURCE_QUEUES) {
+      Queue rejected = QueueBuilder.durable(RetryTopology.rejected(source)).build();
+      Binding binding = BindingBuilder.bind(rejected).to(retryExchange).with(RetryTopology.rejected(source));
+      declarables.add(rejected);
+      declarables.add(binding);
+      for (Duration tier : properties.backoff()) {
+        declarables.add(QueueBuilder.durable(RetryTopology.delay(source, tier))
+            .ttl((int) tier.toMillis())
+            .deadLetterExchange("")
+            .deadLetterRoutingKey(source)
+            .build());
+      }
+      declarables.add(QueueBuilder.durable(RetryTopology.dlq(source)).build());
+    }
+    return new Declarables(declarables);
+  }
+
+  /** Source queues dead-letter rejected messages into the retry exchange instead of dropping them. */
+  public static Queue sourceQueue(String name) {
+    return QueueBuilder.durable(name)
+        .deadLetterExchange(RetryTopology.EXCHANGE)
+        .deadLetterRoutingKey(RetryTopology.rejected(name))
+        .build();
+  }
+}
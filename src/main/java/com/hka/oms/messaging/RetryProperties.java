@@ -0,0 +1,29 @@
+package com.hka.oms.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "messaging.retry")
+public record RetryProperties(List<Duration> backoff, int maxAttempts, Duration depthPollInterval) {
+  public RetryProperties {
+    if (backoff == null || backoff.isEmpty()) {
+      backoff = List.of(Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+    backoff = backoff.stream().distinct().sorted().toList();
+    if (backoff.get(0).isNegative() || backoff.get(0).isZero()) {
+      throw new IllegalArgumentException("messaging.retry.backoff must be positive");
+    }
+    if (maxAttempts <= 0) {
+      maxAttempts = 5;
+    }
+    if (depthPollInterval == null || depthPollInterval.isNegative() || depthPollInterval.isZero()) {
+      depthPollInterval = Duration.ofSeconds(10);
+    }
+  }
+
+  Duration delayFor(int attempt) {
+    return backoff.get(Math.min(attempt, backoff.size()) - 1);
+  }
+}
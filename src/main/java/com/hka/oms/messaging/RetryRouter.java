@@ -0,0 +1,142 @@
+package com.hka.oms.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ReturnListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves rejected messages into the delay queue of their next backoff tier, or
+ * into the dead-letter queue once {@code messaging.retry.max-attempts} is used
+ * up. The consumer that rejected the message never waits for the delay.
+ * A message only leaves the rejected queue once the broker confirmed its
+ * mandatory copy in the target queue.
+ * While the broker refuses to park messages the router backs off
+ * exponentially, starting at the first backoff tier.
+ */
+@Component
+public class RetryRouter {
+
+  private static final Logger log = LoggerFactory.getLogger(RetryRouter.class);
+  private static final Duration MAX_SEND_BACKOFF = Duration.ofSeconds(30);
+  private static final long CONFIRM_TIMEOUT_MILLIS = 5_000;
+  private static final MessagePropertiesConverter PROPERTIES_CONVERTER = new DefaultMessagePropertiesConverter();
+
+  private final RabbitTemplate rabbitTemplate;
+  private final RetryProperties properties;
+  private final MeterRegistry registry;
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final AtomicInteger sendFailures = new AtomicInteger();
+
+  public RetryRouter(RabbitTemplate rabbitTemplate, RetryProperties properties, MeterRegistry registry) {
+    this.rabbitTemplate = rabbitTemplate;
+    this.properties = properties;
+    this.registry = registry;
+  }
+
+  @RabbitListener(queues = { "orders.queue.rejected", "status.queue.rejected" })
+  public void route(Message message) {
+    MessageProperties props = message.getMessageProperties();
+    String source = RetryTopology.sourceOf(props.getConsumerQueue());
+    int attempt = attempts(props) + 1;
+    props.setHeader(RetryTopology.ATTEMPTS_HEADER, attempt);
+    String target;
+    String outcome;
+    if (attempt > properties.maxAttempts()) {
+      target = RetryTopology.dlq(source);
+      outcome = "dead-lettered";
+      log.warn("Message {} from {} failed {} times, moving it to {}", props.getMessageId(), source,
+          attempt - 1, target);
+    } else {
+      Duration delay = properties.delayFor(attempt);
+      target = RetryTopology.delay(source, delay);
+      outcome = "retry-" + RetryTopology.label(delay);
+      log.info("Retrying message {} from {} in {} (attempt {}/{})", props.getMessageId(), source, delay,
+          attempt, properties.maxAttempts());
+    }
+    try {
+      if (!Boolean.TRUE.equals(rabbitTemplate.execute(channel -> park(channel, target, message)))) {
+        throw new AmqpException("broker returned the message as unroutable");
+      }
+      sendFailures.set(0);
+    } catch (AmqpException ex) {
+      // keep the message in the rejected queue; it is only acked once parked. Hold the
+      // consumer back first, or the requeued message comes straight back while the broker refuses
+      pauseAfterFailure();
+      throw new ImmediateRequeueAmqpException("cannot route " + source + " message to " + target, ex);
+    }
+    counters.computeIfAbsent(source + "|" + outcome, key -> Counter.builder("messaging.retry.routed")
+        .description("Rejected messages moved to a delay tier or the dead-letter queue")
+        .tag("queue", source)
+        .tag("outcome", outcome)
+        .register(registry)).increment();
+  }
+
+  /**
+   * Publishes mandatory and waits for the broker's confirm, so a message is
+   * only acked off the rejected queue once its copy really sits in the target
+   * queue. Returns false when the broker could not route the copy.
+   */
+  private static boolean park(Channel channel, String target, Message message) throws Exception {
+    AtomicBoolean returned = new AtomicBoolean();
+    ReturnListener listener = channel.addReturnListener(ret -> returned.set(true));
+    try {
+      AMQP.BasicProperties props = PROPERTIES_CONVERTER.fromMessageProperties(message.getMessageProperties(),
+          StandardCharsets.UTF_8.name());
+      // no-op when the connection factory already runs with publisher confirms
+      channel.confirmSelect();
+      channel.basicPublish("", target, true, props, message.getBody());
+      // the broker sends basic.return before the confirm of an unroutable message
+      channel.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MILLIS);
+    } finally {
+      channel.removeReturnListener(listener);
+    }
+    return !returned.get();
+  }
+
+  private void pauseAfterFailure() {
+    int failures = sendFailures.incrementAndGet();
+    long base = properties.backoff().get(0).toMillis();
+    long pause = Math.min(MAX_SEND_BACKOFF.toMillis(), base << Math.min(failures - 1, 20));
+    log.warn("Cannot park rejected messages ({} failures in a row), pausing {} ms", failures, pause);
+    try {
+      Thread.sleep(pause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static int attempts(MessageProperties props) {
+    Object value = props.getHeaders().get(RetryTopology.ATTEMPTS_HEADER);
+    if (value instanceof Number number) {
+      return number.intValue();
+    }
+    if (value != null) {
+      try {
+        return Integer.parseInt(value.toString());
+      } catch (NumberFormatException ignored) {
+        // foreign header value, start over
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,53 @@
+package com.hka.oms.messaging;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Queue names of the retry topology. A consumer that rejects a message from a
+ * source queue dead-letters it via {@link #EXCHANGE} to {@code <queue>.rejected}.
+ * The {@link RetryRouter} parks it in the delay queue of the next backoff tier.
+ * That queue's TTL dead-letters it back to the source queue. Once the attempts
+ * are used up the message lands in {@code <queue>.dlq} until it is replayed.
+ */
+public final class RetryTopology {
+
+  public static final String ORDERS_QUEUE = "orders.queue";
+  public static final String STATUS_QUEUE = "status.queue";
+  public static final List<String> SOURCE_QUEUES = List.of(ORDERS_QUEUE, STATUS_QUEUE);
+
+  public static final String EXCHANGE = "oms.retry";
+  public static final String ATTEMPTS_HEADER = "x-oms-attempts";
+
+  private RetryTopology() {
+  }
+
+  public static String rejected(String queue) {
+    return queue + ".rejected";
+  }
+
+  public static String delay(String queue, Duration tier) {
+    return queue + ".retry." + label(tier);
+  }
+
+  public static String dlq(String queue) {
+    return queue + ".dlq";
+  }
+
+  static String sourceOf(String rejectedQueue) {
+    return rejectedQueue.substring(0, rejectedQueue.length() - ".rejected".length());
+  }
+
+  static String label(Duration tier) {
+    if (tier.toMillis() % 3_600_000 == 0) {
+      return tier.toHours() + "h";
+    }
+    if (tier.toMillis() % 60_000 == 0) {
+      return tier.toMinutes() + "m";
+    }
+    if (tier.toMillis() % 1_000 == 0) {
+      return tier.toSeconds() + "s";
+    }
+    return tier.toMillis() + "ms";
+  }
+}
@@ -6,6 +6,7 @@ import com.hka.oms.payment.dto.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -33,18 +34,26 @@ public class PaymentClient {
     this.objectMapper = objectMapper;
   }
 
+  /**
+   * Sends a bodiless request to the payment service so a pooled connection is
+   * established before the first order needs it. Any HTTP status counts.
+   */
+  public HttpStatusCode warmUp() {
+    return restClient.head().uri("/").exchange((request, response) -> response.getStatusCode());
+  }
+
   public PaymentResponse authorize(PaymentAuthorizeRequest request, String idempotencyKey) {
-    log.info("Authorizing payment for order {}", request.orderId());
+    log.debug("Authorizing payment for order {}", request.orderId());
     return post("/payments/authorize", request, idempotencyKey);
   }
 
   public PaymentResponse capture(PaymentCaptureRequest request) {
-    log.info("Capturing payment for order {}", request.orderId());
+    log.debug("Capturing payment for order {}", request.orderId());
     return post("/payments/capture", request, null);
   }
 
   public PaymentResponse refund(PaymentRefundRequest request) {
-    log.info("Refunding payment for order {}", request.orderId());
+    log.debug("Refunding payment for order {}", request.orderId());
     return post("/payments/refund", request, null);
   }
 
@@ -0,0 +1,42 @@
+package com.hka.oms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.hka.oms.HttpCall")
+@Label("Outgoing HTTP Call")
+@Category({ "OMS", "Downstream" })
+@StackTrace(false)
+public final class HttpCallEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Host")
+  String host;
+
+  @Label("Path")
+  String path;
+
+  @Label("Status")
+  int status;
+
+  @Label("Order Id")
+  String orderId;
+
+  /** {@code status} is 0 when no response arrived. */
+  public void finish(String method, String host, String path, int status) {
+    end();
+    if (shouldCommit()) {
+      this.method = method;
+      this.host = host;
+      this.path = path;
+      this.status = status;
+      this.orderId = OrderContext.current();
+      commit();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.hka.oms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.hka.oms.InventoryRpc")
+@Label("Inventory RPC")
+@Category({ "OMS", "Downstream" })
+@StackTrace(false)
+public final class InventoryRpcEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Order Id")
+  String orderId;
+
+  @Label("Streamed")
+  boolean streamed;
+
+  @Label("Success")
+  boolean success;
+
+  public void finish(String method, String orderId, boolean streamed, boolean success) {
+    end();
+    if (shouldCommit()) {
+      this.method = method;
+      this.orderId = orderId != null ? orderId : OrderContext.current();
+      this.streamed = streamed;
+      this.success = success;
+      commit();
+    }
+  }
+}
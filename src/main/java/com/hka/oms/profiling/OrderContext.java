@@ -0,0 +1,33 @@
+package com.hka.oms.profiling;
+
+/**
+ * Order id of the create stage running on the current thread, so downstream
+ * events that only see a request (HTTP calls) can still name their order.
+ * Only maintained while a recording has {@link OrderStageEvent} enabled.
+ */
+public final class OrderContext {
+
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private OrderContext() {
+  }
+
+  public static String current() {
+    return CURRENT.get();
+  }
+
+  /** Sets the id and returns the previous one, to be handed back to {@link #restore}. */
+  public static String enter(String orderId) {
+    String previous = CURRENT.get();
+    CURRENT.set(orderId);
+    return previous;
+  }
+
+  public static void restore(String previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+}
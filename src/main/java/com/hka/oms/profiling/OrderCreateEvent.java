@@ -0,0 +1,36 @@
+package com.hka.oms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(OrderCreateEvent.NAME)
+@Label("Order Create")
+@Description("One OrderService.create call, from validation to the WMS publish")
+@Category({ "OMS", "Orders" })
+@StackTrace(false)
+public final class OrderCreateEvent extends Event {
+
+  public static final String NAME = "com.hka.oms.OrderCreate";
+
+  @Label("Order Id")
+  String orderId;
+
+  @Label("Success")
+  boolean success;
+
+  public void orderId(String orderId) {
+    this.orderId = orderId;
+  }
+
+  public void finish(boolean success) {
+    end();
+    if (shouldCommit()) {
+      this.success = success;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.hka.oms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(OrderStageEvent.NAME)
+@Label("Order Stage")
+@Category({ "OMS", "Orders" })
+@StackTrace(false)
+public final class OrderStageEvent extends Event {
+
+  public static final String NAME = "com.hka.oms.OrderStage";
+
+  @Label("Stage")
+  String stage;
+
+  @Label("Order Id")
+  String orderId;
+
+  @Label("Success")
+  boolean success;
+
+  public void finish(String stage, String orderId, boolean success) {
+    end();
+    if (shouldCommit()) {
+      this.stage = stage;
+      this.orderId = orderId;
+      this.success = success;
+      commit();
+    }
+  }
+}
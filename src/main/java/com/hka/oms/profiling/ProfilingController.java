@@ -0,0 +1,81 @@
+package com.hka.oms.profiling;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/profiling")
+public class ProfilingController {
+
+  private final Recordings recordings;
+  private final SlowOrderMonitor slowOrders;
+
+  public ProfilingController(Recordings recordings, SlowOrderMonitor slowOrders) {
+    this.recordings = recordings;
+    this.slowOrders = slowOrders;
+  }
+
+  @PostMapping("/recordings")
+  public ResponseEntity<RecordingInfo> start(@RequestParam(required = false) String settings,
+                                             @RequestParam(required = false) String duration,
+                                             @RequestParam(required = false) String maxSize) {
+    RecordingInfo info;
+    try {
+      info = recordings.start(settings, duration == null ? null : DurationStyle.detectAndParse(duration),
+          maxSize == null ? null : DataSize.parse(maxSize));
+    } catch (IllegalArgumentException ex) {
+      throw new ProfilingException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+    return ResponseEntity.created(URI.create("/admin/profiling/recordings/" + info.id())).body(info);
+  }
+
+  @GetMapping("/recordings")
+  public List<RecordingInfo> list() {
+    return recordings.list();
+  }
+
+  @PostMapping("/recordings/{id}/stop")
+  public RecordingInfo stop(@PathVariable long id) {
+    return recordings.stop(id);
+  }
+
+  @GetMapping("/recordings/{id}")
+  public ResponseEntity<StreamingResponseBody> download(@PathVariable long id) throws Exception {
+    Path file = recordings.dump(id);
+    StreamingResponseBody body = out -> {
+      try {
+        Files.copy(file, out);
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .contentLength(Files.size(file))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("oms-" + id + ".jfr").build().toString())
+        .body(body);
+  }
+
+  @GetMapping("/slow-orders")
+  public List<SlowOrder> slowOrders() {
+    return slowOrders.recent();
+  }
+}
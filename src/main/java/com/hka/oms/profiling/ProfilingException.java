@@ -0,0 +1,16 @@
+package com.hka.oms.profiling;
+
+import org.springframework.http.HttpStatus;
+
+public class ProfilingException extends RuntimeException {
+  private final HttpStatus status;
+
+  public ProfilingException(HttpStatus status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,28 @@
+package com.hka.oms.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "profiling")
+public record ProfilingProperties(Duration maxDuration, DataSize maxSize, boolean slowOrders,
+                                  Duration slowOrderThreshold, Duration slowStageThreshold, int slowOrderHistory) {
+  public ProfilingProperties {
+    if (maxDuration == null || maxDuration.isNegative() || maxDuration.isZero()) {
+      maxDuration = Duration.ofMinutes(10);
+    }
+    if (maxSize == null || maxSize.toBytes() <= 0) {
+      maxSize = DataSize.ofMegabytes(256);
+    }
+    if (slowOrderThreshold == null || slowOrderThreshold.isNegative()) {
+      slowOrderThreshold = Duration.ofSeconds(1);
+    }
+    if (slowStageThreshold == null || slowStageThreshold.isNegative()) {
+      slowStageThreshold = Duration.ofMillis(100);
+    }
+    if (slowOrderHistory <= 0) {
+      slowOrderHistory = 100;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.hka.oms.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.hka.oms.Publish")
+@Label("AMQP Publish")
+@Category({ "OMS", "Downstream" })
+@StackTrace(false)
+public final class PublishEvent extends Event {
+
+  @Label("Queue")
+  String queue;
+
+  @Label("Order Id")
+  String orderId;
+
+  @Label("Success")
+  boolean success;
+
+  public void finish(String queue, String orderId, boolean success) {
+    end();
+    if (shouldCommit()) {
+      this.queue = queue;
+      this.orderId = orderId;
+      this.success = success;
+      commit();
+    }
+  }
+}
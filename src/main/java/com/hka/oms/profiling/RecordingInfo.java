@@ -0,0 +1,8 @@
+package com.hka.oms.profiling;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record RecordingInfo(long id, String name, String state, Instant startedAt, Instant stoppedAt,
+                            Duration maxDuration, long maxBytes) {
+}
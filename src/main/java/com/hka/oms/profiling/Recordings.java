@@ -0,0 +1,144 @@
+package com.hka.oms.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * On-demand JFR recordings. At most one runs at a time, each is bounded in
+ * duration and size, and only the last few finished ones are kept for
+ * download.
+ */
+@Component
+public class Recordings {
+
+  private static final Logger log = LoggerFactory.getLogger(Recordings.class);
+  private static final int KEEP_FINISHED = 5;
+  private static final List<Class<? extends Event>> OMS_EVENTS = List.of(OrderCreateEvent.class,
+      OrderStageEvent.class, InventoryRpcEvent.class, HttpCallEvent.class, PublishEvent.class);
+  // the stock settings capture the environment, system properties and command
+  // lines, which carry credentials; recordings are downloaded over HTTP
+  private static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable",
+      "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+  private final ProfilingProperties properties;
+  private final Map<Long, Recording> recordings = Collections.synchronizedMap(new TreeMap<>());
+
+  public Recordings(ProfilingProperties properties) {
+    this.properties = properties;
+  }
+
+  public synchronized RecordingInfo start(String settings, Duration duration, DataSize maxSize) {
+    if (recordings.values().stream().anyMatch(r -> r.getState() == RecordingState.RUNNING)) {
+      throw new ProfilingException(HttpStatus.CONFLICT, "a recording is already running");
+    }
+    String settingsName = settings == null || settings.isBlank() ? "default" : settings;
+    Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration(settingsName);
+    } catch (IOException | ParseException e) {
+      throw new ProfilingException(HttpStatus.BAD_REQUEST, "unknown JFR settings: " + settingsName);
+    }
+    Recording recording = new Recording(configuration);
+    recording.setName("oms-" + settingsName);
+    SENSITIVE_EVENTS.forEach(recording::disable);
+    for (Class<? extends Event> event : OMS_EVENTS) {
+      recording.enable(event).withoutStackTrace();
+    }
+    recording.setDuration(min(duration, properties.maxDuration()));
+    recording.setMaxSize(Math.min(maxSize == null ? Long.MAX_VALUE : maxSize.toBytes(),
+        properties.maxSize().toBytes()));
+    recording.setToDisk(true);
+    recording.start();
+    recordings.put(recording.getId(), recording);
+    pruneFinished();
+    log.info("Started JFR recording {} ({}, {} max)", recording.getId(), settingsName, recording.getDuration());
+    return info(recording);
+  }
+
+  public RecordingInfo stop(long id) {
+    Recording recording = find(id);
+    if (recording.getState() == RecordingState.RUNNING) {
+      recording.stop();
+      log.info("Stopped JFR recording {}", id);
+    }
+    return info(recording);
+  }
+
+  public List<RecordingInfo> list() {
+    synchronized (recordings) {
+      return recordings.values().stream().map(Recordings::info).toList();
+    }
+  }
+
+  /** Writes the recording (a snapshot if still running) to a temporary file the caller must delete. */
+  public Path dump(long id) {
+    Recording recording = find(id);
+    try {
+      Path file = Files.createTempFile("oms-recording-" + id + "-", ".jfr");
+      recording.dump(file);
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot dump recording " + id, e);
+    }
+  }
+
+  private Recording find(long id) {
+    Recording recording = recordings.get(id);
+    if (recording == null) {
+      throw new NoSuchElementException("recording not found: " + id);
+    }
+    return recording;
+  }
+
+  private void pruneFinished() {
+    synchronized (recordings) {
+      List<Recording> finished = new ArrayList<>(recordings.values().stream()
+          .filter(r -> r.getState() == RecordingState.STOPPED)
+          .toList());
+      for (int i = 0; i < finished.size() - KEEP_FINISHED; i++) {
+        recordings.remove(finished.get(i).getId());
+        finished.get(i).close();
+      }
+    }
+  }
+
+  private static Duration min(Duration requested, Duration cap) {
+    return requested == null || requested.isNegative() || requested.isZero() || requested.compareTo(cap) > 0
+        ? cap : requested;
+  }
+
+  private static RecordingInfo info(Recording recording) {
+    return new RecordingInfo(recording.getId(), recording.getName(), recording.getState().name(),
+        recording.getStartTime(), recording.getState() == RecordingState.RUNNING ? null : recording.getStopTime(),
+        recording.getDuration(), recording.getMaxSize());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    synchronized (recordings) {
+      recordings.values().forEach(Recording::close);
+      recordings.clear();
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.hka.oms.profiling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/** A create call over the slow-order threshold, with the stages that were over the stage threshold. */
+public record SlowOrder(String orderId, boolean success, Duration duration, Instant finishedAt,
+                        Map<String, Duration> slowStages) {
+}
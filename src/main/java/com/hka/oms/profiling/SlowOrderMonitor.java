@@ -0,0 +1,107 @@
+package com.hka.oms.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the JFR order events of this process and flags creates slower than
+ * {@code profiling.slow-order-threshold}. Only events above their thresholds
+ * are ever committed, so the monitor costs close to nothing while orders are
+ * fast. Slow stages are matched to their order by thread and time window.
+ */
+@Component
+public class SlowOrderMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(SlowOrderMonitor.class);
+  private static final int MAX_STAGES_PER_THREAD = 32;
+
+  private final ProfilingProperties properties;
+  private final Counter slowOrders;
+  private final Map<Long, Deque<RecordedEvent>> stagesByThread = new LinkedHashMap<>();
+  private final Deque<SlowOrder> recent = new ArrayDeque<>();
+  private RecordingStream stream;
+
+  public SlowOrderMonitor(ProfilingProperties properties, MeterRegistry registry) {
+    this.properties = properties;
+    this.slowOrders = Counter.builder("orders.slow")
+        .description("Order creates slower than profiling.slow-order-threshold")
+        .register(registry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!properties.slowOrders()) {
+      return;
+    }
+    stream = new RecordingStream();
+    stream.enable(OrderCreateEvent.NAME).withThreshold(properties.slowOrderThreshold()).withoutStackTrace();
+    stream.enable(OrderStageEvent.NAME).withThreshold(properties.slowStageThreshold()).withoutStackTrace();
+    stream.setMaxAge(Duration.ofMinutes(1));
+    stream.onEvent(OrderStageEvent.NAME, this::onStage);
+    stream.onEvent(OrderCreateEvent.NAME, this::onOrder);
+    stream.startAsync();
+  }
+
+  public List<SlowOrder> recent() {
+    synchronized (recent) {
+      return List.copyOf(recent);
+    }
+  }
+
+  // stream callbacks run on the single JFR streaming thread
+  private void onStage(RecordedEvent event) {
+    Deque<RecordedEvent> stages = stagesByThread.computeIfAbsent(threadId(event), id -> new ArrayDeque<>());
+    if (stages.size() == MAX_STAGES_PER_THREAD) {
+      stages.removeFirst();
+    }
+    stages.addLast(event);
+  }
+
+  private void onOrder(RecordedEvent event) {
+    Map<String, Duration> slowStages = new LinkedHashMap<>();
+    Deque<RecordedEvent> stages = stagesByThread.get(threadId(event));
+    while (stages != null && !stages.isEmpty() && !stages.peekFirst().getEndTime().isAfter(event.getEndTime())) {
+      RecordedEvent stage = stages.removeFirst();
+      if (!stage.getStartTime().isBefore(event.getStartTime())) {
+        slowStages.put(stage.getString("stage"), stage.getDuration());
+      }
+    }
+    SlowOrder slow = new SlowOrder(event.getString("orderId"), event.getBoolean("success"), event.getDuration(),
+        event.getEndTime(), slowStages);
+    slowOrders.increment();
+    log.warn("Slow order {}: create took {} ms (success={}), slow stages {}", slow.orderId(),
+        slow.duration().toMillis(), slow.success(), slowStages);
+    synchronized (recent) {
+      if (recent.size() == properties.slowOrderHistory()) {
+        recent.removeFirst();
+      }
+      recent.addLast(slow);
+    }
+  }
+
+  private static long threadId(RecordedEvent event) {
+    return event.getThread() == null ? -1 : event.getThread().getJavaThreadId();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (stream != null) {
+      stream.close();
+    }
+  }
+}
@@ -2,12 +2,17 @@ package com.hka.oms.publisher;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageDeliveryMode;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hka.oms.logging.PayloadSampler;
+import com.hka.oms.messaging.RetryTopology;
 import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.tracing.AmqpTracing;
+import com.hka.oms.wms.WaveScheduler;
 
 @Component
 public class WmsPublisher {
@@ -15,16 +20,49 @@ public class WmsPublisher {
     private static final Logger logger = LoggerFactory.getLogger(WmsPublisher.class);
     private final RabbitTemplate rabbitTemplate;
     private final ObjectMapper objectMapper;
+    private final AmqpTracing tracing;
+    private final WaveScheduler waves;
+    private final PayloadSampler payloadSampler;
 
-    public WmsPublisher(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper) {
+    public WmsPublisher(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper, AmqpTracing tracing,
+                        WaveScheduler waves, PayloadSampler payloadSampler) {
         this.rabbitTemplate = rabbitTemplate;
         this.objectMapper = objectMapper;
+        this.tracing = tracing;
+        this.waves = waves;
+        this.payloadSampler = payloadSampler;
+        // orders a wave cannot take, or whose wave failed, still reach WMS through orders.queue
+        waves.fallbackTo(this::publishToQueue);
     }
 
     public void publishOrderCreated(OrderCreationResult result) {
+        if (waves.isEnabled()) {
+            // wave mode: WMS receives the order with the next wave instead of one message per order
+            waves.submit(result);
+            logger.debug("Queued order {} for the next WMS wave", result.order().getOrderId());
+            return;
+        }
+        publishToQueue(result);
+    }
+
+    private void publishToQueue(OrderCreationResult result) {
         String payload = serializeResult(result);
-        rabbitTemplate.convertAndSend("orders.queue", payload);
-        logger.info("Sent order-created payload for {}: {}", result.order().getOrderId(), payload);
+        String orderId = result.order().getOrderId();
+        try {
+            tracing.publish(RetryTopology.ORDERS_QUEUE, orderId,
+                    headers -> rabbitTemplate.convertAndSend(RetryTopology.ORDERS_QUEUE, (Object) payload, message -> {
+                        // persistent so parked retries survive a broker restart; the id keeps replays traceable
+                        message.getMessageProperties().setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+                        message.getMessageProperties().setMessageId(orderId);
+                        return headers.postProcessMessage(message);
+                    }));
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to send order-created payload for {}: {}", orderId, payload);
+            throw ex;
+        }
+        if (payloadSampler.sample()) {
+            logger.info("Sent order-created payload for {}: {}", orderId, payload);
+        }
     }
 
     private String serializeResult(OrderCreationResult result) {
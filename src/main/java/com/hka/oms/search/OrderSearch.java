@@ -0,0 +1,89 @@
+package com.hka.oms.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.ClusterException;
+import com.hka.oms.cluster.ClusterFanOut;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+@Service
+public class OrderSearch {
+
+  static final int MAX_PAGE_SIZE = 100;
+  static final int MAX_WINDOW = 10_000;
+
+  private static final Logger log = LoggerFactory.getLogger(OrderSearch.class);
+
+  private final OrderSearchIndex index;
+  private final OrderService orderService;
+  private final ClusterMembership membership;
+  private final ClusterClient clusterClient;
+  private final ClusterFanOut fanOut;
+
+  public OrderSearch(OrderSearchIndex index, OrderService orderService, ClusterMembership membership,
+                     ClusterClient clusterClient, ClusterFanOut fanOut) {
+    this.index = index;
+    this.orderService = orderService;
+    this.membership = membership;
+    this.clusterClient = clusterClient;
+    this.fanOut = fanOut;
+  }
+
+  public SearchPage search(String query, int page, int size, boolean forwarded) {
+    // peers ask for a whole window in one page so the caller can merge and slice
+    int pageSize = Math.max(1, Math.min(size, forwarded ? MAX_WINDOW : MAX_PAGE_SIZE));
+    int pageIndex = Math.max(0, Math.min(page, MAX_WINDOW / pageSize - 1));
+    int window = (pageIndex + 1) * pageSize;
+
+    SearchHits hits = index.find(query, window);
+    long total = hits.total();
+    List<Order> candidates = new ArrayList<>(load(hits.orderIds()));
+
+    if (!forwarded && membership.isClustered()) {
+      List<SearchPage> remote = fanOut.call(member -> searchRemote(member, query, window),
+          member -> new SearchPage(query, 0, window, 0, List.of()));
+      for (SearchPage result : remote) {
+        total += result.total();
+        candidates.addAll(result.orders());
+      }
+      candidates.sort(Comparator.comparing(Order::getOrderId).reversed());
+    }
+
+    int from = Math.min(pageIndex * pageSize, candidates.size());
+    int to = Math.min(from + pageSize, candidates.size());
+    return new SearchPage(query, pageIndex, pageSize, total, List.copyOf(candidates.subList(from, to)));
+  }
+
+  private List<Order> load(List<String> orderIds) {
+    return orderIds.stream()
+        .map(orderId -> {
+          try {
+            return orderService.get(orderId);
+          } catch (NoSuchElementException ex) {
+            return null;
+          }
+        })
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  private SearchPage searchRemote(String member, String query, int window) {
+    try {
+      return clusterClient.searchOrders(member, query, window);
+    } catch (ClusterException ex) {
+      log.warn("Skipping search results of {}: {}", member, ex.getMessage());
+      return new SearchPage(query, 0, window, 0, List.of());
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package com.hka.oms.search;
+
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.service.OrderChangeListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from normalised tokens (lower case, accents stripped) of
+ * customer names, address fields and product ids to the ids of the orders
+ * containing them. Query terms shorter than {@link #MIN_PREFIX} only match
+ * whole tokens; longer ones match every token they prefix.
+ */
+@Component
+public class OrderSearchIndex implements OrderChangeListener {
+
+  static final int MIN_PREFIX = 2;
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+  private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+  // sorted view of the posting keys for prefix lookups; only changed inside a posting's compute
+  private final NavigableSet<String> sortedTokens = new ConcurrentSkipListSet<>();
+
+  @Override
+  public void onOrderChanged(Order previous, Order current) {
+    Set<String> before = previous == null ? Set.of() : tokens(previous);
+    Set<String> after = current == null ? Set.of() : tokens(current);
+    if (before.equals(after)) {
+      return;
+    }
+    String orderId = current != null ? current.getOrderId() : previous.getOrderId();
+    for (String token : before) {
+      if (!after.contains(token)) {
+        postings.computeIfPresent(token, (t, ids) -> {
+          ids.remove(orderId);
+          if (!ids.isEmpty()) {
+            return ids;
+          }
+          sortedTokens.remove(t);
+          return null;
+        });
+      }
+    }
+    for (String token : after) {
+      if (!before.contains(token)) {
+        postings.compute(token, (t, ids) -> {
+          Set<String> target = ids;
+          if (target == null) {
+            target = ConcurrentHashMap.newKeySet();
+            sortedTokens.add(t);
+          }
+          target.add(orderId);
+          return target;
+        });
+      }
+    }
+  }
+
+  /** Orders matching every term, newest id first, at most {@code limit} ids. */
+  public SearchHits find(String query, int limit) {
+    List<Term> terms = new ArrayList<>();
+    for (String raw : query == null ? new String[0] : query.trim().split("\\s+")) {
+      String normalized = normalize(raw);
+      if (!normalized.isEmpty()) {
+        terms.add(term(normalized));
+      }
+    }
+    if (terms.isEmpty()) {
+      return new SearchHits(0, List.of());
+    }
+    // drive the intersection from the least frequent term, probe the others
+    terms.sort(Comparator.comparingLong(Term::size));
+    Term driver = terms.get(0);
+    List<Term> probes = terms.subList(1, terms.size());
+    Set<String> seen = driver.postings().size() > 1 ? new HashSet<>() : null;
+
+    PriorityQueue<String> newest = new PriorityQueue<>();
+    long total = 0;
+    for (Set<String> ids : driver.postings()) {
+      for (String orderId : ids) {
+        if ((seen != null && !seen.add(orderId)) || !matchesAll(probes, orderId)) {
+          continue;
+        }
+        total++;
+        if (newest.size() < limit) {
+          newest.add(orderId);
+        } else if (limit > 0 && orderId.compareTo(newest.peek()) > 0) {
+          newest.poll();
+          newest.add(orderId);
+        }
+      }
+    }
+    List<String> orderIds = new ArrayList<>(newest);
+    orderIds.sort(Comparator.reverseOrder());
+    return new SearchHits(total, orderIds);
+  }
+
+  public int tokenCount() {
+    return postings.size();
+  }
+
+  private static boolean matchesAll(List<Term> probes, String orderId) {
+    for (Term probe : probes) {
+      if (!probe.contains(orderId)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Term term(String term) {
+    if (term.length() < MIN_PREFIX) {
+      Set<String> ids = postings.get(term);
+      return new Term(ids == null ? List.of() : List.of(ids));
+    }
+    List<Set<String>> matches = new ArrayList<>();
+    for (String token : sortedTokens.subSet(term, true, term + Character.MAX_VALUE, false)) {
+      Set<String> ids = postings.get(token);
+      if (ids != null) {
+        matches.add(ids);
+      }
+    }
+    return new Term(matches);
+  }
+
+  private record Term(List<Set<String>> postings, long size) {
+
+    Term(List<Set<String>> postings) {
+      this(postings, postings.stream().mapToLong(Set::size).sum());
+    }
+
+    boolean contains(String orderId) {
+      for (Set<String> ids : postings) {
+        if (ids.contains(orderId)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  static Set<String> tokens(Order order) {
+    Set<String> tokens = new HashSet<>();
+    Customer customer = order.getCustomer();
+    if (customer != null) {
+      split(customer.getName(), tokens);
+      split(customer.getPrename(), tokens);
+    }
+    ShippingAddress address = order.getShippingAddress();
+    if (address != null) {
+      split(address.getStreet(), tokens);
+      split(address.getCity(), tokens);
+      split(address.getZipCode(), tokens);
+    }
+    if (order.getItems() != null) {
+      for (OrderItem item : order.getItems()) {
+        String productId = normalize(item.getProductId());
+        if (!productId.isEmpty()) {
+          tokens.add(productId);
+          split(productId, tokens);
+        }
+      }
+    }
+    return tokens;
+  }
+
+  private static void split(String value, Set<String> tokens) {
+    if (value == null) {
+      return;
+    }
+    for (String token : SEPARATORS.split(normalize(value))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+  }
+
+  static String normalize(String value) {
+    if (value == null) {
+      return "";
+    }
+    String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+    return stripped.toLowerCase(Locale.ROOT).trim();
+  }
+}
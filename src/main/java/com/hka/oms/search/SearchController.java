@@ -0,0 +1,28 @@
+package com.hka.oms.search;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hka.oms.cluster.ClusterClient;
+
+@RestController
+@RequestMapping("/orders/search")
+public class SearchController {
+
+  private final OrderSearch search;
+
+  public SearchController(OrderSearch search) {
+    this.search = search;
+  }
+
+  @GetMapping
+  public SearchPage search(@RequestParam("q") String query,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwarded) {
+    return search.search(query, page, size, forwarded != null);
+  }
+}
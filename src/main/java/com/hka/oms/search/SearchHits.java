@@ -0,0 +1,6 @@
+package com.hka.oms.search;
+
+import java.util.List;
+
+public record SearchHits(long total, List<String> orderIds) {
+}
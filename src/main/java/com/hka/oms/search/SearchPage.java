@@ -0,0 +1,8 @@
+package com.hka.oms.search;
+
+import com.hka.oms.domain.Order;
+
+import java.util.List;
+
+public record SearchPage(String query, int page, int size, long total, List<Order> orders) {
+}
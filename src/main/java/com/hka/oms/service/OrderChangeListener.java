@@ -0,0 +1,12 @@
+package com.hka.oms.service;
+
+import com.hka.oms.domain.Order;
+
+public interface OrderChangeListener {
+
+  /**
+   * Called after the order store changed. {@code previous} is null for new
+   * orders, {@code current} is null for orders that left this instance.
+   */
+  void onOrderChanged(Order previous, Order current);
+}
@@ -4,23 +4,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.hka.oms.analytics.HotSkuTracker;
+import com.hka.oms.cluster.ClusterMembership;
 import com.hka.oms.domain.*;
+import com.hka.oms.fairness.FairScheduler;
 import com.hka.oms.inventory.InventoryClient;
+import com.hka.oms.inventory.ReservationReleaseQueue;
 import com.hka.oms.payment.PaymentClient;
 import com.hka.oms.payment.PaymentException;
 import com.hka.oms.payment.dto.PaymentAuthorizeRequest;
 import com.hka.oms.payment.dto.PaymentResponse;
+import com.hka.oms.profiling.OrderCreateEvent;
 import com.hka.oms.publisher.WmsPublisher;
+import com.hka.oms.store.OrderChange;
+import com.hka.oms.store.OrderStore;
+import com.hka.oms.tracing.OrderTracing;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -28,24 +34,96 @@ import java.util.function.UnaryOperator;
 public class OrderService {
 
   private static final Logger log = LoggerFactory.getLogger(OrderService.class);
-  private final Map<String, Order> store = new ConcurrentHashMap<>();
   private final InventoryClient inventoryClient;
+  private final ReservationReleaseQueue releaseQueue;
   private final PaymentClient paymentClient;
   private final WmsPublisher wmsPublisher;
+  private final ClusterMembership membership;
+  private final List<OrderChangeListener> listeners;
+  private final OrderStore store;
+  private final OrderTracing tracing;
+  private final HotSkuTracker hotSkus;
+  private final OrderValidator validator;
+  private final FairScheduler fairness;
 
-  public OrderService(InventoryClient inventoryClient, PaymentClient paymentClient, WmsPublisher wmsPublisher) {
+  public OrderService(InventoryClient inventoryClient, ReservationReleaseQueue releaseQueue,
+                      PaymentClient paymentClient, WmsPublisher wmsPublisher, ClusterMembership membership,
+                      List<OrderChangeListener> listeners, OrderStore store, OrderTracing tracing,
+                      HotSkuTracker hotSkus, OrderValidator validator, FairScheduler fairness) {
     this.inventoryClient = inventoryClient;
+    this.releaseQueue = releaseQueue;
     this.paymentClient = paymentClient;
     this.wmsPublisher = wmsPublisher;
+    this.membership = membership;
+    this.listeners = List.copyOf(listeners);
+    this.store = store;
+    this.tracing = tracing;
+    this.hotSkus = hotSkus;
+    this.validator = validator;
+    this.fairness = fairness;
   }
 
   public OrderCreationResult create(Order incoming) {
-    Order normalized = normalize(Objects.requireNonNull(incoming, "order"));
-    validate(normalized);
-    ensureInventoryAvailability(normalized);
+    return create(incoming, false);
+  }
+
+  /**
+   * Like {@link #create}, but waits for the customer's fair share instead of
+   * failing with 429 while the customer is at its concurrency cap.
+   */
+  public OrderCreationResult createWhenAdmitted(Order incoming) throws InterruptedException {
+    try (FairScheduler.Slot slot = fairness.await(FairScheduler.customerOf(incoming))) {
+      return create(incoming, true);
+    }
+  }
+
+  private OrderCreationResult create(Order incoming, boolean admitted) {
+    OrderCreateEvent event = new OrderCreateEvent();
+    event.begin();
+    boolean success = false;
+    try {
+      OrderCreationResult result = create(incoming, admitted, event);
+      success = true;
+      return result;
+    } finally {
+      event.finish(success);
+    }
+  }
+
+  private OrderCreationResult create(Order incoming, boolean admitted, OrderCreateEvent event) {
+    Order accepted = accept(incoming);
+    event.orderId(accepted.getOrderId());
+    try (FairScheduler.Slot slot = admitted ? FairScheduler.Slot.NONE
+        : fairness.enter(FairScheduler.customerOf(accepted))) {
+      String reservation = reserve(accepted);
+      OrderCreationResult result = authorize(accepted, reservation);
+      publish(result);
+      return result;
+    }
+  }
+
+  /** Validates a new order and assigns an id owned by this instance; no downstream calls. */
+  public Order accept(Order incoming) {
+    Order normalized = tracing.stage("validate", null, () -> {
+      Order order = normalize(Objects.requireNonNull(incoming, "order"));
+      validator.validate(order);
+      return order;
+    });
+    hotSkus.record(normalized.getItems());
+    return normalized.withOrderId(generateOwnedId());
+  }
 
-    Order withId = normalized.withOrderId(generateIdTs());
-    inventory.Inventory.ReserveItemsResponse reservation = inventoryClient.reserveItems(withId);
+  /** Checks availability and reserves the items of an accepted order; returns the reservation message. */
+  public String reserve(Order order) {
+    tracing.stage("availability", order.getOrderId(), () -> ensureInventoryAvailability(order));
+    inventory.Inventory.ReserveItemsResponse reservation;
+    try {
+      reservation = tracing.stage("reserve", order.getOrderId(), () -> inventoryClient.reserveItems(order));
+    } catch (RuntimeException ex) {
+      // a timeout or broken stream says nothing about whether the stock was reserved
+      releaseQueue.enqueue(order.getOrderId());
+      throw ex;
+    }
 
     if (!reservation.getSuccess()) {
       String message = reservation.getMessage().isBlank()
@@ -54,16 +132,28 @@ public class OrderService {
       throw new InventoryUnavailableException(message);
     }
 
-    log.info("Inventory reserved for {} -> {}", withId.getOrderId(), reservation.getMessage());
+    log.debug("Inventory reserved for {} -> {}", order.getOrderId(), reservation.getMessage());
+    return reservation.getMessage();
+  }
 
-    OrderCreationResult result = withReservationGuard(withId, () -> {
-      PaymentResponse payment = paymentClient.authorize(buildPaymentRequest(withId), withId.getOrderId());
-      Order stored = persist(withId.withStatus(OrderStatus.PAID));
-      return new OrderCreationResult(stored, reservation.getMessage(), payment);
+  /** Authorizes payment and stores the order as paid; releases the reservation if that fails. */
+  public OrderCreationResult authorize(Order order, String reservationMessage) {
+    return withReservationGuard(order, () -> {
+      PaymentResponse payment = tracing.stage("authorize", order.getOrderId(),
+          () -> paymentClient.authorize(buildPaymentRequest(order), order.getOrderId()));
+      Order stored = tracing.stage("persist", order.getOrderId(),
+          () -> persist(order.withStatus(OrderStatus.PAID)));
+      return new OrderCreationResult(stored, reservationMessage, payment, null);
     });
+  }
+
+  /** Gives back the stock of a reserved order that will not be authorized. */
+  public void releaseReservation(Order order) {
+    releaseQueue.enqueue(order.getOrderId());
+  }
 
-    publishToWms(result);
-    return result;
+  public void publish(OrderCreationResult result) {
+    tracing.stage("publish", result.order().getOrderId(), () -> publishToWms(result));
   }
 
   public Order get(String orderId) {
@@ -71,8 +161,48 @@ public class OrderService {
         .orElseThrow(() -> new NoSuchElementException("order not found: " + orderId));
   }
 
+  public long version(String orderId) {
+    long version = store.versionOf(orderId);
+    if (version < 0) {
+      throw new NoSuchElementException("order not found: " + orderId);
+    }
+    return version;
+  }
+
   public List<Order> list() {
-    return List.copyOf(store.values());
+    return store.values();
+  }
+
+  public List<Order> ordersMatching(Predicate<String> orderIdFilter) {
+    return store.matching(orderIdFilter);
+  }
+
+  public void adopt(Collection<Order> orders) {
+    for (Order order : orders) {
+      Order previous = store.put(order);
+      notifyListeners(previous, order);
+    }
+  }
+
+  /** Stores already validated orders as they are, skipping ids that exist. Returns how many were new. */
+  public int importOrders(Collection<Order> orders) {
+    int inserted = 0;
+    for (Order order : orders) {
+      Order normalized = normalize(order);
+      if (store.putIfAbsent(normalized)) {
+        notifyListeners(null, normalized);
+        inserted++;
+      }
+    }
+    return inserted;
+  }
+
+  public boolean evict(Order order) {
+    boolean removed = store.remove(order);
+    if (removed) {
+      notifyListeners(order, null);
+    }
+    return removed;
   }
 
   public Order cancel(String orderId) {
@@ -91,42 +221,26 @@ public class OrderService {
     return mutate(orderId, o -> o.withStatus(newStatus));
   }
 
-  private void validate(Order o) {
-    Optional.ofNullable(o.getCustomer())
-        .map(Customer::getCustomerId)
-        .filter(id -> !id.isBlank())
-        .orElseThrow(() -> new IllegalArgumentException("customerId must not be blank"));
-
-    Optional.ofNullable(o.getItems())
-        .filter(list -> !list.isEmpty())
-        .orElseThrow(() -> new IllegalArgumentException("order needs at least one item"))
-        .forEach(this::validateItem);
-
-    BigDecimal provided = Optional.ofNullable(o.getTotalAmount())
-        .map(amount -> amount.setScale(2, RoundingMode.HALF_UP))
-        .orElseThrow(() -> new IllegalArgumentException("totalAmount must be provided and equal to the sum of items"));
-
-    BigDecimal calculated = calculateTotal(o);
-    if (provided.compareTo(calculated) != 0) {
-      throw new IllegalArgumentException("totalAmount mismatch: provided=" + provided + ", calculated=" + calculated);
-    }
-  }
-
-  private BigDecimal calculateTotal(Order o) {
-    return o.getItems().stream()
-        .map(i -> i.getPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
-        .reduce(BigDecimal.ZERO, BigDecimal::add)
-        .setScale(2, RoundingMode.HALF_UP);
-  }
-
   private Order mutate(String orderId, UnaryOperator<Order> op) {
     Objects.requireNonNull(op, "mutation operator");
-    return Optional.ofNullable(store.computeIfPresent(orderId, (id, current) -> op.apply(current)))
+    OrderChange change = Optional.ofNullable(store.update(orderId, op))
         .orElseThrow(() -> new NoSuchElementException("order not found: " + orderId));
+    notifyListeners(change.previous(), change.current());
+    return change.current();
+  }
+
+  private void notifyListeners(Order previous, Order current) {
+    for (OrderChangeListener listener : listeners) {
+      try {
+        listener.onOrderChanged(previous, current);
+      } catch (RuntimeException ex) {
+        log.warn("Order change listener {} failed", listener.getClass().getSimpleName(), ex);
+      }
+    }
   }
 
   private Order normalize(Order in) {
-    return Order.builderFrom(in).build();
+    return Order.builderFrom(in).version(0).build();
   }
 
   private void ensureInventoryAvailability(Order order) {
@@ -136,6 +250,17 @@ public class OrderService {
     }
   }
 
+  private String generateOwnedId() {
+    int attempts = 32 * membership.members().size();
+    for (int i = 0; i < attempts; i++) {
+      String id = generateIdTs();
+      if (membership.isLocal(id)) {
+        return id;
+      }
+    }
+    throw new IllegalStateException("instance " + membership.self() + " owns no partition of the order space");
+  }
+
   private static String generateIdTs() {
     java.time.LocalDateTime now = java.time.LocalDateTime.now();
     java.time.format.DateTimeFormatter fmt = java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
@@ -154,10 +279,10 @@ public class OrderService {
   }
 
   private Order persist(Order order) {
-    Optional.ofNullable(store.putIfAbsent(order.getOrderId(), order))
-        .ifPresent(existing -> {
-          throw new IllegalStateException("order already exists: " + order.getOrderId());
-        });
+    if (!store.putIfAbsent(order)) {
+      throw new IllegalStateException("order already exists: " + order.getOrderId());
+    }
+    notifyListeners(null, order);
     return order;
   }
 
@@ -166,24 +291,14 @@ public class OrderService {
       return action.get();
     } catch (PaymentException ex) {
       log.warn("Downstream failure for order {}, releasing inventory", order.getOrderId());
-      inventoryClient.releaseReservation(order.getOrderId());
+      releaseQueue.enqueue(order.getOrderId());
       throw ex;
     } catch (RuntimeException ex) {
-      inventoryClient.releaseReservation(order.getOrderId());
+      releaseQueue.enqueue(order.getOrderId());
       throw ex;
     }
   }
 
-  private void validateItem(OrderItem item) {
-    Optional.ofNullable(item.getProductId())
-        .filter(id -> !id.isBlank())
-        .orElseThrow(() -> new IllegalArgumentException("productId must not be blank"));
-    if (item.getQuantity() <= 0) {
-      throw new IllegalArgumentException("quantity must be > 0");
-    }
-    Optional.ofNullable(item.getPrice())
-        .orElseThrow(() -> new IllegalArgumentException("price required"));
-  }
   private void publishToWms(OrderCreationResult result) {
     try {
       wmsPublisher.publishOrderCreated(result);
@@ -0,0 +1,54 @@
+package com.hka.oms.service;
+
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
+
+@Component
+public class OrderValidator {
+
+  public void validate(Order o) {
+    Optional.ofNullable(o.getCustomer())
+        .map(Customer::getCustomerId)
+        .filter(id -> !id.isBlank())
+        .orElseThrow(() -> new IllegalArgumentException("customerId must not be blank"));
+
+    Optional.ofNullable(o.getItems())
+        .filter(list -> !list.isEmpty())
+        .orElseThrow(() -> new IllegalArgumentException("order needs at least one item"))
+        .forEach(this::validateItem);
+
+    BigDecimal provided = Optional.ofNullable(o.getTotalAmount())
+        .map(amount -> amount.setScale(2, RoundingMode.HALF_UP))
+        .orElseThrow(() -> new IllegalArgumentException("totalAmount must be provided and equal to the sum of items"));
+
+    BigDecimal calculated = calculateTotal(o);
+    if (provided.compareTo(calculated) != 0) {
+      throw new IllegalArgumentException("totalAmount mismatch: provided=" + provided + ", calculated=" + calculated);
+    }
+  }
+
+  private BigDecimal calculateTotal(Order o) {
+    return o.getItems().stream()
+        .map(i -> i.getPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
+        .reduce(BigDecimal.ZERO, BigDecimal::add)
+        .setScale(2, RoundingMode.HALF_UP);
+  }
+
+  private void validateItem(OrderItem item) {
+    Optional.ofNullable(item.getProductId())
+        .filter(id -> !id.isBlank())
+        .orElseThrow(() -> new IllegalArgumentException("productId must not be blank"));
+    if (item.getQuantity() <= 0) {
+      throw new IllegalArgumentException("quantity must be > 0");
+    }
+    Optional.ofNullable(item.getPrice())
+        .orElseThrow(() -> new IllegalArgumentException("price required"));
+  }
+}
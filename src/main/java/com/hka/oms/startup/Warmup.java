@@ -0,0 +1,115 @@
+package com.hka.oms.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.inventory.InventoryClient;
+import com.hka.oms.payment.PaymentClient;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.service.OrderValidator;
+import com.hka.oms.wms.WmsClient;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs before the application reports readiness: Spring Boot publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC} only after all runners returned,
+ * so a new replica receives traffic with connected clients and the order
+ * JSON/validation paths already compiled. Every step is best effort; a
+ * downstream that is not reachable yet is logged and skipped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "startup.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class Warmup implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(Warmup.class);
+
+  private final WarmupProperties properties;
+  private final InventoryClient inventoryClient;
+  private final PaymentClient paymentClient;
+  private final WmsClient wmsClient;
+  private final RabbitTemplate rabbitTemplate;
+  private final ObjectMapper objectMapper;
+  private final OrderValidator validator;
+  private final MeterRegistry registry;
+  private final ApplicationContext context;
+
+  public Warmup(WarmupProperties properties, InventoryClient inventoryClient, PaymentClient paymentClient,
+                WmsClient wmsClient, RabbitTemplate rabbitTemplate, ObjectMapper objectMapper,
+                OrderValidator validator, MeterRegistry registry, ApplicationContext context) {
+    this.properties = properties;
+    this.inventoryClient = inventoryClient;
+    this.paymentClient = paymentClient;
+    this.wmsClient = wmsClient;
+    this.rabbitTemplate = rabbitTemplate;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.registry = registry;
+    this.context = context;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    long start = System.nanoTime();
+    step("inventory", () -> {
+      if (!inventoryClient.connect(properties.connectTimeout())) {
+        throw new IllegalStateException("channel not ready within " + properties.connectTimeout());
+      }
+      return "connected";
+    });
+    step("payment", paymentClient::warmUp);
+    step("wms", wmsClient::warmUp);
+    step("rabbitmq", () -> rabbitTemplate.execute(channel -> channel.isOpen() ? "channel open" : "channel closed"));
+    step("orders", () -> exerciseOrderPaths() + " iterations");
+    log.info("Warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    if (properties.exitWhenDone()) {
+      // training run for the class data sharing archive, see README
+      System.exit(SpringApplication.exit(context));
+    }
+  }
+
+  private int exerciseOrderPaths() throws Exception {
+    List<Order> orders = OrderMocks.sampleOrders();
+    long deadline = System.nanoTime() + properties.maxDuration().toNanos();
+    int i = 0;
+    for (; i < properties.iterations() && System.nanoTime() < deadline; i++) {
+      for (Order order : orders) {
+        validator.validate(order);
+        byte[] json = objectMapper.writeValueAsBytes(order);
+        Order read = objectMapper.readValue(json, Order.class);
+        objectMapper.writeValueAsBytes(new OrderCreationResult(read, "warm-up", null, null));
+      }
+    }
+    return i;
+  }
+
+  private void step(String name, Callable<?> action) {
+    long start = System.nanoTime();
+    String outcome = "success";
+    try {
+      Object result = action.call();
+      log.info("Warm-up {} done in {} ms: {}", name, (System.nanoTime() - start) / 1_000_000, result);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      outcome = "failure";
+    } catch (Exception e) {
+      outcome = "failure";
+      log.warn("Warm-up {} failed after {} ms: {}", name, (System.nanoTime() - start) / 1_000_000, e.toString());
+    }
+    registry.timer("startup.warmup", "step", name, "outcome", outcome)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,21 @@
+package com.hka.oms.startup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "startup.warmup")
+public record WarmupProperties(Duration connectTimeout, int iterations, Duration maxDuration,
+                               boolean exitWhenDone) {
+  public WarmupProperties {
+    if (connectTimeout == null || connectTimeout.isNegative()) {
+      connectTimeout = Duration.ofSeconds(5);
+    }
+    if (iterations <= 0) {
+      iterations = 5_000;
+    }
+    if (maxDuration == null || maxDuration.isNegative() || maxDuration.isZero()) {
+      maxDuration = Duration.ofSeconds(30);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.hka.oms.store;
+
+import com.hka.oms.domain.Order;
+
+/**
+ * Packed form of an {@link Order}: product ids and countries are dictionary
+ * codes, the free-text fields (customer id, names, street, city, zip code)
+ * are packed UTF-8 in one byte array, money is a long in minor units and
+ * items live in one long array holding
+ * {@code (productCode << 32 | quantity), unscaledPrice} per item.
+ */
+final class CompactOrder implements StoredOrder {
+
+  static final int NO_ADDRESS = -2;
+
+  final long version;
+  final long totalMinor;
+  final long[] items;
+  final byte[] priceScales;
+  final byte[] text;
+  final int country;
+  final byte status;
+
+  CompactOrder(long version, long totalMinor, long[] items, byte[] priceScales, byte[] text, int country,
+               byte status) {
+    this.version = version;
+    this.totalMinor = totalMinor;
+    this.items = items;
+    this.priceScales = priceScales;
+    this.text = text;
+    this.country = country;
+    this.status = status;
+  }
+
+  int itemCount() {
+    return items.length / 2;
+  }
+
+  int productCode(int item) {
+    return (int) (items[2 * item] >>> 32);
+  }
+
+  int quantity(int item) {
+    return (int) items[2 * item];
+  }
+
+  long unscaledPrice(int item) {
+    return items[2 * item + 1];
+  }
+
+  int priceScale(int item) {
+    return priceScales == null ? OrderCodec.MONEY_SCALE : priceScales[item];
+  }
+
+  boolean hasAddress() {
+    return country != NO_ADDRESS;
+  }
+
+  @Override
+  public long version() {
+    return version;
+  }
+
+  @Override
+  public Order decode(String orderId, OrderCodec codec) {
+    return codec.decode(orderId, this);
+  }
+}
@@ -0,0 +1,16 @@
+package com.hka.oms.store;
+
+import com.hka.oms.domain.Order;
+
+record HeapOrder(Order order) implements StoredOrder {
+
+  @Override
+  public long version() {
+    return order.getVersion();
+  }
+
+  @Override
+  public Order decode(String orderId, OrderCodec codec) {
+    return order;
+  }
+}
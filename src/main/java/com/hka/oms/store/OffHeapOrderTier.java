@@ -0,0 +1,203 @@
+package com.hka.oms.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only direct-memory segments holding {@link CompactOrder}s in a
+ * binary layout. The only on-heap state is the orderId to location index;
+ * a segment is dropped once none of its records is live anymore.
+ */
+final class OffHeapOrderTier {
+
+  private static final int FIXED_BYTES = 8 + 8 + 4 + 1 + 4 + 1 + 4;
+
+  private final int segmentSize;
+  private final Map<String, Long> index = new ConcurrentHashMap<>();
+  private final List<ByteBuffer> segments = new ArrayList<>();
+  private final List<Integer> liveBytes = new ArrayList<>();
+  private volatile ByteBuffer[] readable = new ByteBuffer[0];
+  private int writeOffset;
+  private long allocatedBytes;
+
+  OffHeapOrderTier(int segmentSize) {
+    this.segmentSize = segmentSize;
+  }
+
+  boolean fits(CompactOrder order) {
+    return 4 + encodedSize(order) <= segmentSize;
+  }
+
+  CompactOrder get(String orderId) {
+    while (true) {
+      Long location = index.get(orderId);
+      if (location == null) {
+        return null;
+      }
+      CompactOrder order = read(location);
+      if (order != null) {
+        return order;
+      }
+    }
+  }
+
+  /** Version of the stored order without decoding the rest of it, -1 if absent. */
+  long versionOf(String orderId) {
+    while (true) {
+      Long location = index.get(orderId);
+      if (location == null) {
+        return -1;
+      }
+      ByteBuffer buffer = readable[(int) (location >>> 32)];
+      if (buffer != null) {
+        return buffer.getLong((int) location.longValue() + 4);
+      }
+    }
+  }
+
+  Long locationOf(String orderId) {
+    return index.get(orderId);
+  }
+
+  CompactOrder readAt(String orderId, long location) {
+    CompactOrder order = read(location);
+    return order != null ? order : get(orderId);
+  }
+
+  synchronized void put(String orderId, CompactOrder order) {
+    long location = append(order);
+    Long previous = index.put(orderId, location);
+    if (previous != null) {
+      release(previous);
+    }
+  }
+
+  synchronized CompactOrder remove(String orderId) {
+    Long location = index.remove(orderId);
+    if (location == null) {
+      return null;
+    }
+    CompactOrder order = read(location);
+    release(location);
+    return order;
+  }
+
+  synchronized void remove(String orderId, long location) {
+    if (index.remove(orderId, location)) {
+      release(location);
+    }
+  }
+
+  Set<String> orderIds() {
+    return index.keySet();
+  }
+
+  int size() {
+    return index.size();
+  }
+
+  synchronized long allocatedBytes() {
+    return allocatedBytes;
+  }
+
+  private long append(CompactOrder order) {
+    int length = 4 + encodedSize(order);
+    int segment = segments.size() - 1;
+    if (segment < 0 || writeOffset + length > segmentSize) {
+      segment = newSegment();
+    }
+    ByteBuffer buffer = segments.get(segment);
+    int offset = writeOffset;
+    int pos = offset;
+    buffer.putInt(pos, length);
+    pos += 4;
+    buffer.putLong(pos, order.version);
+    buffer.putLong(pos + 8, order.totalMinor);
+    pos += 16;
+    buffer.putInt(pos, order.country);
+    pos += 4;
+    buffer.put(pos++, order.status);
+    buffer.putInt(pos, order.items.length);
+    pos += 4;
+    buffer.put(pos++, (byte) (order.priceScales == null ? 0 : 1));
+    buffer.putInt(pos, order.text.length);
+    pos += 4;
+    for (long value : order.items) {
+      buffer.putLong(pos, value);
+      pos += 8;
+    }
+    if (order.priceScales != null) {
+      buffer.put(pos, order.priceScales);
+      pos += order.priceScales.length;
+    }
+    buffer.put(pos, order.text);
+    writeOffset += length;
+    liveBytes.set(segment, liveBytes.get(segment) + length);
+    return ((long) segment << 32) | offset;
+  }
+
+  private CompactOrder read(long location) {
+    ByteBuffer buffer = readable[(int) (location >>> 32)];
+    if (buffer == null) {
+      return null;
+    }
+    int pos = (int) location + 4;
+    long version = buffer.getLong(pos);
+    long totalMinor = buffer.getLong(pos + 8);
+    pos += 16;
+    int country = buffer.getInt(pos);
+    pos += 4;
+    byte status = buffer.get(pos++);
+    long[] items = new long[buffer.getInt(pos)];
+    pos += 4;
+    boolean hasScales = buffer.get(pos++) != 0;
+    byte[] text = new byte[buffer.getInt(pos)];
+    pos += 4;
+    for (int i = 0; i < items.length; i++) {
+      items[i] = buffer.getLong(pos);
+      pos += 8;
+    }
+    byte[] scales = null;
+    if (hasScales) {
+      scales = new byte[items.length / 2];
+      buffer.get(pos, scales);
+      pos += scales.length;
+    }
+    buffer.get(pos, text);
+    return new CompactOrder(version, totalMinor, items, scales, text, country, status);
+  }
+
+  private void release(long location) {
+    int segment = (int) (location >>> 32);
+    ByteBuffer buffer = segments.get(segment);
+    int live = liveBytes.get(segment) - buffer.getInt((int) location);
+    liveBytes.set(segment, live);
+    if (live == 0 && segment != segments.size() - 1) {
+      segments.set(segment, null);
+      allocatedBytes -= segmentSize;
+      publish();
+    }
+  }
+
+  private int newSegment() {
+    segments.add(ByteBuffer.allocateDirect(segmentSize));
+    liveBytes.add(0);
+    allocatedBytes += segmentSize;
+    writeOffset = 0;
+    publish();
+    return segments.size() - 1;
+  }
+
+  private void publish() {
+    readable = segments.toArray(ByteBuffer[]::new);
+  }
+
+  private static int encodedSize(CompactOrder order) {
+    return FIXED_BYTES + order.items.length * 8 + (order.priceScales == null ? 0 : order.priceScales.length)
+        + order.text.length;
+  }
+}
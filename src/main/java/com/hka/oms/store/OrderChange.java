@@ -0,0 +1,5 @@
+package com.hka.oms.store;
+
+import com.hka.oms.domain.Order;
+
+public record OrderChange(Order previous, Order current) {}
@@ -0,0 +1,148 @@
+package com.hka.oms.store;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.domain.ShippingAddress;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts orders to and from {@link CompactOrder}. Only fields with a small,
+ * bounded set of values (product ids, countries) go through a dictionary,
+ * whose entries live as long as the process. Customer ids, names and address
+ * lines are mostly unique per order and are stored inline, so they are freed
+ * with the order.
+ */
+final class OrderCodec {
+
+  static final int MONEY_SCALE = 2;
+
+  private static final OrderStatus[] STATUSES = OrderStatus.values();
+  private static final int TEXT_FIELDS = 6;
+
+  private final StringDictionary products = new StringDictionary();
+  private final StringDictionary countries = new StringDictionary();
+
+  StoredOrder encode(Order order) {
+    List<OrderItem> orderItems = order.getItems();
+    int count = orderItems.size();
+    long[] items = new long[count * 2];
+    byte[] scales = new byte[count];
+    boolean uniformScale = true;
+    for (int i = 0; i < count; i++) {
+      OrderItem item = orderItems.get(i);
+      BigDecimal price = item.getPrice();
+      if (!fitsLong(price) || price.scale() < Byte.MIN_VALUE || price.scale() > Byte.MAX_VALUE) {
+        return new HeapOrder(order);
+      }
+      items[2 * i] = ((long) products.encode(item.getProductId()) << 32) | (item.getQuantity() & 0xFFFFFFFFL);
+      items[2 * i + 1] = price.unscaledValue().longValue();
+      scales[i] = (byte) price.scale();
+      uniformScale &= price.scale() == MONEY_SCALE;
+    }
+    BigDecimal total = order.getTotalAmount();
+    if (total.scale() != MONEY_SCALE || !fitsLong(total)) {
+      return new HeapOrder(order);
+    }
+
+    Customer customer = order.getCustomer();
+    ShippingAddress address = order.getShippingAddress();
+    return new CompactOrder(
+        order.getVersion(),
+        total.unscaledValue().longValue(),
+        items,
+        uniformScale ? null : scales,
+        pack(customer.getCustomerId(), customer.getPrename(), customer.getName(),
+            address == null ? null : address.getStreet(),
+            address == null ? null : address.getCity(),
+            address == null ? null : address.getZipCode()),
+        address == null ? CompactOrder.NO_ADDRESS : countries.encode(address.getCountry()),
+        (byte) order.getStatus().ordinal());
+  }
+
+  Order decode(String orderId, CompactOrder compact) {
+    List<OrderItem> items = new ArrayList<>(compact.itemCount());
+    for (int i = 0; i < compact.itemCount(); i++) {
+      items.add(OrderItem.builder()
+          .productId(products.decode(compact.productCode(i)))
+          .quantity(compact.quantity(i))
+          .price(BigDecimal.valueOf(compact.unscaledPrice(i), compact.priceScale(i)))
+          .build());
+    }
+    String[] text = unpack(compact.text, TEXT_FIELDS);
+    ShippingAddress address = !compact.hasAddress() ? null : ShippingAddress.builder()
+        .street(text[3])
+        .city(text[4])
+        .zipCode(text[5])
+        .country(countries.decode(compact.country))
+        .build();
+    return Order.builder()
+        .orderId(orderId)
+        .customer(Customer.builder()
+            .customerId(text[0])
+            .prename(text[1])
+            .name(text[2])
+            .build())
+        .items(items)
+        .totalAmount(BigDecimal.valueOf(compact.totalMinor, MONEY_SCALE))
+        .shippingAddress(address)
+        .status(STATUSES[compact.status])
+        .version(compact.version)
+        .build();
+  }
+
+  int dictionaryEntries() {
+    return products.size() + countries.size();
+  }
+
+  /** Each value as its UTF-8 length + 1 (0 for null) in a varint, followed by the bytes. */
+  static byte[] pack(String... values) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+    for (String value : values) {
+      if (value == null) {
+        out.write(0);
+        continue;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      for (int length = bytes.length + 1; ; length >>>= 7) {
+        if ((length & ~0x7F) == 0) {
+          out.write(length);
+          break;
+        }
+        out.write((length & 0x7F) | 0x80);
+      }
+      out.writeBytes(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  static String[] unpack(byte[] packed, int count) {
+    String[] values = new String[count];
+    int pos = 0;
+    for (int i = 0; i < count; i++) {
+      int length = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = packed[pos++];
+        length |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      if (length > 0) {
+        values[i] = new String(packed, pos, length - 1, StandardCharsets.UTF_8);
+        pos += length - 1;
+      }
+    }
+    return values;
+  }
+
+  private static boolean fitsLong(BigDecimal value) {
+    return value.unscaledValue().bitLength() < Long.SIZE;
+  }
+}
@@ -0,0 +1,199 @@
+package com.hka.oms.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+@Component
+public class OrderStore {
+
+  private static final Set<OrderStatus> COLD_STATUSES = EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
+  private final Map<String, StoredOrder> hot = new ConcurrentHashMap<>();
+  private final OrderCodec codec = new OrderCodec();
+  private final OffHeapOrderTier cold;
+  private final Cache<String, Promoted> promoted;
+
+  public OrderStore(MeterRegistry registry, OrderStoreProperties properties) {
+    this.cold = properties.offHeap() ? new OffHeapOrderTier((int) properties.segmentSize().toBytes()) : null;
+    this.promoted = Caffeine.newBuilder().maximumSize(properties.promotedEntries()).build();
+    Gauge.builder("orders.store.size", this, OrderStore::size)
+        .description("Orders held by this instance")
+        .register(registry);
+    Gauge.builder("orders.store.dictionary.entries", codec, OrderCodec::dictionaryEntries)
+        .description("Distinct strings in the order store dictionaries")
+        .register(registry);
+    if (cold != null) {
+      Gauge.builder("orders.store.offheap.orders", cold, OffHeapOrderTier::size)
+          .description("Terminal orders kept in direct memory")
+          .register(registry);
+      Gauge.builder("orders.store.offheap.bytes", cold, OffHeapOrderTier::allocatedBytes)
+          .description("Direct memory allocated for terminal orders")
+          .baseUnit("bytes")
+          .register(registry);
+    }
+  }
+
+  public Order get(String orderId) {
+    StoredOrder stored = lookup(orderId);
+    return stored == null ? null : stored.decode(orderId, codec);
+  }
+
+  public long versionOf(String orderId) {
+    StoredOrder stored = lookup(orderId);
+    return stored == null ? -1 : stored.version();
+  }
+
+  public boolean putIfAbsent(Order order) {
+    boolean[] inserted = new boolean[1];
+    hot.compute(idOf(order), (id, current) -> {
+      if (current != null || cold != null && cold.locationOf(id) != null) {
+        return current;
+      }
+      inserted[0] = true;
+      return place(id, order, new Long[1]);
+    });
+    return inserted[0];
+  }
+
+  public Order put(Order order) {
+    String orderId = idOf(order);
+    Order[] previous = new Order[1];
+    Long[] stale = new Long[1];
+    hot.compute(orderId, (id, current) -> {
+      StoredOrder existing = current != null ? current : coldEntry(id);
+      previous[0] = existing == null ? null : existing.decode(id, codec);
+      return place(id, order, stale);
+    });
+    dropStale(orderId, stale[0]);
+    return previous[0];
+  }
+
+  public OrderChange update(String orderId, UnaryOperator<Order> op) {
+    Order[] change = new Order[2];
+    Long[] stale = new Long[1];
+    hot.compute(orderId, (id, current) -> {
+      StoredOrder existing = current != null ? current : coldEntry(id);
+      if (existing == null) {
+        return null;
+      }
+      change[0] = existing.decode(id, codec);
+      change[1] = op.apply(change[0]);
+      return place(id, change[1], stale);
+    });
+    dropStale(orderId, stale[0]);
+    return change[0] == null ? null : new OrderChange(change[0], change[1]);
+  }
+
+  public boolean remove(Order expected) {
+    boolean[] removed = new boolean[1];
+    hot.compute(idOf(expected), (id, current) -> {
+      long version = current != null ? current.version() : cold == null ? -1 : cold.versionOf(id);
+      removed[0] = version >= 0 && version == expected.getVersion();
+      if (!removed[0]) {
+        return current;
+      }
+      if (current == null) {
+        promoted.invalidate(id);
+        cold.remove(id);
+      }
+      return null;
+    });
+    return removed[0];
+  }
+
+  public List<Order> values() {
+    return matching(id -> true);
+  }
+
+  public List<Order> matching(Predicate<String> orderIdFilter) {
+    Stream<Order> hotOrders = hot.entrySet().stream()
+        .filter(entry -> orderIdFilter.test(entry.getKey()))
+        .map(entry -> entry.getValue().decode(entry.getKey(), codec));
+    if (cold == null) {
+      return hotOrders.toList();
+    }
+    Stream<Order> coldOrders = cold.orderIds().stream()
+        .filter(id -> !hot.containsKey(id) && orderIdFilter.test(id))
+        .map(this::get)
+        .filter(Objects::nonNull);
+    return Stream.concat(hotOrders, coldOrders).toList();
+  }
+
+  public int size() {
+    return hot.size() + (cold == null ? 0 : cold.size());
+  }
+
+  private StoredOrder lookup(String orderId) {
+    StoredOrder stored = hot.get(orderId);
+    return stored != null ? stored : coldEntry(orderId);
+  }
+
+  /** Cold copy of the order, decoded at most once per location through {@link #promoted}. */
+  private CompactOrder coldEntry(String orderId) {
+    if (cold == null) {
+      return null;
+    }
+    Long location = cold.locationOf(orderId);
+    if (location == null) {
+      return null;
+    }
+    Promoted cached = promoted.getIfPresent(orderId);
+    if (cached != null && cached.location() == location) {
+      return cached.order();
+    }
+    CompactOrder order = cold.readAt(orderId, location);
+    if (order != null) {
+      promoted.put(orderId, new Promoted(location, order));
+    }
+    return order;
+  }
+
+  /**
+   * Encodes the order and moves terminal orders to direct memory. Must run
+   * inside {@code hot.compute} for the order's key; the returned value is the
+   * new hot entry. A cold copy superseded by a hot entry is reported through
+   * {@code staleCold} and dropped only after the hot entry is visible, so
+   * lock-free readers always find one of the two.
+   */
+  private StoredOrder place(String orderId, Order order, Long[] staleCold) {
+    StoredOrder encoded = codec.encode(order);
+    if (cold == null) {
+      return encoded;
+    }
+    if (COLD_STATUSES.contains(order.getStatus()) && encoded instanceof CompactOrder compact && cold.fits(compact)) {
+      promoted.invalidate(orderId);
+      cold.put(orderId, compact);
+      return null;
+    }
+    staleCold[0] = cold.locationOf(orderId);
+    return encoded;
+  }
+
+  private void dropStale(String orderId, Long location) {
+    if (location != null) {
+      promoted.invalidate(orderId);
+      cold.remove(orderId, location);
+    }
+  }
+
+  private static String idOf(Order order) {
+    return Objects.requireNonNull(order.getOrderId(), "orderId");
+  }
+
+  private record Promoted(long location, CompactOrder order) {}
+}
@@ -0,0 +1,19 @@
+package com.hka.oms.store;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "orders.store")
+public record OrderStoreProperties(boolean offHeap, DataSize segmentSize, int promotedEntries) {
+  public OrderStoreProperties {
+    if (segmentSize == null) {
+      segmentSize = DataSize.ofMegabytes(64);
+    }
+    if (segmentSize.toBytes() < 1024 || segmentSize.toBytes() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("orders.store.segment-size must be between 1KB and 2GB");
+    }
+    if (promotedEntries <= 0) {
+      promotedEntries = 10_000;
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.hka.oms.store;
+
+import com.hka.oms.domain.Order;
+
+sealed interface StoredOrder permits CompactOrder, HeapOrder {
+
+  long version();
+
+  Order decode(String orderId, OrderCodec codec);
+}
@@ -0,0 +1,44 @@
+package com.hka.oms.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class StringDictionary {
+
+  private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+  private volatile String[] values = new String[256];
+  private int size;
+
+  int encode(String value) {
+    if (value == null) {
+      return -1;
+    }
+    Integer code = codes.get(value);
+    if (code != null) {
+      return code;
+    }
+    synchronized (this) {
+      code = codes.get(value);
+      if (code != null) {
+        return code;
+      }
+      String[] current = values;
+      if (size == current.length) {
+        current = Arrays.copyOf(current, size * 2);
+        values = current;
+      }
+      current[size] = value;
+      codes.put(value, size);
+      return size++;
+    }
+  }
+
+  String decode(int code) {
+    return code < 0 ? null : values[code];
+  }
+
+  int size() {
+    return codes.size();
+  }
+}
@@ -0,0 +1,92 @@
+package com.hka.oms.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.profiling.PublishEvent;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Component
+public class AmqpTracing {
+
+  private static final TextMapGetter<Map<String, Object>> GETTER = new TextMapGetter<>() {
+    @Override
+    public Iterable<String> keys(Map<String, Object> carrier) {
+      return carrier.keySet();
+    }
+
+    @Override
+    public String get(Map<String, Object> carrier, String key) {
+      Object value = carrier == null ? null : carrier.get(key);
+      return value == null ? null : value.toString();
+    }
+  };
+
+  private final OpenTelemetry openTelemetry;
+  private final Tracer tracer;
+
+  public AmqpTracing(OpenTelemetry openTelemetry, Tracer tracer) {
+    this.openTelemetry = openTelemetry;
+    this.tracer = tracer;
+  }
+
+  public void publish(String queue, String orderId, Consumer<MessagePostProcessor> send) {
+    Span span = tracer.spanBuilder(queue + " publish")
+        .setSpanKind(SpanKind.PRODUCER)
+        .setAttribute("messaging.system", "rabbitmq")
+        .setAttribute("messaging.destination.name", queue)
+        .startSpan();
+    if (orderId != null) {
+      span.setAttribute("order.id", orderId);
+    }
+    PublishEvent event = new PublishEvent();
+    event.begin();
+    boolean success = false;
+    try (Scope ignored = span.makeCurrent()) {
+      Context context = Context.current();
+      send.accept(message -> {
+        openTelemetry.getPropagators().getTextMapPropagator().inject(context, message.getMessageProperties(),
+            (properties, key, value) -> properties.setHeader(key, value));
+        return message;
+      });
+      success = true;
+    } catch (RuntimeException ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR, String.valueOf(ex.getMessage()));
+      throw ex;
+    } finally {
+      span.end();
+      event.finish(queue, orderId, success);
+    }
+  }
+
+  public void receive(String queue, Map<String, Object> headers, Runnable handler) {
+    Context parent = openTelemetry.getPropagators().getTextMapPropagator()
+        .extract(Context.current(), headers, GETTER);
+    Span span = tracer.spanBuilder(queue + " process")
+        .setParent(parent)
+        .setSpanKind(SpanKind.CONSUMER)
+        .setAttribute("messaging.system", "rabbitmq")
+        .setAttribute("messaging.destination.name", queue)
+        .startSpan();
+    try (Scope ignored = span.makeCurrent()) {
+      handler.run();
+    } catch (RuntimeException ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR, String.valueOf(ex.getMessage()));
+      throw ex;
+    } finally {
+      span.end();
+    }
+  }
+}
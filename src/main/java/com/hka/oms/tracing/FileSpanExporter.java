@@ -0,0 +1,90 @@
+package com.hka.oms.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Writes one JSON object per span to a local file so traces can be
+ * inspected (or shipped later) without a collector.
+ */
+final class FileSpanExporter implements SpanExporter {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final BufferedWriter writer;
+
+  FileSpanExporter(Path path) {
+    try {
+      Path parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot open trace file " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    try {
+      for (SpanData span : spans) {
+        writer.write(mapper.writeValueAsString(toJson(span)));
+        writer.newLine();
+      }
+      writer.flush();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  private ObjectNode toJson(SpanData span) {
+    ObjectNode node = mapper.createObjectNode()
+        .put("traceId", span.getTraceId())
+        .put("spanId", span.getSpanId())
+        .put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null)
+        .put("name", span.getName())
+        .put("kind", span.getKind().name())
+        .put("startEpochNanos", span.getStartEpochNanos())
+        .put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000)
+        .put("status", span.getStatus().getStatusCode().name());
+    ObjectNode attributes = node.putObject("attributes");
+    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+    return node;
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    try {
+      synchronized (this) {
+        writer.flush();
+      }
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    try {
+      writer.close();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.hka.oms.tracing;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GrpcTracingInterceptor implements ClientInterceptor {
+
+  private final OpenTelemetry openTelemetry;
+  private final Tracer tracer;
+
+  public GrpcTracingInterceptor(OpenTelemetry openTelemetry, Tracer tracer) {
+    this.openTelemetry = openTelemetry;
+    this.tracer = tracer;
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                             CallOptions callOptions, Channel next) {
+    if (method.getType() != MethodDescriptor.MethodType.UNARY) {
+      // long-lived streams carry many orders, a span per stream would only hold traces open
+      return next.newCall(method, callOptions);
+    }
+    Context parent = Context.current();
+
+    return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+      @Override
+      public void start(Listener<RespT> responseListener, Metadata headers) {
+        // started here rather than in interceptCall: a call cancelled before start never reaches onClose
+        Span span = tracer.spanBuilder(method.getFullMethodName())
+            .setParent(parent)
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute("rpc.system", "grpc")
+            .setAttribute("rpc.method", method.getBareMethodName())
+            .startSpan();
+        openTelemetry.getPropagators().getTextMapPropagator().inject(parent.with(span), headers,
+            (carrier, key, value) -> carrier.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value));
+        try {
+          super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+              span.setAttribute("rpc.grpc.status_code", status.getCode().value());
+              if (!status.isOk()) {
+                span.setStatus(StatusCode.ERROR, status.getCode().name());
+              }
+              span.end();
+              super.onClose(status, trailers);
+            }
+          }, headers);
+        } catch (RuntimeException ex) {
+          span.setStatus(StatusCode.ERROR, ex.getClass().getSimpleName());
+          span.end();
+          throw ex;
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,86 @@
+package com.hka.oms.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.profiling.OrderContext;
+import com.hka.oms.profiling.OrderStageEvent;
+
+import java.util.function.Supplier;
+
+@Component
+public class OrderTracing {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderTracing.class);
+
+  private final Tracer tracer;
+
+  public OrderTracing(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  public <T> T stage(String stage, String orderId, Supplier<T> body) {
+    OrderStageEvent event = new OrderStageEvent();
+    event.begin();
+    boolean inContext = orderId != null && event.isEnabled();
+    String outer = inContext ? OrderContext.enter(orderId) : null;
+    boolean success = false;
+    Span span = tracer.spanBuilder("order." + stage).startSpan();
+    if (orderId != null) {
+      span.setAttribute("order.id", orderId);
+    }
+    // log lines written inside the stage (clients, listeners) carry both fields
+    String outerOrderId = MDC.get("orderId");
+    String outerStage = MDC.get("stage");
+    if (orderId != null) {
+      MDC.put("orderId", orderId);
+    }
+    MDC.put("stage", stage);
+    long start = System.nanoTime();
+    try (Scope ignored = span.makeCurrent()) {
+      T result = body.get();
+      success = true;
+      log.atDebug()
+          .addKeyValue("durationMs", (System.nanoTime() - start) / 1_000_000.0)
+          .log("stage {} completed", stage);
+      return result;
+    } catch (RuntimeException ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR, String.valueOf(ex.getMessage()));
+      log.atWarn()
+          .addKeyValue("durationMs", (System.nanoTime() - start) / 1_000_000.0)
+          .addKeyValue("error", ex.getClass().getSimpleName())
+          .log("stage {} failed: {}", stage, ex.getMessage());
+      throw ex;
+    } finally {
+      restore("orderId", outerOrderId);
+      restore("stage", outerStage);
+      span.end();
+      if (inContext) {
+        OrderContext.restore(outer);
+      }
+      event.finish(stage, orderId, success);
+    }
+  }
+
+  public void stage(String stage, String orderId, Runnable body) {
+    stage(stage, orderId, () -> {
+      body.run();
+      return null;
+    });
+  }
+
+  private static void restore(String key, String value) {
+    if (value == null) {
+      MDC.remove(key);
+    } else {
+      MDC.put(key, value);
+    }
+  }
+}
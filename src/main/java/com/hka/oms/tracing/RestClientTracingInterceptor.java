@@ -0,0 +1,60 @@
+package com.hka.oms.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import com.hka.oms.profiling.HttpCallEvent;
+
+import java.io.IOException;
+
+final class RestClientTracingInterceptor implements ClientHttpRequestInterceptor {
+
+  private final OpenTelemetry openTelemetry;
+  private final Tracer tracer;
+
+  RestClientTracingInterceptor(OpenTelemetry openTelemetry, Tracer tracer) {
+    this.openTelemetry = openTelemetry;
+    this.tracer = tracer;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+      throws IOException {
+    Span span = tracer.spanBuilder("HTTP " + request.getMethod().name() + " " + request.getURI().getPath())
+        .setSpanKind(SpanKind.CLIENT)
+        .setAttribute("http.request.method", request.getMethod().name())
+        .setAttribute("url.full", request.getURI().toString())
+        .startSpan();
+    HttpCallEvent event = new HttpCallEvent();
+    event.begin();
+    int status = 0;
+    try (Scope ignored = span.makeCurrent()) {
+      openTelemetry.getPropagators().getTextMapPropagator()
+          .inject(Context.current(), request.getHeaders(), HttpHeaders::set);
+      ClientHttpResponse response = execution.execute(request, body);
+      status = response.getStatusCode().value();
+      span.setAttribute("http.response.status_code", status);
+      if (response.getStatusCode().isError()) {
+        span.setStatus(StatusCode.ERROR);
+      }
+      return response;
+    } catch (IOException | RuntimeException ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR, String.valueOf(ex.getMessage()));
+      throw ex;
+    } finally {
+      span.end();
+      event.finish(request.getMethod().name(), request.getURI().getAuthority(), request.getURI().getPath(), status);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.hka.oms.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers the spans of a trace until its local root span ends and only then
+ * decides whether to keep it: traces with an error or a slow root are always
+ * kept, all others with probability {@code sampleRatio}. Spans ending after
+ * the decision follow it; traces whose root never ends here are flushed after
+ * {@code pendingTimeout} if they contain an error.
+ */
+final class TailSamplingSpanProcessor implements SpanProcessor {
+
+  private final SpanProcessor downstream;
+  private final long slowNanos;
+  private final double sampleRatio;
+  private final int maxPending;
+  private final long timeoutNanos;
+  private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+  private final Map<String, Boolean> decisions;
+  private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "trace-expiry");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  TailSamplingSpanProcessor(SpanProcessor downstream, TracingProperties properties) {
+    this.downstream = downstream;
+    this.slowNanos = properties.slowThreshold().toNanos();
+    this.sampleRatio = properties.sampleRatio();
+    this.maxPending = properties.maxPendingTraces();
+    this.timeoutNanos = properties.pendingTimeout().toNanos();
+    this.decisions = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, false) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+        return size() > maxPending;
+      }
+    });
+    long sweepNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), timeoutNanos / 2);
+    sweeper.scheduleWithFixedDelay(this::expire, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void onStart(Context parentContext, ReadWriteSpan span) {
+  }
+
+  @Override
+  public boolean isStartRequired() {
+    return false;
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    String traceId = span.getSpanContext().getTraceId();
+    Boolean decision = decisions.get(traceId);
+    if (decision != null) {
+      if (decision) {
+        downstream.onEnd(span);
+      }
+      return;
+    }
+
+    PendingTrace trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(System.nanoTime()));
+    boolean error = span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    trace.add(span, error);
+
+    SpanContext parent = span.getParentSpanContext();
+    if ((!parent.isValid() || parent.isRemote()) && pending.remove(traceId, trace)) {
+      boolean keep = trace.error || span.getLatencyNanos() >= slowNanos
+          || ThreadLocalRandom.current().nextDouble() < sampleRatio;
+      decide(traceId, trace, keep);
+    } else if (pending.size() > maxPending) {
+      expire();
+    }
+  }
+
+  @Override
+  public boolean isEndRequired() {
+    return true;
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    return downstream.forceFlush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    sweeper.shutdownNow();
+    return downstream.shutdown();
+  }
+
+  private void decide(String traceId, PendingTrace trace, boolean keep) {
+    decisions.put(traceId, keep);
+    if (keep) {
+      trace.spans().forEach(downstream::onEnd);
+    }
+  }
+
+  private void expire() {
+    long now = System.nanoTime();
+    for (Map.Entry<String, PendingTrace> entry : pending.entrySet()) {
+      // remove(key, value) so a root ending concurrently decides the trace only once
+      if ((now - entry.getValue().startedAt >= timeoutNanos || pending.size() > maxPending)
+          && pending.remove(entry.getKey(), entry.getValue())) {
+        decide(entry.getKey(), entry.getValue(), entry.getValue().error);
+      }
+    }
+  }
+
+  private static final class PendingTrace {
+    private final long startedAt;
+    private final List<ReadableSpan> spans = new ArrayList<>();
+    private volatile boolean error;
+
+    PendingTrace(long startedAt) {
+      this.startedAt = startedAt;
+    }
+
+    synchronized void add(ReadableSpan span, boolean failed) {
+      spans.add(span);
+      error |= failed;
+    }
+
+    synchronized List<ReadableSpan> spans() {
+      return List.copyOf(spans);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.hka.oms.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+
+  @Bean
+  public OpenTelemetry openTelemetry(TracingProperties properties) {
+    if (!properties.enabled()) {
+      return OpenTelemetry.noop();
+    }
+    BatchSpanProcessor exporter = BatchSpanProcessor
+        .builder(new FileSpanExporter(Path.of(properties.file())))
+        .build();
+    SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+        .setResource(Resource.getDefault().merge(
+            Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "oms"))))
+        .setSampler(Sampler.alwaysOn())
+        .addSpanProcessor(new TailSamplingSpanProcessor(exporter, properties))
+        .build();
+    return OpenTelemetrySdk.builder()
+        .setTracerProvider(tracerProvider)
+        .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+        .build();
+  }
+
+  @Bean
+  public Tracer tracer(OpenTelemetry openTelemetry) {
+    return openTelemetry.getTracer("com.hka.oms");
+  }
+
+  @Bean
+  public RestClientCustomizer tracingRestClientCustomizer(OpenTelemetry openTelemetry, Tracer tracer) {
+    return builder -> builder.requestInterceptor(new RestClientTracingInterceptor(openTelemetry, tracer));
+  }
+}
@@ -0,0 +1,82 @@
+package com.hka.oms.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Collections;
+
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+
+  private static final TextMapGetter<HttpServletRequest> GETTER = new TextMapGetter<>() {
+    @Override
+    public Iterable<String> keys(HttpServletRequest carrier) {
+      return Collections.list(carrier.getHeaderNames());
+    }
+
+    @Override
+    public String get(HttpServletRequest carrier, String key) {
+      return carrier == null ? null : carrier.getHeader(key);
+    }
+  };
+
+  private final OpenTelemetry openTelemetry;
+  private final Tracer tracer;
+
+  public TracingFilter(OpenTelemetry openTelemetry, Tracer tracer) {
+    this.openTelemetry = openTelemetry;
+    this.tracer = tracer;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return request.getRequestURI().startsWith("/actuator");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Context parent = openTelemetry.getPropagators().getTextMapPropagator()
+        .extract(Context.current(), request, GETTER);
+    Span span = tracer.spanBuilder("HTTP " + request.getMethod())
+        .setParent(parent)
+        .setSpanKind(SpanKind.SERVER)
+        .setAttribute("http.request.method", request.getMethod())
+        .setAttribute("url.path", request.getRequestURI())
+        .startSpan();
+    int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    try (Scope ignored = span.makeCurrent()) {
+      chain.doFilter(request, response);
+      status = response.getStatus();
+    } catch (IOException | ServletException | RuntimeException ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR, String.valueOf(ex.getMessage()));
+      throw ex;
+    } finally {
+      Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      if (route != null) {
+        span.updateName("HTTP " + request.getMethod() + " " + route);
+        span.setAttribute("http.route", route.toString());
+      }
+      span.setAttribute("http.response.status_code", status);
+      if (status >= 500) {
+        span.setStatus(StatusCode.ERROR);
+      }
+      span.end();
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.hka.oms.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "tracing")
+public record TracingProperties(boolean enabled, String file, Duration slowThreshold, double sampleRatio,
+                                int maxPendingTraces, Duration pendingTimeout) {
+  public TracingProperties {
+    if (file == null || file.isBlank()) {
+      file = "data/traces.jsonl";
+    }
+    if (slowThreshold == null) {
+      slowThreshold = Duration.ofMillis(500);
+    }
+    if (sampleRatio < 0 || sampleRatio > 1) {
+      throw new IllegalArgumentException("tracing.sample-ratio must be between 0 and 1");
+    }
+    if (maxPendingTraces <= 0) {
+      maxPendingTraces = 10_000;
+    }
+    if (pendingTimeout == null) {
+      pendingTimeout = Duration.ofSeconds(30);
+    }
+  }
+}
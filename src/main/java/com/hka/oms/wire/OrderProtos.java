@@ -0,0 +1,187 @@
+package com.hka.oms.wire;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import oms.Orders;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.payment.dto.PaymentResponse;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.wms.dto.WmsFulfillmentResponse;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Collection;
+
+/** Maps the order model to and from the {@code orders.proto} wire messages. */
+public final class OrderProtos {
+  private OrderProtos() {}
+
+  public static Orders.Order toProto(Order order) {
+    Orders.Order.Builder builder = Orders.Order.newBuilder()
+        .setOrderId(text(order.getOrderId()))
+        .setCustomer(toProto(order.getCustomer()))
+        .setTotalAmount(toProto(order.getTotalAmount()))
+        .setStatus(Orders.OrderStatus.valueOf(order.getStatus().name()))
+        .setVersion(order.getVersion());
+    for (OrderItem item : order.getItems()) {
+      builder.addItems(Orders.OrderItem.newBuilder()
+          .setProductId(text(item.getProductId()))
+          .setQuantity(item.getQuantity())
+          .setPrice(toProto(item.getPrice())));
+    }
+    ShippingAddress address = order.getShippingAddress();
+    if (address != null) {
+      builder.setShippingAddress(Orders.ShippingAddress.newBuilder()
+          .setStreet(text(address.getStreet()))
+          .setCity(text(address.getCity()))
+          .setZipCode(text(address.getZipCode()))
+          .setCountry(text(address.getCountry())));
+    }
+    return builder.build();
+  }
+
+  public static Orders.OrderList toProto(Collection<Order> orders) {
+    Orders.OrderList.Builder builder = Orders.OrderList.newBuilder();
+    for (Order order : orders) {
+      builder.addOrders(toProto(order));
+    }
+    return builder.build();
+  }
+
+  public static Orders.OrderCreationResult toProto(OrderCreationResult result) {
+    Orders.OrderCreationResult.Builder builder = Orders.OrderCreationResult.newBuilder()
+        .setOrder(toProto(result.order()))
+        .setReservationMessage(text(result.reservationMessage()));
+    if (result.payment() != null) {
+      builder.setPayment(toProto(result.payment()));
+    }
+    if (result.fulfillment() != null) {
+      builder.setFulfillment(toProto(result.fulfillment()));
+    }
+    return builder.build();
+  }
+
+  public static Order fromProto(Orders.Order proto) {
+    Order.Builder builder = Order.builder()
+        .orderId(nullIfEmpty(proto.getOrderId()))
+        .customer(proto.hasCustomer() ? Customer.builder()
+            .customerId(nullIfEmpty(proto.getCustomer().getCustomerId()))
+            .prename(nullIfEmpty(proto.getCustomer().getPrename()))
+            .name(nullIfEmpty(proto.getCustomer().getName()))
+            .build() : null)
+        .totalAmount(proto.hasTotalAmount() ? fromProto(proto.getTotalAmount()) : null)
+        .version(proto.getVersion());
+    if (proto.getStatus() != Orders.OrderStatus.ORDER_STATUS_UNSPECIFIED) {
+      builder.status(OrderStatus.valueOf(proto.getStatus().name()));
+    }
+    for (Orders.OrderItem item : proto.getItemsList()) {
+      builder.addItem(OrderItem.builder()
+          .productId(nullIfEmpty(item.getProductId()))
+          .quantity(item.getQuantity())
+          .price(item.hasPrice() ? fromProto(item.getPrice()) : null)
+          .build());
+    }
+    if (proto.hasShippingAddress()) {
+      Orders.ShippingAddress address = proto.getShippingAddress();
+      builder.shippingAddress(ShippingAddress.builder()
+          .street(nullIfEmpty(address.getStreet()))
+          .city(nullIfEmpty(address.getCity()))
+          .zipCode(nullIfEmpty(address.getZipCode()))
+          .country(nullIfEmpty(address.getCountry()))
+          .build());
+    }
+    return builder.build();
+  }
+
+  static Orders.Decimal toProto(BigDecimal value) {
+    return Orders.Decimal.newBuilder()
+        .setUnscaled(ByteString.copyFrom(value.unscaledValue().toByteArray()))
+        .setScale(value.scale())
+        .build();
+  }
+
+  static BigDecimal fromProto(Orders.Decimal decimal) {
+    BigInteger unscaled = decimal.getUnscaled().isEmpty()
+        ? BigInteger.ZERO : new BigInteger(decimal.getUnscaled().toByteArray());
+    return new BigDecimal(unscaled, decimal.getScale());
+  }
+
+  private static Orders.Customer toProto(Customer customer) {
+    return Orders.Customer.newBuilder()
+        .setCustomerId(text(customer.getCustomerId()))
+        .setPrename(text(customer.getPrename()))
+        .setName(text(customer.getName()))
+        .build();
+  }
+
+  private static Orders.Payment toProto(PaymentResponse payment) {
+    Orders.Payment.Builder builder = Orders.Payment.newBuilder()
+        .setOrderId(text(payment.orderId()))
+        .setCurrency(text(payment.currency()))
+        .setMethod(text(payment.method()));
+    if (payment.amount() != null) {
+      builder.setAmount(toProto(payment.amount()));
+    }
+    if (payment.status() != null) {
+      builder.setStatus(payment.status().name());
+    }
+    if (payment.createdAt() != null) {
+      builder.setCreatedAt(toProto(payment.createdAt()));
+    }
+    if (payment.updatedAt() != null) {
+      builder.setUpdatedAt(toProto(payment.updatedAt()));
+    }
+    return builder.build();
+  }
+
+  private static Orders.Fulfillment toProto(WmsFulfillmentResponse fulfillment) {
+    Orders.Fulfillment.Builder builder = Orders.Fulfillment.newBuilder()
+        .setOrderId(text(fulfillment.orderId()))
+        .setStatus(text(fulfillment.status()))
+        .setTrackingNumber(text(fulfillment.trackingNumber()))
+        .setCarrier(text(fulfillment.carrier()));
+    if (fulfillment.items() != null) {
+      for (WmsFulfillmentResponse.Item item : fulfillment.items()) {
+        builder.addItems(Orders.Fulfillment.Item.newBuilder()
+            .setProductId(text(item.productId()))
+            .setProductName(text(item.productName()))
+            .setQuantity(item.quantity()));
+      }
+    }
+    WmsFulfillmentResponse.Address address = fulfillment.address();
+    if (address != null) {
+      builder.setAddress(Orders.Fulfillment.Address.newBuilder()
+          .setRecipientName(text(address.recipientName()))
+          .setStreet(text(address.street()))
+          .setPostalCode(text(address.postalCode()))
+          .setCity(text(address.city()))
+          .setCountry(text(address.country())));
+    }
+    if (fulfillment.createdAt() != null) {
+      builder.setCreatedAt(toProto(fulfillment.createdAt()));
+    }
+    if (fulfillment.updatedAt() != null) {
+      builder.setUpdatedAt(toProto(fulfillment.updatedAt()));
+    }
+    return builder.build();
+  }
+
+  private static Timestamp toProto(Instant instant) {
+    return Timestamp.newBuilder().setSeconds(instant.getEpochSecond()).setNanos(instant.getNano()).build();
+  }
+
+  // proto3 strings cannot be null; absent and empty are the same on the wire
+  private static String text(String value) {
+    return value == null ? "" : value;
+  }
+
+  private static String nullIfEmpty(String value) {
+    return value.isEmpty() ? null : value;
+  }
+}
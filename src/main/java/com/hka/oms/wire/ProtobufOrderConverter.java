@@ -0,0 +1,102 @@
+package com.hka.oms.wire;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import oms.Orders;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderCreationResult;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads {@link Order} and writes {@link Order}, order lists and
+ * {@link OrderCreationResult} as {@code application/x-protobuf}, using the
+ * messages from {@code orders.proto}.
+ */
+public class ProtobufOrderConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+  public static final String PROTOBUF_VALUE = "application/x-protobuf";
+  public static final MediaType PROTOBUF = MediaType.parseMediaType(PROTOBUF_VALUE);
+
+  public ProtobufOrderConverter() {
+    super(PROTOBUF);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return clazz == Order.class || clazz == OrderCreationResult.class;
+  }
+
+  @Override
+  public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+    // element types of collections are only known to canWrite(Type, ...)
+    return Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return clazz == Order.class && canRead(mediaType);
+  }
+
+  @Override
+  public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+    return type == Order.class && canRead(mediaType);
+  }
+
+  @Override
+  public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+    return (supports(clazz) || isOrderCollection(type)) && canWrite(mediaType);
+  }
+
+  private static boolean isOrderCollection(Type type) {
+    if (type == null) {
+      return false;
+    }
+    ResolvableType resolved = ResolvableType.forType(type);
+    return Collection.class.isAssignableFrom(resolved.toClass())
+        && resolved.asCollection().getGeneric().toClass() == Order.class;
+  }
+
+  @Override
+  public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+    return readInternal(Order.class, inputMessage);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+    try {
+      return OrderProtos.fromProto(Orders.Order.parseFrom(inputMessage.getBody()));
+    } catch (InvalidProtocolBufferException ex) {
+      throw new HttpMessageNotReadableException("Malformed protobuf order: " + ex.getMessage(), ex, inputMessage);
+    } catch (RuntimeException ex) {
+      throw new HttpMessageNotReadableException("Invalid order: " + ex.getMessage(), ex, inputMessage);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+    Message message;
+    if (value instanceof Order order) {
+      message = OrderProtos.toProto(order);
+    } else if (value instanceof OrderCreationResult result) {
+      message = OrderProtos.toProto(result);
+    } else if (value instanceof Collection<?> orders) {
+      message = OrderProtos.toProto((Collection<Order>) orders);
+    } else {
+      throw new HttpMessageNotWritableException("Cannot write " + value.getClass().getName() + " as protobuf");
+    }
+    message.writeTo(outputMessage.getBody());
+  }
+}
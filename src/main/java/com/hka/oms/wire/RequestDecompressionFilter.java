@@ -0,0 +1,159 @@
+package com.hka.oms.wire;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Inflates request bodies sent with {@code Content-Encoding: gzip}, the
+ * request side of the response compression configured under
+ * {@code server.compression}. The inflated size is capped by
+ * {@code orders.wire.max-inflated-request-size}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+  private final long maxInflated;
+
+  public RequestDecompressionFilter(WireProperties properties) {
+    this.maxInflated = properties.maxInflatedRequestSize().toBytes();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return request.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim();
+    if (encoding.equalsIgnoreCase("identity")) {
+      chain.doFilter(request, response);
+    } else if (encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("x-gzip")) {
+      chain.doFilter(new InflatingRequest(request, maxInflated), response);
+    } else {
+      response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(), "Unsupported Content-Encoding: " + encoding);
+    }
+  }
+
+  private static final class InflatingRequest extends HttpServletRequestWrapper {
+
+    private final long maxInflated;
+    private ServletInputStream body;
+
+    InflatingRequest(HttpServletRequest request, long maxInflated) {
+      super(request);
+      this.maxInflated = maxInflated;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (body == null) {
+        body = new InflatingInputStream(new GZIPInputStream(super.getInputStream()), maxInflated);
+      }
+      return body;
+    }
+
+    @Override
+    public int getContentLength() {
+      return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return -1;
+    }
+
+    @Override
+    public String getHeader(String name) {
+      if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        return null;
+      }
+      return super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        return Collections.emptyEnumeration();
+      }
+      return super.getHeaders(name);
+    }
+  }
+
+  private static final class InflatingInputStream extends ServletInputStream {
+
+    private final InputStream in;
+    private final long limit;
+    private long read;
+    private boolean finished;
+
+    InflatingInputStream(InputStream in, long limit) {
+      this.in = in;
+      this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      count(b < 0 ? -1 : 1);
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+      int n = in.read(buffer, off, len);
+      count(n);
+      return n;
+    }
+
+    private void count(int n) throws IOException {
+      if (n < 0) {
+        finished = true;
+        return;
+      }
+      read += n;
+      if (read > limit) {
+        throw new IOException("inflated request body exceeds " + limit + " bytes");
+      }
+    }
+
+    @Override
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener listener) {
+      throw new UnsupportedOperationException("async reads of compressed bodies are not supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.hka.oms.wire;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WireConfig implements WebMvcConfigurer {
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    // appended after Jackson so that Accept: */* and requests without Accept keep getting JSON
+    converters.add(new ProtobufOrderConverter());
+  }
+}
@@ -0,0 +1,13 @@
+package com.hka.oms.wire;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "orders.wire")
+public record WireProperties(DataSize maxInflatedRequestSize) {
+  public WireProperties {
+    if (maxInflatedRequestSize == null || maxInflatedRequestSize.toBytes() <= 0) {
+      maxInflatedRequestSize = DataSize.ofMegabytes(16);
+    }
+  }
+}
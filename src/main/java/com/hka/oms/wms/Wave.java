@@ -0,0 +1,23 @@
+package com.hka.oms.wms;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.wms.dto.WmsWaveStartPickingRequest;
+
+import java.util.List;
+
+/**
+ * Orders fulfilled together: one picker walks {@code pickList}, which holds
+ * each product once with the quantity summed over all orders of the wave.
+ */
+public record Wave(String id, String zone, String carrier, String picker, List<Order> orders,
+                   List<WmsWaveStartPickingRequest.PickLine> pickList) {
+
+  /** Pick stops if every order were picked on its own. */
+  public int perOrderStops() {
+    int stops = 0;
+    for (Order order : orders) {
+      stops += (int) order.getItems().stream().map(item -> item.getProductId()).distinct().count();
+    }
+    return stops;
+  }
+}
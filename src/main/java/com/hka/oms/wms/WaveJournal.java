@@ -0,0 +1,169 @@
+package com.hka.oms.wms;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hka.oms.service.OrderCreationResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Append-only log of orders waiting for a wave: {@code +<order json>} when a
+ * paid order is queued, {@code -orderId} once it was planned into a wave or
+ * handed to the per-order queue. Planned waves are logged as
+ * {@code ~<wave json>} before their first WMS call and closed with
+ * {@code !waveId} once shipped or handed off. Replaying the file yields the
+ * orders that were still waiting and the waves that were still in WMS when
+ * the process stopped.
+ */
+final class WaveJournal implements AutoCloseable {
+
+  private final Path path;
+  private final ObjectMapper objectMapper;
+  private final FileChannel channel;
+
+  WaveJournal(Path path, ObjectMapper objectMapper) {
+    this.path = path;
+    this.objectMapper = objectMapper;
+    try {
+      Path parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot open wave journal " + path, e);
+    }
+  }
+
+  synchronized Replay replay() {
+    Map<String, String> outstanding = new LinkedHashMap<>();
+    Map<String, OrderCreationResult> results = new LinkedHashMap<>();
+    Map<String, String> openWaves = new LinkedHashMap<>();
+    Map<String, PlannedWave> waves = new LinkedHashMap<>();
+    try {
+      List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+      for (String line : lines) {
+        if (line.length() < 2) {
+          continue;
+        }
+        String value = line.substring(1);
+        switch (line.charAt(0)) {
+          case '+' -> {
+            OrderCreationResult result = objectMapper.readValue(value, OrderCreationResult.class);
+            outstanding.put(result.order().getOrderId(), value);
+            results.put(result.order().getOrderId(), result);
+          }
+          case '-' -> {
+            outstanding.remove(value);
+            results.remove(value);
+          }
+          case '~' -> {
+            PlannedWave wave = objectMapper.readValue(value, PlannedWave.class);
+            openWaves.put(wave.wave().id(), value);
+            waves.put(wave.wave().id(), wave);
+          }
+          case '!' -> {
+            openWaves.remove(value);
+            waves.remove(value);
+          }
+          default -> {
+          }
+        }
+      }
+      // a crash between logging a wave and retiring its orders leaves them in both
+      for (PlannedWave wave : waves.values()) {
+        for (OrderCreationResult result : wave.results()) {
+          outstanding.remove(result.order().getOrderId());
+          results.remove(result.order().getOrderId());
+        }
+      }
+      channel.truncate(0);
+      for (String json : outstanding.values()) {
+        write('+', json);
+      }
+      for (String json : openWaves.values()) {
+        write('~', json);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot replay wave journal " + path, e);
+    }
+    return new Replay(new ArrayList<>(results.values()), new ArrayList<>(waves.values()));
+  }
+
+  synchronized void appendQueued(OrderCreationResult result) {
+    try {
+      write('+', objectMapper.writeValueAsString(result));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("cannot serialize order " + result.order().getOrderId(), e);
+    }
+  }
+
+  synchronized void appendDone(String orderId) {
+    write('-', orderId);
+  }
+
+  synchronized void appendWave(PlannedWave wave) {
+    try {
+      write('~', objectMapper.writeValueAsString(wave));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("cannot serialize wave " + wave.wave().id(), e);
+    }
+  }
+
+  synchronized void appendWaveDone(String waveId) {
+    write('!', waveId);
+  }
+
+  synchronized void truncateIf(BooleanSupplier drained) {
+    if (!drained.getAsBoolean()) {
+      return;
+    }
+    try {
+      channel.truncate(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot truncate wave journal " + path, e);
+    }
+  }
+
+  private void write(char op, String value) {
+    ByteBuffer buffer = ByteBuffer.wrap((op + value + "\n").getBytes(StandardCharsets.UTF_8));
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot write wave journal " + path, e);
+    }
+  }
+
+  /** A wave together with the creation results of its orders, needed if it falls back to per-order publishing. */
+  record PlannedWave(Wave wave, List<OrderCreationResult> results) {
+  }
+
+  record Replay(List<OrderCreationResult> waiting, List<PlannedWave> waves) {
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      channel.force(false);
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot close wave journal " + path, e);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package com.hka.oms.wms;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.wms.dto.WmsWaveStartPickingRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Splits a window of paid orders into waves. Orders are bucketed by the
+ * warehouse zone most of their units are stored in and by carrier, so a wave
+ * is picked in one area and leaves on one truck. Inside a bucket each wave is
+ * seeded with the largest remaining order and grown with the orders sharing
+ * the most products with it, which keeps the number of pick stops low.
+ */
+public class WavePlanner {
+
+  private final WaveProperties properties;
+  private final AtomicLong sequence = new AtomicLong();
+
+  public WavePlanner(WaveProperties properties) {
+    this.properties = properties;
+  }
+
+  public List<Wave> plan(List<Order> orders) {
+    Map<String, List<Order>> buckets = new TreeMap<>();
+    for (Order order : orders) {
+      buckets.computeIfAbsent(zoneOf(order) + "|" + carrierOf(order), key -> new ArrayList<>()).add(order);
+    }
+    List<Wave> waves = new ArrayList<>();
+    String prefix = "WAVE-" + Long.toString(System.currentTimeMillis(), 36).toUpperCase(Locale.ROOT) + "-";
+    for (Map.Entry<String, List<Order>> bucket : buckets.entrySet()) {
+      String zone = bucket.getKey().substring(0, bucket.getKey().indexOf('|'));
+      String carrier = bucket.getKey().substring(bucket.getKey().indexOf('|') + 1);
+      List<Order> remaining = new ArrayList<>(bucket.getValue());
+      remaining.sort(Comparator.comparingInt((Order o) -> o.getItems().size()).reversed());
+      while (!remaining.isEmpty()) {
+        List<Order> members = new ArrayList<>();
+        Set<String> products = new HashSet<>();
+        add(remaining.remove(0), members, products);
+        while (members.size() < properties.maxWaveSize() && !remaining.isEmpty()) {
+          add(remaining.remove(closest(remaining, products)), members, products);
+        }
+        long n = sequence.incrementAndGet();
+        waves.add(new Wave(prefix + n, zone, carrier, "robot-" + n % properties.pickers(),
+            List.copyOf(members), pickList(members)));
+      }
+    }
+    return waves;
+  }
+
+  /**
+   * Whether the order can travel in a wave at all: WMS needs a shipping
+   * address for it and every line must name a product to pick.
+   */
+  public boolean plannable(Order order) {
+    if (order.getShippingAddress() == null || order.getItems() == null || order.getItems().isEmpty()) {
+      return false;
+    }
+    for (OrderItem item : order.getItems()) {
+      if (item.getProductId() == null || item.getQuantity() <= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public String zoneOf(String productId) {
+    return "Z" + (Math.floorMod(productId.hashCode(), properties.zones()) + 1);
+  }
+
+  String zoneOf(Order order) {
+    Map<String, Integer> units = new TreeMap<>();
+    for (OrderItem item : order.getItems()) {
+      units.merge(zoneOf(item.getProductId()), item.getQuantity(), Integer::sum);
+    }
+    String zone = null;
+    int most = -1;
+    for (Map.Entry<String, Integer> entry : units.entrySet()) {
+      if (entry.getValue() > most) {
+        zone = entry.getKey();
+        most = entry.getValue();
+      }
+    }
+    return zone;
+  }
+
+  String carrierOf(Order order) {
+    ShippingAddress address = order.getShippingAddress();
+    String country = address == null || address.getCountry() == null
+        ? "" : address.getCountry().toUpperCase(Locale.ROOT);
+    return properties.carriers().getOrDefault(country, properties.defaultCarrier());
+  }
+
+  private static void add(Order order, List<Order> members, Set<String> products) {
+    members.add(order);
+    for (OrderItem item : order.getItems()) {
+      products.add(item.getProductId());
+    }
+  }
+
+  private static int closest(List<Order> candidates, Set<String> products) {
+    int best = 0;
+    int bestShared = -1;
+    for (int i = 0; i < candidates.size(); i++) {
+      int shared = 0;
+      for (OrderItem item : candidates.get(i).getItems()) {
+        if (products.contains(item.getProductId())) {
+          shared++;
+        }
+      }
+      if (shared > bestShared) {
+        best = i;
+        bestShared = shared;
+      }
+    }
+    return best;
+  }
+
+  private List<WmsWaveStartPickingRequest.PickLine> pickList(List<Order> members) {
+    Map<String, Integer> quantities = new LinkedHashMap<>();
+    for (Order order : members) {
+      for (OrderItem item : order.getItems()) {
+        quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+      }
+    }
+    // walk the zones in order, products sorted within a zone
+    return quantities.entrySet().stream()
+        .map(e -> new WmsWaveStartPickingRequest.PickLine(zoneOf(e.getKey()), e.getKey(), e.getValue()))
+        .sorted(Comparator.comparing(WmsWaveStartPickingRequest.PickLine::zone)
+            .thenComparing(WmsWaveStartPickingRequest.PickLine::productId))
+        .toList();
+  }
+}
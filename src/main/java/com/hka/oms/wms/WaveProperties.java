@@ -0,0 +1,39 @@
+package com.hka.oms.wms;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "wms.waves")
+public record WaveProperties(boolean enabled, Duration window, int maxOrders, int maxWaveSize, int zones,
+                             int pickers, Map<String, String> carriers, String defaultCarrier,
+                             int maxAttempts, String journal) {
+  public WaveProperties {
+    if (window == null || window.isNegative() || window.isZero()) {
+      window = Duration.ofSeconds(2);
+    }
+    if (maxOrders <= 0) {
+      maxOrders = 500;
+    }
+    if (maxWaveSize <= 0) {
+      maxWaveSize = 50;
+    }
+    if (zones <= 0) {
+      zones = 8;
+    }
+    if (pickers <= 0) {
+      pickers = 100;
+    }
+    carriers = carriers == null ? Map.of() : Map.copyOf(carriers);
+    if (defaultCarrier == null || defaultCarrier.isBlank()) {
+      defaultCarrier = "DHL";
+    }
+    if (maxAttempts <= 0) {
+      maxAttempts = 3;
+    }
+    if (journal == null || journal.isBlank()) {
+      journal = "data/wms-waves.journal";
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package com.hka.oms.wms;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.service.OrderCreationResult;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects paid orders for {@code wms.waves.window} (or until
+ * {@code wms.waves.max-orders} are waiting), plans waves and drives each
+ * wave through WMS with five calls in total, each under its own idempotency
+ * key. A failed step is retried from that step on. Orders that cannot be
+ * planned, and the orders of a wave WMS never created, go to the per-order
+ * path registered with {@link #fallbackTo}. A wave that WMS already created
+ * never falls back, since that would fulfil its orders twice; it stalls and
+ * resumes at the failed step with every following window. Waiting orders
+ * and planned waves are journaled and picked up again after a restart.
+ */
+@Component
+public class WaveScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(WaveScheduler.class);
+
+  private final WaveProperties properties;
+  private final WavePlanner planner;
+  private final WmsClient wmsClient;
+  private final WaveJournal journal;
+  private final List<OrderCreationResult> pending = new ArrayList<>();
+  private final Map<String, InFlight> inFlight = new LinkedHashMap<>();
+  private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "wms-waves");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final DistributionSummary waveSize;
+  private final Counter wmsCalls;
+  private final Counter waveStops;
+  private final Counter perOrderStops;
+  private final Counter fulfilled;
+  private final Counter failed;
+  private final Counter perOrder;
+  private volatile Consumer<OrderCreationResult> fallback;
+  private volatile int stalled;
+
+  public WaveScheduler(WaveProperties properties, WmsClient wmsClient, ObjectMapper objectMapper,
+                       MeterRegistry registry) {
+    this.properties = properties;
+    this.planner = new WavePlanner(properties);
+    this.wmsClient = wmsClient;
+    this.journal = properties.enabled() ? new WaveJournal(Path.of(properties.journal()), objectMapper) : null;
+    Gauge.builder("wms.wave.pending", pending, list -> {
+          synchronized (list) {
+            return list.size();
+          }
+        })
+        .description("Paid orders waiting for the next wave")
+        .register(registry);
+    this.waveSize = DistributionSummary.builder("wms.wave.size").description("Orders per wave").register(registry);
+    this.wmsCalls = registry.counter("wms.wave.calls");
+    Gauge.builder("wms.wave.stalled", this, scheduler -> scheduler.stalled)
+        .description("Waves created in WMS whose remaining steps are waiting to be retried")
+        .register(registry);
+    this.waveStops = registry.counter("wms.wave.pick.stops", "plan", "wave");
+    this.perOrderStops = registry.counter("wms.wave.pick.stops", "plan", "per-order");
+    this.fulfilled = registry.counter("wms.wave.orders", "outcome", "fulfilled");
+    this.failed = registry.counter("wms.wave.orders", "outcome", "failed");
+    this.perOrder = registry.counter("wms.wave.orders", "outcome", "per-order");
+  }
+
+  @PostConstruct
+  public void start() {
+    if (properties.enabled()) {
+      WaveJournal.Replay replay = journal.replay();
+      if (!replay.waiting().isEmpty()) {
+        log.info("Replaying {} orders that were waiting for a wave", replay.waiting().size());
+        synchronized (pending) {
+          pending.addAll(replay.waiting());
+        }
+      }
+      if (!replay.waves().isEmpty()) {
+        log.info("Resuming {} waves that were in progress", replay.waves().size());
+        synchronized (this) {
+          // completed steps are repeated under the same keys, which WMS applies only once
+          replay.waves().forEach(planned -> inFlight.put(planned.wave().id(), new InFlight(planned)));
+        }
+      }
+      long window = properties.window().toMillis();
+      worker.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  /** Where orders go that cannot travel in a wave; set by the per-order publisher. */
+  public void fallbackTo(Consumer<OrderCreationResult> fallback) {
+    this.fallback = fallback;
+  }
+
+  public void submit(OrderCreationResult result) {
+    if (!planner.plannable(result.order())) {
+      // one unplannable order must not fail the wave it would land in
+      log.warn("Order {} cannot be planned into a wave, publishing it on its own", result.order().getOrderId());
+      handOff(List.of(result));
+      return;
+    }
+    enqueue(result);
+  }
+
+  private void enqueue(OrderCreationResult result) {
+    boolean full;
+    synchronized (pending) {
+      journal.appendQueued(result);
+      pending.add(result);
+      full = pending.size() == properties.maxOrders();
+    }
+    if (full && !worker.isShutdown()) {
+      worker.execute(this::flush);
+    }
+  }
+
+  /** Plans everything collected so far and drives all open waves; runs on the wave thread. */
+  public synchronized void flush() {
+    List<OrderCreationResult> window;
+    synchronized (pending) {
+      window = new ArrayList<>(pending);
+      pending.clear();
+    }
+    if (!window.isEmpty()) {
+      plan(window);
+    }
+    Iterator<InFlight> it = inFlight.values().iterator();
+    while (it.hasNext()) {
+      InFlight flight = it.next();
+      Wave wave = flight.planned.wave();
+      if (advance(flight)) {
+        journal.appendWaveDone(wave.id());
+        it.remove();
+      } else if (flight.next == WaveStep.CREATE) {
+        failed.increment(wave.orders().size());
+        handOff(flight.planned.results());
+        journal.appendWaveDone(wave.id());
+        it.remove();
+      } else {
+        log.error("Wave {} stalled before {}, resuming with the next window", wave.id(), flight.next);
+      }
+    }
+    stalled = inFlight.size();
+    synchronized (pending) {
+      journal.truncateIf(() -> pending.isEmpty() && inFlight.isEmpty());
+    }
+  }
+
+  private void plan(List<OrderCreationResult> window) {
+    Map<String, OrderCreationResult> byId = new HashMap<>();
+    List<Order> orders = new ArrayList<>(window.size());
+    List<OrderCreationResult> unplannable = new ArrayList<>();
+    for (OrderCreationResult result : window) {
+      if (planner.plannable(result.order())) {
+        byId.put(result.order().getOrderId(), result);
+        orders.add(result.order());
+      } else {
+        unplannable.add(result);
+      }
+    }
+    handOff(unplannable);
+    List<Wave> waves;
+    try {
+      waves = planner.plan(orders);
+    } catch (RuntimeException ex) {
+      log.error("Wave planning failed for {} orders, publishing them one by one", orders.size(), ex);
+      failed.increment(orders.size());
+      handOff(List.copyOf(byId.values()));
+      return;
+    }
+    for (Wave wave : waves) {
+      WaveJournal.PlannedWave planned = new WaveJournal.PlannedWave(wave,
+          wave.orders().stream().map(order -> byId.get(order.getOrderId())).toList());
+      journal.appendWave(planned);
+      wave.orders().forEach(order -> journal.appendDone(order.getOrderId()));
+      inFlight.put(wave.id(), new InFlight(planned));
+    }
+  }
+
+  /** Runs the wave's remaining steps; returns whether it shipped. */
+  private boolean advance(InFlight flight) {
+    Wave wave = flight.planned.wave();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        while (flight.next != null) {
+          wmsCalls.increment();
+          wmsClient.waveStep(wave, flight.next);
+          flight.next = flight.next.next();
+        }
+        break;
+      } catch (RuntimeException ex) {
+        if (attempt >= properties.maxAttempts()) {
+          log.error("Wave {} failed at {} after {} attempts: {}", wave.id(), flight.next, attempt, ex.getMessage());
+          return false;
+        }
+        log.warn("Wave {} failed at {} (attempt {}), retrying: {}", wave.id(), flight.next, attempt,
+            ex.getMessage());
+        if (!pause(properties.window().toMillis() * attempt)) {
+          return false;
+        }
+      }
+    }
+    waveSize.record(wave.orders().size());
+    waveStops.increment(wave.pickList().size());
+    perOrderStops.increment(wave.perOrderStops());
+    fulfilled.increment(wave.orders().size());
+    return true;
+  }
+
+  /**
+   * Sends orders down the durable per-order path. An order that cannot be
+   * sent either waits for the next window, and stays journaled until then.
+   */
+  private void handOff(List<OrderCreationResult> results) {
+    Consumer<OrderCreationResult> target = fallback;
+    for (OrderCreationResult result : results) {
+      String orderId = result.order().getOrderId();
+      try {
+        if (target == null) {
+          throw new IllegalStateException("no per-order publisher registered");
+        }
+        target.accept(result);
+        perOrder.increment();
+        journal.appendDone(orderId);
+      } catch (RuntimeException ex) {
+        log.error("Order {} could not be published on its own, retrying with the next window: {}",
+            orderId, ex.getMessage());
+        enqueue(result);
+      }
+    }
+  }
+
+  private static final class InFlight {
+    final WaveJournal.PlannedWave planned;
+    WaveStep next = WaveStep.CREATE;
+
+    InFlight(WaveJournal.PlannedWave planned) {
+      this.planned = planned;
+    }
+  }
+
+  private static boolean pause(long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    worker.shutdown();
+    if (!properties.enabled()) {
+      return;
+    }
+    try {
+      worker.awaitTermination(properties.window().toMillis() * properties.maxAttempts(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    journal.close();
+  }
+}
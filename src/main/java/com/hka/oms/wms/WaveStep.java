@@ -0,0 +1,12 @@
+package com.hka.oms.wms;
+
+/** The WMS calls a wave goes through, in order. */
+public enum WaveStep {
+  CREATE, START_PICKING, COMPLETE_PICKING, PACK, SHIP;
+
+  /** The step after this one, or {@code null} once the wave shipped. */
+  public WaveStep next() {
+    WaveStep[] steps = values();
+    return ordinal() + 1 < steps.length ? steps[ordinal() + 1] : null;
+  }
+}
@@ -9,6 +9,7 @@ import com.hka.oms.wms.dto.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -38,8 +39,16 @@ public class WmsClient {
     this.objectMapper = objectMapper;
   }
 
+  /**
+   * Sends a bodiless request to the WMS service so a pooled connection is
+   * established before the first order needs it. Any HTTP status counts.
+   */
+  public HttpStatusCode warmUp() {
+    return restClient.head().uri("/").exchange((request, response) -> response.getStatusCode());
+  }
+
   public WmsFulfillmentResponse orchestrateFulfillment(Order order, String idempotencyKey) {
-    log.info("Triggering WMS fulfillment workflow for {}", order.getOrderId());
+    log.debug("Triggering WMS fulfillment workflow for {}", order.getOrderId());
 
     WmsFulfillmentResponse response = createFulfillment(order, idempotencyKey);
     response = post("/wms/fulfillments/start-picking",
@@ -51,11 +60,46 @@ public class WmsClient {
     response = post("/wms/fulfillments/ship",
         new WmsShipRequest(order.getOrderId(), defaultCarrier()), null);
 
-    log.info("WMS workflow finished for {} -> status {}", order.getOrderId(), response.status());
+    log.debug("WMS workflow finished for {} -> status {}", order.getOrderId(), response.status());
+    return response;
+  }
+
+  /**
+   * Runs one step of a wave. A wave takes one create, pick, pack and ship
+   * call for all of its orders instead of five calls per order. Every step
+   * carries its own idempotency key derived from the wave id, so a step that
+   * is repeated after a failure or a restart is applied only once.
+   */
+  public WmsWaveResponse waveStep(Wave wave, WaveStep step) {
+    String key = step == WaveStep.CREATE ? wave.id() : wave.id() + ":" + step.name().toLowerCase();
+    WmsWaveResponse response = switch (step) {
+      case CREATE -> {
+        log.info("Triggering WMS wave {} with {} orders (zone {}, carrier {}, {} pick lines)",
+            wave.id(), wave.orders().size(), wave.zone(), wave.carrier(), wave.pickList().size());
+        yield post("/wms/waves", new WmsWaveCreateRequest(wave.id(), wave.zone(), wave.carrier(),
+            wave.orders().stream().map(this::toCreateRequest).toList()), key, WmsWaveResponse.class);
+      }
+      case START_PICKING -> post("/wms/waves/start-picking",
+          new WmsWaveStartPickingRequest(wave.id(), wave.picker(), wave.pickList()), key, WmsWaveResponse.class);
+      case COMPLETE_PICKING -> post("/wms/waves/complete-picking", new WmsWaveCompletePickingRequest(wave.id()), key,
+          WmsWaveResponse.class);
+      case PACK -> post("/wms/waves/pack", new WmsWavePackRequest(wave.id(), wave.orders().stream()
+          .map(order -> new WmsPackRequest(order.getOrderId(), estimateWeight(order), estimateDimensions(order)))
+          .toList()), key, WmsWaveResponse.class);
+      case SHIP -> post("/wms/waves/ship", new WmsWaveShipRequest(wave.id(), wave.carrier(),
+          wave.orders().stream().map(Order::getOrderId).toList()), key, WmsWaveResponse.class);
+    };
+    if (step == WaveStep.SHIP) {
+      log.info("WMS wave {} finished -> status {}", wave.id(), response == null ? null : response.status());
+    }
     return response;
   }
 
   private WmsFulfillmentResponse createFulfillment(Order order, String idempotencyKey) {
+    return post("/wms/fulfillments", toCreateRequest(order), idempotencyKey);
+  }
+
+  private WmsCreateFulfillmentRequest toCreateRequest(Order order) {
     ShippingAddress address = order.getShippingAddress();
     if (address == null) {
       throw new IllegalArgumentException("shipping address required for fulfillment");
@@ -65,7 +109,7 @@ public class WmsClient {
         .map(this::toItem)
         .toList();
 
-    WmsCreateFulfillmentRequest request = new WmsCreateFulfillmentRequest(
+    return new WmsCreateFulfillmentRequest(
         order.getOrderId(),
         items,
         new WmsCreateFulfillmentRequest.Address(
@@ -76,17 +120,19 @@ public class WmsClient {
             address.getCountry()
         )
     );
-
-    return post("/wms/fulfillments", request, idempotencyKey);
   }
 
   private WmsFulfillmentResponse post(String path, Object body, String idempotencyKey) {
+    return post(path, body, idempotencyKey, WmsFulfillmentResponse.class);
+  }
+
+  private <T> T post(String path, Object body, String idempotencyKey, Class<T> responseType) {
     try {
       RestClient.RequestBodySpec spec = restClient.post().uri(path).body(body);
       if (StringUtils.hasText(idempotencyKey)) {
         spec = spec.header(IDEMPOTENCY_HEADER, idempotencyKey);
       }
-      return spec.retrieve().body(WmsFulfillmentResponse.class);
+      return spec.retrieve().body(responseType);
     } catch (RestClientResponseException ex) {
       HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
       String message = extractMessage(ex.getResponseBodyAsString());
@@ -0,0 +1,3 @@
+package com.hka.oms.wms.dto;
+
+public record WmsWaveCompletePickingRequest(String waveId) {}
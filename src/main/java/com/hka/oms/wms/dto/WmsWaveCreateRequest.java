@@ -0,0 +1,10 @@
+package com.hka.oms.wms.dto;
+
+import java.util.List;
+
+public record WmsWaveCreateRequest(
+    String waveId,
+    String zone,
+    String carrier,
+    List<WmsCreateFulfillmentRequest> fulfillments
+) {}
@@ -0,0 +1,5 @@
+package com.hka.oms.wms.dto;
+
+import java.util.List;
+
+public record WmsWavePackRequest(String waveId, List<WmsPackRequest> parcels) {}
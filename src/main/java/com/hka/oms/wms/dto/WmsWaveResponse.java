@@ -0,0 +1,9 @@
+package com.hka.oms.wms.dto;
+
+import java.util.List;
+
+public record WmsWaveResponse(
+    String waveId,
+    String status,
+    List<WmsFulfillmentResponse> fulfillments
+) {}
@@ -0,0 +1,5 @@
+package com.hka.oms.wms.dto;
+
+import java.util.List;
+
+public record WmsWaveShipRequest(String waveId, String carrier, List<String> orderIds) {}
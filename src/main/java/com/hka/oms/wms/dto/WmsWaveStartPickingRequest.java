@@ -0,0 +1,11 @@
+package com.hka.oms.wms.dto;
+
+import java.util.List;
+
+public record WmsWaveStartPickingRequest(
+    String waveId,
+    String assignee,
+    List<PickLine> pickList
+) {
+  public record PickLine(String zone, String productId, int quantity) {}
+}
@@ -0,0 +1,47 @@
+package com.hka.shop.admin;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.hka.oms.admin.AdminAuthInterceptor;
+import com.hka.oms.admin.AdminException;
+import com.hka.oms.admin.AdminProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdminAuthInterceptorTest {
+
+  @Test
+  void requiresTheConfiguredToken() {
+    AdminAuthInterceptor interceptor = interceptor("t0ken");
+
+    assertEquals(403, assertThrows(AdminException.class,
+        () -> interceptor.preHandle(request(null), new MockHttpServletResponse(), new Object())).getStatus().value());
+    assertEquals(403, assertThrows(AdminException.class,
+        () -> interceptor.preHandle(request("other"), new MockHttpServletResponse(), new Object())).getStatus().value());
+    assertTrue(interceptor.preHandle(request("t0ken"), new MockHttpServletResponse(), new Object()));
+  }
+
+  @Test
+  void staysClosedWithoutAToken() {
+    AdminAuthInterceptor interceptor = interceptor(" ");
+
+    assertThrows(AdminException.class,
+        () -> interceptor.preHandle(request(""), new MockHttpServletResponse(), new Object()));
+  }
+
+  private static AdminAuthInterceptor interceptor(String token) {
+    return new AdminAuthInterceptor(new AdminProperties(token));
+  }
+
+  private static MockHttpServletRequest request(String token) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin/profiling/recordings");
+    if (token != null) {
+      request.addHeader(AdminAuthInterceptor.TOKEN_HEADER, token);
+    }
+    return request;
+  }
+}
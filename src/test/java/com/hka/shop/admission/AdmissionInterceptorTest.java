@@ -0,0 +1,48 @@
+package com.hka.shop.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.hka.oms.admission.AdmissionInterceptor;
+import com.hka.oms.admission.AdmissionProperties;
+import com.hka.oms.admission.OverloadedException;
+import com.hka.oms.intake.OrderIntake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionInterceptorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final OrderIntake intake = mock(OrderIntake.class);
+  private final AdmissionInterceptor interceptor =
+      new AdmissionInterceptor(new AdmissionProperties(2, 2, 2, 0, 0, 0), intake, registry);
+
+  @Test
+  void asyncSubmissionsBypassTheLimiter() {
+    when(intake.isAsync("respond-async")).thenReturn(true);
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(interceptor.preHandle(post("respond-async"), new MockHttpServletResponse(), new Object()));
+    }
+    assertEquals(0.0, registry.get("orders.admission.inflight").gauge().value());
+
+    interceptor.preHandle(post(null), new MockHttpServletResponse(), new Object());
+    interceptor.preHandle(post(null), new MockHttpServletResponse(), new Object());
+    assertThrows(OverloadedException.class,
+        () -> interceptor.preHandle(post(null), new MockHttpServletResponse(), new Object()));
+  }
+
+  private static MockHttpServletRequest post(String prefer) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+    if (prefer != null) {
+      request.addHeader("Prefer", prefer);
+    }
+    return request;
+  }
+}
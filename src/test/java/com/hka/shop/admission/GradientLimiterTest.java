@@ -0,0 +1,79 @@
+package com.hka.shop.admission;
+
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.admission.GradientLimiter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientLimiterTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+  @Test
+  void shedsRequestsAboveTheLimit() {
+    GradientLimiter limiter = new GradientLimiter(3, 1, 10, 1.5, 0.2, 0.9);
+    assertEquals(1, limiter.tryAcquire());
+    assertEquals(2, limiter.tryAcquire());
+    assertEquals(3, limiter.tryAcquire());
+    assertEquals(-1, limiter.tryAcquire());
+
+    limiter.release(FAST, 3, false);
+    assertEquals(2, limiter.inflight());
+    assertTrue(limiter.tryAcquire() > 0);
+  }
+
+  @Test
+  void growsWhileLatencyIsStableAndShrinksWhenItRises() {
+    GradientLimiter limiter = new GradientLimiter(10, 2, 100, 1.5, 0.2, 0.9);
+    Deque<Integer> admitted = new ArrayDeque<>();
+    for (int i = 0; i < 50; i++) {
+      completeAtSaturation(limiter, admitted, FAST);
+    }
+    int grown = limiter.limit();
+    assertTrue(grown > 10, "limit should grow under stable latency, was " + grown);
+
+    for (int i = 0; i < 50; i++) {
+      completeAtSaturation(limiter, admitted, SLOW);
+    }
+    assertEquals(admitted.size(), limiter.inflight());
+    assertTrue(limiter.limit() < grown / 2, "limit should shrink when latency rises, was " + limiter.limit());
+  }
+
+  @Test
+  void ignoresSamplesWhileUnderutilised() {
+    GradientLimiter limiter = new GradientLimiter(20, 2, 100, 1.5, 0.2, 0.9);
+    for (int i = 0; i < 50; i++) {
+      limiter.release(FAST, limiter.tryAcquire(), false);
+    }
+    assertEquals(20, limiter.limit());
+    assertEquals(0, limiter.inflight());
+  }
+
+  @Test
+  void backsOffOnFailuresButNotBelowTheMinimum() {
+    GradientLimiter limiter = new GradientLimiter(10, 4, 100, 1.5, 0.2, 0.5);
+    limiter.release(FAST, limiter.tryAcquire(), true);
+    assertEquals(5, limiter.limit());
+    limiter.release(FAST, limiter.tryAcquire(), true);
+    assertEquals(4, limiter.limit());
+    assertEquals(0, limiter.inflight());
+  }
+
+  /**
+   * Admits requests until the limiter sheds, then completes the most recently
+   * admitted one, so every sample is taken at the current limit.
+   */
+  private static void completeAtSaturation(GradientLimiter limiter, Deque<Integer> admitted, long rttNanos) {
+    for (int inflight = limiter.tryAcquire(); inflight > 0; inflight = limiter.tryAcquire()) {
+      admitted.push(inflight);
+    }
+    limiter.release(rttNanos, admitted.pop(), false);
+  }
+}
@@ -0,0 +1,34 @@
+package com.hka.shop.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.analytics.CountMinSketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+  @Test
+  void neverUndercountsAndStaysCloseForHeavyKeys() {
+    CountMinSketch sketch = new CountMinSketch(4, 1024);
+    for (int i = 0; i < 20_000; i++) {
+      sketch.add("PRD-" + (i % 5_000), 1);
+    }
+    sketch.add("PRD-HOT", 10_000);
+
+    for (int i = 0; i < 5_000; i++) {
+      assertTrue(sketch.estimate("PRD-" + i) >= 4);
+    }
+    long hot = sketch.estimate("PRD-HOT");
+    assertTrue(hot >= 10_000 && hot < 10_000 + 30_000 / 1024 * 4, "estimate " + hot);
+  }
+
+  @Test
+  void clearResetsAllCounters() {
+    CountMinSketch sketch = new CountMinSketch(2, 64);
+    sketch.add("PRD-1", 5);
+    sketch.clear();
+    assertEquals(0, sketch.estimate("PRD-1"));
+  }
+}
@@ -0,0 +1,63 @@
+package com.hka.shop.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.analytics.HotSku;
+import com.hka.oms.analytics.HotSkuProperties;
+import com.hka.oms.analytics.HotSkuTracker;
+import com.hka.oms.domain.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HotSkuTrackerTest {
+
+  private final HotSkuTracker tracker = new HotSkuTracker(
+      new HotSkuProperties(2, 4, 1024, Duration.ofMinutes(3), 3), new SimpleMeterRegistry());
+
+  @AfterEach
+  void stop() {
+    tracker.shutdown();
+  }
+
+  @Test
+  void keepsTheHeaviestProductsAsTheyGrow() {
+    record("PRD-A", 5);
+    record("PRD-B", 1);
+    for (int i = 0; i < 10; i++) {
+      // already listed: counted without touching the candidates
+      record("PRD-B", 3);
+    }
+    record("PRD-C", 2);
+
+    assertEquals(List.of(new HotSku("PRD-B", 31), new HotSku("PRD-A", 5)), tracker.top());
+
+    record("PRD-C", 10);
+    assertEquals(List.of(new HotSku("PRD-B", 31), new HotSku("PRD-C", 12)), tracker.top());
+  }
+
+  @Test
+  void forgetsProductsOnceTheyLeaveTheWindow() {
+    record("PRD-A", 4);
+    tracker.rotate();
+    record("PRD-B", 2);
+
+    tracker.rotate();
+    tracker.rotate();
+    assertEquals(List.of(new HotSku("PRD-B", 2)), tracker.top());
+
+    tracker.rotate();
+    assertEquals(List.of(), tracker.top());
+    assertEquals(0, tracker.estimate("PRD-B"));
+  }
+
+  private void record(String productId, int quantity) {
+    tracker.record(List.of(
+        OrderItem.builder().productId(productId).quantity(quantity).price(new BigDecimal("1.00")).build()));
+  }
+}
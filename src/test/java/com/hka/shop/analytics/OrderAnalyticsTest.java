@@ -0,0 +1,142 @@
+package com.hka.shop.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.analytics.MinuteTotals;
+import com.hka.oms.analytics.OrderAnalytics;
+import com.hka.oms.analytics.Totals;
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.domain.ShippingAddress;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderAnalyticsTest {
+
+  private static final DateTimeFormatter ID_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private final OrderAnalytics analytics = new OrderAnalytics();
+
+  @Test
+  void tracksCreationsStatusChangesAndEvictions() {
+    Order order = withId(OrderMocks.groceryOrder(), 2).withStatus(OrderStatus.PAID);
+    BigDecimal amount = order.getTotalAmount().setScale(2);
+    String customerId = order.getCustomer().getCustomerId();
+    String country = order.getShippingAddress().getCountry();
+
+    analytics.onOrderChanged(null, order);
+    assertEquals(new Totals(1, amount), analytics.total());
+    assertEquals(new Totals(1, amount), analytics.byStatus().get(OrderStatus.PAID));
+    assertEquals(new Totals(1, amount), analytics.byCustomer(customerId));
+    assertEquals(new Totals(1, amount), analytics.byCountry().get(country));
+
+    Order shipped = order.withStatus(OrderStatus.SHIPPED);
+    analytics.onOrderChanged(order, shipped);
+    assertEquals(0, analytics.byStatus().get(OrderStatus.PAID).orders());
+    assertEquals(new Totals(1, amount), analytics.byStatus().get(OrderStatus.SHIPPED));
+    assertEquals(new Totals(1, amount), analytics.total());
+
+    analytics.onOrderChanged(shipped, null);
+    assertEquals(0, analytics.total().orders());
+    assertEquals(0, analytics.byCustomer(customerId).orders());
+    assertEquals(0, analytics.byCountry().size());
+  }
+
+  @Test
+  void bucketsOrdersByTheMinuteTheyWereCreated() {
+    analytics.onOrderChanged(null, withId(OrderMocks.groceryOrder(), 2));
+    analytics.onOrderChanged(null, withId(OrderMocks.electronicsOrder(), 2));
+    analytics.onOrderChanged(null, withId(OrderMocks.groceryOrder(), 0));
+
+    List<MinuteTotals> minutes = analytics.lastMinutes(5);
+    assertEquals(5, minutes.size());
+    long total = minutes.stream().mapToLong(MinuteTotals::orders).sum();
+    assertEquals(3, total);
+  }
+
+  @Test
+  void lastMinutesReportsEachMinuteOldestFirst() {
+    LocalDateTime now = LocalDateTime.now();
+    Order recent = withId(OrderMocks.groceryOrder(), now.minusMinutes(1));
+    analytics.onOrderChanged(null, recent);
+    analytics.onOrderChanged(null, withId(OrderMocks.electronicsOrder(), now.minusMinutes(1)));
+    analytics.onOrderChanged(null, withId(OrderMocks.groceryOrder(), now.minusMinutes(3)));
+    // a day older shares the ring slot of the minute before and must not show up there
+    analytics.onOrderChanged(null, withId(OrderMocks.groceryOrder(), now.minusMinutes(1).minusDays(1)));
+    analytics.onOrderChanged(recent, null);
+
+    List<MinuteTotals> minutes = analytics.lastMinutes(10);
+    assertEquals(10, minutes.size());
+    for (int i = 1; i < minutes.size(); i++) {
+      assertEquals(Duration.ofMinutes(1), Duration.between(minutes.get(i - 1).minute(), minutes.get(i).minute()));
+    }
+    MinuteTotals oneAgo = at(minutes, now.minusMinutes(1));
+    assertEquals(1, oneAgo.orders());
+    assertEquals(OrderMocks.electronicsOrder().getTotalAmount().setScale(2), oneAgo.revenue());
+    assertEquals(1, at(minutes, now.minusMinutes(3)).orders());
+    assertEquals(2, minutes.stream().mapToLong(MinuteTotals::orders).sum());
+
+    assertEquals(1, analytics.lastMinutes(0).size());
+    assertEquals(24 * 60, analytics.lastMinutes(Integer.MAX_VALUE).size());
+  }
+
+  @Test
+  void customersAreDroppedWithTheirLastOrderAndBounded() {
+    OrderAnalytics bounded = new OrderAnalytics(50);
+    for (int i = 0; i < 500; i++) {
+      bounded.onOrderChanged(null, withCustomer(OrderMocks.groceryOrder(), "CUST-" + i));
+    }
+    assertTrue(bounded.trackedCustomers() <= 50, "tracked " + bounded.trackedCustomers());
+    for (int i = 0; i < 500; i++) {
+      bounded.onOrderChanged(withCustomer(OrderMocks.groceryOrder(), "CUST-" + i), null);
+    }
+    assertEquals(0, bounded.trackedCustomers());
+    assertEquals(0, bounded.byCustomer("CUST-499").orders());
+    assertEquals(0, bounded.total().orders());
+  }
+
+  @Test
+  void countriesOutsideIso3166ShareOneBucket() {
+    analytics.onOrderChanged(null, withCountry(OrderMocks.groceryOrder(), " de "));
+    analytics.onOrderChanged(null, withCountry(OrderMocks.groceryOrder(), "Germany"));
+    analytics.onOrderChanged(null, withCountry(OrderMocks.groceryOrder(), "x".repeat(1000)));
+
+    assertEquals(List.of("DE", "OTHER"), List.copyOf(analytics.byCountry().keySet()));
+    assertEquals(2, analytics.byCountry().get("OTHER").orders());
+  }
+
+  private static MinuteTotals at(List<MinuteTotals> minutes, LocalDateTime time) {
+    Instant start = time.truncatedTo(ChronoUnit.MINUTES).atZone(ZoneId.systemDefault()).toInstant();
+    return minutes.stream().filter(m -> m.minute().equals(start)).findFirst().orElseThrow();
+  }
+
+  private static Order withCustomer(Order order, String customerId) {
+    return Order.builderFrom(order).customer(Customer.builder().customerId(customerId).name("Test").build()).build();
+  }
+
+  private static Order withCountry(Order order, String country) {
+    return Order.builderFrom(order).shippingAddress(ShippingAddress.builder().street("Hauptstrasse 1")
+        .city("Karlsruhe").zipCode("76131").country(country).build()).build();
+  }
+
+  private static Order withId(Order order, int minutesAgo) {
+    return withId(order, LocalDateTime.now().minusMinutes(minutesAgo));
+  }
+
+  private static Order withId(Order order, LocalDateTime created) {
+    String time = created.format(ID_TIME);
+    return order.withOrderId("ORD-" + time + "-" + Integer.toHexString(order.hashCode()).toUpperCase());
+  }
+}
@@ -0,0 +1,54 @@
+package com.hka.shop.bench;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.domain.ShippingAddress;
+
+import java.math.BigDecimal;
+
+/**
+ * Deterministic order fixture shared by the benchmarks: order {@code i} has
+ * one to four items over {@link #PRODUCTS} products and belongs to customer
+ * {@code i % customers}, whose name and address repeat across its orders.
+ */
+final class BenchOrders {
+
+  static final int PRODUCTS = 5_000;
+  private static final String[] CITIES = { "Karlsruhe", "Gernsbach", "Stuttgart", "Mannheim", "Heidelberg" };
+
+  private BenchOrders() {
+  }
+
+  static Order order(int i, int customers, OrderStatus status) {
+    return order(i, customers, status, 0);
+  }
+
+  static Order order(int i, int customers, OrderStatus status, long version) {
+    int customer = i % customers;
+    Order.Builder builder = Order.builder()
+        .orderId(String.format("ORD-20241001-120000-%08X", i))
+        .customer(Customer.builder()
+            .customerId("CUST-" + customer)
+            .prename("Prename" + customer)
+            .name("Name" + customer)
+            .build())
+        .shippingAddress(ShippingAddress.builder()
+            .street("Street " + customer % 100)
+            .city(CITIES[customer % CITIES.length])
+            .zipCode(String.valueOf(76000 + customer % 500))
+            .country("DE")
+            .build())
+        .status(status)
+        .version(version);
+    for (int item = 0; item < 1 + i % 4; item++) {
+      builder.addItem(OrderItem.builder()
+          .productId("PRD-" + ((i * 31 + item * 7) % PRODUCTS))
+          .quantity(1 + item)
+          .price(BigDecimal.valueOf(199 + (i + item) % 5000, 2))
+          .build());
+    }
+    return builder.build();
+  }
+}
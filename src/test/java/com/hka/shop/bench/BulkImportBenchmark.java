@@ -0,0 +1,85 @@
+package com.hka.shop.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hka.oms.analytics.HotSkuTracker;
+import com.hka.oms.bulk.BulkImportProperties;
+import com.hka.oms.bulk.BulkImporter;
+import com.hka.oms.bulk.ImportRequest;
+import com.hka.oms.bulk.ImportStatus;
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.cluster.ClusterProperties;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.inventory.InventoryClient;
+import com.hka.oms.inventory.ReservationReleaseQueue;
+import com.hka.oms.payment.PaymentClient;
+import com.hka.oms.publisher.WmsPublisher;
+import com.hka.oms.service.OrderService;
+import com.hka.oms.service.OrderValidator;
+import com.hka.oms.store.OrderStore;
+import com.hka.oms.store.OrderStoreProperties;
+import com.hka.oms.tracing.OrderTracing;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Throughput of a historical NDJSON import into the in-memory store.
+ * Run with {@code mvn test -Pbench -Dtest=BulkImportBenchmark}.
+ */
+@Tag("benchmark")
+class BulkImportBenchmark {
+
+  private static final int ORDERS = 500_000;
+  private static final int CUSTOMERS = 50_000;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void historicalNdjsonImport() throws Exception {
+    ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    Path file = dir.resolve("orders.ndjson");
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < ORDERS; i++) {
+        writer.write(mapper.writeValueAsString(BenchOrders.order(i, CUSTOMERS, OrderStatus.DELIVERED)));
+        writer.newLine();
+      }
+    }
+
+    OrderStore store = new OrderStore(new SimpleMeterRegistry(), new OrderStoreProperties(false, null, 0));
+    OrderValidator validator = new OrderValidator();
+    ClusterMembership membership = new ClusterMembership(new ClusterProperties(null, null, 0, null, null));
+    OrderService service = new OrderService(mock(InventoryClient.class), mock(ReservationReleaseQueue.class),
+        mock(PaymentClient.class), mock(WmsPublisher.class), membership, List.of(), store,
+        mock(OrderTracing.class), mock(HotSkuTracker.class), validator, mock(FairScheduler.class));
+    BulkImporter importer = new BulkImporter(service, validator, membership, mock(ClusterClient.class), mapper,
+        new BulkImportProperties(dir.toString(), dir.resolve("checkpoints").toString(), null, 0, 0));
+    try {
+      ImportStatus status = importer.start(new ImportRequest(file.toString(), null, true));
+      while ("RUNNING".equals(status.state())) {
+        Thread.sleep(50);
+        status = importer.status(status.id());
+      }
+      System.out.printf("orders=%d bytes=%d cpus=%d imported=%d elapsed=%d ms throughput=%.0f orders/s%n",
+          ORDERS, status.totalBytes(), Runtime.getRuntime().availableProcessors(), status.imported(),
+          Duration.between(status.startedAt(), status.finishedAt()).toMillis(), status.ordersPerSecond());
+      assertEquals(ORDERS, status.imported());
+    } finally {
+      importer.shutdown();
+    }
+  }
+}
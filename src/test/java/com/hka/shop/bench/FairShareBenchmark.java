@@ -0,0 +1,138 @@
+package com.hka.shop.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.fairness.FairShareProperties;
+import com.hka.oms.intake.IntakeProperties;
+import com.hka.oms.intake.IntakeTicket;
+import com.hka.oms.intake.OrderIntake;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.service.OrderService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Latency of small customers while one customer sends a burst, FIFO intake
+ * against per-customer fair sharing.
+ * Run with {@code mvn test -Pbench -Dtest=FairShareBenchmark}.
+ */
+@Tag("benchmark")
+class FairShareBenchmark {
+
+  private static final int BURST = 1_500;
+  private static final int SMALL_CUSTOMERS = 20;
+  private static final int ORDERS_PER_SMALL_CUSTOMER = 5;
+  private static final long DOWNSTREAM_MILLIS = 2;
+  private static final int TRIALS = 3;
+
+  private final Map<String, Long> completedAt = new ConcurrentHashMap<>();
+
+  @Test
+  void smallCustomersDuringABurst() throws Exception {
+    OrderService service = slowService();
+    double[] fifo = { Double.MAX_VALUE, 0 };
+    double[] fair = { Double.MAX_VALUE, 0 };
+    // warm-up: an unwarmed submit loop is slow enough to let the burst drain first
+    run(service, false);
+    run(service, true);
+    for (int trial = 0; trial < TRIALS; trial++) {
+      best(fifo, run(service, false));
+      best(fair, run(service, true));
+    }
+
+    System.out.printf("burst of %d orders from one customer, %d small customers x %d orders%n",
+        BURST, SMALL_CUSTOMERS, ORDERS_PER_SMALL_CUSTOMER);
+    System.out.printf("small customers p99: fifo=%6.0f ms fair=%6.0f ms%n", fifo[0], fair[0]);
+    System.out.printf("burst completed in:  fifo=%6.0f ms fair=%6.0f ms%n", fifo[1], fair[1]);
+    assertTrue(fair[0] < fifo[0] / 2, "fair sharing must keep small customers ahead of the burst");
+  }
+
+  private double[] run(OrderService service, boolean fairShare) throws InterruptedException {
+    completedAt.clear();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    FairScheduler fairness = new FairScheduler(new FairShareProperties(fairShare, 1, 4, BURST, null), registry);
+    OrderIntake intake = new OrderIntake(service,
+        new IntakeProperties(true, true, BURST * 2, 8, 8, 4, null, null, Duration.ofMinutes(1)), fairness, registry);
+    intake.start();
+
+    long start = System.nanoTime();
+    String lastBurst = null;
+    for (int i = 0; i < BURST; i++) {
+      lastBurst = intake.submit(order("MARKETPLACE")).orderId();
+    }
+    Map<String, Long> smallAccepted = new ConcurrentHashMap<>();
+    for (int round = 0; round < ORDERS_PER_SMALL_CUSTOMER; round++) {
+      for (int c = 0; c < SMALL_CUSTOMERS; c++) {
+        IntakeTicket ticket = intake.submit(order("CUST-" + c));
+        smallAccepted.put(ticket.orderId(), System.nanoTime());
+      }
+    }
+    while (intake.inFlight() > 0) {
+      Thread.sleep(1);
+    }
+    intake.shutdown();
+
+    List<Double> latencies = new ArrayList<>();
+    smallAccepted.forEach((id, accepted) -> latencies.add((completedAt.get(id) - accepted) / 1e6));
+    latencies.sort(null);
+    double p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+    double burstMillis = (completedAt.get(lastBurst) - start) / 1e6;
+    return new double[] { p99, burstMillis };
+  }
+
+  private static void best(double[] best, double[] run) {
+    if (run[0] < best[0]) {
+      best[0] = run[0];
+      best[1] = run[1];
+    }
+  }
+
+  private OrderService slowService() {
+    OrderService service = mock(OrderService.class, withSettings().stubOnly());
+    AtomicLong ids = new AtomicLong();
+    when(service.accept(any())).thenAnswer(inv -> ((Order) inv.getArgument(0))
+        .withOrderId("ORD-" + ids.incrementAndGet()));
+    when(service.reserve(any())).thenAnswer(inv -> {
+      Thread.sleep(DOWNSTREAM_MILLIS);
+      return "reserved";
+    });
+    when(service.authorize(any(), anyString())).thenAnswer(inv -> {
+      Thread.sleep(DOWNSTREAM_MILLIS);
+      return new OrderCreationResult(inv.getArgument(0), "reserved", null, null);
+    });
+    doAnswer(inv -> {
+      Thread.sleep(DOWNSTREAM_MILLIS);
+      completedAt.put(((OrderCreationResult) inv.getArgument(0)).order().getOrderId(), System.nanoTime());
+      return null;
+    }).when(service).publish(any());
+    return service;
+  }
+
+  private static Order order(String customerId) {
+    Order template = OrderMocks.electronicsOrder();
+    return Order.builder()
+        .customer(Customer.builder().customerId(customerId).prename("Fair").name("Share").build())
+        .shippingAddress(template.getShippingAddress())
+        .items(template.getItems())
+        .build();
+  }
+}
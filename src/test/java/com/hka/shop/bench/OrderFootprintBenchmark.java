@@ -0,0 +1,62 @@
+package com.hka.shop.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.store.OrderStore;
+import com.hka.oms.store.OrderStoreProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap retained by the order store versus a plain map of {@link Order}s.
+ * Run with {@code mvn test -Pbench -Dtest=OrderFootprintBenchmark}.
+ */
+@Tag("benchmark")
+class OrderFootprintBenchmark {
+
+  private static final int ORDERS = 100_000;
+  private static final int CUSTOMERS = 10_000;
+
+  @Test
+  void compactStoreRetainsLessHeapThanPlainOrders() {
+    Map<String, Order> plain = new ConcurrentHashMap<>();
+    OrderStore compact = new OrderStore(new SimpleMeterRegistry(), new OrderStoreProperties(false, null, 0));
+    for (int i = 0; i < ORDERS; i++) {
+      Order order = BenchOrders.order(i, CUSTOMERS, OrderStatus.PAID);
+      plain.put(order.getOrderId(), order);
+      compact.put(order);
+    }
+
+    long plainBytes = GraphLayout.parseInstance(plain).totalSize();
+    long compactBytes = GraphLayout.parseInstance(compact).totalSize();
+    System.out.printf("orders=%d plain=%d B (%d B/order) compact=%d B (%d B/order) ratio=%.2fx%n",
+        ORDERS, plainBytes, plainBytes / ORDERS, compactBytes, compactBytes / ORDERS,
+        (double) plainBytes / compactBytes);
+    assertTrue(compactBytes < plainBytes, "compact store must retain less heap");
+  }
+
+  @Test
+  void terminalOrdersMoveOffHeap() {
+    OrderStore heapOnly = new OrderStore(new SimpleMeterRegistry(), new OrderStoreProperties(false, null, 0));
+    OrderStore tiered = new OrderStore(new SimpleMeterRegistry(), new OrderStoreProperties(true, null, 1_000));
+    for (int i = 0; i < ORDERS; i++) {
+      Order delivered = BenchOrders.order(i, CUSTOMERS, OrderStatus.PAID).withStatus(OrderStatus.DELIVERED);
+      heapOnly.put(delivered);
+      tiered.put(delivered);
+    }
+
+    long heapOnlyBytes = GraphLayout.parseInstance(heapOnly).totalSize();
+    long tieredBytes = GraphLayout.parseInstance(tiered).totalSize();
+    System.out.printf("delivered orders=%d heap-only=%d B (%d B/order) off-heap tier=%d B heap (%d B/order)%n",
+        ORDERS, heapOnlyBytes, heapOnlyBytes / ORDERS, tieredBytes, tieredBytes / ORDERS);
+    assertTrue(tieredBytes < heapOnlyBytes, "off-heap tier must retain less heap");
+  }
+}
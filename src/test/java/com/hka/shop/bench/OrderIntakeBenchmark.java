@@ -0,0 +1,142 @@
+package com.hka.shop.bench;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.fairness.FairShareProperties;
+import com.hka.oms.intake.IntakeProperties;
+import com.hka.oms.intake.OrderIntake;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.service.OrderService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Order intake throughput with slow downstreams (inventory, payment, WMS),
+ * synchronous create against the async intake. The async run reports how
+ * fast orders are accepted separately from how long they take to complete.
+ * Run with {@code mvn test -Pbench -Dtest=OrderIntakeBenchmark}.
+ */
+@Tag("benchmark")
+class OrderIntakeBenchmark {
+
+  private static final int CLIENTS = 16;
+  private static final int ORDERS = 2_000;
+  private static final int TRIALS = 3;
+  private static final long RESERVE_MILLIS = 3;
+  private static final long AUTHORIZE_MILLIS = 5;
+  private static final long PUBLISH_MILLIS = 2;
+
+  @Test
+  void asyncIntakeAgainstSynchronousCreate() throws Exception {
+    OrderService service = slowService();
+    double bestSync = 0;
+    double bestIntake = 0;
+    double completionMillis = 0;
+    double meanMillis = 0;
+    double maxMillis = 0;
+    for (int trial = 0; trial < TRIALS; trial++) {
+      bestSync = Math.max(bestSync, run(service::create));
+
+      SimpleMeterRegistry registry = new SimpleMeterRegistry();
+      OrderIntake intake = new OrderIntake(service,
+          new IntakeProperties(true, true, ORDERS, 16, 16, 8, null, null, Duration.ofMinutes(1)),
+          new FairScheduler(new FairShareProperties(false, 0, 0, 0, null), registry), registry);
+      intake.start();
+      long start = System.nanoTime();
+      double accepted = run(intake::submit);
+      while (intake.inFlight() > 0) {
+        Thread.sleep(1);
+      }
+      double completion = (System.nanoTime() - start) / 1e6;
+      intake.shutdown();
+      if (accepted > bestIntake) {
+        bestIntake = accepted;
+        completionMillis = completion;
+        Timer latency = registry.get("orders.intake.latency").timer();
+        meanMillis = latency.mean(TimeUnit.MILLISECONDS);
+        maxMillis = latency.max(TimeUnit.MILLISECONDS);
+      }
+    }
+
+    System.out.printf("%d orders, %d clients, downstream %d+%d+%d ms%n",
+        ORDERS, CLIENTS, RESERVE_MILLIS, AUTHORIZE_MILLIS, PUBLISH_MILLIS);
+    System.out.printf("sync create:  %,10.0f orders/s%n", bestSync);
+    System.out.printf("async intake: %,10.0f orders/s accepted (%.1fx)%n", bestIntake, bestIntake / bestSync);
+    System.out.printf("async drain:  all completed after %.0f ms, accept->completed mean %.0f ms max %.0f ms%n",
+        completionMillis, meanMillis, maxMillis);
+    assertTrue(bestIntake > bestSync, "accepting must not wait for downstream calls");
+  }
+
+  private static double run(Submitter submitter) throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+    AtomicLong next = new AtomicLong();
+    Order template = OrderMocks.electronicsOrder();
+    long start = System.nanoTime();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int c = 0; c < CLIENTS; c++) {
+      futures.add(clients.submit(() -> {
+        while (next.getAndIncrement() < ORDERS) {
+          submitter.submit(template);
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    clients.shutdown();
+    return ORDERS / seconds;
+  }
+
+  private static OrderService slowService() {
+    OrderService service = mock(OrderService.class, withSettings().stubOnly());
+    AtomicLong ids = new AtomicLong();
+    when(service.accept(any())).thenAnswer(inv -> ((Order) inv.getArgument(0))
+        .withOrderId("ORD-" + ids.incrementAndGet()));
+    when(service.reserve(any())).thenAnswer(inv -> {
+      Thread.sleep(RESERVE_MILLIS);
+      return "reserved";
+    });
+    when(service.authorize(any(), anyString())).thenAnswer(inv -> {
+      Thread.sleep(AUTHORIZE_MILLIS);
+      return new OrderCreationResult(inv.getArgument(0), "reserved", null, null);
+    });
+    doAnswer(inv -> {
+      Thread.sleep(PUBLISH_MILLIS);
+      return null;
+    }).when(service).publish(any());
+    when(service.create(any())).thenAnswer(inv -> {
+      Order order = service.accept(inv.getArgument(0));
+      OrderCreationResult result = service.authorize(order, service.reserve(order));
+      service.publish(result);
+      return result;
+    });
+    return service;
+  }
+
+  private interface Submitter {
+    Object submit(Order order);
+  }
+}
@@ -0,0 +1,122 @@
+package com.hka.shop.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.json.DomainJsonModule;
+import com.hka.oms.payment.dto.PaymentResponse;
+import com.hka.oms.payment.dto.PaymentStatus;
+import com.hka.oms.service.OrderCreationResult;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Order (de)serialization throughput with the builder binding versus the
+ * streaming {@link DomainJsonModule}.
+ * Run with {@code mvn test -Pbench -Dtest=OrderJsonBenchmark}.
+ */
+@Tag("benchmark")
+class OrderJsonBenchmark {
+
+  private static final int ORDERS = 1_000;
+  private static final int CUSTOMERS = 5_000;
+  private static final int WARMUP_ROUNDS = 100;
+  private static final int ROUNDS = 200;
+  private static final int TRIALS = 5;
+
+  private final ObjectMapper reference = new ObjectMapper().registerModule(new JavaTimeModule());
+  private final ObjectMapper fast = reference.copy().registerModule(new DomainJsonModule());
+
+  @Test
+  void streamingModuleAgainstBeanBinding() throws Exception {
+    Order[] orders = new Order[ORDERS];
+    OrderCreationResult[] results = new OrderCreationResult[ORDERS];
+    byte[][] json = new byte[ORDERS][];
+    for (int i = 0; i < ORDERS; i++) {
+      orders[i] = BenchOrders.order(i, CUSTOMERS, OrderStatus.PAID, i % 4);
+      results[i] = new OrderCreationResult(orders[i], "Reservation successful",
+          new PaymentResponse(orders[i].getOrderId(), orders[i].getTotalAmount(), "EUR", "CARD",
+              PaymentStatus.AUTHORIZED, Instant.parse("2024-10-01T12:00:00Z"), null), null);
+      json[i] = reference.writeValueAsBytes(orders[i]);
+    }
+
+    ObjectReader builderReader = reference.readerFor(Order.class);
+    ObjectReader fastReader = fast.readerFor(Order.class);
+    ObjectWriter beanWriter = reference.writerFor(Order.class);
+    ObjectWriter fastWriter = fast.writerFor(Order.class);
+    ObjectWriter beanResultWriter = reference.writerFor(OrderCreationResult.class);
+    ObjectWriter fastResultWriter = fast.writerFor(OrderCreationResult.class);
+    // alternate the contenders and keep each one's best trial to damp JIT and GC noise
+    double readBuilder = 0;
+    double readFast = 0;
+    double writeBean = 0;
+    double writeFast = 0;
+    double resultBean = 0;
+    double resultFast = 0;
+    for (int trial = 0; trial < TRIALS; trial++) {
+      readBuilder = Math.max(readBuilder, read(builderReader, json));
+      readFast = Math.max(readFast, read(fastReader, json));
+      writeBean = Math.max(writeBean, write(beanWriter, orders));
+      writeFast = Math.max(writeFast, write(fastWriter, orders));
+      resultBean = Math.max(resultBean, write(beanResultWriter, results));
+      resultFast = Math.max(resultFast, write(fastResultWriter, results));
+    }
+
+    System.out.printf("read Order:               builder=%,.0f ops/s streaming=%,.0f ops/s (%.2fx)%n",
+        readBuilder, readFast, readFast / readBuilder);
+    System.out.printf("write Order:              bean=%,.0f ops/s streaming=%,.0f ops/s (%.2fx)%n",
+        writeBean, writeFast, writeFast / writeBean);
+    System.out.printf("write OrderCreationResult: bean=%,.0f ops/s streaming=%,.0f ops/s (%.2fx)%n",
+        resultBean, resultFast, resultFast / resultBean);
+    // reads are dominated by tokenizing, so only the write side has a margin large enough to assert on
+    assertTrue(writeFast > writeBean, "streaming write must beat the bean serializer");
+  }
+
+  private static double read(ObjectReader reader, byte[][] json) throws Exception {
+    long sink = 0;
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      for (byte[] bytes : json) {
+        sink += reader.<Order>readValue(bytes).getVersion();
+      }
+    }
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      for (byte[] bytes : json) {
+        sink += reader.<Order>readValue(bytes).getVersion();
+      }
+    }
+    return opsPerSecond(start, sink);
+  }
+
+  private static double write(ObjectWriter writer, Object[] values) throws Exception {
+    long sink = 0;
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      for (Object value : values) {
+        sink += writer.writeValueAsBytes(value).length;
+      }
+    }
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      for (Object value : values) {
+        sink += writer.writeValueAsBytes(value).length;
+      }
+    }
+    return opsPerSecond(start, sink);
+  }
+
+  private static double opsPerSecond(long start, long sink) {
+    double seconds = (System.nanoTime() - start) / 1e9;
+    if (sink == 42) {
+      System.out.print("");
+    }
+    return (double) ORDERS * ROUNDS / seconds;
+  }
+}
@@ -0,0 +1,181 @@
+package com.hka.shop.bench;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.logging.LoggingProperties;
+import com.hka.oms.logging.PayloadSampler;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Caller-side cost of per-order logging against a slow sink (50 us per
+ * flush): synchronous INFO lines with every payload, the same volume through
+ * the bounded lossy async queue, and the async-logging mode with stage lines
+ * at DEBUG and 1% payload sampling.
+ * Run with {@code mvn test -Pbench -Dtest=OrderLoggingBenchmark}.
+ */
+@Tag("benchmark")
+class OrderLoggingBenchmark {
+
+  private static final int THREADS = 8;
+  private static final int ORDERS_PER_THREAD = 2_000;
+  private static final int TRIALS = 3;
+  private static final String[] STAGES = { "availability", "reserve", "authorize", "persist" };
+
+  @Test
+  void asyncSampledAgainstSynchronousLogging() throws Exception {
+    String payload = new ObjectMapper().findAndRegisterModules().writeValueAsString(OrderMocks.electronicsOrder());
+    Result sync = null;
+    Result asyncFull = null;
+    Result asyncSampled = null;
+    for (int trial = 0; trial < TRIALS; trial++) {
+      sync = Result.best(sync, run(false, false, payload));
+      asyncFull = Result.best(asyncFull, run(true, false, payload));
+      asyncSampled = Result.best(asyncSampled, run(true, true, payload));
+    }
+
+    int expected = THREADS * ORDERS_PER_THREAD * (STAGES.length + 1);
+    System.out.printf("%d threads x %d orders, %d INFO lines + payload per order (%,d events)%n",
+        THREADS, ORDERS_PER_THREAD, STAGES.length, expected);
+    sync.print("sync, full");
+    asyncFull.print("async, full");
+    asyncSampled.print("async, sampled");
+    assertTrue(asyncSampled.ordersPerSecond > sync.ordersPerSecond * 2,
+        "async sampled logging must take logging off the order path");
+  }
+
+  private static Result run(boolean async, boolean sampled, String payload) throws InterruptedException {
+    SlowSink sink = new SlowSink();
+    LoggerContext context = new LoggerContext();
+    context.setMDCAdapter(new LogbackMDCAdapter());
+    Logger logger = async ? asyncLogger(context, sink) : syncLogger(context, sink);
+    PayloadSampler sampler = new PayloadSampler(new LoggingProperties(sampled ? 0.01 : 1.0));
+    List<Thread> threads = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+          String orderId = "ORD-" + thread + "-" + i;
+          for (String stage : STAGES) {
+            if (sampled) {
+              // the per-stage lines moved to DEBUG
+              logger.atDebug()
+                  .addKeyValue("orderId", orderId)
+                  .addKeyValue("durationMs", 1.5)
+                  .log("stage {} completed", stage);
+            } else {
+              logger.info("Stage {} for order {}", stage, orderId);
+            }
+          }
+          if (sampler.sample()) {
+            logger.info("Sent order-created payload for {}: {}", orderId, payload);
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    context.stop();
+    return new Result(THREADS * ORDERS_PER_THREAD / seconds, sink.lines.get(), sink.bytes.get());
+  }
+
+  private static Logger syncLogger(LoggerContext context, SlowSink sink) {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%d %5p [%t] %logger{36} : %m%n");
+    encoder.start();
+    return logger(context, appender(context, sink, encoder));
+  }
+
+  private static Logger asyncLogger(LoggerContext context, SlowSink sink) {
+    JsonEncoder encoder = new JsonEncoder();
+    encoder.setContext(context);
+    encoder.setWithArguments(false);
+    encoder.setWithMessage(false);
+    encoder.start();
+    AsyncAppender async = new AsyncAppender();
+    async.setContext(context);
+    async.setQueueSize(8192);
+    async.setNeverBlock(true);
+    async.addAppender(appender(context, sink, encoder));
+    async.start();
+    return logger(context, async);
+  }
+
+  private static OutputStreamAppender<ILoggingEvent> appender(LoggerContext context, OutputStream out,
+                                                             Encoder<ILoggingEvent> encoder) {
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    appender.setOutputStream(out);
+    appender.start();
+    return appender;
+  }
+
+  private static Logger logger(LoggerContext context, Appender<ILoggingEvent> appender) {
+    Logger logger = context.getLogger("bench");
+    logger.setLevel(Level.INFO);
+    logger.setAdditive(false);
+    logger.addAppender(appender);
+    return logger;
+  }
+
+  private record Result(double ordersPerSecond, long lines, long bytes) {
+    static Result best(Result current, Result candidate) {
+      return current == null || candidate.ordersPerSecond > current.ordersPerSecond ? candidate : current;
+    }
+
+    void print(String label) {
+      System.out.printf("%-15s %,10.0f orders/s, %,8d lines written, %,12d bytes%n",
+          label + ":", ordersPerSecond, lines, bytes);
+    }
+  }
+
+  private static final class SlowSink extends OutputStream {
+    final AtomicLong lines = new AtomicLong();
+    final AtomicLong bytes = new AtomicLong();
+
+    @Override
+    public void write(int b) {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes.addAndGet(len);
+      for (int i = off; i < off + len; i++) {
+        if (b[i] == '\n') {
+          lines.incrementAndGet();
+        }
+      }
+    }
+
+    @Override
+    public void flush() {
+      LockSupport.parkNanos(50_000);
+    }
+  }
+}
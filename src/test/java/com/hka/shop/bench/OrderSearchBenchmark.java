@@ -0,0 +1,56 @@
+package com.hka.shop.bench;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.search.OrderSearchIndex;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lookup latency of the search index for typical support queries.
+ * Run with {@code mvn test -Pbench -Dtest=OrderSearchBenchmark}.
+ */
+@Tag("benchmark")
+class OrderSearchBenchmark {
+
+  private static final int ORDERS = 300_000;
+  private static final int CUSTOMERS = 50_000;
+  private static final String[] SELECTIVE = {
+      "name4711", "prename4711 name4711", "76012", "prd-1234", "karlsruhe name4711"
+  };
+  private static final String[] BROAD = { "heidelberg street 42", "ka" };
+  private static final int ROUNDS = 2_000;
+
+  @Test
+  void selectiveLookupsStaySubMillisecond() {
+    OrderSearchIndex index = new OrderSearchIndex();
+    for (int i = 0; i < ORDERS; i++) {
+      index.onOrderChanged(null, BenchOrders.order(i, CUSTOMERS, OrderStatus.PAID));
+    }
+
+    for (String query : SELECTIVE) {
+      double micros = measure(index, query);
+      assertTrue(micros < 1_000, query + " took " + micros + " us");
+    }
+    // broad prefixes scale with their hit count, reported for reference only
+    for (String query : BROAD) {
+      measure(index, query);
+    }
+  }
+
+  private static double measure(OrderSearchIndex index, String query) {
+    for (int i = 0; i < ROUNDS; i++) {
+      index.find(query, 20);
+    }
+    long start = System.nanoTime();
+    long hits = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      hits = index.find(query, 20).total();
+    }
+    double micros = (System.nanoTime() - start) / 1_000.0 / ROUNDS;
+    System.out.printf("orders=%d query=\"%s\" hits=%d avg=%.1f us%n", ORDERS, query, hits, micros);
+    return micros;
+  }
+}
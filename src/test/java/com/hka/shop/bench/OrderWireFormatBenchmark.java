@@ -0,0 +1,140 @@
+package com.hka.shop.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import oms.Orders;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.json.DomainJsonModule;
+import com.hka.oms.wire.OrderProtos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Request size and (de)serialization cost of the JSON and protobuf
+ * representations of an order, with and without gzip.
+ * Run with {@code mvn test -Pbench -Dtest=OrderWireFormatBenchmark}.
+ */
+@Tag("benchmark")
+class OrderWireFormatBenchmark {
+
+  private static final int ORDERS = 1_000;
+  private static final int CUSTOMERS = 5_000;
+  private static final int WARMUP_ROUNDS = 100;
+  private static final int ROUNDS = 200;
+  private static final int TRIALS = 5;
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .registerModule(new JavaTimeModule())
+      .registerModule(new DomainJsonModule());
+
+  @Test
+  void protobufAgainstJson() throws Exception {
+    Order[] orders = new Order[ORDERS];
+    byte[][] json = new byte[ORDERS][];
+    byte[][] proto = new byte[ORDERS][];
+    long jsonBytes = 0;
+    long protoBytes = 0;
+    long jsonGzipBytes = 0;
+    long protoGzipBytes = 0;
+    for (int i = 0; i < ORDERS; i++) {
+      orders[i] = BenchOrders.order(i, CUSTOMERS, OrderStatus.PAID, i % 4);
+      json[i] = mapper.writeValueAsBytes(orders[i]);
+      proto[i] = OrderProtos.toProto(orders[i]).toByteArray();
+      jsonBytes += json[i].length;
+      protoBytes += proto[i].length;
+      jsonGzipBytes += gzip(json[i]);
+      protoGzipBytes += gzip(proto[i]);
+    }
+    long jsonListGzip = gzip(mapper.writeValueAsBytes(Arrays.asList(orders)));
+    long protoListGzip = gzip(OrderProtos.toProto(Arrays.asList(orders)).toByteArray());
+
+    ObjectWriter writer = mapper.writerFor(Order.class);
+    ObjectReader reader = mapper.readerFor(Order.class);
+    double jsonWrite = 0;
+    double protoWrite = 0;
+    double jsonRead = 0;
+    double protoRead = 0;
+    // alternate the contenders and keep each one's best trial to damp JIT and GC noise
+    for (int trial = 0; trial < TRIALS; trial++) {
+      jsonWrite = Math.max(jsonWrite, measure(() -> {
+        long sink = 0;
+        for (Order order : orders) {
+          sink += writer.writeValueAsBytes(order).length;
+        }
+        return sink;
+      }));
+      protoWrite = Math.max(protoWrite, measure(() -> {
+        long sink = 0;
+        for (Order order : orders) {
+          sink += OrderProtos.toProto(order).toByteArray().length;
+        }
+        return sink;
+      }));
+      jsonRead = Math.max(jsonRead, measure(() -> {
+        long sink = 0;
+        for (byte[] bytes : json) {
+          sink += reader.<Order>readValue(bytes).getVersion();
+        }
+        return sink;
+      }));
+      protoRead = Math.max(protoRead, measure(() -> {
+        long sink = 0;
+        for (byte[] bytes : proto) {
+          sink += OrderProtos.fromProto(Orders.Order.parseFrom(bytes)).getVersion();
+        }
+        return sink;
+      }));
+    }
+
+    System.out.printf("size per order:    json=%d B  protobuf=%d B (%.2fx)%n",
+        jsonBytes / ORDERS, protoBytes / ORDERS, (double) jsonBytes / protoBytes);
+    System.out.printf("gzip per order:    json=%d B  protobuf=%d B (%.2fx)%n",
+        jsonGzipBytes / ORDERS, protoGzipBytes / ORDERS, (double) jsonGzipBytes / protoGzipBytes);
+    System.out.printf("gzip %d-order list: json=%,d B  protobuf=%,d B (%.2fx)%n",
+        ORDERS, jsonListGzip, protoListGzip, (double) jsonListGzip / protoListGzip);
+    System.out.printf("write Order:       json=%,.0f ops/s protobuf=%,.0f ops/s (%.2fx)%n",
+        jsonWrite, protoWrite, protoWrite / jsonWrite);
+    System.out.printf("read Order:        json=%,.0f ops/s protobuf=%,.0f ops/s (%.2fx)%n",
+        jsonRead, protoRead, protoRead / jsonRead);
+    assertTrue(protoBytes < jsonBytes, "protobuf must be smaller than JSON");
+  }
+
+  private interface Round {
+    long run() throws Exception;
+  }
+
+  private static double measure(Round round) throws Exception {
+    long sink = 0;
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      sink += round.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      sink += round.run();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    if (sink == 42) {
+      System.out.print("");
+    }
+    return (double) ORDERS * ROUNDS / seconds;
+  }
+
+  private static long gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.size();
+  }
+}
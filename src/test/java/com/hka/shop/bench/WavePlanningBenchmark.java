@@ -0,0 +1,89 @@
+package com.hka.shop.bench;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.wms.Wave;
+import com.hka.oms.wms.WavePlanner;
+import com.hka.oms.wms.WaveProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * WMS round trips and pick stops for one peak window of paid orders,
+ * per-order fulfillment against wave planning.
+ * Run with {@code mvn test -Pbench -Dtest=WavePlanningBenchmark}.
+ */
+@Tag("benchmark")
+class WavePlanningBenchmark {
+
+  private static final int ORDERS = 500;
+  private static final int PRODUCTS = 2_000;
+  private static final int CALLS_PER_ORCHESTRATION = 5;
+  private static final int ROUNDS = 50;
+
+  @Test
+  void wavesAgainstPerOrderFulfillment() {
+    SplittableRandom random = new SplittableRandom(42);
+    List<Order> orders = new ArrayList<>();
+    for (int i = 0; i < ORDERS; i++) {
+      orders.add(order(i, random));
+    }
+    WavePlanner planner = new WavePlanner(new WaveProperties(true, Duration.ofSeconds(2), ORDERS, 50, 8, 100,
+        Map.of("DE", "DHL", "AT", "DHL", "CH", "Swiss Post"), "DHL", 3, null));
+
+    List<Wave> waves = planner.plan(orders);
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      waves = planner.plan(orders);
+    }
+    double planMillis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+
+    int perOrderStops = waves.stream().mapToInt(Wave::perOrderStops).sum();
+    int waveStops = waves.stream().mapToInt(wave -> wave.pickList().size()).sum();
+    double perOrderCalls = CALLS_PER_ORCHESTRATION;
+    double waveCalls = (double) CALLS_PER_ORCHESTRATION * waves.size() / ORDERS;
+
+    System.out.printf("%d orders -> %d waves, planned in %.2f ms%n", ORDERS, waves.size(), planMillis);
+    System.out.printf("WMS calls per order: per-order=%.2f wave=%.3f (%.0fx fewer)%n",
+        perOrderCalls, waveCalls, perOrderCalls / waveCalls);
+    System.out.printf("pick stops:          per-order=%d wave=%d (%.2fx fewer)%n",
+        perOrderStops, waveStops, (double) perOrderStops / waveStops);
+    assertTrue(waveCalls < perOrderCalls / 5, "waves must cut WMS round trips per order");
+    assertTrue(waveStops < perOrderStops, "waves must share pick stops");
+  }
+
+  private static Order order(int i, SplittableRandom random) {
+    String[] countries = { "DE", "DE", "DE", "AT", "CH" };
+    Order.Builder builder = Order.builder()
+        .orderId(String.format("ORD-%06d", i))
+        .customer(Customer.builder().customerId("CUST-" + i % 5_000).prename("Peak").name("Load").build())
+        .shippingAddress(ShippingAddress.builder()
+            .street("Kaiserstrasse " + i % 200)
+            .city("Karlsruhe")
+            .zipCode("76131")
+            .country(countries[i % countries.length])
+            .build());
+    for (int item = 0; item < 1 + random.nextInt(4); item++) {
+      // skewed popularity: a few best sellers dominate peak traffic
+      int product = (int) Math.floor(Math.pow(random.nextDouble(), 3) * PRODUCTS);
+      builder.addItem(OrderItem.builder()
+          .productId("PRD-" + product)
+          .quantity(1 + random.nextInt(2))
+          .price(new BigDecimal("9.99"))
+          .build());
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,301 @@
+package com.hka.shop.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import inventory.Inventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import com.hka.oms.analytics.HotSkuTracker;
+import com.hka.oms.bulk.BulkImportProperties;
+import com.hka.oms.bulk.BulkImporter;
+import com.hka.oms.bulk.ImportException;
+import com.hka.oms.bulk.ImportRequest;
+import com.hka.oms.bulk.ImportStatus;
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.cluster.ClusterProperties;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.fairness.FairShareProperties;
+import com.hka.oms.inventory.InventoryClient;
+import com.hka.oms.inventory.ReservationReleaseQueue;
+import com.hka.oms.publisher.WmsPublisher;
+import com.hka.oms.payment.PaymentClient;
+import com.hka.oms.payment.PaymentProperties;
+import com.hka.oms.service.OrderService;
+import com.hka.oms.service.OrderValidator;
+import com.hka.oms.store.OrderStore;
+import com.hka.oms.store.OrderStoreProperties;
+import com.hka.oms.tracing.OrderTracing;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkImporterTest {
+
+  @TempDir
+  Path dir;
+
+  private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+  private final List<BulkImporter> importers = new ArrayList<>();
+
+  @AfterEach
+  void shutdown() {
+    importers.forEach(BulkImporter::shutdown);
+  }
+
+  @Test
+  void importsHistoricalNdjsonAndRejectsBrokenLines() throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (Order order : OrderMocks.sampleOrders()) {
+      lines.add(mapper.writeValueAsString(order));
+    }
+    lines.add("{not json");
+    lines.add(mapper.writeValueAsString(OrderMocks.sampleOrders().get(0)));
+    Path file = write("orders.ndjson", lines);
+
+    OrderStore store = newStore();
+    ImportStatus status = await(newImporter(store, 64), file);
+
+    assertEquals("COMPLETED", status.state());
+    assertEquals(3, status.imported());
+    assertEquals(1, status.duplicates());
+    assertEquals(1, status.rejected());
+    assertEquals(Files.size(file), status.committedBytes());
+    assertEquals(OrderStatus.SHIPPED, store.get("ORD-1002").getStatus());
+  }
+
+  @Test
+  void importsCsvWithHeaderAndQuotedFields() throws Exception {
+    Path file = write("orders.csv", List.of(
+        "orderId,customerId,prename,name,street,city,zipCode,country,status,totalAmount,items",
+        "ORD-CSV-1,CUST-9,Ada,\"Lovelace, Countess\",Kaiserstrasse 12,Karlsruhe,76133,DE,DELIVERED,,PRD-1:2:4.50|PRD-2:1:1.00",
+        "ORD-CSV-2,CUST-9,Ada,Lovelace,,,,,,,PRD-1:1:4.50",
+        "ORD-CSV-3,CUST-9,Ada,Lovelace,,,,,,99.00,PRD-1:1:4.50"));
+
+    OrderStore store = newStore();
+    ImportStatus status = await(newImporter(store, 64), file);
+
+    assertEquals(2, status.imported());
+    assertEquals(1, status.rejected());
+    Order first = store.get("ORD-CSV-1");
+    assertEquals("Lovelace, Countess", first.getCustomer().getName());
+    assertEquals(OrderStatus.DELIVERED, first.getStatus());
+    assertEquals(0, new BigDecimal("10.00").compareTo(first.getTotalAmount()));
+    assertNull(store.get("ORD-CSV-2").getShippingAddress());
+  }
+
+  @Test
+  void finishedCheckpointIsNotImportedAgain() throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (Order order : OrderMocks.sampleOrders()) {
+      lines.add(mapper.writeValueAsString(order));
+    }
+    Path file = write("orders.ndjson", lines);
+    ImportStatus first = await(newImporter(newStore(), 64), file);
+
+    OrderStore restarted = newStore();
+    BulkImporter importer = newImporter(restarted, 64);
+    importer.resumeInterrupted();
+    ImportStatus again = importer.start(new ImportRequest(file.toString(), null, true));
+
+    assertEquals(first.id(), again.id());
+    assertEquals("COMPLETED", again.state());
+    assertEquals(3, again.imported());
+    assertNull(restarted.get("ORD-1001"));
+  }
+
+  @Test
+  void historicalImportCountsOrdersThePeerAlreadyHolds() throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (Order order : OrderMocks.sampleOrders()) {
+      lines.add(mapper.writeValueAsString(order));
+    }
+    Path file = write("orders.ndjson", lines);
+    ClusterMembership membership = new ClusterMembership(
+        new ClusterProperties("http://a", List.of("http://a", "http://b"), 0, "secret", null));
+    long remote = OrderMocks.sampleOrders().stream()
+        .filter(order -> !membership.isLocal(order.getOrderId()))
+        .count();
+    assertNotEquals(0, remote);
+    ClusterClient clusterClient = mock(ClusterClient.class);
+    when(clusterClient.importOrders(eq("http://b"), any())).thenReturn(0);
+    OrderStore store = newStore();
+    OrderValidator validator = new OrderValidator();
+    OrderService service = new OrderService(mock(InventoryClient.class), mock(ReservationReleaseQueue.class),
+        mock(PaymentClient.class), mock(WmsPublisher.class), membership, List.of(), store,
+        mock(OrderTracing.class), mock(HotSkuTracker.class), validator, mock(FairScheduler.class));
+    BulkImporter importer = new BulkImporter(service, validator, membership, clusterClient, mapper,
+        new BulkImportProperties(dir.toString(), dir.resolve("checkpoints").toString(), DataSize.ofBytes(4096), 2, 1));
+    importers.add(importer);
+
+    ImportStatus status = await(importer, file);
+
+    assertEquals(3 - remote, status.imported());
+    assertEquals(remote, status.duplicates());
+    assertEquals(3 - remote, store.size());
+  }
+
+  @Test
+  void liveImportWaitsForTheCustomersFairShare() throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      lines.add(mapper.writeValueAsString(OrderMocks.electronicsOrder()));
+    }
+    Path file = write("live.ndjson", lines);
+    InventoryClient inventory = mock(InventoryClient.class);
+    when(inventory.checkAvailability(any())).thenReturn(true);
+    when(inventory.reserveItems(any())).thenAnswer(inv -> {
+      Thread.sleep(20);
+      return Inventory.ReserveItemsResponse.newBuilder().setSuccess(true).setMessage("ok").build();
+    });
+    FairScheduler fairness = new FairScheduler(new FairShareProperties(true, 1, 1, 0, null),
+        new SimpleMeterRegistry());
+    OrderStore store = newStore();
+    BulkImporter importer = newLiveImporter(store, inventory, fairness, 256, 4);
+
+    ImportStatus status = await(importer, file, false);
+
+    assertEquals("COMPLETED", status.state());
+    assertEquals(12, status.imported());
+    assertEquals(0, status.rejected());
+    assertEquals(12, store.size());
+    assertEquals(0, fairness.inFlight(FairScheduler.customerOf(OrderMocks.electronicsOrder())));
+  }
+
+  @Test
+  void resumedLiveImportDoesNotCreateLinesAgain() throws Exception {
+    List<String> lines = List.of(
+        mapper.writeValueAsString(OrderMocks.electronicsOrder()),
+        mapper.writeValueAsString(OrderMocks.groceryOrder()),
+        mapper.writeValueAsString(OrderMocks.electronicsOrder()));
+    Path file = write("live.ndjson", lines).toAbsolutePath().normalize();
+    long second = lines.get(0).length() + 1;
+    // crashed while the only chunk was in flight: line 1 was created, line 2 was being created
+    Path checkpoints = Files.createDirectories(dir.resolve("checkpoints"));
+    mapper.writeValue(checkpoints.resolve("crashed.json").toFile(), Map.ofEntries(
+        Map.entry("id", "crashed"), Map.entry("path", file.toString()), Map.entry("size", Files.size(file)),
+        Map.entry("lastModified", Files.getLastModifiedTime(file).toMillis()), Map.entry("format", "NDJSON"),
+        Map.entry("historical", false), Map.entry("offset", 0), Map.entry("imported", 0),
+        Map.entry("duplicates", 0), Map.entry("rejected", 0), Map.entry("done", false)));
+    Files.writeString(checkpoints.resolve("crashed.lines"), "S0\nD0\nS" + second + "\n");
+    InventoryClient inventory = mock(InventoryClient.class);
+    when(inventory.checkAvailability(any())).thenReturn(true);
+    when(inventory.reserveItems(any()))
+        .thenReturn(Inventory.ReserveItemsResponse.newBuilder().setSuccess(true).setMessage("ok").build());
+    OrderStore store = newStore();
+    BulkImporter importer = newLiveImporter(store, inventory, mock(FairScheduler.class), 4096, 1);
+
+    importer.resumeInterrupted();
+    ImportStatus status = importer.status("crashed");
+    long deadline = System.currentTimeMillis() + 10_000;
+    while ("RUNNING".equals(status.state()) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      status = importer.status("crashed");
+    }
+
+    assertEquals("COMPLETED", status.state());
+    assertEquals(2, status.imported());
+    assertEquals(1, status.rejected());
+    assertEquals(1, store.size());
+    verify(inventory, times(1)).reserveItems(any());
+    assertFalse(Files.exists(checkpoints.resolve("crashed.lines")));
+  }
+
+  @Test
+  void refusesFilesOutsideTheImportRoot(@TempDir Path outside) throws Exception {
+    Path secret = Files.writeString(outside.resolve("secret.ndjson"), "not an order\n");
+    Files.createSymbolicLink(dir.resolve("link.ndjson"), secret);
+    BulkImporter importer = newImporter(newStore(), 64);
+
+    for (String path : List.of(secret.toString(), "../" + outside.getFileName() + "/secret.ndjson", "link.ndjson")) {
+      ImportException ex = assertThrows(ImportException.class,
+          () -> importer.start(new ImportRequest(path, null, true)));
+      assertEquals(HttpStatus.FORBIDDEN, ex.getStatus(), path);
+    }
+    assertEquals(HttpStatus.BAD_REQUEST,
+        assertThrows(ImportException.class, () -> importer.start(new ImportRequest("missing.ndjson", null, true)))
+            .getStatus());
+
+    Path inside = write("inside.ndjson", List.of(mapper.writeValueAsString(OrderMocks.groceryOrder())));
+    assertEquals(1, await(importer, dir.relativize(inside)).imported());
+  }
+
+  private ImportStatus await(BulkImporter importer, Path file) throws InterruptedException {
+    return await(importer, file, true);
+  }
+
+  private ImportStatus await(BulkImporter importer, Path file, boolean historical) throws InterruptedException {
+    ImportStatus status = importer.start(new ImportRequest(file.toString(), null, historical));
+    long deadline = System.currentTimeMillis() + 10_000;
+    while ("RUNNING".equals(status.state()) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      status = importer.status(status.id());
+    }
+    assertNotEquals("FAILED", status.state(), status.errors().toString());
+    return status;
+  }
+
+  private BulkImporter newImporter(OrderStore store, int chunkBytes) {
+    OrderValidator validator = new OrderValidator();
+    ClusterMembership membership = new ClusterMembership(new ClusterProperties(null, null, 0, null, null));
+    OrderService service = new OrderService(mock(InventoryClient.class), mock(ReservationReleaseQueue.class),
+        mock(PaymentClient.class), mock(WmsPublisher.class), membership, List.of(), store,
+        mock(OrderTracing.class), mock(HotSkuTracker.class), validator, mock(FairScheduler.class));
+    BulkImporter importer = new BulkImporter(service, validator, membership, mock(ClusterClient.class), mapper,
+        new BulkImportProperties(dir.toString(), dir.resolve("checkpoints").toString(), DataSize.ofBytes(chunkBytes),
+            2, 2));
+    importers.add(importer);
+    return importer;
+  }
+
+  private BulkImporter newLiveImporter(OrderStore store, InventoryClient inventory, FairScheduler fairness,
+                                       int chunkBytes, int parallelism) {
+    PaymentClient payment = mock(PaymentClient.class);
+    when(payment.properties()).thenReturn(new PaymentProperties("http://payment", "EUR", "CARD"));
+    OrderValidator validator = new OrderValidator();
+    ClusterMembership membership = new ClusterMembership(new ClusterProperties(null, null, 0, null, null));
+    OrderService service = new OrderService(inventory, mock(ReservationReleaseQueue.class), payment,
+        mock(WmsPublisher.class), membership, List.of(), store,
+        new OrderTracing(OpenTelemetry.noop().getTracer("test")), mock(HotSkuTracker.class), validator,
+        fairness);
+    BulkImporter importer = new BulkImporter(service, validator, membership, mock(ClusterClient.class), mapper,
+        new BulkImportProperties(dir.toString(), dir.resolve("checkpoints").toString(), DataSize.ofBytes(chunkBytes),
+            2, parallelism));
+    importers.add(importer);
+    return importer;
+  }
+
+  private static OrderStore newStore() {
+    return new OrderStore(new SimpleMeterRegistry(), new OrderStoreProperties(false, null, 0));
+  }
+
+  private Path write(String name, List<String> lines) throws IOException {
+    return Files.write(dir.resolve(name), lines, StandardCharsets.UTF_8);
+  }
+}
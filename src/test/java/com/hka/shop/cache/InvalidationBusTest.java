@@ -0,0 +1,128 @@
+package com.hka.shop.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import com.hka.oms.cache.InvalidationBus;
+import com.hka.oms.cache.InvalidationProperties;
+import com.hka.oms.cache.OrderJson;
+import com.hka.oms.cache.RemoteOrderCache;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.cluster.ClusterProperties;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.domain.OrderStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class InvalidationBusTest {
+
+  private static final List<String> MEMBERS = List.of("http://a", "http://b");
+
+  private final InvalidationProperties properties = new InvalidationProperties(null, 2, null, null);
+  private final RabbitTemplate rabbitA = mock(RabbitTemplate.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final InvalidationBus busA = bus("http://a", rabbitA, new RemoteOrderCache(properties, registry));
+  private final RemoteOrderCache cacheB = new RemoteOrderCache(properties, registry);
+  private final InvalidationBus busB = bus("http://b", mock(RabbitTemplate.class), cacheB);
+
+  @Test
+  void peersEvictOlderVersionsOnly() {
+    Order order = OrderMocks.sampleOrders().get(0);
+    Order paid = order.withStatus(OrderStatus.PAID);
+    Order other = OrderMocks.sampleOrders().get(1);
+    cacheB.put(json(order));
+    cacheB.put(json(other));
+
+    busA.onOrderChanged(order, paid);
+    busA.onOrderChanged(null, other);
+    busA.flush();
+
+    sent().forEach(busB::receive);
+    assertNull(cacheB.get(order.getOrderId()));
+    assertNotNull(cacheB.get(other.getOrderId()), "version did not change, entry stays");
+  }
+
+  @Test
+  void fetchThatStartedBeforeAnInvalidationIsNotCached() {
+    Order order = OrderMocks.sampleOrders().get(0);
+    Order paid = order.withStatus(OrderStatus.PAID);
+    busA.onOrderChanged(order, paid);
+    busA.flush();
+
+    // B fetched the old version, the invalidation overtook the response
+    sent().forEach(busB::receive);
+    cacheB.put(json(order));
+    assertNull(cacheB.get(order.getOrderId()));
+
+    cacheB.put(json(paid));
+    assertEquals(paid.getVersion(), cacheB.get(order.getOrderId()).version());
+  }
+
+  @Test
+  void coalescesChangesAndBatches() {
+    Order order = OrderMocks.sampleOrders().get(0);
+    Order paid = order.withStatus(OrderStatus.PAID);
+    busA.onOrderChanged(null, order);
+    busA.onOrderChanged(order, paid);
+    busA.onOrderChanged(paid, paid.withStatus(OrderStatus.SHIPPED));
+    busA.onOrderChanged(null, OrderMocks.sampleOrders().get(1));
+    busA.onOrderChanged(null, OrderMocks.sampleOrders().get(2));
+    busA.flush();
+
+    assertEquals(2, sent().size(), "3 distinct orders in batches of 2");
+    assertEquals(2.0, registry.get("cache.invalidation.coalesced").counter().count());
+  }
+
+  @Test
+  void ignoresOwnEvents() {
+    Order order = OrderMocks.sampleOrders().get(0);
+    RemoteOrderCache cacheA = new RemoteOrderCache(properties, registry);
+    InvalidationBus self = bus("http://a", rabbitA, cacheA);
+    cacheA.put(json(order));
+    busA.onOrderChanged(order, order.withStatus(OrderStatus.PAID));
+    busA.flush();
+
+    sent().forEach(self::receive);
+    assertNotNull(cacheA.get(order.getOrderId()));
+  }
+
+  @Test
+  void standaloneNodeDoesNotPublish() {
+    InvalidationBus standalone = new InvalidationBus(rabbitA,
+        new ClusterMembership(new ClusterProperties("http://a", List.of(), 0, null, null)),
+        new RemoteOrderCache(properties, registry), properties, registry);
+    standalone.onOrderChanged(null, OrderMocks.sampleOrders().get(0));
+    standalone.flush();
+
+    verify(rabbitA, never()).send(any(), any(), any(Message.class));
+  }
+
+  private List<Message> sent() {
+    ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+    verify(rabbitA, atLeastOnce()).send(eq(InvalidationBus.EXCHANGE), eq(""), captor.capture());
+    return captor.getAllValues();
+  }
+
+  private InvalidationBus bus(String self, RabbitTemplate template, RemoteOrderCache cache) {
+    ClusterMembership membership = new ClusterMembership(new ClusterProperties(self, MEMBERS, 0, "secret", null));
+    return new InvalidationBus(template, membership, cache, properties, registry);
+  }
+
+  private static OrderJson json(Order order) {
+    return new OrderJson(order.getOrderId(), order.getVersion(), OrderJson.etagOf(order.getVersion()), new byte[8]);
+  }
+}
@@ -0,0 +1,71 @@
+package com.hka.shop.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.hka.oms.cluster.ClusterAuthInterceptor;
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.ClusterException;
+import com.hka.oms.cluster.ClusterProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterAuthInterceptorTest {
+
+  private static final List<String> MEMBERS = List.of("http://a", "http://b");
+
+  private final ClusterAuthInterceptor interceptor =
+      new ClusterAuthInterceptor(new ClusterProperties("http://a", MEMBERS, 0, "s3cret", null));
+
+  @Test
+  void refusesMembershipChangesAndHandoffsWithoutTheToken() {
+    assertForbidden(interceptor, request("PUT", "/cluster/members", null, null));
+    assertForbidden(interceptor, request("POST", "/cluster/handoff", null, "wrong"));
+    assertForbidden(interceptor, request("POST", "/cluster/import", "true", null));
+
+    assertTrue(handle(interceptor, request("PUT", "/cluster/members", null, "s3cret")));
+    assertTrue(handle(interceptor, request("GET", "/cluster/members", null, null)));
+  }
+
+  @Test
+  void forwardedHeaderIsOnlyTrustedWithTheToken() {
+    assertForbidden(interceptor, request("GET", "/orders", "true", null));
+
+    assertTrue(handle(interceptor, request("GET", "/orders", "true", "s3cret")));
+    assertTrue(handle(interceptor, request("GET", "/orders", null, null)));
+  }
+
+  @Test
+  void singleNodeWithoutSecretRefusesEveryMemberCall() {
+    ClusterAuthInterceptor standalone = new ClusterAuthInterceptor(new ClusterProperties(null, null, 0, null, null));
+
+    assertForbidden(standalone, request("PUT", "/cluster/members", null, ""));
+    assertTrue(handle(standalone, request("POST", "/orders", null, null)));
+  }
+
+  private static MockHttpServletRequest request(String method, String uri, String forwarded, String token) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+    if (forwarded != null) {
+      request.addHeader(ClusterClient.FORWARDED_HEADER, forwarded);
+    }
+    if (token != null) {
+      request.addHeader(ClusterClient.TOKEN_HEADER, token);
+    }
+    return request;
+  }
+
+  private static boolean handle(ClusterAuthInterceptor interceptor, MockHttpServletRequest request) {
+    return interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+  }
+
+  private static void assertForbidden(ClusterAuthInterceptor interceptor, MockHttpServletRequest request) {
+    ClusterException ex = assertThrows(ClusterException.class, () -> handle(interceptor, request));
+    assertEquals(HttpStatus.FORBIDDEN, ex.getStatus());
+  }
+}
@@ -0,0 +1,52 @@
+package com.hka.shop.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.cluster.ClusterFanOut;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.cluster.ClusterProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ClusterFanOutTest {
+
+  private final ClusterProperties properties = new ClusterProperties("http://a",
+      List.of("http://a", "http://b", "http://c", "http://d"), 0, "secret", Duration.ofMillis(200));
+  private final ClusterFanOut fanOut = new ClusterFanOut(new ClusterMembership(properties), properties);
+  private final CountDownLatch never = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    never.countDown();
+    fanOut.shutdown();
+  }
+
+  @Test
+  void slowAndFailingMembersYieldTheirFallback() {
+    List<String> results = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> fanOut.call(member -> {
+      switch (member) {
+        case "http://b" -> hang();
+        case "http://c" -> throw new IllegalStateException("boom");
+        default -> {
+        }
+      }
+      return "ok:" + member;
+    }, member -> "none:" + member));
+
+    assertEquals(List.of("none:http://b", "none:http://c", "ok:http://d"), results);
+  }
+
+  private void hang() {
+    try {
+      never.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.hka.shop.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.ClusterException;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.cluster.ClusterProperties;
+import com.hka.oms.cluster.ClusterRebalancer;
+import com.hka.oms.service.OrderService;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ClusterRebalancerTest {
+
+  private final ClusterMembership membership = new ClusterMembership(new ClusterProperties("http://a",
+      List.of("http://a", "http://b"), 0, "secret", Duration.ofSeconds(1)));
+  private final ClusterClient clusterClient = mock(ClusterClient.class);
+  private final OrderService orderService = mock(OrderService.class);
+  private final ClusterRebalancer rebalancer = new ClusterRebalancer(membership, clusterClient, orderService);
+
+  @Test
+  void memberListWithoutThisInstanceIsRejectedBeforeAnyHandoff() {
+    ClusterException ex = assertThrows(ClusterException.class,
+        () -> rebalancer.updateMembers(List.of("http://b", "http://c"), true));
+
+    assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+    assertEquals(List.of("http://a", "http://b"), membership.members());
+    verifyNoInteractions(clusterClient, orderService);
+  }
+}
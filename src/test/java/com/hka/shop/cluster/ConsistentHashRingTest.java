@@ -0,0 +1,56 @@
+package com.hka.shop.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.cluster.ConsistentHashRing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+  private static final List<String> THREE = List.of(
+      "http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+
+  @Test
+  void spreadsKeysEvenlyAcrossMembers() {
+    ConsistentHashRing ring = ConsistentHashRing.of(THREE, 128);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 30_000; i++) {
+      counts.merge(ring.ownerOf("ORD-" + i), 1, Integer::sum);
+    }
+    assertEquals(3, counts.size());
+    counts.values().forEach(count -> assertTrue(count > 8_000 && count < 12_000, "unbalanced: " + counts));
+  }
+
+  @Test
+  void addingMemberOnlyMovesKeysToTheNewMember() {
+    ConsistentHashRing before = ConsistentHashRing.of(THREE, 128);
+    ConsistentHashRing after = ConsistentHashRing.of(
+        List.of("http://localhost:8080", "http://localhost:8081", "http://localhost:8082", "http://localhost:8083"), 128);
+    int moved = 0;
+    for (int i = 0; i < 10_000; i++) {
+      String key = "ORD-" + i;
+      String oldOwner = before.ownerOf(key);
+      String newOwner = after.ownerOf(key);
+      if (!oldOwner.equals(newOwner)) {
+        assertEquals("http://localhost:8083", newOwner);
+        moved++;
+      }
+    }
+    assertTrue(moved > 1_500 && moved < 3_500, "moved " + moved);
+  }
+
+  @Test
+  void ownershipIsIndependentOfMemberOrder() {
+    ConsistentHashRing a = ConsistentHashRing.of(THREE, 64);
+    ConsistentHashRing b = ConsistentHashRing.of(List.of(THREE.get(2), THREE.get(0), THREE.get(1)), 64);
+    for (int i = 0; i < 1_000; i++) {
+      assertEquals(a.ownerOf("ORD-" + i), b.ownerOf("ORD-" + i));
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.hka.shop.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.hka.oms.cache.OrderJson;
+import com.hka.oms.cache.OrderJsonCache;
+import com.hka.oms.cluster.ClusterClient;
+import com.hka.oms.cluster.OrderRouter;
+import com.hka.oms.controller.OrderController;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.intake.OrderIntake;
+import com.hka.oms.service.OrderService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderControllerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private final OrderService service = mock(OrderService.class);
+  private final OrderRouter router = mock(OrderRouter.class);
+  private final OrderController controller = new OrderController(service, router, mock(OrderJsonCache.class),
+      objectMapper, mock(OrderIntake.class));
+
+  @Test
+  void protobufRepresentationHasItsOwnTag() throws Exception {
+    when(router.isLocal("ORD-1")).thenReturn(true);
+    when(service.version("ORD-1")).thenReturn(3L);
+
+    assertEquals(HttpStatus.OK, controller.getProtobuf("ORD-1", null, OrderJson.etagOf(3)).getStatusCode());
+    ResponseEntity<Order> cached = controller.getProtobuf("ORD-1", null, "\"v3-pb\"");
+    assertEquals(HttpStatus.NOT_MODIFIED, cached.getStatusCode());
+    assertEquals("\"v3-pb\"", cached.getHeaders().getETag());
+  }
+
+  @Test
+  void forwardedProtobufReadsAreTaggedForProtobuf() throws Exception {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(OrderJson.etagOf(5));
+    headers.set(ClusterClient.OWNER_HEADER, "http://b");
+    when(router.forwardGet(eq("ORD-2"), isNull()))
+        .thenReturn(new ResponseEntity<>(objectMapper.writeValueAsBytes(OrderMocks.sampleOrders().get(0)), headers,
+            HttpStatus.OK));
+
+    ResponseEntity<Order> fresh = controller.getProtobuf("ORD-2", null, OrderJson.etagOf(5));
+    assertEquals(HttpStatus.OK, fresh.getStatusCode());
+    assertEquals("\"v5-pb\"", fresh.getHeaders().getETag());
+    assertEquals(HttpStatus.NOT_MODIFIED, controller.getProtobuf("ORD-2", null, "\"v5-pb\"").getStatusCode());
+  }
+}
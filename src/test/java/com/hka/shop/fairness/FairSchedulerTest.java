@@ -0,0 +1,130 @@
+package com.hka.shop.fairness;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.hka.oms.admission.OverloadedException;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.fairness.FairShareProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FairSchedulerTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void burstingCustomerDoesNotDelaySmallOnes() {
+    FairScheduler scheduler = scheduler(Map.of());
+    BlockingQueue<String> queue = scheduler.queue(100, FairSchedulerTest::customer);
+    for (int i = 0; i < 10; i++) {
+      queue.offer("big:" + i);
+    }
+    queue.offer("small:0");
+    queue.offer("other:0");
+
+    List<String> served = takeAndRelease(scheduler, queue, 4);
+
+    assertEquals(List.of("big:0", "small:0", "other:0", "big:1"), served);
+  }
+
+  @Test
+  void weightsSetTheShareOfEachTurn() {
+    FairScheduler scheduler = scheduler(Map.of("gold", new FairShareProperties.Tenant(3, 0)));
+    BlockingQueue<String> queue = scheduler.queue(100, FairSchedulerTest::customer);
+    for (int i = 0; i < 6; i++) {
+      queue.offer("gold:" + i);
+      queue.offer("basic:" + i);
+    }
+
+    List<String> served = takeAndRelease(scheduler, queue, 8);
+
+    assertEquals(List.of("gold:0", "gold:1", "gold:2", "basic:0", "gold:3", "gold:4", "gold:5", "basic:1"),
+        served);
+  }
+
+  @Test
+  void customerAtItsCapIsSkippedUntilReleased() {
+    FairScheduler scheduler = scheduler(Map.of("big", new FairShareProperties.Tenant(0, 1)));
+    BlockingQueue<String> queue = scheduler.queue(100, FairSchedulerTest::customer);
+    queue.offer("big:0");
+    queue.offer("big:1");
+
+    assertEquals("big:0", queue.poll());
+    assertNull(queue.poll());
+    OverloadedException ex = assertThrows(OverloadedException.class, () -> scheduler.enter("big"));
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+    try (FairScheduler.Slot slot = scheduler.enter("small")) {
+      assertEquals(1, scheduler.inFlight("small"));
+    }
+    assertEquals(0, scheduler.inFlight("small"));
+
+    scheduler.release("big");
+    assertEquals("big:1", queue.poll());
+    assertEquals(1, registry.get("orders.fair-share.throttled").tag("customer", "big").counter().count());
+  }
+
+  @Test
+  void perCustomerQueueIsBounded() {
+    BlockingQueue<String> queue = scheduler(Map.of(), 3).queue(100, FairSchedulerTest::customer);
+    for (int i = 0; i < 3; i++) {
+      queue.offer("big:" + i);
+    }
+
+    assertFalse(queue.offer("big:3"));
+    assertEquals(97, queue.remainingCapacity());
+  }
+
+  @Test
+  void drainHandsOutLanesOfCustomersAtTheirCap() {
+    FairScheduler scheduler = scheduler(Map.of("big", new FairShareProperties.Tenant(0, 1)));
+    BlockingQueue<String> queue = scheduler.queue(100, FairSchedulerTest::customer);
+    queue.offer("big:0");
+    queue.offer("big:1");
+    queue.offer("big:2");
+    queue.offer("small:0");
+    assertEquals("big:0", queue.poll());
+
+    List<String> drained = new ArrayList<>();
+    assertEquals(3, queue.drainTo(drained));
+
+    assertEquals(List.of("small:0", "big:1", "big:2"), drained);
+    assertEquals(0, queue.size());
+    assertEquals(3, scheduler.inFlight("big"));
+    drained.forEach(item -> scheduler.release(customer(item)));
+    scheduler.release("big");
+    assertEquals(0, scheduler.inFlight("big"));
+    assertEquals(0, scheduler.inFlight("small"));
+  }
+
+  private FairScheduler scheduler(Map<String, FairShareProperties.Tenant> customers) {
+    return scheduler(customers, 100);
+  }
+
+  private FairScheduler scheduler(Map<String, FairShareProperties.Tenant> customers, int maxQueuedPerCustomer) {
+    return new FairScheduler(new FairShareProperties(true, 1, 4, maxQueuedPerCustomer, customers), registry);
+  }
+
+  private static List<String> takeAndRelease(FairScheduler scheduler, BlockingQueue<String> queue, int n) {
+    List<String> served = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      String item = queue.poll();
+      served.add(item);
+      scheduler.release(customer(item));
+    }
+    return served;
+  }
+
+  private static String customer(String item) {
+    return item.substring(0, item.indexOf(':'));
+  }
+}
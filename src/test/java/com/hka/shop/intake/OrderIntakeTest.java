@@ -0,0 +1,210 @@
+package com.hka.shop.intake;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.admission.OverloadedException;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.fairness.FairShareProperties;
+import com.hka.oms.intake.IntakeProperties;
+import com.hka.oms.intake.IntakeState;
+import com.hka.oms.intake.IntakeTicket;
+import com.hka.oms.intake.OrderIntake;
+import com.hka.oms.service.InventoryUnavailableException;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.service.OrderService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeTest {
+
+  private final OrderService orderService = mock(OrderService.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private OrderIntake intake;
+
+  @AfterEach
+  void stop() {
+    intake.shutdown();
+  }
+
+  @Test
+  void acceptedOrderRunsThroughAllStages() throws Exception {
+    Order order = OrderMocks.electronicsOrder().withOrderId("o-1");
+    OrderCreationResult result = new OrderCreationResult(order, "reserved", null, null);
+    when(orderService.accept(any())).thenReturn(order);
+    when(orderService.reserve(order)).thenReturn("reserved");
+    when(orderService.authorize(order, "reserved")).thenReturn(result);
+    intake = start(properties(16));
+
+    IntakeTicket ticket = intake.submit(OrderMocks.electronicsOrder());
+
+    assertEquals("o-1", ticket.orderId());
+    assertEquals("/orders/intake/o-1", ticket.statusUrl());
+    IntakeTicket done = awaitSettled("o-1");
+    assertEquals(IntakeState.COMPLETED, done.state());
+    assertEquals("/orders/o-1", done.orderUrl());
+    verify(orderService).publish(result);
+    assertEquals(1, registry.get("orders.intake.finished").tag("outcome", "completed").counter().count());
+  }
+
+  @Test
+  void downstreamFailureIsReportedOnTheTicket() throws Exception {
+    Order order = OrderMocks.groceryOrder().withOrderId("o-2");
+    when(orderService.accept(any())).thenReturn(order);
+    when(orderService.reserve(order)).thenThrow(new InventoryUnavailableException("out of stock"));
+    intake = start(properties(16));
+
+    intake.submit(OrderMocks.groceryOrder());
+
+    IntakeTicket failed = awaitSettled("o-2");
+    assertEquals(IntakeState.FAILED, failed.state());
+    assertEquals("out of stock", failed.message());
+    assertEquals(0, intake.inFlight());
+  }
+
+  @Test
+  void fullIntakeRefusesNewOrders() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch reserving = new CountDownLatch(1);
+    when(orderService.accept(any())).thenAnswer(inv -> OrderMocks.electronicsOrder().withOrderId(
+        "o-" + System.nanoTime()));
+    when(orderService.reserve(any())).thenAnswer(inv -> {
+      reserving.countDown();
+      release.await();
+      return "reserved";
+    });
+    when(orderService.authorize(any(), anyString())).thenReturn(
+        new OrderCreationResult(OrderMocks.electronicsOrder(), "reserved", null, null));
+    intake = start(properties(1));
+
+    intake.submit(OrderMocks.electronicsOrder());
+    assertTrue(reserving.await(5, TimeUnit.SECONDS));
+    intake.submit(OrderMocks.electronicsOrder());
+
+    OverloadedException ex = assertThrows(OverloadedException.class,
+        () -> intake.submit(OrderMocks.electronicsOrder()));
+    assertEquals(503, ex.getStatus().value());
+    assertEquals(1, registry.get("orders.intake.rejected").counter().count());
+    release.countDown();
+  }
+
+  @Test
+  void shutdownReleasesOrdersThatWereOnlyReserved() throws Exception {
+    CountDownLatch authorizing = new CountDownLatch(1);
+    AtomicInteger ids = new AtomicInteger();
+    when(orderService.accept(any())).thenAnswer(inv ->
+        OrderMocks.electronicsOrder().withOrderId("r-" + ids.incrementAndGet()));
+    when(orderService.reserve(any())).thenReturn("reserved");
+    when(orderService.authorize(any(), anyString())).thenAnswer(inv -> {
+      authorizing.countDown();
+      new CountDownLatch(1).await();
+      return null;
+    });
+    intake = start(properties(1));
+
+    // r-1 is being authorized, r-2 waits in the authorize ring, r-3 waits to get in
+    for (int i = 1; i <= 3; i++) {
+      intake.submit(OrderMocks.electronicsOrder());
+      awaitState(IntakeState.RESERVED, "r-" + i);
+    }
+    assertTrue(authorizing.await(5, TimeUnit.SECONDS));
+    intake.shutdown();
+
+    for (String id : List.of("r-1", "r-2", "r-3")) {
+      assertEquals(IntakeState.FAILED, intake.status(id).state());
+      verify(orderService).releaseReservation(argThat(order -> order.getOrderId().equals(id)));
+    }
+    assertEquals(0, intake.inFlight());
+  }
+
+  @Test
+  void shutdownPublishesOrdersThatWereAuthorized() throws Exception {
+    CountDownLatch publishing = new CountDownLatch(1);
+    AtomicInteger ids = new AtomicInteger();
+    AtomicBoolean first = new AtomicBoolean(true);
+    when(orderService.accept(any())).thenAnswer(inv ->
+        OrderMocks.electronicsOrder().withOrderId("a-" + ids.incrementAndGet()));
+    when(orderService.reserve(any())).thenReturn("reserved");
+    when(orderService.authorize(any(), anyString())).thenAnswer(inv ->
+        new OrderCreationResult(inv.getArgument(0), "reserved", null, null));
+    doAnswer(inv -> {
+      if (first.getAndSet(false)) {
+        publishing.countDown();
+        try {
+          new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+          // the message went out before the worker noticed the shutdown
+        }
+      }
+      return null;
+    }).when(orderService).publish(any());
+    intake = start(properties(1));
+
+    // a-1 is being published, a-2 waits in the publish ring, a-3 waits to get in
+    for (int i = 1; i <= 3; i++) {
+      intake.submit(OrderMocks.electronicsOrder());
+      awaitState(IntakeState.AUTHORIZED, "a-" + i);
+    }
+    assertTrue(publishing.await(5, TimeUnit.SECONDS));
+    intake.shutdown();
+
+    for (String id : List.of("a-1", "a-2", "a-3")) {
+      assertEquals(IntakeState.COMPLETED, intake.status(id).state());
+      verify(orderService).publish(argThat(result -> result.order().getOrderId().equals(id)));
+    }
+    verify(orderService, never()).releaseReservation(any());
+    assertEquals(0, intake.inFlight());
+  }
+
+  private OrderIntake start(IntakeProperties properties) {
+    OrderIntake created = new OrderIntake(orderService, properties,
+        new FairScheduler(new FairShareProperties(false, 0, 0, 0, null), registry), registry);
+    created.start();
+    return created;
+  }
+
+  private IntakeProperties properties(int capacity) {
+    return new IntakeProperties(true, false, capacity, 1, 1, 1, null, null, Duration.ofSeconds(1));
+  }
+
+  private IntakeTicket awaitSettled(String orderId) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    IntakeTicket ticket = intake.status(orderId);
+    while (ticket.state() != IntakeState.COMPLETED && ticket.state() != IntakeState.FAILED
+        && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+      ticket = intake.status(orderId);
+    }
+    return ticket;
+  }
+
+  private void awaitState(IntakeState state, String... orderIds) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    for (String orderId : orderIds) {
+      while (intake.status(orderId).state() != state && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      assertEquals(state, intake.status(orderId).state());
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.hka.shop.inventory;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import inventory.Inventory;
+import inventory.InventoryServiceGrpc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.analytics.HotSkuTracker;
+import com.hka.oms.cluster.ClusterMembership;
+import com.hka.oms.cluster.ClusterProperties;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.fairness.FairScheduler;
+import com.hka.oms.fairness.FairShareProperties;
+import com.hka.oms.inventory.InventoryClient;
+import com.hka.oms.inventory.InventoryStreamProperties;
+import com.hka.oms.inventory.ReservationReleaseQueue;
+import com.hka.oms.payment.PaymentClient;
+import com.hka.oms.publisher.WmsPublisher;
+import com.hka.oms.service.OrderService;
+import com.hka.oms.service.OrderValidator;
+import com.hka.oms.store.OrderStore;
+import com.hka.oms.store.OrderStoreProperties;
+import com.hka.oms.tracing.GrpcTracingInterceptor;
+import com.hka.oms.tracing.OrderTracing;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ReservationTimeoutTest {
+
+  private Server server;
+  private InventoryClient inventoryClient;
+
+  @AfterEach
+  void stop() {
+    inventoryClient.shutdown();
+    server.shutdownNow();
+  }
+
+  @Test
+  void timedOutStreamedReserveReleasesTheReservation() throws IOException {
+    server = ServerBuilder.forPort(0).addService(new SilentInventory()).build().start();
+    OpenTelemetry otel = OpenTelemetry.noop();
+    inventoryClient = new InventoryClient("localhost", server.getPort(), Duration.ofSeconds(5),
+        new GrpcTracingInterceptor(otel, otel.getTracer("test")),
+        new InventoryStreamProperties(true, 1, 8, Duration.ofMillis(200)));
+    ReservationReleaseQueue releaseQueue = mock(ReservationReleaseQueue.class);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    OrderService service = new OrderService(inventoryClient, releaseQueue, mock(PaymentClient.class),
+        mock(WmsPublisher.class), new ClusterMembership(new ClusterProperties(null, null, 0, null, null)), List.of(),
+        new OrderStore(registry, new OrderStoreProperties(false, null, 0)), new OrderTracing(otel.getTracer("test")),
+        mock(HotSkuTracker.class), new OrderValidator(),
+        new FairScheduler(new FairShareProperties(false, 0, 0, 0, null), registry));
+
+    assertThrows(IllegalStateException.class, () -> service.create(OrderMocks.electronicsOrder()));
+
+    verify(releaseQueue).enqueue(anyString());
+  }
+
+  @Test
+  void unaryReleaseGivesUpAtTheDeadline() throws IOException {
+    server = ServerBuilder.forPort(0).addService(new SilentInventory()).build().start();
+    OpenTelemetry otel = OpenTelemetry.noop();
+    inventoryClient = new InventoryClient("localhost", server.getPort(), Duration.ofMillis(200),
+        new GrpcTracingInterceptor(otel, otel.getTracer("test")),
+        new InventoryStreamProperties(false, 0, 0, null));
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5),
+        () -> assertThrows(IllegalStateException.class, () -> inventoryClient.releaseReservation("ORD-1")));
+    assertTimeoutPreemptively(Duration.ofSeconds(5),
+        () -> assertThrows(IllegalStateException.class, () -> inventoryClient.reserveItems(OrderMocks.groceryOrder())));
+  }
+
+  /** Accepts reservation commands and unary reserve/release calls but never answers them. */
+  private static final class SilentInventory extends InventoryServiceGrpc.InventoryServiceImplBase {
+
+    @Override
+    public void checkAvailability(Inventory.CheckAvailabilityRequest request,
+                                  StreamObserver<Inventory.CheckAvailabilityResponse> responseObserver) {
+      responseObserver.onNext(Inventory.CheckAvailabilityResponse.newBuilder().setAvailable(true).build());
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<Inventory.ReservationCommand> streamReservations(
+        StreamObserver<Inventory.ReservationResult> responseObserver) {
+      return new StreamObserver<>() {
+        @Override
+        public void onNext(Inventory.ReservationCommand command) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+          responseObserver.onCompleted();
+        }
+      };
+    }
+
+    @Override
+    public void reserveItems(Inventory.ReserveItemsRequest request,
+                             StreamObserver<Inventory.ReserveItemsResponse> responseObserver) {
+    }
+
+    @Override
+    public void releaseReservation(Inventory.ReleaseReservationRequest request,
+                                   StreamObserver<Inventory.ReleaseReservationResponse> responseObserver) {
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.hka.shop.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.json.DomainJsonModule;
+import com.hka.oms.payment.dto.PaymentResponse;
+import com.hka.oms.payment.dto.PaymentStatus;
+import com.hka.oms.service.OrderCreationResult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DomainJsonModuleTest {
+
+  private final ObjectMapper reference = new ObjectMapper()
+      .registerModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private final ObjectMapper fast = reference.copy().registerModule(new DomainJsonModule());
+
+  @Test
+  void writesSameJsonAsBeanSerializers() throws Exception {
+    for (Object value : samples()) {
+      assertEquals(reference.writeValueAsString(value), fast.writeValueAsString(value));
+    }
+  }
+
+  @Test
+  void honoursNonNullInclusion() throws Exception {
+    ObjectMapper referenceNonNull = reference.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    ObjectMapper fastNonNull = fast.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    for (Object value : samples()) {
+      assertEquals(referenceNonNull.writeValueAsString(value), fastNonNull.writeValueAsString(value));
+    }
+  }
+
+  @Test
+  void readsWhatBuilderBindingReads() throws Exception {
+    for (Object value : samples()) {
+      if (value instanceof Order order) {
+        String json = reference.writeValueAsString(order);
+        Order expected = reference.readValue(json, Order.class);
+        Order actual = fast.readValue(json, Order.class);
+        assertEquals(reference.writeValueAsString(expected), reference.writeValueAsString(actual));
+      }
+    }
+  }
+
+  @Test
+  void appliesSameCoercionsAndUnknownPropertyRules() throws Exception {
+    String json = """
+        {"customer":{"customerId":" C-1 ","name":"Tatar","extra":[1,{"x":2}]},
+         "items":[{"productId":"PRD-1","quantity":"2","price":"1.25"}],
+         "shippingAddress":{"zipCode":76131,"city":null},"status":"PAID","version":"3","unknown":{}}""";
+    Order expected = reference.readValue(json, Order.class);
+    Order actual = fast.readValue(json, Order.class);
+    assertEquals(reference.writeValueAsString(expected), reference.writeValueAsString(actual));
+    assertEquals("76131", actual.getShippingAddress().getZipCode());
+    assertNull(actual.getShippingAddress().getCity());
+
+    ObjectMapper strict = fast.copy().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    assertThrows(JsonMappingException.class, () -> strict.readValue(json, Order.class));
+  }
+
+  @Test
+  void validationErrorsStayMappingErrors() {
+    String[] invalid = {
+        "{\"customer\":{\"customerId\":\"C-1\"},\"items\":[]}",
+        "{\"customer\":{\"customerId\":\"C-1\"},\"items\":[{\"productId\":\"P\",\"quantity\":0,\"price\":1}]}",
+        "{\"customer\":{\"customerId\":\"C-1\"},\"items\":[{\"productId\":\"P\",\"quantity\":1,\"price\":1}],"
+            + "\"totalAmount\":5}",
+        "{\"items\":[{\"productId\":\"P\",\"quantity\":1,\"price\":1}]}",
+        "{\"customer\":{\"customerId\":\"C-1\"},\"items\":[{\"productId\":\"P\",\"quantity\":\"x\",\"price\":1}]}"
+    };
+    for (String json : invalid) {
+      assertThrows(JsonMappingException.class, () -> reference.readValue(json, Order.class), json);
+      assertThrows(JsonMappingException.class, () -> fast.readValue(json, Order.class), json);
+    }
+  }
+
+  private static List<Object> samples() {
+    List<Object> samples = new ArrayList<>(OrderMocks.sampleOrders());
+    Order withoutAddress = Order.builder()
+        .customer(Customer.builder().customerId("C-9").build())
+        .addItem(OrderItem.builder().productId("PRD-1").quantity(3).price(new BigDecimal("0.333")).build())
+        .build();
+    samples.add(withoutAddress);
+    Order order = OrderMocks.sampleOrders().get(0);
+    samples.add(new OrderCreationResult(order, "reserved",
+        new PaymentResponse(order.getOrderId(), order.getTotalAmount(), "EUR", "CARD", PaymentStatus.AUTHORIZED,
+            Instant.parse("2024-10-01T12:00:00Z"), null),
+        null));
+    return samples;
+  }
+}
@@ -0,0 +1,99 @@
+package com.hka.shop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * JDK HTTP server answering the payment ({@code /payments/*}) and WMS
+ * ({@code /wms/fulfillments/*}) endpoints with canned responses that echo
+ * the orderId of the request.
+ */
+final class HttpStub implements AutoCloseable {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final HttpServer server;
+
+  HttpStub(LatencyProfile payment, LatencyProfile wms) throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+    server.createContext("/payments/", exchange -> handle(exchange, payment, this::payment));
+    server.createContext("/wms/fulfillments", exchange -> handle(exchange, wms, this::fulfillment));
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  String baseUrl() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange, LatencyProfile latency, Responder responder) throws IOException {
+    try (exchange) {
+      JsonNode request = mapper.readTree(exchange.getRequestBody());
+      latency.pause();
+      if (latency.fails()) {
+        write(exchange, 503, mapper.createObjectNode().put("message", "injected failure"));
+        return;
+      }
+      write(exchange, 200, responder.respond(exchange.getRequestURI().getPath(), request));
+    }
+  }
+
+  private ObjectNode payment(String path, JsonNode request) {
+    String status = switch (path) {
+      case "/payments/capture" -> "CAPTURED";
+      case "/payments/refund" -> "REFUNDED";
+      default -> "AUTHORIZED";
+    };
+    String now = Instant.now().toString();
+    return mapper.createObjectNode()
+        .put("orderId", request.path("orderId").asText())
+        .put("amount", request.path("amount").decimalValue())
+        .put("currency", request.path("currency").asText("EUR"))
+        .put("method", request.path("method").asText("CARD"))
+        .put("status", status)
+        .put("createdAt", now)
+        .put("updatedAt", now);
+  }
+
+  private ObjectNode fulfillment(String path, JsonNode request) {
+    String status = path.substring(path.lastIndexOf('/') + 1).toUpperCase().replace('-', '_');
+    String now = Instant.now().toString();
+    return mapper.createObjectNode()
+        .put("orderId", request.path("orderId").asText())
+        .put("status", "FULFILLMENTS".equals(status) ? "CREATED" : status)
+        .put("carrier", request.path("carrier").asText("DHL"))
+        .put("createdAt", now)
+        .put("updatedAt", now);
+  }
+
+  private void write(HttpExchange exchange, int status, JsonNode body) throws IOException {
+    byte[] bytes = mapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @FunctionalInterface
+  private interface Responder {
+    ObjectNode respond(String path, JsonNode request);
+  }
+}
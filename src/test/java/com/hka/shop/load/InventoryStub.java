@@ -0,0 +1,134 @@
+package com.hka.shop.load;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import inventory.Inventory;
+import inventory.InventoryServiceGrpc;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the inventory gRPC service generated from
+ * {@code inventory.proto}. Every item is available and every reservation
+ * succeeds unless the latency profile injects a failure.
+ */
+final class InventoryStub extends InventoryServiceGrpc.InventoryServiceImplBase implements AutoCloseable {
+
+  private final LatencyProfile latency;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final AtomicLong reservations = new AtomicLong();
+  private final AtomicLong releases = new AtomicLong();
+  private final AtomicLong streamed = new AtomicLong();
+  private final Server server;
+
+  InventoryStub(LatencyProfile latency) throws IOException {
+    this.latency = latency;
+    this.server = ServerBuilder.forPort(0).executor(executor).addService(this).build().start();
+  }
+
+  int port() {
+    return server.getPort();
+  }
+
+  long reservations() {
+    return reservations.get();
+  }
+
+  long releases() {
+    return releases.get();
+  }
+
+  long streamed() {
+    return streamed.get();
+  }
+
+  @Override
+  public void checkAvailability(Inventory.CheckAvailabilityRequest request,
+                                StreamObserver<Inventory.CheckAvailabilityResponse> responseObserver) {
+    if (simulate(responseObserver)) {
+      responseObserver.onNext(Inventory.CheckAvailabilityResponse.newBuilder().setAvailable(true).build());
+      responseObserver.onCompleted();
+    }
+  }
+
+  @Override
+  public void reserveItems(Inventory.ReserveItemsRequest request,
+                           StreamObserver<Inventory.ReserveItemsResponse> responseObserver) {
+    if (simulate(responseObserver)) {
+      reservations.incrementAndGet();
+      responseObserver.onNext(Inventory.ReserveItemsResponse.newBuilder()
+          .setSuccess(true)
+          .setMessage("reserved " + request.getItemsCount() + " items")
+          .build());
+      responseObserver.onCompleted();
+    }
+  }
+
+  @Override
+  public void releaseReservation(Inventory.ReleaseReservationRequest request,
+                                 StreamObserver<Inventory.ReleaseReservationResponse> responseObserver) {
+    if (simulate(responseObserver)) {
+      releases.incrementAndGet();
+      responseObserver.onNext(Inventory.ReleaseReservationResponse.newBuilder().setSuccess(true).build());
+      responseObserver.onCompleted();
+    }
+  }
+
+  @Override
+  public StreamObserver<Inventory.ReservationCommand> streamReservations(
+      StreamObserver<Inventory.ReservationResult> responseObserver) {
+    return new StreamObserver<>() {
+      @Override
+      public void onNext(Inventory.ReservationCommand command) {
+        streamed.incrementAndGet();
+        executor.execute(() -> {
+          latency.pause();
+          boolean reserve = command.hasReserve();
+          Inventory.ReservationResult.Builder result = Inventory.ReservationResult.newBuilder()
+              .setOrderId(reserve ? command.getReserve().getOrderId() : command.getRelease().getOrderId())
+              .setKind(reserve ? Inventory.ReservationKind.RESERVE : Inventory.ReservationKind.RELEASE);
+          if (latency.fails()) {
+            result.setSuccess(false).setMessage("injected failure");
+          } else {
+            (reserve ? reservations : releases).incrementAndGet();
+            result.setSuccess(true).setMessage(reserve ? "reserved " + command.getReserve().getItemsCount() + " items" : "");
+          }
+          synchronized (responseObserver) {
+            responseObserver.onNext(result.build());
+          }
+        });
+      }
+
+      @Override
+      public void onError(Throwable t) {
+      }
+
+      @Override
+      public void onCompleted() {
+        synchronized (responseObserver) {
+          responseObserver.onCompleted();
+        }
+      }
+    };
+  }
+
+  private boolean simulate(StreamObserver<?> responseObserver) {
+    latency.pause();
+    if (latency.fails()) {
+      responseObserver.onError(Status.UNAVAILABLE.withDescription("injected failure").asRuntimeException());
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+    server.shutdownNow();
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,58 @@
+package com.hka.shop.load;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log-normal service time described by its median and p99, plus the share
+ * of calls that fail. Configured as {@code median/p99/errorRate}, for
+ * example {@code -Dload.payment=20ms/200ms/0.01}.
+ */
+record LatencyProfile(Duration median, Duration p99, double errorRate) {
+
+  private static final double Z_99 = 2.326;
+
+  static LatencyProfile fromProperty(String name, String defaultValue) {
+    String[] parts = System.getProperty(name, defaultValue).split("/");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException(name + " must look like 5ms/50ms/0.01");
+    }
+    return new LatencyProfile(parse(parts[0]), parse(parts[1]), Double.parseDouble(parts[2]));
+  }
+
+  long sampleMicros() {
+    double mu = Math.log(Math.max(1, median.toNanos() / 1_000));
+    double sigma = Math.log((double) Math.max(p99.toNanos(), median.toNanos()) / Math.max(1, median.toNanos())) / Z_99;
+    return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+  }
+
+  boolean fails() {
+    return ThreadLocalRandom.current().nextDouble() < errorRate;
+  }
+
+  void pause() {
+    long micros = sampleMicros();
+    if (micros <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(micros / 1_000, (int) (micros % 1_000) * 1_000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Duration parse(String value) {
+    String v = value.trim();
+    if (v.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+    }
+    if (v.endsWith("us")) {
+      return Duration.ofNanos(Long.parseLong(v.substring(0, v.length() - 2)) * 1_000);
+    }
+    if (v.endsWith("s")) {
+      return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+    }
+    return Duration.ofMillis(Long.parseLong(v));
+  }
+}
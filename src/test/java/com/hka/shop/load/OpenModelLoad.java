@@ -0,0 +1,88 @@
+package com.hka.shop.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-model load generator: requests are issued on a fixed schedule no
+ * matter how long earlier ones take, and each latency is measured from the
+ * request's intended start time. A stalled server therefore shows up as
+ * queueing delay in the percentiles instead of silently lowering the
+ * offered rate (coordinated omission).
+ */
+final class OpenModelLoad {
+
+  record Operation(String name, Callable<Boolean> call) {}
+
+  record Result(String name, Histogram histogram, long errors) {
+    long requests() {
+      return histogram.getTotalCount();
+    }
+  }
+
+  private final int ratePerSecond;
+  private final Duration warmup;
+  private final Duration duration;
+  private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+  OpenModelLoad(int ratePerSecond, Duration warmup, Duration duration) {
+    this.ratePerSecond = ratePerSecond;
+    this.warmup = warmup;
+    this.duration = duration;
+  }
+
+  Map<String, Result> run(LongFunction<Operation> schedule) throws InterruptedException {
+    long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+    long total = (warmup.toNanos() + duration.toNanos()) / interval;
+    long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+    long measureFrom = start + warmup.toNanos();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; i < total; i++) {
+        long intended = start + i * interval;
+        long wait;
+        while ((wait = intended - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(wait);
+        }
+        Operation operation = schedule.apply(i);
+        executor.execute(() -> execute(operation, intended, intended >= measureFrom));
+      }
+    }
+
+    Map<String, Result> results = new TreeMap<>();
+    histograms.forEach((name, histogram) ->
+        results.put(name, new Result(name, histogram, errors.getOrDefault(name, new LongAdder()).sum())));
+    return results;
+  }
+
+  private void execute(Operation operation, long intended, boolean measured) {
+    boolean ok;
+    try {
+      ok = operation.call().call();
+    } catch (Exception e) {
+      ok = false;
+    }
+    long latency = System.nanoTime() - intended;
+    if (!measured) {
+      return;
+    }
+    histograms.computeIfAbsent(operation.name(), n -> new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3))
+        .recordValue(Math.min(latency, TimeUnit.MINUTES.toNanos(1)));
+    if (!ok) {
+      errors.computeIfAbsent(operation.name(), n -> new LongAdder()).increment();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.hka.shop.load;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hka.oms.App;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end capacity run against stubbed inventory, payment and WMS
+ * services; RabbitMQ is replaced by a mock template. Run with
+ * {@code mvn test -Pload} and tune with system properties:
+ * {@code load.rate} (requests/s), {@code load.duration}, {@code load.warmup}
+ * (seconds), {@code load.writeRatio}, {@code load.inventory},
+ * {@code load.payment}, {@code load.wms} (median/p99/errorRate),
+ * {@code load.streaming} (reserve/release over StreamReservations) and
+ * {@code load.label}. Each run appends one line per operation to
+ * {@code target/load-test/summary.csv}.
+ */
+@Tag("load")
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.rabbitmq.listener.simple.auto-startup=false",
+    "inventory.release.journal=target/load-test/inventory-release.journal"
+})
+class OrderLoadTest {
+
+  private static final Path REPORT = Path.of("target", "load-test", "summary.csv");
+  private static final int RECENT_IDS = 4096;
+
+  private static InventoryStub inventory;
+  private static HttpStub http;
+
+  @MockBean
+  private RabbitTemplate rabbitTemplate;
+
+  @LocalServerPort
+  private int port;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+  private final AtomicReferenceArray<String> recentIds = new AtomicReferenceArray<>(RECENT_IDS);
+  private final AtomicLong created = new AtomicLong();
+
+  @DynamicPropertySource
+  static void stubs(DynamicPropertyRegistry registry) throws IOException {
+    inventory = new InventoryStub(LatencyProfile.fromProperty("load.inventory", "1ms/5ms/0"));
+    http = new HttpStub(
+        LatencyProfile.fromProperty("load.payment", "5ms/50ms/0.001"),
+        LatencyProfile.fromProperty("load.wms", "2ms/20ms/0"));
+    registry.add("inventory.grpc.host", () -> "localhost");
+    registry.add("inventory.grpc.port", inventory::port);
+    registry.add("inventory.grpc.streaming.enabled", () -> System.getProperty("load.streaming", "true"));
+    registry.add("payment.base-url", http::baseUrl);
+    registry.add("wms.base-url", http::baseUrl);
+  }
+
+  @AfterAll
+  static void stopStubs() {
+    inventory.close();
+    http.close();
+  }
+
+  @Test
+  void sustainsConfiguredArrivalRate() throws Exception {
+    int rate = Integer.getInteger("load.rate", 200);
+    Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup", 10));
+    Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+    double writeRatio = Double.parseDouble(System.getProperty("load.writeRatio", "0.2"));
+
+    OpenModelLoad load = new OpenModelLoad(rate, warmup, duration);
+    Map<String, OpenModelLoad.Result> results = load.run(i -> {
+      boolean write = created.get() == 0 || ThreadLocalRandom.current().nextDouble() < writeRatio;
+      return write
+          ? new OpenModelLoad.Operation("POST /orders", this::createOrder)
+          : new OpenModelLoad.Operation("GET /orders/{id}", this::readOrder);
+    });
+
+    report(rate, results);
+    results.values().forEach(result ->
+        assertTrue(result.requests() > 0, "no measured requests for " + result.name()));
+  }
+
+  private boolean createOrder() throws Exception {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int quantity = 1 + random.nextInt(3);
+    String body = """
+        {"customer":{"customerId":"CUST-%d","prename":"Load","name":"Test"},
+         "items":[{"productId":"PRD-%d","quantity":%d,"price":9.99}],
+         "totalAmount":%s,
+         "shippingAddress":{"street":"Hauptstrasse 1","city":"Karlsruhe","zipCode":"76131","country":"DE"}}
+        """.formatted(random.nextInt(10_000), random.nextInt(5_000), quantity,
+        new java.math.BigDecimal("9.99").multiply(java.math.BigDecimal.valueOf(quantity)));
+    HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/orders"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build(), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 201) {
+      return false;
+    }
+    JsonNode json = mapper.readTree(response.body());
+    long n = created.getAndIncrement();
+    recentIds.set((int) (n % RECENT_IDS), json.path("order").path("orderId").asText());
+    return true;
+  }
+
+  private boolean readOrder() throws Exception {
+    long n = created.get();
+    String orderId = recentIds.get((int) (ThreadLocalRandom.current().nextLong(Math.min(n, RECENT_IDS))));
+    if (orderId == null) {
+      return createOrder();
+    }
+    HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri("/orders/" + orderId)).GET().build(),
+        HttpResponse.BodyHandlers.discarding());
+    return response.statusCode() == 200;
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private void report(int rate, Map<String, OpenModelLoad.Result> results) throws IOException {
+    String label = System.getProperty("load.label", "local");
+    Files.createDirectories(REPORT.getParent());
+    if (!Files.exists(REPORT)) {
+      Files.writeString(REPORT, "timestamp,label,operation,rate,requests,errors,p50_ms,p99_ms,p999_ms,max_ms\n");
+    }
+    StringBuilder csv = new StringBuilder();
+    System.out.printf("%-18s %9s %7s %9s %9s %9s %9s%n", "operation", "requests", "errors", "p50 ms", "p99 ms",
+        "p999 ms", "max ms");
+    for (OpenModelLoad.Result result : results.values()) {
+      double p50 = millis(result.histogram().getValueAtPercentile(50));
+      double p99 = millis(result.histogram().getValueAtPercentile(99));
+      double p999 = millis(result.histogram().getValueAtPercentile(99.9));
+      double max = millis(result.histogram().getMaxValue());
+      System.out.printf("%-18s %9d %7d %9.2f %9.2f %9.2f %9.2f%n", result.name(), result.requests(),
+          result.errors(), p50, p99, p999, max);
+      csv.append(String.format("%s,%s,%s,%d,%d,%d,%.3f,%.3f,%.3f,%.3f%n", Instant.now(), label, result.name(),
+          rate, result.requests(), result.errors(), p50, p99, p999, max));
+    }
+    System.out.printf("inventory reservations=%d releases=%d streamed=%d%n",
+        inventory.reservations(), inventory.releases(), inventory.streamed());
+    Files.writeString(REPORT, csv, StandardOpenOption.APPEND);
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
@@ -0,0 +1,42 @@
+package com.hka.shop.logging;
+
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.logging.LoggingProperties;
+import com.hka.oms.logging.PayloadSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadSamplerTest {
+
+  @Test
+  void sampleRateBoundsAreExact() {
+    PayloadSampler never = new PayloadSampler(new LoggingProperties(0.0));
+    PayloadSampler always = new PayloadSampler(new LoggingProperties(1.0));
+    for (int i = 0; i < 1_000; i++) {
+      assertFalse(never.sample());
+      assertTrue(always.sample());
+    }
+  }
+
+  @Test
+  void samplesRoughlyTheConfiguredFraction() {
+    PayloadSampler sampler = new PayloadSampler(new LoggingProperties(0.1));
+    int sampled = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (sampler.sample()) {
+        sampled++;
+      }
+    }
+    assertEquals(10_000, sampled, 1_000);
+  }
+
+  @Test
+  void missingOrInvalidRateFallsBackToOnePercent() {
+    assertEquals(0.01, new LoggingProperties(null).payloadSampleRate());
+    assertEquals(0.01, new LoggingProperties(-1.0).payloadSampleRate());
+    assertEquals(1.0, new LoggingProperties(5.0).payloadSampleRate());
+  }
+}
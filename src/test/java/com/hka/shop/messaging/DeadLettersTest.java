@@ -0,0 +1,82 @@
+package com.hka.shop.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import com.hka.oms.messaging.DeadLetters;
+import com.hka.oms.messaging.RetryProperties;
+import com.hka.oms.messaging.RetryTopology;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeadLettersTest {
+
+  private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+  private final Channel channel = mock(Channel.class);
+  private final DeadLetters deadLetters = new DeadLetters(rabbitTemplate, mock(AmqpAdmin.class),
+      new RetryProperties(null, 0, null), new SimpleMeterRegistry());
+
+  @BeforeEach
+  void routeCallbacksToTheChannel() {
+    when(rabbitTemplate.execute(any())).thenAnswer(inv -> inv.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+  }
+
+  @AfterEach
+  void stop() {
+    deadLetters.shutdown();
+  }
+
+  @Test
+  void acksOnlyAfterTheCopyWasConfirmed() throws Exception {
+    when(channel.basicGet("orders.queue.dlq", false)).thenReturn(parked(7), (GetResponse) null);
+
+    assertEquals(1, deadLetters.replay("orders.queue", 10));
+
+    verify(channel).basicPublish(eq(""), eq("orders.queue"),
+        argThat(props -> !props.getHeaders().containsKey(RetryTopology.ATTEMPTS_HEADER)), any());
+    verify(channel).waitForConfirmsOrDie(anyLong());
+    verify(channel).basicAck(7, false);
+  }
+
+  @Test
+  void unconfirmedCopyLeavesTheMessageDeadLettered() throws Exception {
+    when(channel.basicGet("orders.queue.dlq", false)).thenReturn(parked(9));
+    doThrow(new TimeoutException("no confirm")).when(channel).waitForConfirmsOrDie(anyLong());
+
+    assertThrows(Exception.class, () -> deadLetters.replay("orders.queue", 10));
+
+    verify(channel).basicNack(9, false, true);
+    verify(channel, never()).basicAck(anyLong(), eq(false));
+  }
+
+  private static GetResponse parked(long tag) {
+    AMQP.BasicProperties props = new AMQP.BasicProperties.Builder()
+        .headers(Map.of(RetryTopology.ATTEMPTS_HEADER, 6, "x-trace", "t-1"))
+        .build();
+    return new GetResponse(new Envelope(tag, false, "", "orders.queue.dlq"), props,
+        "{}".getBytes(StandardCharsets.UTF_8), 0);
+  }
+}
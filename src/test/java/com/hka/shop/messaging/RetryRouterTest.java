@@ -0,0 +1,139 @@
+package com.hka.shop.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Return;
+import com.rabbitmq.client.ReturnCallback;
+import com.rabbitmq.client.ReturnListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.RabbitExceptionTranslator;
+
+import com.hka.oms.messaging.RetryProperties;
+import com.hka.oms.messaging.RetryRouter;
+import com.hka.oms.messaging.RetryTopology;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryRouterTest {
+
+  private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+  private final Channel channel = mock(Channel.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final RetryRouter router = new RetryRouter(rabbitTemplate,
+      new RetryProperties(List.of(Duration.ofSeconds(1), Duration.ofSeconds(30)), 3, null), registry);
+
+  @BeforeEach
+  void routeCallbacksToTheChannel() {
+    when(rabbitTemplate.execute(any())).thenAnswer(inv -> {
+      try {
+        return inv.<ChannelCallback<?>>getArgument(0).doInRabbit(channel);
+      } catch (Exception ex) {
+        throw RabbitExceptionTranslator.convertRabbitAccessException(ex);
+      }
+    });
+  }
+
+  @Test
+  void firstRejectionGoesToShortestTier() throws Exception {
+    router.route(rejected("status.queue", null));
+
+    AMQP.BasicProperties sent = sentTo("status.queue.retry.1s");
+    assertEquals(1, sent.getHeaders().get(RetryTopology.ATTEMPTS_HEADER));
+    assertEquals(1.0, registry.get("messaging.retry.routed").tag("outcome", "retry-1s").counter().count());
+  }
+
+  @Test
+  void laterRejectionsStayOnLongestTier() throws Exception {
+    router.route(rejected("orders.queue", 2));
+
+    AMQP.BasicProperties sent = sentTo("orders.queue.retry.30s");
+    assertEquals(3, sent.getHeaders().get(RetryTopology.ATTEMPTS_HEADER));
+  }
+
+  @Test
+  void exhaustedMessagesAreDeadLettered() throws Exception {
+    router.route(rejected("orders.queue", 3));
+
+    sentTo("orders.queue.dlq");
+    assertEquals(1.0, registry.get("messaging.retry.routed").tag("outcome", "dead-lettered").counter().count());
+  }
+
+  @Test
+  void refusedSendsBackOffBeforeRequeueing() throws Exception {
+    RetryRouter slow = new RetryRouter(rabbitTemplate,
+        new RetryProperties(List.of(Duration.ofMillis(50)), 3, null), registry);
+    doThrow(new IOException("broker gone")).when(channel)
+        .basicPublish(eq(""), eq("orders.queue.retry.50ms"), eq(true), any(), any());
+
+    long start = System.nanoTime();
+    assertThrows(ImmediateRequeueAmqpException.class, () -> slow.route(rejected("orders.queue", null)));
+    long first = System.nanoTime() - start;
+    assertThrows(ImmediateRequeueAmqpException.class, () -> slow.route(rejected("orders.queue", null)));
+    long second = System.nanoTime() - start - first;
+
+    assertTrue(first >= Duration.ofMillis(50).toNanos(), "first pause " + first);
+    assertTrue(second >= Duration.ofMillis(100).toNanos(), "second pause " + second);
+  }
+
+  @Test
+  void unconfirmedCopiesStayOnTheRejectedQueue() throws Exception {
+    doThrow(new TimeoutException("no confirm")).when(channel).waitForConfirmsOrDie(anyLong());
+
+    assertThrows(ImmediateRequeueAmqpException.class, () -> router.route(rejected("orders.queue", null)));
+    assertTrue(registry.find("messaging.retry.routed").counters().isEmpty());
+  }
+
+  @Test
+  void unroutableCopiesStayOnTheRejectedQueue() throws Exception {
+    ArgumentCaptor<ReturnCallback> returns = ArgumentCaptor.forClass(ReturnCallback.class);
+    when(channel.addReturnListener(returns.capture())).thenReturn(mock(ReturnListener.class));
+    doAnswer(inv -> {
+      returns.getValue().handle(new Return(312, "NO_ROUTE", "", inv.getArgument(1), inv.getArgument(3),
+          inv.getArgument(4)));
+      return null;
+    }).when(channel).basicPublish(eq(""), any(), eq(true), any(), any());
+
+    assertThrows(ImmediateRequeueAmqpException.class, () -> router.route(rejected("orders.queue", null)));
+    verify(channel).removeReturnListener(any(ReturnListener.class));
+  }
+
+  private AMQP.BasicProperties sentTo(String queue) throws Exception {
+    ArgumentCaptor<AMQP.BasicProperties> captor = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+    verify(channel).basicPublish(eq(""), eq(queue), eq(true), captor.capture(), any());
+    verify(channel).waitForConfirmsOrDie(anyLong());
+    return captor.getValue();
+  }
+
+  private static Message rejected(String source, Integer attempts) {
+    MessageProperties properties = new MessageProperties();
+    properties.setConsumerQueue(RetryTopology.rejected(source));
+    if (attempts != null) {
+      properties.setHeader(RetryTopology.ATTEMPTS_HEADER, attempts);
+    }
+    return new Message("{}".getBytes(StandardCharsets.UTF_8), properties);
+  }
+}
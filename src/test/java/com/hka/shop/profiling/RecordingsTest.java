@@ -0,0 +1,93 @@
+package com.hka.shop.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.profiling.OrderStageEvent;
+import com.hka.oms.profiling.ProfilingException;
+import com.hka.oms.profiling.ProfilingProperties;
+import com.hka.oms.profiling.RecordingInfo;
+import com.hka.oms.profiling.Recordings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordingsTest {
+
+  private final Recordings recordings = new Recordings(
+      new ProfilingProperties(Duration.ofMinutes(1), null, false, null, null, 0));
+
+  @AfterEach
+  void tearDown() {
+    recordings.shutdown();
+  }
+
+  @Test
+  void recordsOrderEventsUntilStopped() throws Exception {
+    RecordingInfo started = recordings.start(null, null, null);
+    assertEquals("RUNNING", started.state());
+    assertEquals(Duration.ofMinutes(1), started.maxDuration());
+
+    OrderStageEvent event = new OrderStageEvent();
+    event.begin();
+    event.finish("persist", "ORD-1", true);
+
+    RecordingInfo stopped = recordings.stop(started.id());
+    assertEquals("STOPPED", stopped.state());
+    assertNotNull(stopped.stoppedAt());
+
+    Path file = recordings.dump(started.id());
+    try {
+      List<RecordedEvent> stages = RecordingFile.readAllEvents(file).stream()
+          .filter(e -> e.getEventType().getName().equals(OrderStageEvent.NAME))
+          .toList();
+      assertEquals(1, stages.size());
+      assertEquals("persist", stages.get(0).getString("stage"));
+      assertEquals("ORD-1", stages.get(0).getString("orderId"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  void leavesEnvironmentAndCommandLineOutOfTheRecording() throws Exception {
+    RecordingInfo started = recordings.start("default", null, null);
+    recordings.stop(started.id());
+
+    Path file = recordings.dump(started.id());
+    try {
+      List<String> leaked = RecordingFile.readAllEvents(file).stream()
+          .map(e -> e.getEventType().getName())
+          .filter(name -> name.equals("jdk.InitialEnvironmentVariable") || name.equals("jdk.InitialSystemProperty")
+              || name.equals("jdk.JVMInformation"))
+          .distinct()
+          .toList();
+      assertEquals(List.of(), leaked);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  void onlyOneRecordingRunsAtATime() {
+    recordings.start(null, null, null);
+    ProfilingException ex = assertThrows(ProfilingException.class, () -> recordings.start("profile", null, null));
+    assertEquals(409, ex.getStatus().value());
+  }
+
+  @Test
+  void rejectsUnknownSettings() {
+    ProfilingException ex = assertThrows(ProfilingException.class, () -> recordings.start("bogus", null, null));
+    assertEquals(400, ex.getStatus().value());
+    assertTrue(recordings.list().isEmpty());
+  }
+}
@@ -0,0 +1,91 @@
+package com.hka.shop.search;
+
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.search.OrderSearchIndex;
+import com.hka.oms.search.SearchHits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderSearchIndexTest {
+
+  private final OrderSearchIndex index = new OrderSearchIndex();
+
+  @Test
+  void matchesPrefixesAcrossFieldsAndIntersectsTerms() {
+    OrderMocks.sampleOrders().forEach(order -> index.onOrderChanged(null, order));
+
+    assertEquals(List.of("ORD-1003", "ORD-1001"), index.find("karls", 10).orderIds());
+    assertEquals(List.of("ORD-1003"), index.find("Karlsruhe bahnhof", 10).orderIds());
+    assertEquals(List.of("ORD-1002"), index.find("tatar", 10).orderIds());
+    assertEquals(List.of("ORD-1002"), index.find("PRD-31", 10).orderIds());
+    assertEquals(List.of("ORD-1001"), index.find("7613 heberle", 10).orderIds());
+    assertEquals(0, index.find("k", 10).total());
+  }
+
+  @Test
+  void limitsResultsButReportsTotal() {
+    OrderMocks.sampleOrders().forEach(order -> index.onOrderChanged(null, order));
+
+    SearchHits countOnly = index.find("prd", 0);
+    SearchHits first = index.find("prd", 1);
+    assertEquals(3, countOnly.total());
+    assertEquals(List.of(), countOnly.orderIds());
+    assertEquals(3, first.total());
+    assertEquals(List.of("ORD-1003"), first.orderIds());
+  }
+
+  @Test
+  void followsUpdatesAndEvictions() {
+    Order order = OrderMocks.electronicsOrder();
+    index.onOrderChanged(null, order);
+
+    Order renamed = Order.builderFrom(order)
+        .customer(Customer.builder().customerId("CUST-1001").prename("Andreas").name("Müller").build())
+        .build();
+    index.onOrderChanged(order, renamed);
+    assertEquals(0, index.find("heberle", 10).total());
+    assertEquals(List.of("ORD-1001"), index.find("muller", 10).orderIds());
+
+    index.onOrderChanged(renamed, null);
+    assertEquals(0, index.find("muller", 10).total());
+    assertEquals(0, index.tokenCount());
+  }
+
+  @Test
+  void concurrentAddsAndRemovalsOfASharedTokenLoseNoOrder() throws Exception {
+    Order template = OrderMocks.electronicsOrder();
+    int threads = 4;
+    int perThread = 500;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Future<?>> done = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      done.add(pool.submit(() -> {
+        for (int i = 0; i < perThread; i++) {
+          Order order = template.withOrderId("ORD-" + thread + "-" + i);
+          index.onOrderChanged(null, order);
+          if (i % 2 == 1) {
+            // the token set empties and refills all the time
+            index.onOrderChanged(order, null);
+          }
+        }
+      }));
+    }
+    for (Future<?> future : done) {
+      future.get();
+    }
+    pool.shutdown();
+
+    assertEquals(threads * perThread / 2, index.find("karlsruhe", 0).total());
+  }
+}
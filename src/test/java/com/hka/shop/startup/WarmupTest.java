@@ -0,0 +1,59 @@
+package com.hka.shop.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpStatus;
+
+import com.hka.oms.inventory.InventoryClient;
+import com.hka.oms.payment.PaymentClient;
+import com.hka.oms.service.OrderValidator;
+import com.hka.oms.startup.Warmup;
+import com.hka.oms.startup.WarmupProperties;
+import com.hka.oms.wms.WmsClient;
+
+import java.net.ConnectException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WarmupTest {
+
+  private final InventoryClient inventoryClient = mock(InventoryClient.class);
+  private final PaymentClient paymentClient = mock(PaymentClient.class);
+  private final WmsClient wmsClient = mock(WmsClient.class);
+  private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void unreachableDownstreamsDoNotStopTheWarmup() throws Exception {
+    when(inventoryClient.connect(any())).thenReturn(false);
+    when(paymentClient.warmUp()).thenReturn(HttpStatus.NOT_FOUND);
+    when(wmsClient.warmUp()).thenThrow(new IllegalStateException("connection refused"));
+    when(rabbitTemplate.execute(any())).thenThrow(new AmqpConnectException(new ConnectException()));
+
+    Warmup warmup = new Warmup(new WarmupProperties(Duration.ofMillis(10), 50, null, false),
+        inventoryClient, paymentClient, wmsClient, rabbitTemplate, new ObjectMapper().findAndRegisterModules(),
+        new OrderValidator(), registry, new StaticApplicationContext());
+    warmup.run(new DefaultApplicationArguments());
+
+    verify(inventoryClient).connect(Duration.ofMillis(10));
+    assertEquals(1, count("inventory", "failure"));
+    assertEquals(1, count("payment", "success"));
+    assertEquals(1, count("wms", "failure"));
+    assertEquals(1, count("rabbitmq", "failure"));
+    assertEquals(1, count("orders", "success"));
+  }
+
+  private long count(String step, String outcome) {
+    return registry.get("startup.warmup").tag("step", step).tag("outcome", outcome).timer().count();
+  }
+}
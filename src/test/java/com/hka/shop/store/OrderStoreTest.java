@@ -0,0 +1,136 @@
+package com.hka.shop.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.domain.OrderStatus;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.store.OrderChange;
+import com.hka.oms.store.OrderStore;
+import com.hka.oms.store.OrderStoreProperties;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStoreTest {
+
+  private final OrderStore store = new OrderStore(new SimpleMeterRegistry(), new OrderStoreProperties(false, null, 0));
+
+  @Test
+  void decodesStoredOrderWithAllFields() {
+    Order original = OrderMocks.groceryOrder();
+    assertTrue(store.putIfAbsent(original));
+
+    Order decoded = store.get(original.getOrderId());
+    assertEquals(original.getOrderId(), decoded.getOrderId());
+    assertEquals(original.getStatus(), decoded.getStatus());
+    assertEquals(original.getTotalAmount(), decoded.getTotalAmount());
+    assertEquals(original.getCustomer().getName(), decoded.getCustomer().getName());
+    assertEquals(original.getShippingAddress().getCity(), decoded.getShippingAddress().getCity());
+    assertEquals(original.getShippingAddress().getCountry(), decoded.getShippingAddress().getCountry());
+    for (int i = 0; i < original.getItems().size(); i++) {
+      OrderItem expected = original.getItems().get(i);
+      OrderItem actual = decoded.getItems().get(i);
+      assertEquals(expected.getProductId(), actual.getProductId());
+      assertEquals(expected.getQuantity(), actual.getQuantity());
+      assertEquals(expected.getPrice(), actual.getPrice());
+    }
+  }
+
+  @Test
+  void keepsPriceScaleAndMissingAddress() {
+    Order order = Order.builder()
+        .orderId("ORD-SCALE")
+        .customer(OrderMocks.electronicsOrder().getCustomer())
+        .addItem(OrderItem.builder().productId("PRD-1").quantity(3).price(new BigDecimal("0.333")).build())
+        .addItem(OrderItem.builder().productId("PRD-2").quantity(1).price(new BigDecimal("5")).build())
+        .build();
+    store.put(order);
+
+    Order decoded = store.get("ORD-SCALE");
+    assertEquals(new BigDecimal("0.333"), decoded.getItems().get(0).getPrice());
+    assertEquals(new BigDecimal("5"), decoded.getItems().get(1).getPrice());
+    assertEquals(new BigDecimal("6.00"), decoded.getTotalAmount());
+    assertNull(decoded.getShippingAddress());
+  }
+
+  @Test
+  void updateReportsPreviousAndBumpsVersion() {
+    store.put(OrderMocks.electronicsOrder());
+
+    OrderChange change = store.update("ORD-1001", o -> o.withStatus(OrderStatus.SHIPPED));
+    assertEquals(OrderStatus.PAID, change.previous().getStatus());
+    assertEquals(OrderStatus.SHIPPED, store.get("ORD-1001").getStatus());
+    assertEquals(change.previous().getVersion() + 1, store.versionOf("ORD-1001"));
+
+    assertFalse(store.remove(change.previous()));
+    assertTrue(store.remove(change.current()));
+    assertNull(store.get("ORD-1001"));
+  }
+
+  @Test
+  void terminalOrdersRoundTripThroughOffHeapTier() {
+    OrderStore tiered = new OrderStore(new SimpleMeterRegistry(),
+        new OrderStoreProperties(true, DataSize.ofKilobytes(4), 16));
+    for (int i = 0; i < 200; i++) {
+      Order order = Order.builderFrom(OrderMocks.groceryOrder()).orderId("ORD-" + i).build();
+      tiered.put(i % 2 == 0 ? order.withStatus(OrderStatus.DELIVERED) : order);
+    }
+    assertEquals(200, tiered.size());
+    assertEquals(OrderStatus.DELIVERED, tiered.get("ORD-10").getStatus());
+    assertEquals(new BigDecimal("43.49"), tiered.get("ORD-10").getTotalAmount());
+    assertEquals(OrderStatus.SHIPPED, tiered.get("ORD-11").getStatus());
+
+    tiered.update("ORD-10", o -> o.withStatus(OrderStatus.FAILED));
+    assertEquals(OrderStatus.FAILED, tiered.get("ORD-10").getStatus());
+    tiered.update("ORD-11", o -> o.withStatus(OrderStatus.CANCELLED));
+    assertEquals(OrderStatus.CANCELLED, tiered.get("ORD-11").getStatus());
+    assertEquals(200, tiered.values().size());
+
+    assertFalse(tiered.putIfAbsent(Order.builderFrom(OrderMocks.groceryOrder()).orderId("ORD-12").build()));
+    Order cold = tiered.get("ORD-12");
+    assertFalse(tiered.remove(Order.builderFrom(cold).version(cold.getVersion() + 1).build()));
+    assertTrue(tiered.remove(cold));
+    assertNull(tiered.get("ORD-12"));
+    assertEquals(199, tiered.size());
+  }
+
+  @Test
+  void freeTextIsStoredInlineNotInTheDictionary() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    OrderStore tiered = new OrderStore(registry, new OrderStoreProperties(true, DataSize.ofKilobytes(64), 16));
+    String longStreet = "Müllerstraße ".repeat(12);
+    for (int i = 0; i < 500; i++) {
+      Order order = OrderMocks.groceryOrder();
+      tiered.put(Order.builderFrom(order)
+          .orderId("ORD-" + i)
+          .customer(Customer.builder().customerId("CUST-" + i).prename(i % 2 == 0 ? null : "Zoë").name("Name " + i)
+              .build())
+          .shippingAddress(ShippingAddress.builder().street(longStreet + i).city("Karlsruhe").zipCode("76133")
+              .country("DE").build())
+          .status(i % 2 == 0 ? OrderStatus.DELIVERED : OrderStatus.PAID)
+          .build());
+    }
+
+    double entries = registry.get("orders.store.dictionary.entries").gauge().value();
+    assertTrue(entries <= OrderMocks.groceryOrder().getItems().size() + 2, "dictionary entries " + entries);
+    for (String id : new String[] { "ORD-40", "ORD-41" }) {
+      Order decoded = tiered.get(id);
+      int i = Integer.parseInt(id.substring(4));
+      assertEquals("CUST-" + i, decoded.getCustomer().getCustomerId());
+      assertEquals(i % 2 == 0 ? null : "Zoë", decoded.getCustomer().getPrename());
+      assertEquals("Name " + i, decoded.getCustomer().getName());
+      assertEquals(longStreet + i, decoded.getShippingAddress().getStreet());
+      assertEquals("76133", decoded.getShippingAddress().getZipCode());
+    }
+  }
+}
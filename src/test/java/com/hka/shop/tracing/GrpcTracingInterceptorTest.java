@@ -0,0 +1,50 @@
+package com.hka.shop.tracing;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.Tracer;
+import org.junit.jupiter.api.Test;
+
+import com.hka.oms.tracing.GrpcTracingInterceptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class GrpcTracingInterceptorTest {
+
+  private final Tracer tracer = mock(Tracer.class);
+  private final SpanBuilder spanBuilder = mock(SpanBuilder.class, RETURNS_SELF);
+  private final Channel channel = mock(Channel.class);
+  private final GrpcTracingInterceptor interceptor = new GrpcTracingInterceptor(OpenTelemetry.noop(), tracer);
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void spanStartsWithTheCallNotWithItsCreation() {
+    MethodDescriptor<String, String> method = MethodDescriptor.<String, String>newBuilder()
+        .setType(MethodDescriptor.MethodType.UNARY)
+        .setFullMethodName("inventory.Inventory/Release")
+        .setRequestMarshaller(mock(MethodDescriptor.Marshaller.class))
+        .setResponseMarshaller(mock(MethodDescriptor.Marshaller.class))
+        .build();
+    when(channel.newCall(any(MethodDescriptor.class), any(CallOptions.class))).thenReturn(mock(ClientCall.class));
+    when(tracer.spanBuilder("inventory.Inventory/Release")).thenReturn(spanBuilder);
+    when(spanBuilder.startSpan()).thenReturn(Span.getInvalid());
+
+    interceptor.interceptCall(method, CallOptions.DEFAULT, channel).cancel("never started", null);
+    verifyNoInteractions(tracer);
+
+    interceptor.interceptCall(method, CallOptions.DEFAULT, channel)
+        .start(mock(ClientCall.Listener.class), new Metadata());
+    verify(spanBuilder).startSpan();
+  }
+}
@@ -0,0 +1,49 @@
+package com.hka.shop.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hka.oms.tracing.TracingConfig;
+import com.hka.oms.tracing.TracingProperties;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TailSamplingTest {
+
+  @Test
+  void failedTraceWhoseRootNeverEndsIsFlushedWithoutFurtherSpans(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("traces.jsonl");
+    OpenTelemetry otel = new TracingConfig().openTelemetry(
+        new TracingProperties(true, file.toString(), Duration.ofSeconds(10), 0, 0, Duration.ofMillis(100)));
+    Tracer tracer = otel.getTracer("test");
+
+    Span root = tracer.spanBuilder("create-order").startSpan();
+    try (Scope ignored = root.makeCurrent()) {
+      Span child = tracer.spanBuilder("reserve-items").startSpan();
+      child.setStatus(StatusCode.ERROR);
+      child.end();
+    }
+
+    // no span ends after this point, so only the background sweep can expire the trace
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    boolean exported = false;
+    while (!exported && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+      ((OpenTelemetrySdk) otel).getSdkTracerProvider().forceFlush().join(1, TimeUnit.SECONDS);
+      exported = Files.exists(file) && Files.readString(file).contains("reserve-items");
+    }
+    ((OpenTelemetrySdk) otel).getSdkTracerProvider().shutdown().join(1, TimeUnit.SECONDS);
+    assertTrue(exported, "expired error trace was not exported");
+  }
+}
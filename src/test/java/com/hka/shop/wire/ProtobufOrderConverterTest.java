@@ -0,0 +1,84 @@
+package com.hka.shop.wire;
+
+import oms.Orders;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderMocks;
+import com.hka.oms.payment.dto.PaymentResponse;
+import com.hka.oms.payment.dto.PaymentStatus;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.wire.OrderProtos;
+import com.hka.oms.wire.ProtobufOrderConverter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProtobufOrderConverterTest {
+
+  private final ProtobufOrderConverter converter = new ProtobufOrderConverter();
+
+  @Test
+  void orderRoundTripKeepsDecimalsExact() throws Exception {
+    Order order = Order.builderFrom(OrderMocks.groceryOrder()).version(3).build();
+    MockHttpOutputMessage out = new MockHttpOutputMessage();
+    converter.write(order, Order.class, ProtobufOrderConverter.PROTOBUF, out);
+
+    Order read = (Order) converter.read(Order.class, null, new MockHttpInputMessage(out.getBodyAsBytes()));
+
+    assertEquals(order.getOrderId(), read.getOrderId());
+    assertEquals(order.getCustomer().getCustomerId(), read.getCustomer().getCustomerId());
+    assertEquals(order.getTotalAmount(), read.getTotalAmount());
+    assertEquals(order.getItems().get(0).getPrice(), read.getItems().get(0).getPrice());
+    assertEquals(order.getItems().get(0).getPrice().scale(), read.getItems().get(0).getPrice().scale());
+    assertEquals(order.getShippingAddress().getCity(), read.getShippingAddress().getCity());
+    assertEquals(order.getStatus(), read.getStatus());
+    assertEquals(3, read.getVersion());
+  }
+
+  @Test
+  void writesCreationResultsAndOrderLists() throws Exception {
+    Order order = OrderMocks.electronicsOrder();
+    OrderCreationResult result = new OrderCreationResult(order, "Reservation successful",
+        new PaymentResponse(order.getOrderId(), new BigDecimal("1698.00"), "EUR", "CARD", PaymentStatus.AUTHORIZED,
+            Instant.parse("2024-10-01T12:00:00Z"), null), null);
+    MockHttpOutputMessage out = new MockHttpOutputMessage();
+    converter.write(result, OrderCreationResult.class, ProtobufOrderConverter.PROTOBUF, out);
+
+    Orders.OrderCreationResult proto = Orders.OrderCreationResult.parseFrom(out.getBodyAsBytes());
+    assertEquals("Reservation successful", proto.getReservationMessage());
+    assertEquals("AUTHORIZED", proto.getPayment().getStatus());
+    assertEquals(1_727_784_000L, proto.getPayment().getCreatedAt().getSeconds());
+    assertFalse(proto.hasFulfillment());
+
+    var listType = new ParameterizedTypeReference<List<Order>>() {}.getType();
+    assertTrue(converter.canWrite(listType, List.class, ProtobufOrderConverter.PROTOBUF));
+    assertFalse(converter.canWrite(new ParameterizedTypeReference<List<String>>() {}.getType(), List.class,
+        ProtobufOrderConverter.PROTOBUF));
+    out = new MockHttpOutputMessage();
+    converter.write(OrderMocks.sampleOrders(), listType, ProtobufOrderConverter.PROTOBUF, out);
+    assertEquals(3, Orders.OrderList.parseFrom(out.getBodyAsBytes()).getOrdersCount());
+  }
+
+  @Test
+  void rejectsMalformedOrIncompleteBodies() {
+    assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Order.class, null,
+        new MockHttpInputMessage("not protobuf".getBytes(StandardCharsets.UTF_8))));
+
+    byte[] withoutCustomer = OrderProtos.toProto(OrderMocks.electronicsOrder()).toBuilder()
+        .clearCustomer().build().toByteArray();
+    assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Order.class, null,
+        new MockHttpInputMessage(withoutCustomer)));
+  }
+}
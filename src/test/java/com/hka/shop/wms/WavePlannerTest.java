@@ -0,0 +1,232 @@
+package com.hka.shop.wms;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import com.hka.oms.domain.Customer;
+import com.hka.oms.domain.Order;
+import com.hka.oms.domain.OrderItem;
+import com.hka.oms.domain.ShippingAddress;
+import com.hka.oms.service.OrderCreationResult;
+import com.hka.oms.wms.Wave;
+import com.hka.oms.wms.WavePlanner;
+import com.hka.oms.wms.WaveProperties;
+import com.hka.oms.wms.WaveScheduler;
+import com.hka.oms.wms.WaveStep;
+import com.hka.oms.wms.WmsClient;
+import com.hka.oms.wms.dto.WmsWaveStartPickingRequest;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WavePlannerTest {
+
+  private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+  @TempDir
+  Path dir;
+
+  private WaveProperties properties(int maxWaveSize, int zones) {
+    return new WaveProperties(true, Duration.ofMinutes(1), 100, maxWaveSize, zones, 10,
+        Map.of("DE", "DHL", "CH", "Swiss Post"), "UPS", 1, dir.resolve("waves.journal").toString());
+  }
+
+  @Test
+  void wavesNeverMixCarriersOrZones() {
+    WavePlanner planner = new WavePlanner(properties(50, 4));
+    List<Order> orders = List.of(
+        order("O1", "DE", "PRD-1"), order("O2", "CH", "PRD-1"), order("O3", "FR", "PRD-1"),
+        order("O4", "DE", "PRD-2"), order("O5", "DE", "PRD-3"), order("O6", "DE", "PRD-4"));
+
+    List<Wave> waves = planner.plan(orders);
+
+    assertEquals(orders.size(), waves.stream().mapToInt(w -> w.orders().size()).sum());
+    for (Wave wave : waves) {
+      for (Order order : wave.orders()) {
+        String country = order.getShippingAddress().getCountry();
+        assertEquals(Map.of("DE", "DHL", "CH", "Swiss Post").getOrDefault(country, "UPS"), wave.carrier());
+        assertEquals(planner.zoneOf(order.getItems().get(0).getProductId()), wave.zone());
+      }
+    }
+  }
+
+  @Test
+  void groupsOverlappingOrdersAndMergesPickLines() {
+    WavePlanner planner = new WavePlanner(properties(2, 1));
+    List<Order> orders = List.of(
+        order("O1", "DE", "PRD-A", "PRD-B", "PRD-C"),
+        order("O2", "DE", "PRD-X"),
+        order("O3", "DE", "PRD-Y"),
+        order("O4", "DE", "PRD-A", "PRD-B"));
+
+    List<Wave> waves = planner.plan(orders);
+
+    assertEquals(2, waves.size());
+    Set<String> first = waves.get(0).orders().stream().map(Order::getOrderId).collect(Collectors.toSet());
+    assertEquals(Set.of("O1", "O4"), first);
+    List<WmsWaveStartPickingRequest.PickLine> pickList = waves.get(0).pickList();
+    assertEquals(List.of("PRD-A", "PRD-B", "PRD-C"),
+        pickList.stream().map(WmsWaveStartPickingRequest.PickLine::productId).toList());
+    assertEquals(2, pickList.get(0).quantity());
+    assertEquals(5, waves.get(0).perOrderStops());
+    assertTrue(waves.stream().map(Wave::id).distinct().count() == waves.size());
+  }
+
+  @Test
+  void schedulerSendsOneWmsRoundPerWave() {
+    WmsClient wmsClient = mock(WmsClient.class);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    WaveScheduler scheduler = new WaveScheduler(properties(2, 1), wmsClient, mapper, registry);
+    List<OrderCreationResult> perOrder = new ArrayList<>();
+    scheduler.fallbackTo(perOrder::add);
+    when(wmsClient.waveStep(any(), eq(WaveStep.CREATE)))
+        .thenThrow(new IllegalStateException("WMS down"))
+        .thenReturn(null);
+
+    for (int i = 0; i < 4; i++) {
+      scheduler.submit(paid(order("O" + i, "DE", "PRD-" + i % 2)));
+    }
+    scheduler.flush();
+
+    ArgumentCaptor<Wave> waves = ArgumentCaptor.forClass(Wave.class);
+    verify(wmsClient, times(2)).waveStep(waves.capture(), eq(WaveStep.CREATE));
+    verify(wmsClient).waveStep(any(), eq(WaveStep.SHIP));
+    assertEquals(2, waves.getAllValues().get(1).orders().size());
+    assertEquals(waves.getAllValues().get(0).orders(), perOrder.stream().map(OrderCreationResult::order).toList());
+    assertEquals(2, registry.get("wms.wave.orders").tag("outcome", "failed").counter().count());
+    assertEquals(2, registry.get("wms.wave.orders").tag("outcome", "fulfilled").counter().count());
+    assertEquals(0, registry.get("wms.wave.pending").gauge().value());
+  }
+
+  @Test
+  void orderWithoutShippingAddressDoesNotFailItsWave() {
+    WmsClient wmsClient = mock(WmsClient.class);
+    WaveScheduler scheduler = new WaveScheduler(properties(10, 1), wmsClient, mapper, new SimpleMeterRegistry());
+    List<OrderCreationResult> perOrder = new ArrayList<>();
+    scheduler.fallbackTo(perOrder::add);
+    Order unaddressed = Order.builderFrom(order("O9", "DE", "PRD-1")).shippingAddress(null).build();
+
+    scheduler.submit(paid(order("O1", "DE", "PRD-1")));
+    scheduler.submit(paid(unaddressed));
+    scheduler.submit(paid(order("O2", "DE", "PRD-1")));
+    scheduler.flush();
+
+    ArgumentCaptor<Wave> waves = ArgumentCaptor.forClass(Wave.class);
+    verify(wmsClient).waveStep(waves.capture(), eq(WaveStep.CREATE));
+    assertEquals(Set.of("O1", "O2"),
+        waves.getValue().orders().stream().map(Order::getOrderId).collect(Collectors.toSet()));
+    assertEquals(List.of("O9"), perOrder.stream().map(result -> result.order().getOrderId()).toList());
+  }
+
+  @Test
+  void waitingOrdersSurviveARestart() {
+    WmsClient wmsClient = mock(WmsClient.class);
+    WaveScheduler crashed = new WaveScheduler(properties(10, 1), wmsClient, mapper, new SimpleMeterRegistry());
+    crashed.submit(paid(order("O1", "DE", "PRD-1")));
+    crashed.submit(paid(order("O2", "DE", "PRD-2")));
+
+    WaveScheduler restarted = new WaveScheduler(properties(10, 1), wmsClient, mapper, new SimpleMeterRegistry());
+    restarted.start();
+    restarted.flush();
+    restarted.shutdown();
+
+    ArgumentCaptor<Wave> waves = ArgumentCaptor.forClass(Wave.class);
+    verify(wmsClient).waveStep(waves.capture(), eq(WaveStep.CREATE));
+    assertEquals(Set.of("O1", "O2"),
+        waves.getValue().orders().stream().map(Order::getOrderId).collect(Collectors.toSet()));
+  }
+
+  @Test
+  void createdWaveResumesAtTheFailedStepInsteadOfFallingBack() {
+    WmsClient wmsClient = mock(WmsClient.class);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    WaveScheduler scheduler = new WaveScheduler(properties(10, 1), wmsClient, mapper, registry);
+    List<OrderCreationResult> perOrder = new ArrayList<>();
+    scheduler.fallbackTo(perOrder::add);
+    when(wmsClient.waveStep(any(), eq(WaveStep.PACK)))
+        .thenThrow(new IllegalStateException("WMS down"))
+        .thenReturn(null);
+
+    scheduler.submit(paid(order("O1", "DE", "PRD-1")));
+    scheduler.submit(paid(order("O2", "DE", "PRD-2")));
+    scheduler.flush();
+
+    assertEquals(List.of(), perOrder);
+    assertEquals(1, registry.get("wms.wave.stalled").gauge().value());
+    verify(wmsClient, never()).waveStep(any(), eq(WaveStep.SHIP));
+
+    scheduler.flush();
+
+    InOrder steps = inOrder(wmsClient);
+    steps.verify(wmsClient).waveStep(any(), eq(WaveStep.CREATE));
+    steps.verify(wmsClient).waveStep(any(), eq(WaveStep.START_PICKING));
+    steps.verify(wmsClient).waveStep(any(), eq(WaveStep.COMPLETE_PICKING));
+    steps.verify(wmsClient, times(2)).waveStep(any(), eq(WaveStep.PACK));
+    steps.verify(wmsClient).waveStep(any(), eq(WaveStep.SHIP));
+    assertEquals(List.of(), perOrder);
+    assertEquals(0, registry.get("wms.wave.stalled").gauge().value());
+    assertEquals(2, registry.get("wms.wave.orders").tag("outcome", "fulfilled").counter().count());
+  }
+
+  @Test
+  void stalledWaveResumesUnderTheSameIdAfterARestart() {
+    WmsClient failing = mock(WmsClient.class);
+    when(failing.waveStep(any(), eq(WaveStep.SHIP))).thenThrow(new IllegalStateException("WMS down"));
+    WaveScheduler crashed = new WaveScheduler(properties(10, 1), failing, mapper, new SimpleMeterRegistry());
+    crashed.submit(paid(order("O1", "DE", "PRD-1")));
+    crashed.flush();
+    ArgumentCaptor<Wave> created = ArgumentCaptor.forClass(Wave.class);
+    verify(failing).waveStep(created.capture(), eq(WaveStep.CREATE));
+
+    WmsClient wmsClient = mock(WmsClient.class);
+    WaveScheduler restarted = new WaveScheduler(properties(10, 1), wmsClient, mapper, new SimpleMeterRegistry());
+    List<OrderCreationResult> perOrder = new ArrayList<>();
+    restarted.fallbackTo(perOrder::add);
+    restarted.start();
+    restarted.flush();
+    restarted.shutdown();
+
+    ArgumentCaptor<Wave> resumed = ArgumentCaptor.forClass(Wave.class);
+    verify(wmsClient).waveStep(resumed.capture(), eq(WaveStep.SHIP));
+    assertEquals(created.getValue().id(), resumed.getValue().id());
+    assertEquals(List.of("O1"), resumed.getValue().orders().stream().map(Order::getOrderId).toList());
+    assertEquals(List.of(), perOrder);
+  }
+
+  private static OrderCreationResult paid(Order order) {
+    return new OrderCreationResult(order, "reserved", null, null);
+  }
+
+  private static Order order(String id, String country, String... products) {
+    Order.Builder builder = Order.builder()
+        .orderId(id)
+        .customer(Customer.builder().customerId("CUST-" + id).prename("Wave").name("Test").build())
+        .shippingAddress(ShippingAddress.builder()
+            .street("Hauptstrasse 1").city("Karlsruhe").zipCode("76131").country(country).build());
+    for (String product : products) {
+      builder.addItem(OrderItem.builder().productId(product).quantity(1).price(new BigDecimal("9.99")).build());
+    }
+    return builder.build();
+  }
+}